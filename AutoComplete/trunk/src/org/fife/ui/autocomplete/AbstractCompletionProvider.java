@@ -20,7 +20,20 @@ import javax.swing.text.JTextComponent;
  * A base class for completion providers.  {@link Completion}s are kept in
  * a sorted list.  To get the list of completions that match a given input,
  * a binary search is done to find the first matching completion, then all
- * succeeding completions that also match are also returned.
+ * succeeding completions that also match are also returned.<p>
+ *
+ * The list is kept sorted as completions are added: a single completion is
+ * inserted at its sorted position, and a list of completions is sorted on
+ * its own, then merged into the existing completions.  Thus, loading
+ * completions in several batches never re-sorts the ones already loaded.<p>
+ *
+ * If camel case matching is enabled (the default), input containing an
+ * upper case letter after its first character also matches completions
+ * by the starts of the "words" in their input text; for example,
+ * <code>gCN</code> matches <code>getClassName</code>.  Lookups are done by
+ * an index that is built the first time completions are requested after
+ * the completions change.  As the user types, each lookup only checks the
+ * matches of the previous one.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -31,6 +44,8 @@ public abstract class AbstractCompletionProvider
 	/**
 	 * The completions this provider is aware of.  Subclasses should ensure
 	 * that this list is sorted alphabetically (case-insensitively).
+	 * Subclasses that modify this list directly should call
+	 * {@link #completionsChanged()}.
 	 */
 	protected List completions;
 
@@ -39,12 +54,24 @@ public abstract class AbstractCompletionProvider
 	 */
 	protected Comparator comparator;
 
+	/**
+	 * Used to look up completions matching entered text.  This is
+	 * <code>null</code> until it is needed, and after the completions change.
+	 */
+	private CompletionIndex index;
+
+	/**
+	 * Whether camel case matching is enabled.
+	 */
+	private boolean camelCaseMatchingEnabled;
+
 
 	/**
 	 * Constructor.
 	 */
 	public AbstractCompletionProvider() {
 		comparator = new CaseInsensitiveComparator();
+		camelCaseMatchingEnabled = true;
 		clearParameterizedCompletionParams();
 	}
 
@@ -62,8 +89,11 @@ public abstract class AbstractCompletionProvider
 	 * @see #clear()
 	 */
 	public void addCompletion(Completion c) {
-		checkProviderAndAdd(c);
-		Collections.sort(completions);
+		checkProvider(c);
+		// Insert after any equal completions, as a stable sort would.
+		int index = getInsertionIndex(c, 0, completions.size());
+		completions.add(index, c);
+		completionsChanged();
 	}
 
 
@@ -79,12 +109,12 @@ public abstract class AbstractCompletionProvider
 	 * @see #clear()
 	 */
 	public void addCompletions(List completions) {
-		//this.completions.addAll(completions);
 		for (int i=0; i<completions.size(); i++) {
-			Completion c = (Completion)completions.get(i);
-			checkProviderAndAdd(c);
+			checkProvider((Completion)completions.get(i));
 		}
-		Collections.sort(this.completions);
+		List sorted = new ArrayList(completions);
+		Collections.sort(sorted);
+		mergeSorted(sorted);
 	}
 
 
@@ -96,18 +126,42 @@ public abstract class AbstractCompletionProvider
 	 */
 	protected void addWordCompletions(String[] words) {
 		int count = words==null ? 0 : words.length;
+		List sorted = new ArrayList(count);
 		for (int i=0; i<count; i++) {
-			completions.add(new BasicCompletion(this, words[i]));
+			sorted.add(new BasicCompletion(this, words[i]));
 		}
-		Collections.sort(completions);
+		Collections.sort(sorted);
+		mergeSorted(sorted);
 	}
 
 
-	protected void checkProviderAndAdd(Completion c) {
+	/**
+	 * Verifies that a completion belongs to this provider.
+	 *
+	 * @param c The completion.
+	 * @throws IllegalArgumentException If the completion's provider isn't
+	 *         this <tt>CompletionProvider</tt>.
+	 */
+	private void checkProvider(Completion c) {
 		if (c.getProvider()!=this) {
 			throw new IllegalArgumentException("Invalid CompletionProvider");
 		}
+	}
+
+
+	/**
+	 * Verifies that a completion belongs to this provider, and appends it to
+	 * {@link #completions}.  Note that this does not keep the completions
+	 * sorted; callers must do so themselves.
+	 *
+	 * @param c The completion to add.
+	 * @throws IllegalArgumentException If the completion's provider isn't
+	 *         this <tt>CompletionProvider</tt>.
+	 */
+	protected void checkProviderAndAdd(Completion c) {
+		checkProvider(c);
 		completions.add(c);
+		completionsChanged();
 	}
 
 
@@ -121,6 +175,19 @@ public abstract class AbstractCompletionProvider
 	 */
 	public void clear() {
 		completions.clear();
+		completionsChanged();
+	}
+
+
+	/**
+	 * Notifies this provider that {@link #completions} has been modified.
+	 * Subclasses that modify that list directly should call this method, so
+	 * the index used to look up completions is discarded right away.  If
+	 * they don't, the change is still noticed, the next time completions
+	 * are looked up.
+	 */
+	protected void completionsChanged() {
+		index = null;
 	}
 
 
@@ -134,23 +201,17 @@ public abstract class AbstractCompletionProvider
 	 */
 	public List getCompletionByInputText(String inputText) {
 
-		// Find any entry that matches this input text (there may be > 1).
-		int end = Collections.binarySearch(completions, inputText, comparator);
-		if (end<0) {
-			return null;
-		}
-
 		// There might be multiple entries with the same input text.
-		int start = end;
-		while (start>0 &&
-				comparator.compare(completions.get(start-1), inputText)==0) {
-			start--;
-		}
+		int start = getFirstIndexOf(inputText);
+		int end = start;
 		int count = completions.size();
-		while (++end<count &&
-				comparator.compare(completions.get(end), inputText)==0);
+		while (end<count &&
+				comparator.compare(completions.get(end), inputText)==0) {
+			end++;
+		}
 
-		return completions.subList(start, end); // (inclusive, exclusive)
+		// (inclusive, exclusive)
+		return end>start ? completions.subList(start, end) : null;
 
 	}
 
@@ -164,38 +225,115 @@ public abstract class AbstractCompletionProvider
 		String text = getAlreadyEnteredText(comp);
 
 		if (text!=null) {
+			if (index==null || !index.isValid(completions)) {
+				index = new CompletionIndex(completions);
+			}
+			retVal.addAll(index.getMatches(text, camelCaseMatchingEnabled));
+		}
+
+		return retVal;
+
+	}
+
 
-			int index = Collections.binarySearch(completions, text, comparator);
-			if (index<0) { // No exact match
-				index = -index - 1;
+	/**
+	 * Returns the index of the first completion whose input text is not
+	 * less than (case-insensitively) the specified text.
+	 *
+	 * @param text The text.
+	 * @return The index of the first completion whose input text is equal to
+	 *         or greater than <code>text</code>.  This will be the number of
+	 *         completions if all are less than <code>text</code>.
+	 */
+	private int getFirstIndexOf(String text) {
+		int low = 0;
+		int high = completions.size();
+		while (low<high) {
+			int mid = (low+high) >>> 1;
+			if (comparator.compare(completions.get(mid), text)<0) {
+				low = mid + 1;
 			}
 			else {
-				// If there are several overloads for the function being
-				// completed, Collections.binarySearch() will return the index
-				// of one of those overloads, but we must return all of them,
-				// so search backward until we find the first one.
-				int pos = index - 1;
-				while (pos>0 &&
-						comparator.compare(completions.get(pos), text)==0) {
-					retVal.add(completions.get(pos));
-					pos--;
-				}
+				high = mid;
 			}
+		}
+		return low;
+	}
+
 
-			while (index<completions.size()) {
-				Completion c = (Completion)completions.get(index);
-				if (Util.startsWithIgnoreCase(c.getInputText(), text)) {
-					retVal.add(c);
-					index++;
-				}
-				else {
-					break;
-				}
+	/**
+	 * Returns the index after the last completion, in a range of
+	 * {@link #completions}, that is less than or equal to a completion.
+	 *
+	 * @param c The completion.
+	 * @param low The start of the range to search.
+	 * @param high The end of the range to search (exclusive).
+	 * @return The index at which to insert <code>c</code>.
+	 */
+	private int getInsertionIndex(Completion c, int low, int high) {
+		while (low<high) {
+			int mid = (low+high) >>> 1;
+			if (((Completion)completions.get(mid)).compareTo(c)<=0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
 			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * Returns whether camel case matching is enabled.
+	 *
+	 * @return Whether camel case matching is enabled.
+	 * @see #setCamelCaseMatchingEnabled(boolean)
+	 */
+	public boolean isCamelCaseMatchingEnabled() {
+		return camelCaseMatchingEnabled;
+	}
+
+
+	/**
+	 * Merges a sorted list of completions into {@link #completions}.  Each
+	 * new completion's position is found by a binary search, and the
+	 * existing completions between consecutive new ones are copied in bulk,
+	 * so adding a small batch to many completions is cheap.  Where a new
+	 * completion is equal to an existing one, the new one goes after it, as
+	 * it would with a stable sort.
+	 *
+	 * @param sorted The new completions, already sorted.
+	 */
+	private void mergeSorted(List sorted) {
 
+		int count = completions.size();
+		int newCount = sorted.size();
+		if (newCount==0) {
+			return;
+		}
+		else if (count==0 || ((Completion)completions.get(count-1)).
+								compareTo(sorted.get(0))<=0) {
+			// Common case - first load, or everything sorts after us.
+			completions.addAll(sorted);
+			completionsChanged();
+			return;
 		}
 
-		return retVal;
+		List merged = new ArrayList(count + newCount);
+		int i = 0;
+		for (int j=0; j<newCount; j++) {
+			Completion c = (Completion)sorted.get(j);
+			int index = getInsertionIndex(c, i, count);
+			merged.addAll(completions.subList(i, index));
+			merged.add(c);
+			i = index;
+		}
+		merged.addAll(completions.subList(i, count));
+
+		completions.clear();
+		completions.addAll(merged);
+		completionsChanged();
 
 	}
 
@@ -218,10 +356,26 @@ public abstract class AbstractCompletionProvider
 			return false;
 		}
 		completions.remove(index);
+		completionsChanged();
 		return true;
 	}
 
 
+	/**
+	 * Toggles whether camel case matching is enabled.  If it is, input
+	 * containing an upper case letter after its first character also
+	 * matches completions whose input text has "words" starting with those
+	 * letters; for example, <code>gCN</code> and <code>getCNa</code> match
+	 * <code>getClassName</code>.
+	 *
+	 * @param enabled Whether camel case matching is enabled.
+	 * @see #isCamelCaseMatchingEnabled()
+	 */
+	public void setCamelCaseMatchingEnabled(boolean enabled) {
+		camelCaseMatchingEnabled = enabled;
+	}
+
+
 	/**
 	 * A comparator that compares the input text of a {@link Completion}
 	 * against a String lexicographically, ignoring case.
@@ -0,0 +1,54 @@
+/*
+ * 10/19/2026
+ *
+ * AsyncCompletionProvider.java - A completion provider that can compute
+ * completions off of the EDT.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+
+/**
+ * A completion provider that can compute its completions in the background,
+ * so expensive lookups (such as loading class files from a large classpath)
+ * don't block typing.<p>
+ *
+ * If the provider installed in an {@link AutoCompletion} implements this
+ * interface, the completion popup is refreshed by calling
+ * {@link #getCompletionsAsync(CompletionRequest)} instead of
+ * {@link CompletionProvider#getCompletions(javax.swing.text.JTextComponent)}.
+ * While a request is pending, the popup keeps displaying its previous
+ * completions, and any partial results the provider publishes.  When the
+ * user types further, the pending request is cancelled, and any results it
+ * still delivers are ignored.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see CompletionRequest
+ */
+public interface AsyncCompletionProvider extends CompletionProvider {
+
+
+	/**
+	 * Starts computing the completions for the current caret position.  This
+	 * method is called on the EDT, and should gather everything it needs
+	 * from the text component before returning; the text component should
+	 * not be accessed from any other thread.<p>
+	 *
+	 * Implementations must eventually call
+	 * {@link CompletionRequest#setCompletions(java.util.List)}, either from
+	 * this method or from another thread, unless the request is cancelled.
+	 * They may also call {@link CompletionRequest#publish(java.util.List)}
+	 * any number of times before that to display partial results.  Work done
+	 * on other threads should periodically check
+	 * {@link CompletionRequest#isCancelled()} and stop if it returns
+	 * <code>true</code>.
+	 *
+	 * @param request The request.
+	 */
+	public void getCompletionsAsync(CompletionRequest request);
+
+
+}
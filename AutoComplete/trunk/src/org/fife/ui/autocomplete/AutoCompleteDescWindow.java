@@ -16,11 +16,17 @@ import java.awt.Graphics;
 import java.awt.Insets;
 import java.awt.Window;
 import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -40,13 +46,26 @@ import javax.swing.border.AbstractBorder;
 import javax.swing.border.Border;
 import javax.swing.event.HyperlinkEvent;
 import javax.swing.event.HyperlinkListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.EditorKit;
+import javax.swing.text.html.HTMLDocument;
+import javax.swing.text.html.StyleSheet;
 
 import org.fife.ui.rsyntaxtextarea.PopupWindowDecorator;
 
 
 /**
  * The optional "description" window that describes the currently selected
- * item in the auto-completion window.
+ * item in the auto-completion window.<p>
+ *
+ * Computing a completion's summary can be slow (e.g. it may be read from a
+ * source zip), as can parsing it as HTML.  So both are done off the EDT, and
+ * the resulting documents are kept in an LRU cache.  The completions next to
+ * the selected one are loaded in advance, so scrolling through the choices
+ * with the arrow keys displays their descriptions immediately.  If a
+ * description isn't ready shortly after it's requested, a placeholder is
+ * displayed until it is.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -100,10 +119,9 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 	private int historyPos;
 
 	/**
-	 * Provides a slight delay between asking to set a description and actually
-	 * displaying it, so that if the user is scrolling quickly through
-	 * completions, those with slow-to-calculate summaries won't bog down the
-	 * scrolling.
+	 * Displays a placeholder if a description is not loaded shortly after it
+	 * is requested, so it doesn't flash by for descriptions that load
+	 * quickly.
 	 */
 	private Timer timer;
 
@@ -112,6 +130,35 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 	 */
 	private TimerAction timerAction;
 
+	/**
+	 * Prepared description documents, keyed by {@link CacheKey}, in LRU
+	 * order.
+	 */
+	private Map cache;
+
+	/**
+	 * The stylesheet of {@link #descArea}'s original document, to which
+	 * {@link TipUtil#tweakTipEditorPane(JEditorPane)} adds rules.  It is
+	 * linked to by the description documents.
+	 */
+	private StyleSheet baseStyleSheet;
+
+	/**
+	 * The completion whose description is being loaded to display, or
+	 * <code>null</code> if none is.
+	 */
+	private Completion pending;
+
+	/**
+	 * The anchor to jump to in {@link #pending}'s description.
+	 */
+	private String pendingAnchor;
+
+	/**
+	 * Whether to add {@link #pending}'s description to the history.
+	 */
+	private boolean pendingAddToHistory;
+
 	/**
 	 * The resource bundle for this window.
 	 */
@@ -125,6 +172,11 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 	 */
 	private static final int INITIAL_TIMER_DELAY			= 120;
 
+	/**
+	 * The maximum number of description documents cached.
+	 */
+	private static final int CACHE_SIZE					= 32;
+
 	/**
 	 * The resource bundle name.
 	 */
@@ -150,6 +202,8 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 
 		descArea = new JEditorPane("text/html", null);
 		TipUtil.tweakTipEditorPane(descArea);
+		baseStyleSheet = ((HTMLDocument)descArea.getDocument()).
+													getStyleSheet();
 		descArea.addHyperlinkListener(this);
 		scrollPane = new JScrollPane(descArea);
 		Border b = BorderFactory.createEmptyBorder();
@@ -201,6 +255,12 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 		timer = new Timer(INITIAL_TIMER_DELAY, timerAction);
 		timer.setRepeats(false);
 
+		cache = new LinkedHashMap(CACHE_SIZE, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry eldest) {
+				return size()>CACHE_SIZE;
+			}
+		};
+
 	}
 
 
@@ -255,6 +315,98 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 	}
 
 
+	/**
+	 * Creates a description document.  This may be called off the EDT.
+	 *
+	 * @param kit The editor kit to create the document with.
+	 * @param base The stylesheet to link to.
+	 * @param html The HTML to load.
+	 * @return The document.
+	 */
+	private static Document createDocument(EditorKit kit, StyleSheet base,
+										String html) {
+		HTMLDocument doc = (HTMLDocument)kit.createDefaultDocument();
+		doc.getStyleSheet().addStyleSheet(base);
+		doc.putProperty("IgnoreCharsetDirective", Boolean.TRUE);
+		try {
+			kit.read(new StringReader(html), doc, 0);
+		} catch (IOException ioe) { // Never happens
+			ioe.printStackTrace();
+		} catch (BadLocationException ble) { // Never happens
+			ble.printStackTrace();
+		}
+		return doc;
+	}
+
+
+	/**
+	 * Called on the EDT when a description has been loaded.  It is cached,
+	 * and displayed if it is the one currently wanted.
+	 *
+	 * @param completion The completion.
+	 * @param doc Its description.
+	 */
+	private void descriptionLoaded(Completion completion, Document doc) {
+		cache.put(new CacheKey(completion), doc);
+		if (completion==pending) {
+			timer.stop();
+			pending = null;
+			displayDescription(completion, doc, pendingAnchor,
+								pendingAddToHistory);
+		}
+	}
+
+
+	/**
+	 * Displays a description, and updates the history.
+	 *
+	 * @param completion The completion described.
+	 * @param doc The description.
+	 * @param anchor The anchor to jump to, or <code>null</code> if none.
+	 * @param addToHistory Whether to add this page to the page history
+	 *        (as opposed to clearing it and starting anew).
+	 */
+	private void displayDescription(Completion completion, Document doc,
+							final String anchor, boolean addToHistory) {
+
+		displayDocument(doc, null);
+		if (anchor!=null) {
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					descArea.scrollToReference(anchor);
+				}
+			});
+		}
+
+		if (!addToHistory) {
+			// Remove everything first if this is going to be the only
+			// thing in history.
+			clearHistory();
+		}
+		addToHistory(new HistoryEntry(completion, doc, null));
+
+	}
+
+
+	/**
+	 * Displays a document in the description area.
+	 *
+	 * @param doc The document.
+	 * @param anchor The anchor to jump to, or <code>null</code> to display
+	 *        the top of the document.
+	 */
+	private void displayDocument(Document doc, String anchor) {
+		descArea.setDocument(doc);
+		if (anchor!=null) {
+			System.out.println("Scrolling to: " + anchor);
+			descArea.scrollToReference(anchor);
+		}
+		else {
+			descArea.setCaretPosition(0); // In case of scrolling
+		}
+	}
+
+
 	/**
 	 * Returns the localized message for the specified key.
 	 *
@@ -326,6 +478,22 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 	}
 
 
+	/**
+	 * Loads the descriptions of completions in the background, so they can
+	 * be displayed immediately if they are selected.
+	 *
+	 * @param items The completions, e.g. those next to the selected one.
+	 */
+	public void prefetchDescriptions(List items) {
+		for (int i=0; i<items.size(); i++) {
+			Completion c = (Completion)items.get(i);
+			if (!cache.containsKey(new CacheKey(c))) {
+				SummaryLoader.getInstance().load(this, c, false);
+			}
+		}
+	}
+
+
 	/**
 	 * Enables or disables the back and forward actions as appropriate.
 	 */
@@ -385,37 +553,21 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 	 */
 	protected void setDescriptionFor(Completion item, String anchor,
 									boolean addToHistory) {
-		timer.stop();
-		timerAction.setCompletion(item, anchor, addToHistory);
-		timer.start();
-	}
 
+		timer.stop();
+		pending = null;
 
-	private void setDisplayedDesc(Completion completion, final String anchor,
-									boolean addToHistory) {
-
-		String desc = completion==null ? null : completion.getSummary();
-		if (desc==null) {
-			desc = "<html><em>" + getString("NoDescAvailable") + "</em>";
-		}
-		descArea.setText(desc);
-		if (anchor!=null) {
-			SwingUtilities.invokeLater(new Runnable() {
-				public void run() {
-					descArea.scrollToReference(anchor);
-				}
-			});
-		}
-		else {
-			descArea.setCaretPosition(0); // In case of scrolling
+		Document doc = (Document)cache.get(new CacheKey(item));
+		if (doc!=null) {
+			displayDescription(item, doc, anchor, addToHistory);
+			return;
 		}
 
-		if (!addToHistory) {
-			// Remove everything first if this is going to be the only
-			// thing in history.
-			clearHistory();
-		}
-		addToHistory(new HistoryEntry(completion, desc, null));
+		pending = item;
+		pendingAnchor = anchor;
+		pendingAddToHistory = addToHistory;
+		SummaryLoader.getInstance().load(this, item, true);
+		timer.start();
 
 	}
 
@@ -426,6 +578,9 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 	public void setVisible(boolean visible) {
 		if (!visible) {
 			clearHistory();
+			timer.stop();
+			pending = null;
+			SummaryLoader.getInstance().cancel(this);
 		}
 		super.setVisible(visible);
 	}
@@ -449,7 +604,12 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 	public void updateUI() {
 		SwingUtilities.updateComponentTreeUI(this);
 		// Update editor pane for new font, bg, selection colors, etc.
+		// Cached descriptions use the old styles, so are discarded.
+		descArea.setDocument(descArea.getEditorKit().createDefaultDocument());
 		TipUtil.tweakTipEditorPane(descArea);
+		baseStyleSheet = ((HTMLDocument)descArea.getDocument()).
+													getStyleSheet();
+		cache.clear();
 		scrollPane.setBackground(descArea.getBackground());
 		scrollPane.getViewport().setBackground(descArea.getBackground());
 		((JPanel)getContentPane()).setBorder(TipUtil.getToolTipBorder());
@@ -457,18 +617,44 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 
 
 	/**
-	 * A completion and its cached summary text.
+	 * A key in the description cache.  Completions are compared by
+	 * identity, since many define <code>equals()</code> loosely (e.g. two
+	 * methods with the same name and parameters in different classes), but
+	 * have different descriptions.
+	 */
+	private static class CacheKey {
+
+		private Completion completion;
+
+		public CacheKey(Completion completion) {
+			this.completion = completion;
+		}
+
+		public boolean equals(Object o) {
+			return o instanceof CacheKey &&
+					((CacheKey)o).completion==completion;
+		}
+
+		public int hashCode() {
+			return System.identityHashCode(completion);
+		}
+
+	}
+
+
+	/**
+	 * A completion and its description.
 	 */
 	private static class HistoryEntry {
 
 		public Completion completion;
-		public String summary;
+		public Document doc;
 		public String anchor;
 
-		public HistoryEntry(Completion completion, String summary,
+		public HistoryEntry(Completion completion, Document doc,
 									String anchor) {
 			this.completion = completion;
-			this.summary = summary;
+			this.doc = doc;
 			this.anchor = anchor;
 		}
 
@@ -486,26 +672,160 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 
 
 	/**
-	 * Action that actually updates the summary text displayed.
+	 * Loads descriptions off the EDT.  A single daemon thread is shared by
+	 * all description windows.  The descriptions to display are loaded
+	 * before any being prefetched, and requests superseded by a newer one
+	 * from the same window are dropped.
 	 */
-	private class TimerAction extends AbstractAction {
+	private static class SummaryLoader implements Runnable {
 
-		private Completion completion;
-		private String anchor;
-		private boolean addToHistory;
+		/**
+		 * The queued requests, in the order they'll be loaded.
+		 */
+		private LinkedList queue;
+
+		private static SummaryLoader instance;
+
+		private SummaryLoader() {
+			queue = new LinkedList();
+			Thread t = new Thread(this, "AutoCompleteDescWindow Loader");
+			t.setDaemon(true);
+			t.setPriority(Thread.NORM_PRIORITY - 1);
+			t.start();
+		}
 
 		/**
-		 * Called when the timer is fired.
+		 * Removes all requests from a description window.
+		 *
+		 * @param window The window.
 		 */
-		public void actionPerformed(ActionEvent e) {
-			setDisplayedDesc(completion, anchor, addToHistory);
+		public synchronized void cancel(AutoCompleteDescWindow window) {
+			for (Iterator i=queue.iterator(); i.hasNext(); ) {
+				if (((LoadRequest)i.next()).window==window) {
+					i.remove();
+				}
+			}
 		}
 
-		public void setCompletion(Completion c, String anchor,
-									boolean addToHistory) {
+		public static synchronized SummaryLoader getInstance() {
+			if (instance==null) {
+				instance = new SummaryLoader();
+			}
+			return instance;
+		}
+
+		/**
+		 * Requests a description be loaded.  This must be called on the EDT.
+		 *
+		 * @param window The window to load it for.
+		 * @param c The completion.
+		 * @param display Whether it will be displayed, as opposed to being
+		 *        prefetched.  If it is, any other requests from the window
+		 *        are dropped.
+		 */
+		public synchronized void load(AutoCompleteDescWindow window,
+									Completion c, boolean display) {
+			LoadRequest request = new LoadRequest(window, c);
+			if (display) {
+				cancel(window);
+				queue.addFirst(request);
+			}
+			else {
+				for (Iterator i=queue.iterator(); i.hasNext(); ) {
+					LoadRequest r = (LoadRequest)i.next();
+					if (r.window==window && r.completion==c) {
+						return;
+					}
+				}
+				queue.addLast(request);
+			}
+			notify();
+		}
+
+		public void run() {
+			while (true) {
+				LoadRequest request = null;
+				synchronized (this) {
+					while (queue.isEmpty()) {
+						try {
+							wait();
+						} catch (InterruptedException ie) {
+							// Keep waiting
+						}
+					}
+					request = (LoadRequest)queue.removeFirst();
+				}
+				request.load();
+			}
+		}
+
+	}
+
+
+	/**
+	 * A request to load a completion's description.
+	 */
+	private static class LoadRequest implements Runnable {
+
+		private AutoCompleteDescWindow window;
+		private Completion completion;
+		private EditorKit kit;
+		private StyleSheet base;
+		private String noDesc;
+		private Document doc;
+
+		/**
+		 * Constructor.  This must be called on the EDT.
+		 */
+		public LoadRequest(AutoCompleteDescWindow window, Completion c) {
+			this.window = window;
 			this.completion = c;
-			this.anchor = anchor;
-			this.addToHistory = addToHistory;
+			kit = window.descArea.getEditorKit();
+			base = window.baseStyleSheet;
+			noDesc = "<html><em>" + window.getString("NoDescAvailable") +
+						"</em>";
+		}
+
+		/**
+		 * Loads the description off the EDT, then passes it back to the
+		 * window on the EDT.
+		 */
+		public void load() {
+			String desc = null;
+			try {
+				desc = completion.getSummary();
+			} catch (RuntimeException re) { // Bad summary; don't kill thread
+				re.printStackTrace();
+			}
+			if (desc==null) {
+				desc = noDesc;
+			}
+			doc = createDocument(kit, base, desc);
+			SwingUtilities.invokeLater(this);
+		}
+
+		public void run() {
+			window.descriptionLoaded(completion, doc);
+		}
+
+	}
+
+
+	/**
+	 * Displays a placeholder if the description requested has not been
+	 * loaded yet.
+	 */
+	private class TimerAction extends AbstractAction {
+
+		/**
+		 * Called when the timer is fired.
+		 */
+		public void actionPerformed(ActionEvent e) {
+			if (pending!=null) {
+				String html = "<html><em>" + getString("Loading") + "</em>";
+				displayDocument(createDocument(descArea.getEditorKit(),
+										baseStyleSheet, html), null);
+			}
 		}
 
 	}
@@ -528,14 +848,7 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 			if (historyPos>0) {
 				HistoryEntry pair = (HistoryEntry)history.
 													get(--historyPos);
-				descArea.setText(pair.summary);
-				if (pair.anchor!=null) {
-					System.out.println("Scrolling to: " + pair.anchor);
-					descArea.scrollToReference(pair.anchor);
-				}
-				else {
-					descArea.setCaretPosition(0);
-				}
+				displayDocument(pair.doc, pair.anchor);
 				setActionStates();
 			}
 		}
@@ -560,14 +873,7 @@ class AutoCompleteDescWindow extends JWindow implements HyperlinkListener,
 			if (history!=null && historyPos<history.size()-1) {
 				HistoryEntry pair = (HistoryEntry)history.
 											get(++historyPos);
-				descArea.setText(pair.summary);
-				if (pair.anchor!=null) {
-					System.out.println("Scrolling to: " + pair.anchor);
-					descArea.scrollToReference(pair.anchor);
-				}
-				else {
-					descArea.setCaretPosition(0);
-				}
+				displayDocument(pair.doc, pair.anchor);
 				setActionStates();
 			}
 		}
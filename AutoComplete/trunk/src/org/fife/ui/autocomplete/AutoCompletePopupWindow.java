@@ -20,6 +20,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.util.ArrayList;
 import java.util.List;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -781,6 +782,16 @@ class AutoCompletePopupWindow extends JWindow implements CaretListener,
 			if (value!=null && descWindow!=null) {
 				descWindow.setDescriptionFor((Completion)value);
 				positionDescWindow();
+				// The user will likely arrow up or down next.
+				int index = list.getSelectedIndex();
+				List neighbors = new ArrayList(2);
+				if (index+1<model.getSize()) {
+					neighbors.add(model.getElementAt(index+1));
+				}
+				if (index>0) {
+					neighbors.add(model.getElementAt(index-1));
+				}
+				descWindow.prefetchDescriptions(neighbors);
 			}
 		}
 	}
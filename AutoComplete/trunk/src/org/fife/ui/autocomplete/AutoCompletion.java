@@ -40,6 +40,17 @@ import javax.swing.text.*;
  *        tab and shift+tab (a la Eclipse and NetBeans).</li>
  * </ul>
  *
+ * If the provider is an {@link AsyncCompletionProvider}, completions are
+ * computed without blocking the EDT.  The popup keeps displaying its
+ * current completions (and any partial results) until they arrive, and a
+ * pending request is cancelled as soon as it is superseded.<p>
+ *
+ * If {@link CompletionUsageStatistics} are set, the completions the user
+ * chooses are counted, and those chosen most often are listed first.<p>
+ *
+ * A {@link CompletionStageListener} can be set to measure how long each
+ * stage of updating the popup window takes.<p>
+ *
  * @author Robert Futrell
  * @version 1.0
  */
@@ -91,6 +102,12 @@ public class AutoCompletion {
 	 */
 	private CompletionProvider provider;
 
+	/**
+	 * The pending request for completions from an
+	 * {@link AsyncCompletionProvider}, or <code>null</code> if there is none.
+	 */
+	private CompletionRequest completionRequest;
+
 	/**
 	 * The renderer to use for the completion choices.  If this is
 	 * <code>null</code>, then a default renderer is used.
@@ -139,6 +156,17 @@ public class AutoCompletion {
 	 */
 	private ListCellRenderer paramChoicesRenderer;
 
+	/**
+	 * Counts the completions chosen, to rank them.  This may be
+	 * <code>null</code>.
+	 */
+	private CompletionUsageStatistics usageStatistics;
+
+	/**
+	 * The language completions are counted for in {@link #usageStatistics}.
+	 */
+	private String usageLanguage;
+
 	/**
 	 * The keystroke that triggers the completion window.
 	 */
@@ -192,6 +220,17 @@ public class AutoCompletion {
 	 */
 	private LookAndFeelChangeListener lafListener;
 
+	/**
+	 * Receives completions computed by an {@link AsyncCompletionProvider}.
+	 */
+	private CompletionRequestListener completionRequestListener;
+
+	/**
+	 * Notified as the popup window is updated.  This may be
+	 * <code>null</code>.
+	 */
+	private CompletionStageListener stageListener;
+
 	/**
 	 * The key used in the input map for the AutoComplete action.
 	 */
@@ -230,10 +269,22 @@ public class AutoCompletion {
 		textComponentListener = new TextComponentListener();
 		autoActivationListener = new AutoActivationListener();
 		lafListener = new LookAndFeelChangeListener();
+		completionRequestListener = new CompletionRequestListener();
 
 	}
 
 
+	/**
+	 * Cancels the pending request for completions, if there is one.
+	 */
+	private void cancelCompletionRequest() {
+		if (completionRequest!=null) {
+			completionRequest.cancel();
+			completionRequest = null;
+		}
+	}
+
+
 	/**
 	 * Displays a "tooltip" detailing the inputs to the function just entered.
 	 *
@@ -288,6 +339,19 @@ public class AutoCompletion {
 	}
 
 
+	/**
+	 * Notifies the stage listener, if any, that a stage has been reached.
+	 *
+	 * @param stage The stage.
+	 * @param completions The completions, or <code>null</code>.
+	 */
+	private void fireStageReached(int stage, List completions) {
+		if (stageListener!=null) {
+			stageListener.stageReached(this, stage, completions);
+		}
+	}
+
+
 	/**
 	 * Returns the delay between when the user types a character and when the
 	 * code completion popup should automatically appear (if applicable).
@@ -322,6 +386,17 @@ public class AutoCompletion {
 	}
 
 
+	/**
+	 * Returns the listener notified as the popup window is updated.
+	 *
+	 * @return The listener, or <code>null</code> if there is none.
+	 * @see #setCompletionStageListener(CompletionStageListener)
+	 */
+	public CompletionStageListener getCompletionStageListener() {
+		return stageListener;
+	}
+
+
 	/**
 	 * Returns whether debug is enabled for AutoCompletion.
 	 *
@@ -457,6 +532,19 @@ public class AutoCompletion {
 	}
 
 
+	/**
+	 * Returns the statistics used to rank completions by how often they are
+	 * chosen.
+	 *
+	 * @return The statistics, or <code>null</code> if completions are not
+	 *         ranked by usage.
+	 * @see #setUsageStatistics(CompletionUsageStatistics, String)
+	 */
+	public CompletionUsageStatistics getUsageStatistics() {
+		return usageStatistics;
+	}
+
+
 	/**
 	 * Hides any child windows being displayed by the auto-completion system.
 	 *
@@ -476,6 +564,7 @@ public class AutoCompletion {
 	 * @return Whether the popup window was visible.
 	 */
 	private boolean hidePopupWindow() {
+		cancelCompletionRequest();
 		if (popupWindow!=null) {
 			if (popupWindow.isVisible()) {
 				popupWindow.setVisible(false);
@@ -544,6 +633,10 @@ public class AutoCompletion {
 		caret.moveDot(dot);
 		textComp.replaceSelection(replacement);
 
+		if (usageStatistics!=null) {
+			usageStatistics.recordUsage(usageLanguage, c);
+		}
+
 		if (isParameterAssistanceEnabled() &&
 				(c instanceof ParameterizedCompletion)) {
 			ParameterizedCompletion pc = (ParameterizedCompletion)c;
@@ -672,14 +765,20 @@ public class AutoCompletion {
 	 * popup is visible, it is hidden.  If there are some completions and the
 	 * popup is hidden, it is made visible and made to display the completions.
 	 * If there are some completions and the popup is visible, its list is
-	 * updated to the current set of completions.
+	 * updated to the current set of completions.<p>
+	 *
+	 * If the provider is an {@link AsyncCompletionProvider}, this method
+	 * only requests the completions; the popup is updated when they arrive.
 	 *
 	 * @return The current line number of the caret.
 	 */
 	protected int refreshPopupWindow() {
 
+		fireStageReached(CompletionStageListener.ACTIVATED, null);
+
 		// A return value of null => don't suggest completions
 		String text = provider.getAlreadyEnteredText(textComponent);
+		fireStageReached(CompletionStageListener.ENTERED_TEXT_FOUND, null);
 		if (text==null && !isPopupVisible()) {
 			return getLineOfCaret();
 		}
@@ -696,11 +795,48 @@ public class AutoCompletion {
 			}
 		}
 
-		final List completions = provider.getCompletions(textComponent);
-		int count = completions.size();
+		if (provider instanceof AsyncCompletionProvider) {
+			cancelCompletionRequest();
+			completionRequest = new CompletionRequest(textComponent, text,
+											completionRequestListener);
+			((AsyncCompletionProvider)provider).getCompletionsAsync(
+											completionRequest);
+			return getLineOfCaret();
+		}
+
+		List completions = provider.getCompletions(textComponent);
+		fireStageReached(CompletionStageListener.COMPLETIONS_FOUND,
+						completions);
+		if (!refreshPopupWindow(completions, textLen, false)) {
+			return -1;
+		}
+		return getLineOfCaret();
+
+	}
+
+
+	/**
+	 * Updates the popup window to display completions.
+	 *
+	 * @param completions The completions.
+	 * @param textLen The length of the text already entered.
+	 * @param partial Whether these are partial results from an
+	 *        {@link AsyncCompletionProvider}.  If they are, the popup is
+	 *        never hidden, nor is a single choice automatically inserted.
+	 * @return Whether the popup window was successfully updated.
+	 */
+	private boolean refreshPopupWindow(final List completions, int textLen,
+									boolean partial) {
+
+		int count = completions==null ? 0 : completions.size();
+		if (partial && count==0) {
+			return true; // Keep displaying the previous completions.
+		}
+
+		List choices = completions;
 
 		if (count>1 || (count==1 && (isPopupVisible() || textLen==0)) ||
-				(count==1 && !getAutoCompleteSingleChoices())) {
+				(count==1 && (!getAutoCompleteSingleChoices() || partial))) {
 
 			if (popupWindow==null) {
 				popupWindow = new AutoCompletePopupWindow(parentWindow, this);
@@ -721,7 +857,10 @@ public class AutoCompletion {
 				}
 			}
 
-			popupWindow.setCompletions(completions);
+			if (usageStatistics!=null) {
+				choices = usageStatistics.rank(completions, usageLanguage);
+			}
+			popupWindow.setCompletions(choices);
 
 			if (!popupWindow.isVisible()) {
 				Rectangle r = null;
@@ -730,7 +869,7 @@ public class AutoCompletion {
 														getCaretPosition());
 				} catch (BadLocationException ble) {
 					ble.printStackTrace();
-					return -1;
+					return false;
 				}
 				Point p = new Point(r.x, r.y);
 				SwingUtilities.convertPointToScreen(p, textComponent);
@@ -754,7 +893,8 @@ public class AutoCompletion {
 			hidePopupWindow();
 		}
 
-		return getLineOfCaret();
+		fireStageReached(CompletionStageListener.POPUP_UPDATED, choices);
+		return true;
 
 	}
 
@@ -839,6 +979,18 @@ public class AutoCompletion {
 	}
 
 
+	/**
+	 * Sets the listener notified as the popup window is updated.  This is
+	 * meant for measuring how long completion takes.
+	 *
+	 * @param l The listener.  This may be <code>null</code>.
+	 * @see #getCompletionStageListener()
+	 */
+	public void setCompletionStageListener(CompletionStageListener l) {
+		stageListener = l;
+	}
+
+
 	/**
 	 * Sets the size of the completion choices window.
 	 *
@@ -969,6 +1121,29 @@ public class AutoCompletion {
 	}
 
 
+	/**
+	 * Sets the statistics used to rank completions by how often they are
+	 * chosen.  The completions inserted are counted, and the ones chosen most
+	 * often are displayed first in the completion choices list.  The same
+	 * statistics can be shared by many <code>AutoCompletion</code>s.
+	 *
+	 * @param stats The statistics, or <code>null</code> to display
+	 *        completions in the order the provider returns them.
+	 * @param language Identifies the language being edited, so completions
+	 *        are counted separately for each language.  This is ignored if
+	 *        <code>stats</code> is <code>null</code>.
+	 * @see #getUsageStatistics()
+	 */
+	public void setUsageStatistics(CompletionUsageStatistics stats,
+									String language) {
+		if (stats!=null && language==null) {
+			throw new IllegalArgumentException("language cannot be null");
+		}
+		usageStatistics = stats;
+		usageLanguage = language;
+	}
+
+
 	/**
 	 * Uninstalls this auto-completion from its text component.  If it is not
 	 * installed on any text component, nothing happens.
@@ -1141,6 +1316,41 @@ public class AutoCompletion {
 	}
 
 
+	/**
+	 * Receives completions computed by an {@link AsyncCompletionProvider},
+	 * and displays them if they are still relevant.
+	 */
+	private class CompletionRequestListener
+								implements CompletionRequest.Listener {
+
+		public void completionsAvailable(CompletionRequest request,
+										List completions, boolean partial) {
+
+			if (request!=completionRequest) {
+				return; // Superseded
+			}
+
+			// If the caret has moved, a new request will be (or would have
+			// been) made if completions are still wanted.
+			if (textComponent.getCaretPosition()!=request.getCaretPosition()) {
+				cancelCompletionRequest();
+				return;
+			}
+
+			if (!partial) {
+				completionRequest = null;
+			}
+			fireStageReached(CompletionStageListener.COMPLETIONS_FOUND,
+							completions);
+			String text = request.getAlreadyEnteredText();
+			int textLen = text==null ? 0 : text.length();
+			refreshPopupWindow(completions, textLen, partial);
+
+		}
+
+	}
+
+
 	/**
 	 * Listens for LookAndFeel changes and updates the various popup windows
 	 * involved in auto-completion accordingly.
@@ -24,8 +24,14 @@ package org.fife.ui.autocomplete;
 public class BasicCompletion extends AbstractCompletion {
 
 	private String replacementText;
-	private String shortDesc;
-	private String summary;
+
+	/**
+	 * The short description and summary.  These are either
+	 * <code>String</code>s, or text in a {@link CompletionBundle} that is
+	 * only loaded when it is needed.
+	 */
+	private Object shortDesc;
+	private Object summary;
 
 
 	/**
@@ -88,7 +94,7 @@ public class BasicCompletion extends AbstractCompletion {
 	 * @see #setShortDescription(String)
 	 */
 	public String getShortDescription() {
-		return shortDesc;
+		return shortDesc==null ? null : shortDesc.toString();
 	}
 
 
@@ -96,7 +102,7 @@ public class BasicCompletion extends AbstractCompletion {
 	 * {@inheritDoc}
 	 */
 	public String getSummary() {
-		return summary;
+		return summary==null ? null : summary.toString();
 	}
 
 
@@ -111,6 +117,17 @@ public class BasicCompletion extends AbstractCompletion {
 	}
 
 
+	/**
+	 * Sets the short description of this completion to an object whose
+	 * <code>toString()</code> method returns it when it is needed.
+	 *
+	 * @param shortDesc The short description.
+	 */
+	void setShortDescriptionObject(Object shortDesc) {
+		this.shortDesc = shortDesc;
+	}
+
+
 	/**
 	 * Sets the summary for this completion.
 	 *
@@ -122,6 +139,17 @@ public class BasicCompletion extends AbstractCompletion {
 	}
 
 
+	/**
+	 * Sets the summary of this completion to an object whose
+	 * <code>toString()</code> method returns it when it is needed.
+	 *
+	 * @param summary The summary.
+	 */
+	void setSummaryObject(Object summary) {
+		this.summary = summary;
+	}
+
+
 	/**
 	 * Returns a string representation of this completion.  If the short
 	 * description is not <code>null</code>, this method will return:
@@ -136,7 +164,7 @@ public class BasicCompletion extends AbstractCompletion {
 		if (shortDesc==null) {
 			return getInputText();
 		}
-		return getInputText() + " - " + shortDesc;
+		return getInputText() + " - " + getShortDescription();
 	}
 
 
@@ -0,0 +1,503 @@
+/*
+ * 10/19/2026
+ *
+ * CompletionBundle.java - A precompiled, binary form of completion XML.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A precompiled, binary form of an XML file validating against
+ * <code>CompletionXml.dtd</code>.  Bundles are created offline with
+ * {@link CompletionBundleCompiler}, and load much faster than the XML, since
+ * nothing needs to be parsed or validated.<p>
+ *
+ * A bundle contains a table of all the distinct names, types, etc. used by
+ * its completions, each of which is loaded as a single <code>String</code>
+ * shared by all completions using it.  Descriptions, which make up most of
+ * the XML, are stored separately and are not loaded with the completions.
+ * Instead, they are read from the bundle each time they are needed (e.g.
+ * when a completion's summary is displayed).  Bundles in files are
+ * memory-mapped, so the descriptions only take up memory while they're being
+ * read.<p>
+ *
+ * A bundle for an XML resource lives alongside it, with the
+ * <code>.xml</code> extension replaced by {@link #EXTENSION}.  See
+ * {@link #find(String, ClassLoader)}.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see DefaultCompletionProvider#loadFromBundle(CompletionBundle, ClassLoader)
+ */
+public class CompletionBundle {
+
+	/**
+	 * The extension of bundle files.
+	 */
+	public static final String EXTENSION			= ".bundle";
+
+	static final int MAGIC							= 0x52414342; // "RACB"
+	static final int VERSION						= 1;
+
+	static final byte FUNCTION						= 0;
+	static final byte VARIABLE						= 1;
+	static final byte MARKUP_TAG					= 2;
+	static final byte OTHER							= 3;
+
+	/**
+	 * The contents of the bundle.  Only duplicates of this buffer are read
+	 * from with relative operations, so it can be shared by threads.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * The names, types, etc. used by the completions.
+	 */
+	private String[] strings;
+
+	/**
+	 * The position of the offsets of the descriptions in {@link #buffer}.
+	 */
+	private int textOffsetsPos;
+
+	/**
+	 * The position of the descriptions in {@link #buffer}.
+	 */
+	private int textDataPos;
+
+	/**
+	 * The position of the completions in {@link #buffer}.
+	 */
+	private int completionsPos;
+
+	private char paramStartChar;
+	private char paramEndChar;
+	private String paramSeparator;
+	private String functionCompletionType;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param buffer The contents of the bundle.
+	 * @throws IOException If the buffer does not contain a valid bundle.
+	 */
+	private CompletionBundle(ByteBuffer buffer) throws IOException {
+
+		this.buffer = buffer;
+		ByteBuffer b = buffer.duplicate();
+
+		try {
+
+			if (b.getInt()!=MAGIC) {
+				throw new IOException("Not a completion bundle");
+			}
+			int version = b.getInt();
+			if (version!=VERSION) {
+				throw new IOException(
+						"Unsupported completion bundle version: " + version);
+			}
+
+			int count = b.getInt();
+			int[] offsets = new int[count+1];
+			for (int i=0; i<=count; i++) {
+				offsets[i] = b.getInt();
+			}
+			byte[] data = new byte[offsets[count]];
+			b.get(data);
+			strings = new String[count];
+			for (int i=0; i<count; i++) {
+				strings[i] = decode(data, offsets[i], offsets[i+1]-offsets[i]);
+			}
+
+			paramStartChar = b.getChar();
+			paramEndChar = b.getChar();
+			paramSeparator = getString(b.getInt());
+			functionCompletionType = getString(b.getInt());
+
+			count = b.getInt();
+			textOffsetsPos = b.position();
+			textDataPos = textOffsetsPos + 4*(count+1);
+			completionsPos = textDataPos + b.getInt(textOffsetsPos + 4*count);
+
+		} catch (RuntimeException re) { // Truncated or corrupt bundle
+			throw new IOException("Invalid completion bundle: " + re);
+		}
+
+	}
+
+
+	/**
+	 * Creates the completions in this bundle.
+	 *
+	 * @param provider The provider for the completions.
+	 * @param cl The class loader to use when loading a custom
+	 *        {@link FunctionCompletion} class, if the bundle specifies one.
+	 *        This may be <code>null</code> if the default is to be used.
+	 * @return The completions, sorted.
+	 */
+	public List createCompletions(CompletionProvider provider,
+								ClassLoader cl) {
+
+		ByteBuffer b = buffer.duplicate();
+		b.position(completionsPos);
+		int count = b.getInt();
+		List completions = new ArrayList(count);
+
+		for (int i=0; i<count; i++) {
+
+			byte kind = b.get();
+			String name = getString(b.getInt());
+			String type = getString(b.getInt());
+			String definedIn = getString(b.getInt());
+			Object desc = getText(b.getInt());
+			Object returnValDesc = getText(b.getInt());
+			List params = createParams(b);
+
+			switch (kind) {
+				case FUNCTION:
+					FunctionCompletion fc = CompletionXMLParser.
+							createFunctionCompletion(functionCompletionType,
+											cl, provider, name, type);
+					fc.setShortDescriptionObject(desc);
+					fc.setParams(params);
+					fc.setDefinedIn(definedIn);
+					fc.setReturnValueDescriptionObject(returnValDesc);
+					completions.add(fc);
+					break;
+				case VARIABLE:
+					VariableCompletion vc = new VariableCompletion(provider,
+															name, type);
+					vc.setShortDescriptionObject(desc);
+					vc.setDefinedIn(definedIn);
+					completions.add(vc);
+					break;
+				case MARKUP_TAG:
+					MarkupTagCompletion mc = new MarkupTagCompletion(provider,
+																	name);
+					mc.setDescriptionObject(desc);
+					mc.setAttributes(params);
+					mc.setDefinedIn(definedIn);
+					completions.add(mc);
+					break;
+				default: // OTHER
+					BasicCompletion bc = new BasicCompletion(provider, name);
+					bc.setSummaryObject(desc);
+					completions.add(bc);
+					break;
+			}
+
+		}
+
+		return completions;
+
+	}
+
+
+	/**
+	 * Reads the parameters of a completion.
+	 *
+	 * @param b The buffer to read from.
+	 * @return The parameters.
+	 */
+	private List createParams(ByteBuffer b) {
+		int count = b.getShort();
+		List params = new ArrayList(count);
+		for (int i=0; i<count; i++) {
+			String name = getString(b.getInt());
+			String type = getString(b.getInt());
+			FunctionCompletion.Parameter param =
+					new FunctionCompletion.Parameter(type, name);
+			param.setDescriptionObject(getText(b.getInt()));
+			params.add(param);
+		}
+		return params;
+	}
+
+
+	/**
+	 * Decodes UTF-8 text.
+	 */
+	private static final String decode(byte[] data, int offs, int len) {
+		try {
+			return new String(data, offs, len, "UTF-8");
+		} catch (UnsupportedEncodingException uee) { // Never happens
+			throw new InternalError(uee.toString());
+		}
+	}
+
+
+	/**
+	 * Returns the bundle for an XML resource, if there is one.  The bundle's
+	 * name is that returned by {@link #getBundleName(String)}.  It is looked
+	 * for on the classpath, then as a file.  If the XML resource is also a
+	 * file, and was modified after the bundle, the bundle is considered out
+	 * of date and is ignored.
+	 *
+	 * @param xmlResource The XML resource, either on the classpath or a file.
+	 * @param cl The class loader to use.  If this is <code>null</code>, the
+	 *        system class loader is used.
+	 * @return The bundle, or <code>null</code> if there is no (current) bundle
+	 *         for the resource.
+	 * @throws IOException If an IO error occurs loading the bundle.
+	 */
+	public static CompletionBundle find(String xmlResource, ClassLoader cl)
+										throws IOException {
+
+		String name = getBundleName(xmlResource);
+
+		URL url = getResource(name, cl);
+		if (url!=null) {
+			File xml = getFile(getResource(xmlResource, cl));
+			if (isCurrent(getFile(url), xml)) {
+				return load(url);
+			}
+			return null;
+		}
+
+		File file = new File(name);
+		if (file.isFile() && isCurrent(file, new File(xmlResource))) {
+			return load(file);
+		}
+		return null;
+
+	}
+
+
+	/**
+	 * Returns the name of the bundle for an XML resource.
+	 *
+	 * @param xmlResource The XML resource, e.g. <code>"data/c.xml"</code>.
+	 * @return The name of the bundle, e.g. <code>"data/c.bundle"</code>.
+	 */
+	public static String getBundleName(String xmlResource) {
+		String name = xmlResource;
+		if (name.toLowerCase().endsWith(".xml")) {
+			name = name.substring(0, name.length()-4);
+		}
+		return name + EXTENSION;
+	}
+
+
+	/**
+	 * Returns the file a URL points to.
+	 *
+	 * @param url The URL.  This may be <code>null</code>.
+	 * @return The file, or <code>null</code> if the URL isn't a
+	 *         <code>file:</code> URL.
+	 */
+	private static File getFile(URL url) {
+		if (url==null || !"file".equals(url.getProtocol())) {
+			return null;
+		}
+		try {
+			return new File(URLDecoder.decode(url.getPath(), "UTF-8"));
+		} catch (UnsupportedEncodingException uee) { // Never happens
+			return new File(url.getPath());
+		}
+	}
+
+
+	/**
+	 * Returns the class to use for function completions, if one was
+	 * specified in the XML.
+	 *
+	 * @return The class name, or <code>null</code> if none was specified.
+	 */
+	public String getFunctionCompletionType() {
+		return functionCompletionType;
+	}
+
+
+	/**
+	 * Returns the parameter end character specified.
+	 *
+	 * @return The character, or 0 if none was specified.
+	 */
+	public char getParamEndChar() {
+		return paramEndChar;
+	}
+
+
+	/**
+	 * Returns the parameter separator specified.
+	 *
+	 * @return The string, or <code>null</code> if none was specified.
+	 */
+	public String getParamSeparator() {
+		return paramSeparator;
+	}
+
+
+	/**
+	 * Returns the parameter start character specified.
+	 *
+	 * @return The character, or 0 if none was specified.
+	 */
+	public char getParamStartChar() {
+		return paramStartChar;
+	}
+
+
+	private static final URL getResource(String name, ClassLoader cl) {
+		return cl!=null ? cl.getResource(name) :
+						ClassLoader.getSystemResource(name);
+	}
+
+
+	/**
+	 * Returns a string in the string table.
+	 *
+	 * @param index The index of the string, or <code>-1</code>.
+	 * @return The string, or <code>null</code> if <code>index</code> is
+	 *         <code>-1</code>.
+	 */
+	private String getString(int index) {
+		return index==-1 ? null : strings[index];
+	}
+
+
+	/**
+	 * Returns a description that is read from this bundle when it's needed.
+	 *
+	 * @param index The index of the description, or <code>-1</code>.
+	 * @return An object whose <code>toString()</code> method returns the
+	 *         description, or <code>null</code> if <code>index</code> is
+	 *         <code>-1</code>.
+	 */
+	private Object getText(int index) {
+		return index==-1 ? null : new Text(index);
+	}
+
+
+	/**
+	 * Returns whether a bundle file is at least as recent as the XML file it
+	 * was compiled from.
+	 *
+	 * @param bundle The bundle file, or <code>null</code> if unknown.
+	 * @param xml The XML file, or <code>null</code> if unknown.
+	 * @return Whether the bundle is current, or <code>true</code> if either
+	 *         file is unknown.
+	 */
+	private static final boolean isCurrent(File bundle, File xml) {
+		return bundle==null || xml==null || !xml.isFile() ||
+				xml.lastModified()<=bundle.lastModified();
+	}
+
+
+	/**
+	 * Loads a bundle from a file.  The file is memory-mapped.
+	 *
+	 * @param file The file.
+	 * @return The bundle.
+	 * @throws IOException If an IO error occurs, or the file isn't a valid
+	 *         bundle.
+	 */
+	public static CompletionBundle load(File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			return new CompletionBundle(channel.map(
+						FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Loads a bundle from an input stream.  The bundle is read into memory.
+	 * The stream is not closed.
+	 *
+	 * @param in The input stream.
+	 * @return The bundle.
+	 * @throws IOException If an IO error occurs, or the stream doesn't
+	 *         contain a valid bundle.
+	 */
+	public static CompletionBundle load(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[8192];
+		int count = 0;
+		while ((count=in.read(buf))!=-1) {
+			out.write(buf, 0, count);
+		}
+		return new CompletionBundle(ByteBuffer.wrap(out.toByteArray()));
+	}
+
+
+	/**
+	 * Loads a bundle from a URL.  If the URL points to a file, it is
+	 * memory-mapped.
+	 *
+	 * @param url The URL.
+	 * @return The bundle.
+	 * @throws IOException If an IO error occurs, or the URL doesn't point to
+	 *         a valid bundle.
+	 */
+	public static CompletionBundle load(URL url) throws IOException {
+		File file = getFile(url);
+		if (file!=null && file.isFile()) {
+			return load(file);
+		}
+		InputStream in = url.openStream();
+		try {
+			return load(in);
+		} finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Reads a description from this bundle.
+	 *
+	 * @param index The index of the description.
+	 * @return The description.
+	 */
+	private String readText(int index) {
+		int start = buffer.getInt(textOffsetsPos + 4*index);
+		int end = buffer.getInt(textOffsetsPos + 4*(index+1));
+		byte[] data = new byte[end-start];
+		ByteBuffer b = buffer.duplicate();
+		b.position(textDataPos + start);
+		b.get(data);
+		return decode(data, 0, data.length);
+	}
+
+
+	/**
+	 * A description in this bundle.  It is read each time it's needed, so
+	 * it doesn't take up memory otherwise.
+	 */
+	private class Text {
+
+		private int index;
+
+		public Text(int index) {
+			this.index = index;
+		}
+
+		public String toString() {
+			return readText(index);
+		}
+
+	}
+
+
+}
@@ -0,0 +1,349 @@
+/*
+ * 10/19/2026
+ *
+ * CompletionBundleCompiler.java - Compiles completion XML into bundles.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.SAXException;
+
+
+/**
+ * Compiles XML files validating against <code>CompletionXml.dtd</code> into
+ * {@link CompletionBundle}s.  This is meant to be run offline, as part of a
+ * build:
+ *
+ * <pre>
+ * java org.fife.ui.autocomplete.CompletionBundleCompiler [-d outputDir] file.xml...
+ * </pre>
+ *
+ * Each XML file is compiled into a bundle named as returned by
+ * {@link CompletionBundle#getBundleName(String)}, either alongside it or in
+ * the specified output directory.<p>
+ *
+ * If the XML specifies a custom {@link FunctionCompletion} class, it should
+ * be on the classpath when compiling; otherwise a stack trace is printed for
+ * each function (though the bundle is still correct).
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class CompletionBundleCompiler {
+
+	private List strings;
+	private Map stringIndices;
+	private List texts;
+	private Map textIndices;
+
+
+	/**
+	 * Constructor.
+	 */
+	private CompletionBundleCompiler() {
+		strings = new ArrayList();
+		stringIndices = new HashMap();
+		texts = new ArrayList();
+		textIndices = new HashMap();
+	}
+
+
+	/**
+	 * Compiles completion XML into a bundle.
+	 *
+	 * @param xml The XML file.
+	 * @param bundle The bundle file to create.
+	 * @throws IOException If an IO error occurs, or the XML is invalid.
+	 */
+	public static void compile(File xml, File bundle) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(xml));
+		try {
+			OutputStream out = new BufferedOutputStream(
+										new FileOutputStream(bundle));
+			try {
+				compile(in, out);
+			} finally {
+				out.close();
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Compiles completion XML into a bundle.  Neither stream is closed.
+	 *
+	 * @param in The XML to read.
+	 * @param out The stream to write the bundle to.
+	 * @throws IOException If an IO error occurs, or the XML is invalid.
+	 */
+	public static void compile(InputStream in, OutputStream out)
+								throws IOException {
+
+		SAXParserFactory factory = SAXParserFactory.newInstance();
+		factory.setValidating(true);
+		CompletionXMLParser handler = new CompletionXMLParser(
+										new DefaultCompletionProvider());
+		try {
+			SAXParser saxParser = factory.newSAXParser();
+			saxParser.parse(in, handler);
+		} catch (SAXException se) {
+			throw new IOException(se.toString());
+		} catch (ParserConfigurationException pce) {
+			throw new IOException(pce.toString());
+		}
+
+		// Sorted so they can be added to providers quickly.
+		List completions = new ArrayList(handler.getCompletions());
+		Collections.sort(completions);
+
+		new CompletionBundleCompiler().write(completions, handler, out);
+
+	}
+
+
+	/**
+	 * Returns the index of a description, adding it if necessary.
+	 *
+	 * @param text The description.  This may be <code>null</code>.
+	 * @return The index, or <code>-1</code> if <code>text</code> is
+	 *         <code>null</code>.
+	 */
+	private int getTextIndex(String text) {
+		return getIndex(text, texts, textIndices);
+	}
+
+
+	/**
+	 * Returns the index of a string in a table, adding it if necessary.
+	 */
+	private static final int getIndex(String str, List table, Map indices) {
+		if (str==null) {
+			return -1;
+		}
+		Integer index = (Integer)indices.get(str);
+		if (index==null) {
+			index = new Integer(table.size());
+			table.add(str);
+			indices.put(str, index);
+		}
+		return index.intValue();
+	}
+
+
+	/**
+	 * Returns the index of a string, adding it if necessary.
+	 *
+	 * @param str The string.  This may be <code>null</code>.
+	 * @return The index, or <code>-1</code> if <code>str</code> is
+	 *         <code>null</code>.
+	 */
+	private int getStringIndex(String str) {
+		return getIndex(str, strings, stringIndices);
+	}
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args The XML files to compile, optionally preceded by
+	 *        <code>-d outputDir</code>.
+	 */
+	public static void main(String[] args) {
+
+		File outputDir = null;
+		int i = 0;
+		if (args.length>1 && "-d".equals(args[0])) {
+			outputDir = new File(args[1]);
+			outputDir.mkdirs();
+			i = 2;
+		}
+		if (i==args.length) {
+			System.err.println("Usage: java " +
+					CompletionBundleCompiler.class.getName() +
+					" [-d outputDir] file.xml...");
+			System.exit(1);
+		}
+
+		for (; i<args.length; i++) {
+			File xml = new File(args[i]);
+			File bundle = new File(CompletionBundle.getBundleName(args[i]));
+			if (outputDir!=null) {
+				bundle = new File(outputDir, bundle.getName());
+			}
+			try {
+				compile(xml, bundle);
+				System.out.println(xml + " -> " + bundle + " (" +
+						bundle.length() + " bytes)");
+			} catch (IOException ioe) {
+				System.err.println("Error compiling " + xml + ": " + ioe);
+				System.exit(1);
+			}
+		}
+
+	}
+
+
+	/**
+	 * Writes a completion's parameters.
+	 *
+	 * @param params The parameters.  This may be <code>null</code>.
+	 * @param out The stream to write to.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private void writeParams(List params, DataOutputStream out)
+								throws IOException {
+		int count = params==null ? 0 : params.size();
+		out.writeShort(count);
+		for (int i=0; i<count; i++) {
+			FunctionCompletion.Parameter param =
+						(FunctionCompletion.Parameter)params.get(i);
+			out.writeInt(getStringIndex(param.getName()));
+			out.writeInt(getStringIndex(param.getType()));
+			out.writeInt(getTextIndex(param.getDescription()));
+		}
+	}
+
+
+	/**
+	 * Writes the bundle.
+	 *
+	 * @param completions The completions.
+	 * @param handler The parser the completions were loaded with.
+	 * @param out The stream to write to.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private void write(List completions, CompletionXMLParser handler,
+						OutputStream out) throws IOException {
+
+		// The completions are written first, to build the string tables.
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(baos);
+		data.writeInt(completions.size());
+		for (int i=0; i<completions.size(); i++) {
+			writeCompletion((Completion)completions.get(i), data);
+		}
+		int paramSeparator = getStringIndex(handler.getParamSeparator());
+		int functionCompletionType = getStringIndex(
+									handler.getFunctionCompletionType());
+
+		DataOutputStream dout = new DataOutputStream(out);
+		dout.writeInt(CompletionBundle.MAGIC);
+		dout.writeInt(CompletionBundle.VERSION);
+		writeTable(strings, dout);
+		dout.writeChar(handler.getParamStartChar());
+		dout.writeChar(handler.getParamEndChar());
+		dout.writeInt(paramSeparator);
+		dout.writeInt(functionCompletionType);
+		writeTable(texts, dout);
+		baos.writeTo(dout);
+		dout.flush();
+
+	}
+
+
+	/**
+	 * Writes a completion.
+	 *
+	 * @param c The completion.
+	 * @param out The stream to write to.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private void writeCompletion(Completion c, DataOutputStream out)
+								throws IOException {
+
+		byte kind = CompletionBundle.OTHER;
+		String name = c.getReplacementText();
+		String type = null;
+		String definedIn = null;
+		String desc = null;
+		String returnValDesc = null;
+		List params = null;
+
+		if (c instanceof FunctionCompletion) {
+			FunctionCompletion fc = (FunctionCompletion)c;
+			kind = CompletionBundle.FUNCTION;
+			returnValDesc = fc.getReturnValueDescription();
+			params = new ArrayList();
+			for (int i=0; i<fc.getParamCount(); i++) {
+				params.add(fc.getParam(i));
+			}
+		}
+		else if (c instanceof VariableCompletion) {
+			kind = CompletionBundle.VARIABLE;
+		}
+		else if (c instanceof MarkupTagCompletion) {
+			MarkupTagCompletion mc = (MarkupTagCompletion)c;
+			kind = CompletionBundle.MARKUP_TAG;
+			name = mc.getName();
+			definedIn = mc.getDefinedIn();
+			desc = mc.getDescription();
+			params = mc.getAttributes();
+		}
+		else {
+			desc = ((BasicCompletion)c).getSummary();
+		}
+
+		if (c instanceof VariableCompletion) {
+			VariableCompletion vc = (VariableCompletion)c;
+			name = vc.getName();
+			type = vc.getType();
+			definedIn = vc.getDefinedIn();
+			desc = vc.getShortDescription();
+		}
+
+		out.writeByte(kind);
+		out.writeInt(getStringIndex(name));
+		out.writeInt(getStringIndex(type));
+		out.writeInt(getStringIndex(definedIn));
+		out.writeInt(getTextIndex(desc));
+		out.writeInt(getTextIndex(returnValDesc));
+		writeParams(params, out);
+
+	}
+
+
+	/**
+	 * Writes a table of strings as their offsets, followed by their UTF-8
+	 * bytes.
+	 *
+	 * @param table The strings.
+	 * @param out The stream to write to.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private static void writeTable(List table, DataOutputStream out)
+								throws IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		out.writeInt(table.size());
+		out.writeInt(0);
+		for (int i=0; i<table.size(); i++) {
+			data.write(((String)table.get(i)).getBytes("UTF-8"));
+			out.writeInt(data.size());
+		}
+		data.writeTo(out);
+	}
+
+
+}
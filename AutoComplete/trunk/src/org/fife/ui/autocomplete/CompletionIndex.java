@@ -0,0 +1,571 @@
+/*
+ * 10/19/2026
+ *
+ * CompletionIndex.java - Fast prefix and camel case lookup of completions.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * An index over a sorted list of completions, used by
+ * {@link AbstractCompletionProvider} to find the completions matching the
+ * text the user has typed.<p>
+ *
+ * Since the completions are sorted case-insensitively, all completions
+ * starting with some text form a contiguous range, so the sorted list acts
+ * as a compact trie: a prefix is looked up with two binary searches, and
+ * the input texts of all completions are cached in an array so these
+ * searches don't call into the completions themselves.<p>
+ *
+ * Besides prefix matches, "camel case" matches are found for text
+ * containing an upper case letter after its first character.  Each upper
+ * case letter may match the start of any later "word" in a completion's
+ * input text, so <code>gCN</code> and <code>getCNa</code> both match
+ * <code>getClassName</code>, and <code>NPE</code> matches
+ * <code>NullPointerException</code>.  The first character must always
+ * match the first character of the input text.  To find camel case matches
+ * without checking every completion, a sub-word index maps each first
+ * character and upper-cased word start (e.g. <code>g</code> and
+ * <code>N</code>) to the completions containing them.  This index is only
+ * built the first time it is needed.<p>
+ *
+ * As the user types, each lookup usually extends the previous one by a
+ * character.  In that case, only the previous lookup's matches are checked,
+ * rather than searching the entire index again.<p>
+ *
+ * An index is only valid as long as the list it was created from holds the
+ * same completions, in the same order; see {@link #isValid(List)}.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class CompletionIndex {
+
+	/**
+	 * The number of completions indexed.
+	 */
+	private int size;
+
+	/**
+	 * The completions, in sorted order.  This is a copy of the list this
+	 * index was created from.
+	 */
+	private Completion[] completions;
+
+	/**
+	 * The input text of each completion.
+	 */
+	private String[] inputTexts;
+
+	/**
+	 * Maps a first character and a word start (see
+	 * {@link #getWordKey(char, char)}) to the indices of the completions
+	 * whose input text starts with that character and has a word starting
+	 * with the other, as {@link IndexList}s.  This is <code>null</code>
+	 * until the first camel case lookup.
+	 */
+	private Map wordIndex;
+
+	/**
+	 * The text of the most recent lookup.
+	 */
+	private String lastText;
+
+	/**
+	 * Whether camel case matches were included in the most recent lookup.
+	 */
+	private boolean lastCamelCase;
+
+	/**
+	 * The indices of the completions found by the most recent lookup.
+	 */
+	private int[] lastMatches;
+
+	/**
+	 * The number of valid entries in {@link #lastMatches}.
+	 */
+	private int lastMatchCount;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param list The completions to index, sorted alphabetically
+	 *        (case-insensitively).
+	 */
+	public CompletionIndex(List list) {
+		size = list.size();
+		completions = new Completion[size];
+		inputTexts = new String[size];
+		for (int i=0; i<size; i++) {
+			completions[i] = (Completion)list.get(i);
+			inputTexts[i] = completions[i].getInputText();
+		}
+		lastMatches = new int[0];
+	}
+
+
+	/**
+	 * Compares the start of a string to some text, the same way
+	 * <code>String.CASE_INSENSITIVE_ORDER</code> does.
+	 *
+	 * @param str The string.
+	 * @param text The text.
+	 * @return Less than, equal to, or greater than zero, if the first
+	 *         <code>text.length()</code> characters of <code>str</code> sort
+	 *         before, the same as, or after <code>text</code>.
+	 */
+	private static final int compareStart(String str, String text) {
+		int len = Math.min(str.length(), text.length());
+		for (int i=0; i<len; i++) {
+			int diff = compareChars(str.charAt(i), text.charAt(i));
+			if (diff!=0) {
+				return diff;
+			}
+		}
+		return str.length()<text.length() ? -1 : 0;
+	}
+
+
+	/**
+	 * Compares two characters, the same way
+	 * <code>String.CASE_INSENSITIVE_ORDER</code> does.
+	 *
+	 * @param c1 The first character.
+	 * @param c2 The second character.
+	 * @return Less than, equal to, or greater than zero, if <code>c1</code>
+	 *         sorts before, the same as, or after <code>c2</code>.
+	 */
+	private static final int compareChars(char c1, char c2) {
+		if (c1!=c2) {
+			c1 = Character.toUpperCase(c1);
+			c2 = Character.toUpperCase(c2);
+			if (c1!=c2) {
+				c1 = Character.toLowerCase(c1);
+				c2 = Character.toLowerCase(c2);
+				if (c1!=c2) {
+					return c1 - c2;
+				}
+			}
+		}
+		return 0;
+	}
+
+
+	/**
+	 * Returns the completions matching some text.
+	 *
+	 * @param text The text, usually what the user has typed.
+	 * @param camelCase Whether to include camel case matches.
+	 * @return The matching completions, in sorted order.
+	 */
+	public List getMatches(String text, boolean camelCase) {
+
+		camelCase &= isCamelCaseText(text);
+
+		// If this lookup extends the previous one, only its matches need to
+		// be checked.  Note that prefix matches are also camel case matches.
+		if (lastText!=null && text.length()>=lastText.length() &&
+				compareStart(text, lastText)==0 &&
+				(lastCamelCase || !camelCase)) {
+			int count = 0;
+			for (int i=0; i<lastMatchCount; i++) {
+				int index = lastMatches[i];
+				if (isMatch(inputTexts[index], text, camelCase)) {
+					lastMatches[count++] = index;
+				}
+			}
+			lastMatchCount = count;
+		}
+
+		else {
+			int start = getStart(text);
+			int end = getEnd(text, start);
+			if (camelCase) {
+				IndexList candidates = getCamelCaseCandidates(text);
+				ensureMatchCapacity(end - start + candidates.count);
+				lastMatchCount = 0;
+				// Merge the prefix matches with the camel case matches.
+				int i = start;
+				for (int j=0; j<candidates.count; j++) {
+					int index = candidates.indices[j];
+					while (i<end && i<index) {
+						lastMatches[lastMatchCount++] = i++;
+					}
+					if ((index<start || index>=end) &&
+							isCamelCaseMatch(inputTexts[index], 0, text, 0)) {
+						lastMatches[lastMatchCount++] = index;
+					}
+				}
+				while (i<end) {
+					lastMatches[lastMatchCount++] = i++;
+				}
+			}
+			else {
+				ensureMatchCapacity(end - start);
+				lastMatchCount = end - start;
+				for (int i=start; i<end; i++) {
+					lastMatches[i-start] = i;
+				}
+			}
+		}
+
+		lastText = text;
+		lastCamelCase = camelCase;
+
+		List matches = new ArrayList(lastMatchCount);
+		for (int i=0; i<lastMatchCount; i++) {
+			matches.add(completions[lastMatches[i]]);
+		}
+		return matches;
+
+	}
+
+
+	/**
+	 * Ensures {@link #lastMatches} can hold a number of matches.
+	 *
+	 * @param count The number of matches.
+	 */
+	private void ensureMatchCapacity(int count) {
+		if (lastMatches.length<count) {
+			lastMatches = new int[count];
+		}
+	}
+
+
+	/**
+	 * Returns the completions that might be camel case matches for some
+	 * text.  In any camel case match that isn't also a prefix match, some
+	 * upper case letter in the text is the first to match the start of a
+	 * later word; everything before it matches the start of the input text.
+	 * So for each upper case letter, the candidates are those completions
+	 * starting with the text before it, that have a word starting with it.
+	 *
+	 * @param text The text.
+	 * @return The indices of the candidates, in sorted order.
+	 */
+	private IndexList getCamelCaseCandidates(String text) {
+
+		if (wordIndex==null) {
+			wordIndex = createWordIndex();
+		}
+
+		IndexList candidates = new IndexList();
+		char first = text.charAt(0);
+		for (int i=1; i<text.length(); i++) {
+			char ch = text.charAt(i);
+			if (!Character.isUpperCase(ch)) {
+				continue;
+			}
+			IndexList list = (IndexList)wordIndex.get(getWordKey(first, ch));
+			if (list!=null) {
+				String prefix = text.substring(0, i);
+				int start = getStart(prefix);
+				int end = getEnd(prefix, start);
+				int from = list.getFirstIndexOf(start);
+				int to = list.getFirstIndexOf(end);
+				for (int j=from; j<to; j++) {
+					candidates.add(list.indices[j]);
+				}
+			}
+		}
+
+		candidates.sortAndRemoveDuplicates();
+		return candidates;
+
+	}
+
+
+	/**
+	 * Creates the sub-word index used to find camel case matches.
+	 *
+	 * @return The index.
+	 * @see #wordIndex
+	 */
+	private Map createWordIndex() {
+		Map index = new HashMap();
+		for (int i=0; i<size; i++) {
+			String str = inputTexts[i];
+			if (str.length()==0) {
+				continue;
+			}
+			char first = str.charAt(0);
+			for (int j=1; j<str.length(); j++) {
+				if (isWordStart(str, j)) {
+					char ch = Character.toUpperCase(str.charAt(j));
+					Object key = getWordKey(first, ch);
+					IndexList list = (IndexList)index.get(key);
+					if (list==null) {
+						list = new IndexList();
+						index.put(key, list);
+					}
+					if (list.count==0 || list.indices[list.count-1]!=i) {
+						list.add(i);
+					}
+				}
+			}
+		}
+		return index;
+	}
+
+
+	/**
+	 * Returns the index after the last completion starting with some text.
+	 *
+	 * @param text The text.
+	 * @param start The index of the first completion starting with
+	 *        <code>text</code>, as returned by {@link #getStart(String)}.
+	 * @return The index after the last completion starting with
+	 *         <code>text</code>.
+	 */
+	private int getEnd(String text, int start) {
+		int low = start;
+		int high = size;
+		while (low<high) {
+			int mid = (low+high) >>> 1;
+			if (compareStart(inputTexts[mid], text)<=0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * Returns the index of the first completion starting with, or sorting
+	 * after, some text.
+	 *
+	 * @param text The text.
+	 * @return The index.
+	 */
+	private int getStart(String text) {
+		int low = 0;
+		int high = size;
+		while (low<high) {
+			int mid = (low+high) >>> 1;
+			if (compareStart(inputTexts[mid], text)<0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * Returns the key in {@link #wordIndex} for a first character and a
+	 * word start.
+	 *
+	 * @param first The first character of an input text.
+	 * @param wordStart The upper-cased first character of a later word.
+	 * @return The key.
+	 */
+	private static final Object getWordKey(char first, char wordStart) {
+		first = Character.toLowerCase(Character.toUpperCase(first));
+		return new Integer((first<<16) | wordStart);
+	}
+
+
+	/**
+	 * Returns whether some text matches a string, allowing upper case
+	 * letters in the text to match the start of any later word in the
+	 * string.
+	 *
+	 * @param str The string, e.g. a completion's input text.
+	 * @param strIndex The offset into <code>str</code> to match from.
+	 * @param text The text to match.
+	 * @param textIndex The offset into <code>text</code> to match from.
+	 * @return Whether the rest of <code>text</code> matches the rest of
+	 *         <code>str</code>.
+	 * @see #isWordStart(String, int)
+	 */
+	private static final boolean isCamelCaseMatch(String str, int strIndex,
+											String text, int textIndex) {
+
+		if (textIndex==text.length()) {
+			return true;
+		}
+		char ch = text.charAt(textIndex);
+
+		// Continue the current word.
+		if (strIndex<str.length() &&
+				compareChars(str.charAt(strIndex), ch)==0 &&
+				isCamelCaseMatch(str, strIndex+1, text, textIndex+1)) {
+			return true;
+		}
+
+		// Or start a later one.
+		if (textIndex>0 && Character.isUpperCase(ch)) {
+			for (int i=strIndex+1; i<str.length(); i++) {
+				if (Character.toUpperCase(str.charAt(i))==ch &&
+						isWordStart(str, i) &&
+						isCamelCaseMatch(str, i+1, text, textIndex+1)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+
+	}
+
+
+	/**
+	 * Returns whether text should be matched by camel case, i.e. whether
+	 * it has an upper case letter after its first character.
+	 *
+	 * @param text The text.
+	 * @return Whether to look for camel case matches of the text.
+	 */
+	private static final boolean isCamelCaseText(String text) {
+		for (int i=1; i<text.length(); i++) {
+			if (Character.isUpperCase(text.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Returns whether a completion's input text matches some text.
+	 *
+	 * @param str The input text.
+	 * @param text The text.
+	 * @param camelCase Whether camel case matches are allowed.
+	 * @return Whether the input text matches.
+	 */
+	private static final boolean isMatch(String str, String text,
+										boolean camelCase) {
+		if (str.length()>=text.length() && compareStart(str, text)==0) {
+			return true;
+		}
+		return camelCase && isCamelCaseMatch(str, 0, text, 0);
+	}
+
+
+	/**
+	 * Returns whether this index can still be used for a list of
+	 * completions, i.e. whether the list holds the same completions, in
+	 * the same order, as the one this index was created from.  Only
+	 * identity is checked, so this is much cheaper than creating a new
+	 * index, and catches lists that were sorted or modified in place.
+	 *
+	 * @param list The list of completions.
+	 * @return Whether this index is valid for the list.
+	 */
+	public boolean isValid(List list) {
+		if (list.size()!=size) {
+			return false;
+		}
+		int i = 0;
+		for (Iterator it=list.iterator(); it.hasNext(); ) {
+			if (it.next()!=completions[i++]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Returns whether a character in a string starts a "word," for camel
+	 * case matching.  Words start at upper case letters following lower
+	 * case ones (<code>get<b>N</b>ame</code>), at the last of a run of upper
+	 * case letters followed by a lower case one
+	 * (<code>URL<b>C</b>onnection</code>), and at letters and digits
+	 * following other characters (<code>get_<b>n</b>ame</code>).
+	 *
+	 * @param str The string.
+	 * @param i The index of the character.
+	 * @return Whether the character starts a word.
+	 */
+	private static final boolean isWordStart(String str, int i) {
+		if (i==0) {
+			return true;
+		}
+		char ch = str.charAt(i);
+		char prev = str.charAt(i-1);
+		if (!Character.isLetterOrDigit(prev)) {
+			return Character.isLetterOrDigit(ch);
+		}
+		if (Character.isUpperCase(ch)) {
+			return !Character.isUpperCase(prev) ||
+					(i+1<str.length() &&
+						Character.isLowerCase(str.charAt(i+1)));
+		}
+		return false;
+	}
+
+
+	/**
+	 * A growable list of completion indices.
+	 */
+	private static class IndexList {
+
+		private int[] indices;
+		private int count;
+
+		public IndexList() {
+			indices = new int[4];
+		}
+
+		public void add(int index) {
+			if (count==indices.length) {
+				int[] temp = new int[count*2];
+				System.arraycopy(indices,0, temp,0, count);
+				indices = temp;
+			}
+			indices[count++] = index;
+		}
+
+		/**
+		 * Returns the position of the first index in this (sorted) list that
+		 * is greater than or equal to a value.
+		 */
+		public int getFirstIndexOf(int value) {
+			int low = 0;
+			int high = count;
+			while (low<high) {
+				int mid = (low+high) >>> 1;
+				if (indices[mid]<value) {
+					low = mid + 1;
+				}
+				else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		public void sortAndRemoveDuplicates() {
+			Arrays.sort(indices, 0, count);
+			int newCount = 0;
+			for (int i=0; i<count; i++) {
+				if (newCount==0 || indices[i]!=indices[newCount-1]) {
+					indices[newCount++] = indices[i];
+				}
+			}
+			count = newCount;
+		}
+
+	}
+
+
+}
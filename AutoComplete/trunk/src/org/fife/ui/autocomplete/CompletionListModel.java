@@ -10,13 +10,20 @@ package org.fife.ui.autocomplete;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import javax.swing.AbstractListModel;
 
 
 /**
  * A list model implementation that allows the bulk addition of elements.
  * This is the only feature missing from <code>DefaultListModel</code> that
- * we need.
+ * we need.<p>
+ *
+ * When new contents are a subsequence of the current contents, as they are
+ * when the user types more of a word while the completion popup is visible,
+ * they are applied in place by removing the elements that no longer match.
+ * This keeps the number of list data events (and thus the list's relayout
+ * work) proportional to what actually changed.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -28,6 +35,14 @@ class CompletionListModel extends AbstractListModel {
 	 */
 	private ArrayList delegate;
 
+	/**
+	 * If filtering the contents in place would fire more than this many
+	 * "interval removed" events, the removed elements are reported with a
+	 * single event instead.  Each such event is linear in the size of the
+	 * list's selection model.
+	 */
+	private static final int MAX_REMOVAL_EVENTS		= 16;
+
 
 	/**
 	 * Constructor.
@@ -68,12 +83,121 @@ class CompletionListModel extends AbstractListModel {
 	}
 
 
+	/**
+	 * Replaces the contents of this model with a subsequence of them,
+	 * removing the elements that aren't in the new contents.
+	 *
+	 * @param contents The new contents.
+	 * @return Whether <code>contents</code> was a subsequence of the current
+	 *         contents.  If it wasn't, this model is not modified.
+	 */
+	private boolean filterContents(Collection contents) {
+
+		int oldSize = delegate.size();
+		int newSize = contents.size();
+		if (newSize>oldSize) {
+			return false;
+		}
+
+		// Find where each new element is in the current contents.  Elements
+		// are compared with equals(), since some providers create new (but
+		// equal) completions for each lookup.
+		int[] indices = new int[newSize];
+		int runCount = 0;
+		int oldIndex = 0;
+		int i = 0;
+		for (Iterator it=contents.iterator(); it.hasNext(); i++) {
+			Object obj = it.next();
+			int start = oldIndex;
+			while (oldIndex<oldSize && !isSame(delegate.get(oldIndex), obj)) {
+				oldIndex++;
+			}
+			if (oldIndex==oldSize) {
+				return false;
+			}
+			if (oldIndex>start) {
+				runCount++;
+			}
+			indices[i] = oldIndex++;
+		}
+		if (oldIndex<oldSize) {
+			runCount++;
+		}
+
+		// Replace equal elements with the new instances, and drop those that
+		// were filtered out.
+		ArrayList filtered = new ArrayList(newSize);
+		int firstReplaced = -1;
+		int lastReplaced = -1;
+		i = 0;
+		for (Iterator it=contents.iterator(); it.hasNext(); i++) {
+			Object obj = it.next();
+			if (delegate.get(indices[i])!=obj) {
+				if (firstReplaced==-1) {
+					firstReplaced = i;
+				}
+				lastReplaced = i;
+			}
+			filtered.add(obj);
+		}
+
+		if (runCount>MAX_REMOVAL_EVENTS) {
+			delegate = filtered;
+			if (newSize<oldSize) {
+				fireIntervalRemoved(this, newSize, oldSize-1);
+			}
+			if (newSize>0) {
+				fireContentsChanged(this, 0, newSize-1);
+			}
+			return true;
+		}
+
+		// Remove each run of filtered-out elements, last to first so the
+		// indices of earlier runs stay valid.
+		int end = oldSize;
+		for (i=newSize-1; i>=-1; i--) {
+			int start = i==-1 ? 0 : indices[i]+1;
+			if (start<end) {
+				delegate.subList(start, end).clear();
+				fireIntervalRemoved(this, start, end-1);
+			}
+			if (i>=0) {
+				end = indices[i];
+			}
+		}
+		if (firstReplaced>-1) {
+			delegate = filtered;
+			fireContentsChanged(this, firstReplaced, lastReplaced);
+		}
+		return true;
+
+	}
+
+
+	/**
+	 * Returns whether an element in the new contents of this model is the
+	 * same as a current element.
+	 *
+	 * @param current The current element.
+	 * @param obj The new element.
+	 * @return Whether the two elements are the same.
+	 */
+	private static final boolean isSame(Object current, Object obj) {
+		return current==obj || (current!=null && current.equals(obj));
+	}
+
+
 	/**
 	 * Sets the contents of this model.  All previous contents are removed.
+	 * If the new contents are a subsequence of the current contents, they
+	 * are filtered in place.
 	 *
 	 * @param contents The new contents of this model.
 	 */
 	public void setContents(Collection contents) {
+		if (filterContents(contents)) {
+			return;
+		}
 		clear();
 		if (contents.size()>0) {
 			delegate.addAll(contents);
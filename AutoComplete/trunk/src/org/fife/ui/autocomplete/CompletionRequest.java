@@ -0,0 +1,201 @@
+/*
+ * 10/19/2026
+ *
+ * CompletionRequest.java - A request for completions from an
+ * AsyncCompletionProvider.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+import java.util.List;
+import javax.swing.SwingUtilities;
+import javax.swing.text.JTextComponent;
+
+
+/**
+ * A request for the completions at a caret position, passed to an
+ * {@link AsyncCompletionProvider}.  Providers deliver completions to the
+ * request from any thread; they are always handed to the
+ * {@link AutoCompletion} on the EDT.<p>
+ *
+ * A request is cancelled when it is superseded by a newer one (e.g. the user
+ * typed another character), or when completion is no longer wanted.  Once
+ * cancelled, any completions delivered to it are ignored.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class CompletionRequest {
+
+	/**
+	 * The text component completions are requested for.
+	 */
+	private JTextComponent textComponent;
+
+	/**
+	 * The text that was entered when the request was made.
+	 */
+	private String alreadyEnteredText;
+
+	/**
+	 * The caret position when the request was made.
+	 */
+	private int caretPosition;
+
+	/**
+	 * Notified of completions delivered to this request.
+	 */
+	private Listener listener;
+
+	/**
+	 * Whether this request has been cancelled.
+	 */
+	private volatile boolean cancelled;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param textComponent The text component.
+	 * @param alreadyEnteredText The text already entered.
+	 * @param listener Notified of completions delivered to this request.
+	 */
+	CompletionRequest(JTextComponent textComponent, String alreadyEnteredText,
+					Listener listener) {
+		this.textComponent = textComponent;
+		this.alreadyEnteredText = alreadyEnteredText;
+		this.listener = listener;
+		caretPosition = textComponent.getCaretPosition();
+	}
+
+
+	/**
+	 * Cancels this request.  Any completions delivered to it after this
+	 * call are ignored.
+	 *
+	 * @see #isCancelled()
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+
+	/**
+	 * Hands completions to the listener on the EDT.
+	 *
+	 * @param completions The completions.
+	 * @param partial Whether more completions may follow.
+	 */
+	private void deliver(final List completions, final boolean partial) {
+		if (SwingUtilities.isEventDispatchThread()) {
+			if (!cancelled) {
+				listener.completionsAvailable(this, completions, partial);
+			}
+		}
+		else {
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					deliver(completions, partial);
+				}
+			});
+		}
+	}
+
+
+	/**
+	 * Returns the text that was already entered when this request was made,
+	 * as returned by
+	 * {@link CompletionProvider#getAlreadyEnteredText(JTextComponent)}.
+	 *
+	 * @return The text.  This may be <code>null</code>.
+	 */
+	public String getAlreadyEnteredText() {
+		return alreadyEnteredText;
+	}
+
+
+	/**
+	 * Returns the caret position when this request was made.
+	 *
+	 * @return The caret position.
+	 */
+	public int getCaretPosition() {
+		return caretPosition;
+	}
+
+
+	/**
+	 * Returns the text component completions are requested for.  This
+	 * should only be accessed on the EDT.
+	 *
+	 * @return The text component.
+	 */
+	public JTextComponent getTextComponent() {
+		return textComponent;
+	}
+
+
+	/**
+	 * Returns whether this request has been cancelled.  Providers computing
+	 * completions on another thread should check this periodically, and
+	 * stop if it returns <code>true</code>.
+	 *
+	 * @return Whether this request has been cancelled.
+	 * @see #cancel()
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+
+	/**
+	 * Delivers partial results.  These are displayed until more results, or
+	 * the final completions, are delivered.  This method may be called from
+	 * any thread.
+	 *
+	 * @param completions The completions found so far, sorted as
+	 *        {@link CompletionProvider#getCompletions(JTextComponent)} would
+	 *        sort them.
+	 * @see #setCompletions(List)
+	 */
+	public void publish(List completions) {
+		deliver(completions, true);
+	}
+
+
+	/**
+	 * Delivers the final completions for this request.  This method may be
+	 * called from any thread.
+	 *
+	 * @param completions The completions, sorted as
+	 *        {@link CompletionProvider#getCompletions(JTextComponent)} would
+	 *        sort them.
+	 * @see #publish(List)
+	 */
+	public void setCompletions(List completions) {
+		deliver(completions, false);
+	}
+
+
+	/**
+	 * Notified on the EDT when completions are delivered to a request that
+	 * hasn't been cancelled.
+	 */
+	interface Listener {
+
+		/**
+		 * Called when completions are delivered.
+		 *
+		 * @param request The request.
+		 * @param completions The completions.
+		 * @param partial Whether these are partial results.
+		 */
+		public void completionsAvailable(CompletionRequest request,
+										List completions, boolean partial);
+
+	}
+
+
+}
@@ -0,0 +1,82 @@
+/*
+ * 10/19/2026
+ *
+ * CompletionStageListener.java - Notified as auto-completion goes through
+ * the stages of updating its popup window.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+import java.util.EventListener;
+import java.util.List;
+
+
+/**
+ * Notified as an {@link AutoCompletion} goes through the stages of updating
+ * its completion popup window, e.g. after the user types a character and
+ * auto-activation occurs.  This is an instrumentation hook: an
+ * implementation can timestamp each stage to measure how long the provider
+ * takes to find completions, and how long the popup takes to display them.
+ * All methods are called on the EDT, between the stages they separate, so
+ * implementations should return quickly.<p>
+ *
+ * The stages, in the order they occur, are:
+ *
+ * <ol>
+ *    <li>{@link #ACTIVATED} - The popup window is being refreshed, e.g.
+ *        because the auto-activation delay has elapsed.</li>
+ *    <li>{@link #ENTERED_TEXT_FOUND} - The provider has returned the text
+ *        already entered.  If this is <code>null</code> or empty, there may
+ *        be no further stages.</li>
+ *    <li>{@link #COMPLETIONS_FOUND} - The provider has returned the
+ *        completions.  An {@link AsyncCompletionProvider} may reach this
+ *        stage several times, for partial results.</li>
+ *    <li>{@link #POPUP_UPDATED} - The popup window displays the completions,
+ *        or has been hidden, or a single completion is about to be inserted.
+ *        The popup may not have been repainted yet.</li>
+ * </ol>
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see AutoCompletion#setCompletionStageListener(CompletionStageListener)
+ */
+public interface CompletionStageListener extends EventListener {
+
+	/**
+	 * The popup window is being refreshed.
+	 */
+	public static final int ACTIVATED				= 0;
+
+	/**
+	 * The text already entered has been found.
+	 */
+	public static final int ENTERED_TEXT_FOUND		= 1;
+
+	/**
+	 * The completions have been found.
+	 */
+	public static final int COMPLETIONS_FOUND		= 2;
+
+	/**
+	 * The popup window has been updated.
+	 */
+	public static final int POPUP_UPDATED			= 3;
+
+
+	/**
+	 * Called when a stage is reached.
+	 *
+	 * @param ac The auto-completion.
+	 * @param stage The stage reached, e.g. {@link #COMPLETIONS_FOUND}.
+	 * @param completions For {@link #COMPLETIONS_FOUND} and
+	 *        {@link #POPUP_UPDATED}, the completions found.  This is
+	 *        <code>null</code> for other stages, and may be
+	 *        <code>null</code> if there were no completions.  This should
+	 *        not be modified.
+	 */
+	public void stageReached(AutoCompletion ac, int stage, List completions);
+
+
+}
@@ -0,0 +1,731 @@
+/*
+ * 10/19/2026
+ *
+ * CompletionUsageStatistics.java - Remembers which completions the user
+ * chooses, to rank them higher in the future.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+
+
+/**
+ * Counts how often each completion is chosen by the user, so the ones used
+ * most can be ranked first in the completion choices list.  On large APIs,
+ * this lets the user reach the completion they want in fewer keystrokes.<p>
+ *
+ * Counts are kept per language and context.  The language is any string
+ * identifying what's being edited, such as a language support's class name.
+ * The context is the class of the provider supplying the completion, so
+ * that, for example, a completion chosen in a comment isn't ranked higher in
+ * code.  Counts decay as other completions are chosen, so recent choices
+ * outweigh old habits, and the least used are forgotten when
+ * {@link #getMaximumSize()} is reached.  Completions are identified by a
+ * hash of their input text, so two completions may (rarely) share a count.
+ * That only affects their ranking, never which completions are
+ * displayed.<p>
+ *
+ * The counts are stored in primitive arrays, so an instance uses a few
+ * dozen bytes per completion ever chosen, and can be shared by any number of
+ * {@link AutoCompletion}s.  If a file is specified with
+ * {@link #setFile(File, int)}, counts are loaded from it and periodically
+ * saved to it in a compact binary format.<p>
+ *
+ * This class is thread-safe.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see AutoCompletion#setUsageStatistics(CompletionUsageStatistics, String)
+ */
+public class CompletionUsageStatistics {
+
+	/**
+	 * The hash table's keys.  An empty slot has a count of <code>0</code>.
+	 */
+	private long[] keys;
+
+	/**
+	 * The counts of each key, as of the time in {@link #stamps}.
+	 */
+	private float[] counts;
+
+	/**
+	 * The value of {@link #clock} when each key's count was last updated.
+	 */
+	private int[] stamps;
+
+	/**
+	 * The number of keys in the hash table.
+	 */
+	private int size;
+
+	/**
+	 * The maximum number of keys.
+	 */
+	private int maxSize;
+
+	/**
+	 * Incremented each time a completion is chosen.  Counts are decayed by
+	 * how much this has advanced since they were last updated.
+	 */
+	private int clock;
+
+	/**
+	 * After how many chosen completions a count is halved.
+	 */
+	private int halfLife;
+
+	/**
+	 * The file counts are persisted to, or <code>null</code> for none.
+	 */
+	private File file;
+
+	/**
+	 * Saves counts to {@link #file} periodically.
+	 */
+	private Timer saveTimer;
+
+	/**
+	 * Saves counts to {@link #file} when the JVM exits.
+	 */
+	private Thread shutdownHook;
+
+	/**
+	 * Whether counts have changed since they were last saved.
+	 */
+	private boolean dirty;
+
+	/**
+	 * The maximum number of completions ranked by usage at the top of a list
+	 * of completions.
+	 */
+	private int maxRanked;
+
+	private static final int MAGIC				= 0x52414355; // "RACU"
+	private static final int VERSION			= 1;
+
+	private static final int DEFAULT_MAX_SIZE	= 4096;
+	private static final int DEFAULT_HALF_LIFE	= 500;
+	private static final int DEFAULT_MAX_RANKED	= 5;
+
+	/**
+	 * Counts lower than this are considered unused.
+	 */
+	private static final float MIN_COUNT		= 0.01f;
+
+
+	/**
+	 * Constructor.
+	 */
+	public CompletionUsageStatistics() {
+		maxSize = DEFAULT_MAX_SIZE;
+		halfLife = DEFAULT_HALF_LIFE;
+		maxRanked = DEFAULT_MAX_RANKED;
+		allocate(16);
+	}
+
+
+	/**
+	 * Allocates an empty hash table.
+	 *
+	 * @param capacity The capacity.  This must be a power of two.
+	 */
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		counts = new float[capacity];
+		stamps = new int[capacity];
+		size = 0;
+	}
+
+
+	/**
+	 * Removes all counts.
+	 */
+	public synchronized void clear() {
+		allocate(16);
+		clock = 0;
+		dirty = true;
+	}
+
+
+	/**
+	 * Returns the decayed count in a slot of the hash table.
+	 *
+	 * @param slot The slot.
+	 * @return The count.
+	 */
+	private float getCount(int slot) {
+		int age = clock - stamps[slot];
+		if (age==0) {
+			return counts[slot];
+		}
+		return (float)(counts[slot] * Math.pow(2, -(double)age/halfLife));
+	}
+
+
+	/**
+	 * Returns the file counts are persisted to.
+	 *
+	 * @return The file, or <code>null</code> if counts are not persisted.
+	 * @see #setFile(File, int)
+	 */
+	public synchronized File getFile() {
+		return file;
+	}
+
+
+	/**
+	 * Returns after how many chosen completions a completion's count is
+	 * halved.
+	 *
+	 * @return The half life.
+	 * @see #setHalfLife(int)
+	 */
+	public synchronized int getHalfLife() {
+		return halfLife;
+	}
+
+
+	/**
+	 * Returns the hash of a completion's language and context.
+	 *
+	 * @param language The language.
+	 * @param provider The completion's provider.
+	 * @return The hash.
+	 * @see #getKey(long, Completion)
+	 */
+	private static final long getContext(String language,
+									CompletionProvider provider) {
+		return language.hashCode()*31 +
+				provider.getClass().getName().hashCode();
+	}
+
+
+	/**
+	 * Returns the key for a completion.
+	 *
+	 * @param language The language.
+	 * @param c The completion.
+	 * @return The key.
+	 */
+	private static final long getKey(String language, Completion c) {
+		return getKey(getContext(language, c.getProvider()), c);
+	}
+
+
+	/**
+	 * Returns the key for a completion.
+	 *
+	 * @param context The hash of the completion's language and context.
+	 * @param c The completion.
+	 * @return The key.
+	 */
+	private static final long getKey(long context, Completion c) {
+		long key = (context<<32) | (c.getInputText().hashCode()&0xffffffffL);
+		// Spread the bits, since we use the low bits as the slot.
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return key;
+	}
+
+
+	/**
+	 * Returns the maximum number of completions ranked by usage.
+	 *
+	 * @return The maximum number of completions.
+	 * @see #setMaximumRanked(int)
+	 * @see #rank(List, String)
+	 */
+	public synchronized int getMaximumRanked() {
+		return maxRanked;
+	}
+
+
+	/**
+	 * Returns the maximum number of completions counted.  When this is
+	 * exceeded, the least used are forgotten.
+	 *
+	 * @return The maximum number of completions.
+	 * @see #setMaximumSize(int)
+	 */
+	public synchronized int getMaximumSize() {
+		return maxSize;
+	}
+
+
+	/**
+	 * Returns how often a completion has been chosen, with older choices
+	 * counting less than recent ones.
+	 *
+	 * @param language The language being edited.
+	 * @param c The completion.
+	 * @return The count, or <code>0</code> if it hasn't been chosen.
+	 * @see #recordUsage(String, Completion)
+	 */
+	public synchronized float getUsage(String language, Completion c) {
+		int slot = getSlot(getKey(language, c));
+		return counts[slot]==0 ? 0 : getCount(slot);
+	}
+
+
+	/**
+	 * Returns the slot in the hash table for a key.  This is either the
+	 * slot containing it, or the empty slot it should be put in.
+	 *
+	 * @param key The key.
+	 * @return The slot.
+	 */
+	private int getSlot(long key) {
+		int mask = keys.length - 1;
+		int slot = (int)key & mask;
+		while (counts[slot]!=0 && keys[slot]!=key) {
+			slot = (slot+1) & mask;
+		}
+		return slot;
+	}
+
+
+	/**
+	 * Loads counts from a file, replacing those currently held.
+	 *
+	 * @param file The file.
+	 * @throws IOException If an IO error occurs, or the file is not in the
+	 *         expected format.
+	 * @see #save(File)
+	 */
+	public synchronized void load(File file) throws IOException {
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+										new FileInputStream(file)));
+		try {
+
+			if (in.readInt()!=MAGIC || in.readInt()!=VERSION) {
+				throw new IOException("Not a usage statistics file: " + file);
+			}
+			int clock = in.readInt();
+			int count = in.readInt();
+			long[] keys = new long[count];
+			float[] counts = new float[count];
+			int[] stamps = new int[count];
+			for (int i=0; i<count; i++) {
+				keys[i] = in.readLong();
+				counts[i] = in.readFloat();
+				stamps[i] = in.readInt();
+			}
+
+			this.clock = clock;
+			allocate(tableSizeFor(count));
+			for (int i=0; i<count; i++) {
+				if (counts[i]>0) {
+					put(keys[i], counts[i], stamps[i]);
+				}
+			}
+			prune();
+			dirty = false;
+
+		} finally {
+			in.close();
+		}
+
+	}
+
+
+	/**
+	 * Forgets the least used completions if there are more than the maximum
+	 * allowed.  Roughly the quarter least used are forgotten, so this isn't
+	 * done each time a completion is chosen.
+	 */
+	private void prune() {
+
+		if (size<=maxSize) {
+			return;
+		}
+
+		float[] scores = new float[size];
+		int j = 0;
+		for (int i=0; i<keys.length; i++) {
+			if (counts[i]!=0) {
+				scores[j++] = getCount(i);
+			}
+		}
+		Arrays.sort(scores);
+		float threshold = scores[size - Math.max(1, maxSize*3/4)];
+
+		long[] oldKeys = keys;
+		float[] oldCounts = counts;
+		int[] oldStamps = stamps;
+		allocate(tableSizeFor(maxSize));
+		for (int i=0; i<oldKeys.length; i++) {
+			if (oldCounts[i]!=0) {
+				float count = (float)(oldCounts[i] *
+						Math.pow(2, -(double)(clock-oldStamps[i])/halfLife));
+				if (count>=threshold && count>=MIN_COUNT) {
+					put(oldKeys[i], count, clock);
+				}
+			}
+		}
+
+	}
+
+
+	/**
+	 * Adds a key to the hash table, which must not already contain it.  The
+	 * table is grown if necessary.
+	 *
+	 * @param key The key.
+	 * @param count Its count.
+	 * @param stamp The time of its count.
+	 */
+	private void put(long key, float count, int stamp) {
+		if ((size+1)*4>keys.length*3) {
+			long[] oldKeys = keys;
+			float[] oldCounts = counts;
+			int[] oldStamps = stamps;
+			allocate(keys.length*2);
+			for (int i=0; i<oldKeys.length; i++) {
+				if (oldCounts[i]!=0) {
+					put(oldKeys[i], oldCounts[i], oldStamps[i]);
+				}
+			}
+		}
+		int slot = getSlot(key);
+		keys[slot] = key;
+		counts[slot] = count;
+		stamps[slot] = stamp;
+		size++;
+	}
+
+
+	/**
+	 * Returns completions with the most used moved to the front.  At most
+	 * {@link #getMaximumRanked()} are moved, ordered by how often they've
+	 * been chosen; the rest keep their relative order.  This is linear in
+	 * the number of completions, so is cheap even for thousands of them.
+	 *
+	 * @param completions The completions, e.g. those matching the text the
+	 *        user has typed so far.
+	 * @param language The language being edited.
+	 * @return The ranked completions.  If none of them have been chosen
+	 *         before, this is <code>completions</code> itself.
+	 */
+	public synchronized List rank(List completions, String language) {
+
+		if (size==0 || maxRanked==0) {
+			return completions;
+		}
+
+		// The indices and counts of the most used, by insertion sort.
+		int[] top = new int[maxRanked];
+		float[] topCounts = new float[maxRanked];
+		int topCount = 0;
+
+		// Completions usually all come from the same provider.
+		CompletionProvider provider = null;
+		long context = 0;
+
+		int count = completions.size();
+		for (int i=0; i<count; i++) {
+			Completion c = (Completion)completions.get(i);
+			if (c.getProvider()!=provider) {
+				provider = c.getProvider();
+				context = getContext(language, provider);
+			}
+			int slot = getSlot(getKey(context, c));
+			if (counts[slot]==0) {
+				continue;
+			}
+			float usage = getCount(slot);
+			if (usage<MIN_COUNT || (topCount==maxRanked &&
+					usage<=topCounts[topCount-1])) {
+				continue;
+			}
+			int j = topCount<maxRanked ? topCount++ : topCount-1;
+			while (j>0 && usage>topCounts[j-1]) {
+				top[j] = top[j-1];
+				topCounts[j] = topCounts[j-1];
+				j--;
+			}
+			top[j] = i;
+			topCounts[j] = usage;
+		}
+
+		if (topCount==0) {
+			return completions;
+		}
+
+		List ranked = new ArrayList(count);
+		for (int i=0; i<topCount; i++) {
+			ranked.add(completions.get(top[i]));
+		}
+		int[] moved = new int[topCount];
+		System.arraycopy(top, 0, moved, 0, topCount);
+		Arrays.sort(moved);
+		int next = 0;
+		for (int i=0; i<count; i++) {
+			if (next<topCount && moved[next]==i) {
+				next++;
+			}
+			else {
+				ranked.add(completions.get(i));
+			}
+		}
+		return ranked;
+
+	}
+
+
+	/**
+	 * Records that a completion was chosen by the user.
+	 *
+	 * @param language The language being edited.
+	 * @param c The completion.
+	 * @see #getUsage(String, Completion)
+	 */
+	public synchronized void recordUsage(String language, Completion c) {
+		long key = getKey(language, c);
+		int slot = getSlot(key);
+		if (counts[slot]!=0) {
+			counts[slot] = getCount(slot) + 1;
+			stamps[slot] = clock;
+		}
+		else {
+			put(key, 1, clock);
+			prune();
+		}
+		clock++;
+		dirty = true;
+	}
+
+
+	/**
+	 * Saves the counts to the file specified with
+	 * {@link #setFile(File, int)}, if they have changed since they were last
+	 * saved.
+	 *
+	 * @throws IOException If an IO error occurs.
+	 */
+	public void save() throws IOException {
+		File file = null;
+		synchronized (this) {
+			if (!dirty || this.file==null) {
+				return;
+			}
+			file = this.file;
+		}
+		save(file);
+	}
+
+
+	/**
+	 * Saves the counts to a file.  The file is replaced atomically, where
+	 * the platform supports it, so it is never left half written.
+	 *
+	 * @param file The file.
+	 * @throws IOException If an IO error occurs.
+	 * @see #load(File)
+	 */
+	public void save(File file) throws IOException {
+
+		// Copy the counts so the file is written without holding the lock.
+		long[] keys = null;
+		float[] counts = null;
+		int[] stamps = null;
+		int clock = 0;
+		synchronized (this) {
+			keys = new long[size];
+			counts = new float[size];
+			stamps = new int[size];
+			int j = 0;
+			for (int i=0; i<this.keys.length; i++) {
+				if (this.counts[i]!=0) {
+					keys[j] = this.keys[i];
+					counts[j] = this.counts[i];
+					stamps[j] = this.stamps[i];
+					j++;
+				}
+			}
+			clock = this.clock;
+			dirty = false;
+		}
+
+		File temp = new File(file.getPath() + ".tmp");
+		boolean saved = false;
+		try {
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temp)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(clock);
+				out.writeInt(keys.length);
+				for (int i=0; i<keys.length; i++) {
+					out.writeLong(keys[i]);
+					out.writeFloat(counts[i]);
+					out.writeInt(stamps[i]);
+				}
+			} finally {
+				out.close();
+			}
+			if (!temp.renameTo(file)) { // e.g. Windows, if file exists
+				file.delete();
+				if (!temp.renameTo(file)) {
+					throw new IOException("Cannot rename " + temp + " to " +
+											file);
+				}
+			}
+			saved = true;
+		} finally {
+			if (!saved) {
+				temp.delete();
+				synchronized (this) {
+					dirty = true;
+				}
+			}
+		}
+
+	}
+
+
+	/**
+	 * Sets the file counts are persisted to.  Counts are loaded from it if
+	 * it exists, replacing those currently held.  They are then saved to it
+	 * periodically, if they've changed, and when the JVM exits.
+	 *
+	 * @param file The file, or <code>null</code> to stop persisting counts.
+	 * @param saveInterval How often to save changed counts, in milliseconds.
+	 * @throws IOException If the file exists but cannot be loaded.
+	 * @see #getFile()
+	 * @see #save()
+	 */
+	public synchronized void setFile(File file, int saveInterval)
+									throws IOException {
+
+		if (saveTimer!=null) {
+			saveTimer.cancel();
+			saveTimer = null;
+		}
+		this.file = file;
+
+		if (file!=null) {
+			if (file.isFile()) {
+				load(file);
+			}
+			// A daemon thread, so it doesn't keep the JVM alive.
+			saveTimer = new Timer("CompletionUsageStatistics", true);
+			saveTimer.schedule(new SaveTask(), saveInterval, saveInterval);
+			if (shutdownHook==null) {
+				shutdownHook = new Thread() {
+					public void run() {
+						new SaveTask().run();
+					}
+				};
+				Runtime.getRuntime().addShutdownHook(shutdownHook);
+			}
+		}
+		else if (shutdownHook!=null) {
+			// Don't keep this instance alive until the JVM exits.
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException ise) {
+				// The JVM is already shutting down; the hook may be running.
+			}
+			shutdownHook = null;
+		}
+
+	}
+
+
+	/**
+	 * Sets after how many chosen completions a completion's count is halved.
+	 * Lower values favor completions chosen recently; higher values favor
+	 * those chosen often.
+	 *
+	 * @param halfLife The half life.  This must be positive.
+	 * @see #getHalfLife()
+	 */
+	public synchronized void setHalfLife(int halfLife) {
+		if (halfLife<=0) {
+			throw new IllegalArgumentException("halfLife must be positive");
+		}
+		this.halfLife = halfLife;
+	}
+
+
+	/**
+	 * Sets the maximum number of completions ranked by usage.
+	 *
+	 * @param max The maximum.  If this is <code>0</code>, completions are
+	 *        never reordered.
+	 * @see #getMaximumRanked()
+	 */
+	public synchronized void setMaximumRanked(int max) {
+		if (max<0) {
+			throw new IllegalArgumentException("max cannot be negative");
+		}
+		maxRanked = max;
+	}
+
+
+	/**
+	 * Sets the maximum number of completions counted.
+	 *
+	 * @param max The maximum.  This must be positive.
+	 * @see #getMaximumSize()
+	 */
+	public synchronized void setMaximumSize(int max) {
+		if (max<=0) {
+			throw new IllegalArgumentException("max must be positive");
+		}
+		maxSize = max;
+		prune();
+	}
+
+
+	/**
+	 * Returns the hash table capacity to use for a number of keys.
+	 *
+	 * @param count The number of keys.
+	 * @return The capacity, a power of two.
+	 */
+	private static final int tableSizeFor(int count) {
+		int capacity = 16;
+		while (capacity*3<count*4+4) {
+			capacity *= 2;
+		}
+		return capacity;
+	}
+
+
+	/**
+	 * Saves counts to the file, if they've changed.
+	 */
+	private class SaveTask extends TimerTask {
+
+		public void run() {
+			try {
+				save();
+			} catch (IOException ioe) {
+				ioe.printStackTrace();
+			}
+		}
+
+	}
+
+
+}
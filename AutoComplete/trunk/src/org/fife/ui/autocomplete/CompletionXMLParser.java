@@ -140,16 +140,55 @@ public class CompletionXMLParser extends DefaultHandler {
 
 	private FunctionCompletion createFunctionCompletion() {
 
+		FunctionCompletion fc = createFunctionCompletion(funcCompletionType,
+							completionCL, provider, name, returnType);
+
+		if (desc.length()>0) {
+			fc.setShortDescription(desc.toString());
+			desc.setLength(0);
+		}
+		fc.setParams(params);
+		fc.setDefinedIn(definedIn);
+		if (returnValDesc.length()>0) {
+			fc.setReturnValueDescription(returnValDesc.toString());
+			returnValDesc.setLength(0);
+		}
+
+		return fc;
+
+	}
+
+
+	/**
+	 * Creates a function completion.
+	 *
+	 * @param type The class of the completion, or <code>null</code> to
+	 *        create a {@link FunctionCompletion}.  This class must extend
+	 *        <code>FunctionCompletion</code>, and have the same constructor.
+	 * @param cl The class loader to load the class with.  If this is
+	 *        <code>null</code>, the default class loader is used.
+	 * @param provider The completion's provider.
+	 * @param name The name of the function.
+	 * @param returnType The return type of the function.
+	 * @return The completion.
+	 * @see #setDefaultCompletionClassLoader(ClassLoader)
+	 */
+	static FunctionCompletion createFunctionCompletion(String type,
+					ClassLoader cl, CompletionProvider provider, String name,
+					String returnType) {
+
 		FunctionCompletion fc = null;
-		if (funcCompletionType!=null) {
+		if (type!=null) {
+			if (cl==null) {
+				cl = DEFAULT_COMPLETION_CLASS_LOADER; // May also be null
+			}
 			try {
 				Class clazz = null;
-				if (completionCL!=null) {
-					clazz = Class.forName(funcCompletionType, true,
-											completionCL);
+				if (cl!=null) {
+					clazz = Class.forName(type, true, cl);
 				}
 				else {
-					clazz = Class.forName(funcCompletionType);
+					clazz = Class.forName(type);
 				}
 				Class[] paramTypes = { CompletionProvider.class,
 										String.class, String.class };
@@ -167,17 +206,6 @@ public class CompletionXMLParser extends DefaultHandler {
 			fc = new FunctionCompletion(provider, name, returnType);
 		}
 
-		if (desc.length()>0) {
-			fc.setShortDescription(desc.toString());
-			desc.setLength(0);
-		}
-		fc.setParams(params);
-		fc.setDefinedIn(definedIn);
-		if (returnValDesc.length()>0) {
-			fc.setReturnValueDescription(returnValDesc.toString());
-			returnValDesc.setLength(0);
-		}
-
 		return fc;
 
 	}
@@ -304,6 +332,17 @@ public class CompletionXMLParser extends DefaultHandler {
 	}
 
 
+	/**
+	 * Returns the class to use for function completions, if one was
+	 * specified.
+	 *
+	 * @return The class name, or <code>null</code> if none was specified.
+	 */
+	public String getFunctionCompletionType() {
+		return funcCompletionType;
+	}
+
+
 	/**
 	 * Returns the parameter end character specified.
 	 *
@@ -267,6 +267,23 @@ public class DefaultCompletionProvider extends AbstractCompletionProvider {
 	}
 
 
+	/**
+	 * Loads completions from a precompiled bundle.
+	 *
+	 * @param bundle The bundle.
+	 * @param cl The class loader to use when loading any extra classes defined
+	 *        in the bundle, such as custom {@link FunctionCompletion}s.  This
+	 *        may be <code>null</code> if the default is to be used, or if no
+	 *        custom completions are defined in the bundle.
+	 * @see CompletionBundle#find(String, ClassLoader)
+	 */
+	public void loadFromBundle(CompletionBundle bundle, ClassLoader cl) {
+		addCompletions(bundle.createCompletions(this, cl));
+		possiblySetParameterizedCompletionParams(bundle.getParamStartChar(),
+				bundle.getParamSeparator(), bundle.getParamEndChar());
+	}
+
+
 	/**
 	 * Loads completions from an XML file.  The XML should validate against
 	 * <code>CompletionXml.dtd</code>.
@@ -321,14 +338,9 @@ public class DefaultCompletionProvider extends AbstractCompletionProvider {
 			saxParser.parse(bin, handler);
 			List completions =  handler.getCompletions();
 			addCompletions(completions);
-			char startChar = handler.getParamStartChar();
-			if (startChar!=0) {
-				char endChar = handler.getParamEndChar();
-				String sep = handler.getParamSeparator();
-				if (endChar!=0 && sep!=null && sep.length()>0) { // Sanity
-					setParameterizedCompletionParams(startChar, sep, endChar);
-				}
-			}
+			possiblySetParameterizedCompletionParams(
+					handler.getParamStartChar(), handler.getParamSeparator(),
+					handler.getParamEndChar());
 		} catch (SAXException se) {
 			throw new IOException(se.toString());
 		} catch (ParserConfigurationException pce) {
@@ -344,13 +356,21 @@ public class DefaultCompletionProvider extends AbstractCompletionProvider {
 
 	/**
 	 * Loads completions from an XML file.  The XML should validate against
-	 * <code>CompletionXml.dtd</code>.
+	 * <code>CompletionXml.dtd</code>.  If there is a precompiled
+	 * {@link CompletionBundle} for the XML alongside it, the bundle is loaded
+	 * instead.
 	 *
 	 * @param resource A resource the current ClassLoader can get to.
 	 * @throws IOException If an IO error occurs.
+	 * @see CompletionBundle#find(String, ClassLoader)
 	 */
 	public void loadFromXML(String resource) throws IOException {
 		ClassLoader cl = getClass().getClassLoader();
+		CompletionBundle bundle = CompletionBundle.find(resource, cl);
+		if (bundle!=null) {
+			loadFromBundle(bundle, null);
+			return;
+		}
 		InputStream in = cl.getResourceAsStream(resource);
 		if (in==null) {
 			File file = new File(resource);
@@ -370,4 +390,21 @@ public class DefaultCompletionProvider extends AbstractCompletionProvider {
 	}
 
 
+	/**
+	 * Sets the parameterized completion parameters loaded from XML or a
+	 * bundle, if they were all specified.
+	 *
+	 * @param startChar The parameter start character, or 0 if unspecified.
+	 * @param sep The parameter separator, or <code>null</code> if
+	 *        unspecified.
+	 * @param endChar The parameter end character, or 0 if unspecified.
+	 */
+	private void possiblySetParameterizedCompletionParams(char startChar,
+										String sep, char endChar) {
+		if (startChar!=0 && endChar!=0 && sep!=null && sep.length()>0) {
+			setParameterizedCompletionParams(startChar, sep, endChar);
+		}
+	}
+
+
 }
\ No newline at end of file
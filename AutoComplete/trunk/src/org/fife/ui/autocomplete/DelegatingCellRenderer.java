@@ -10,6 +10,10 @@
 package org.fife.ui.autocomplete;
 
 import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.util.Map;
+import java.util.WeakHashMap;
 import javax.swing.DefaultListCellRenderer;
 import javax.swing.JComponent;
 import javax.swing.JList;
@@ -20,7 +24,13 @@ import javax.swing.ListCellRenderer;
  * List cell renderer that delegates to a {@link CompletionProvider}'s
  * renderer, if it has one.  If it doesn't, it calls into a fallback renderer.
  * If a fallback renderer isn't specified, it simply renders
- * <code>(({@link Completion})value).toString()</code>.
+ * <code>(({@link Completion})value).toString()</code>.<p>
+ *
+ * While the list's layout is being computed (see
+ * {@link #setMeasuring(boolean)}), the preferred sizes of cells are cached
+ * per completion.  Rendering a completion (often as HTML) and computing its
+ * size is slow, and the same completions are laid out again and again as
+ * the user types.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -33,6 +43,45 @@ class DelegatingCellRenderer extends DefaultListCellRenderer {
 	 */
 	private ListCellRenderer fallback;
 
+	/**
+	 * Maps completions to the {@link CellSize}s they were last rendered with.
+	 */
+	private Map cellSizes;
+
+	/**
+	 * The list font the cached cell sizes were computed with.
+	 */
+	private Font cellSizesFont;
+
+	/**
+	 * Whether the list's layout is being computed.
+	 */
+	private boolean measuring;
+
+	/**
+	 * Returned instead of a real renderer while measuring, when the size of
+	 * a cell is cached.
+	 */
+	private SizedComponent sizedComponent;
+
+
+	/**
+	 * Constructor.
+	 */
+	public DelegatingCellRenderer() {
+		cellSizes = new WeakHashMap();
+		sizedComponent = new SizedComponent();
+	}
+
+
+	/**
+	 * Clears the cached sizes of cells.  This should be called when
+	 * something that affects how completions are rendered changes.
+	 */
+	public void clearCellSizes() {
+		cellSizes.clear();
+	}
+
 
 	/**
 	 * Returns the fallback cell renderer.
@@ -50,19 +99,49 @@ class DelegatingCellRenderer extends DefaultListCellRenderer {
 	 */
 	public Component getListCellRendererComponent(JList list, Object value,
 						int index, boolean selected, boolean hasFocus) {
+
 		Completion c = (Completion)value;
 		CompletionProvider p = c.getProvider();
 		ListCellRenderer r = p.getListCellRenderer();
-		if (r!=null) {
-			return r.getListCellRendererComponent(list, value, index, selected,
-													hasFocus);
+		if (r==null) {
+			r = fallback;
 		}
-		if (fallback==null) {
+
+		if (!measuring) {
+			return getListCellRendererComponent(r, list, value, index,
+												selected, hasFocus);
+		}
+
+		if (list.getFont()!=cellSizesFont) {
+			cellSizes.clear();
+			cellSizesFont = list.getFont();
+		}
+		CellSize size = (CellSize)cellSizes.get(value);
+		if (size==null || size.renderer!=r) {
+			Component comp = getListCellRendererComponent(r, list, value,
+												index, selected, hasFocus);
+			size = new CellSize(r, comp.getPreferredSize());
+			cellSizes.put(value, size);
+		}
+		sizedComponent.size = size.size;
+		return sizedComponent;
+
+	}
+
+
+	/**
+	 * Returns the component from a provider's renderer, or from this one if
+	 * <code>r</code> is <code>null</code>.
+	 */
+	private Component getListCellRendererComponent(ListCellRenderer r,
+						JList list, Object value, int index, boolean selected,
+						boolean hasFocus) {
+		if (r==null) {
 			return super.getListCellRendererComponent(list, value, index,
 												selected, hasFocus);
 		}
-		return fallback.getListCellRendererComponent(list, value, index,
-													selected, hasFocus);
+		return r.getListCellRendererComponent(list, value, index, selected,
+												hasFocus);
 	}
 
 
@@ -75,6 +154,19 @@ class DelegatingCellRenderer extends DefaultListCellRenderer {
 	 */
 	public void setFallbackCellRenderer(ListCellRenderer fallback) {
 		this.fallback = fallback;
+		clearCellSizes();
+	}
+
+
+	/**
+	 * Toggles whether the list's layout is being computed.  While it is,
+	 * the components returned by this renderer should only be used for
+	 * their preferred size, which is cached per completion.
+	 *
+	 * @param measuring Whether the list's layout is being computed.
+	 */
+	public void setMeasuring(boolean measuring) {
+		this.measuring = measuring;
 	}
 
 
@@ -86,6 +178,39 @@ class DelegatingCellRenderer extends DefaultListCellRenderer {
 		if ((fallback instanceof JComponent) && fallback!=this) {
 			((JComponent)fallback).updateUI();
 		}
+		if (cellSizes!=null) { // Called from super constructor
+			clearCellSizes();
+		}
+	}
+
+
+	/**
+	 * The cached size of a cell.
+	 */
+	private static class CellSize {
+
+		private ListCellRenderer renderer;
+		private Dimension size;
+
+		public CellSize(ListCellRenderer renderer, Dimension size) {
+			this.renderer = renderer;
+			this.size = size;
+		}
+
+	}
+
+
+	/**
+	 * A component whose preferred size is the cached size of a cell.
+	 */
+	private static class SizedComponent extends JComponent {
+
+		private Dimension size;
+
+		public Dimension getPreferredSize() {
+			return new Dimension(size);
+		}
+
 	}
 
 
@@ -30,6 +30,9 @@ import javax.swing.plaf.basic.BasicListUI;
  * is bad for lists that are repeatedly hidden and re-displayed, such as
  * completion choices.  This is all because the calculation to get the
  * preferred size of each list item, when it is displayed with HTML, is slow.
+ * For the same reason, if the list's renderer is a
+ * {@link DelegatingCellRenderer}, the sizes it caches for each completion are
+ * used, so only completions that weren't displayed before are measured.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -141,6 +144,26 @@ class FastListUI extends BasicListUI {
 	 * completions.
 	 */
 	protected void updateLayoutState() {
+		ListCellRenderer renderer = list.getCellRenderer();
+		if (renderer instanceof DelegatingCellRenderer) {
+			DelegatingCellRenderer dcr = (DelegatingCellRenderer)renderer;
+			dcr.setMeasuring(true);
+			try {
+				updateLayoutStateImpl();
+			} finally {
+				dcr.setMeasuring(false);
+			}
+		}
+		else {
+			updateLayoutStateImpl();
+		}
+	}
+
+
+	/**
+	 * Recalculates the cell width and height of each cell in the list.
+	 */
+	private void updateLayoutStateImpl() {
 
 		ListModel model = list.getModel();
 		int itemCount = model.getSize();
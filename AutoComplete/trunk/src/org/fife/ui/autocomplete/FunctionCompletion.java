@@ -33,7 +33,7 @@ public class FunctionCompletion extends VariableCompletion
 	/**
 	 * A description of the return value of this function.
 	 */
-	private String returnValDesc;
+	private Object returnValDesc;
 
 
 	/**
@@ -84,6 +84,7 @@ public class FunctionCompletion extends VariableCompletion
 			sb.append("</td></tr></table></center><br><br>");
 		}
 
+		String returnValDesc = getReturnValueDescription();
 		if (returnValDesc!=null) {
 			sb.append("<b>Returns:</b><br><center><table width='90%'><tr><td>");
 			sb.append(returnValDesc);
@@ -245,7 +246,7 @@ public class FunctionCompletion extends VariableCompletion
 	 * @see #setReturnValueDescription(String)
 	 */
 	public String getReturnValueDescription() {
-		return returnValDesc;
+		return returnValDesc==null ? null : returnValDesc.toString();
 	}
 
 
@@ -303,4 +304,16 @@ public class FunctionCompletion extends VariableCompletion
 	}
 
 
+	/**
+	 * Sets the description of the return value of this function to an
+	 * object whose <code>toString()</code> method returns it when it is
+	 * needed.
+	 *
+	 * @param desc The description.
+	 */
+	void setReturnValueDescriptionObject(Object desc) {
+		this.returnValDesc = desc;
+	}
+
+
 }
\ No newline at end of file
@@ -13,11 +13,11 @@ import java.awt.Point;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.List;
+import javax.swing.text.Element;
 import javax.swing.text.JTextComponent;
 
 import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
-import org.fife.ui.rsyntaxtextarea.RSyntaxUtilities;
 import org.fife.ui.rsyntaxtextarea.Token;
 import org.fife.ui.rtextarea.RTextArea;
 import org.fife.ui.rtextarea.ToolTipSupplier;
@@ -44,13 +44,17 @@ import org.fife.ui.rtextarea.ToolTipSupplier;
  * {@link VariableCompletion} and {@link FunctionCompletion} completions should
  * be able to display tooltips with the variable declaration or function
  * definition (provided the <tt>RSyntaxTextArea</tt> was registered with the
- * <tt>javax.swing.ToolTipManager</tt>).
+ * <tt>javax.swing.ToolTipManager</tt>).<p>
+ *
+ * If the provider for the caret position is an
+ * {@link AsyncCompletionProvider}, requests for completions are passed on
+ * to it, so it can compute them in the background.
  *
  * @author Robert Futrell
  * @version 1.0
  */
 public class LanguageAwareCompletionProvider extends CompletionProviderBase
-											implements ToolTipSupplier {
+						implements AsyncCompletionProvider, ToolTipSupplier {
 
 	/**
 	 * The provider to use when no provider is assigned to a particular token
@@ -141,6 +145,27 @@ public class LanguageAwareCompletionProvider extends CompletionProviderBase
 	}
 
 
+	/**
+	 * Passes the request on to the provider for the caret position, if it
+	 * is an {@link AsyncCompletionProvider}.  Otherwise, the completions are
+	 * computed immediately.
+	 *
+	 * @param request The request.
+	 */
+	public void getCompletionsAsync(CompletionRequest request) {
+		JTextComponent comp = request.getTextComponent();
+		if (getParent()==null && comp instanceof RSyntaxTextArea) {
+			CompletionProvider provider = getProviderFor(comp);
+			if (provider instanceof AsyncCompletionProvider) {
+				((AsyncCompletionProvider)provider).getCompletionsAsync(
+																request);
+				return;
+			}
+		}
+		request.setCompletions(getCompletions(comp));
+	}
+
+
 	/**
 	 * Does the dirty work of creating a list of completions.
 	 *
@@ -229,24 +254,24 @@ public class LanguageAwareCompletionProvider extends CompletionProviderBase
 
 		RSyntaxTextArea rsta = (RSyntaxTextArea)comp;
 		RSyntaxDocument doc = (RSyntaxDocument)rsta.getDocument();
-		int line = rsta.getCaretLineNumber();
-		Token t = doc.getTokenListForLine(line);
-		if (t==null) {
-			return getDefaultCompletionProvider();
-		}
-
 		int dot = rsta.getCaretPosition();
-		Token curToken = RSyntaxUtilities.getTokenAtOffset(t, dot);
 
-		if (curToken==null) { // At end of the line
+		// This is called several times per keystroke.  The document lexes
+		// the whole caret line, but remembers the result for the last couple
+		// of offsets asked about until the document changes.
+		int type = doc.getTokenTypeAt(dot);
+
+		if (type==Token.NULL) { // At end of the line
 
-			int type = doc.getLastTokenTypeOnLine(line);
+			int line = rsta.getCaretLineNumber();
+			type = doc.getLastTokenTypeOnLine(line);
 			if (type==Token.NULL) {
-				Token temp = t.getLastPaintableToken();
-				if (temp==null) {
+				Element elem = doc.getDefaultRootElement().getElement(line);
+				if (dot==elem.getStartOffset()) { // Empty line
 					return getDefaultCompletionProvider();
 				}
-				type = temp.type;
+				// The last token on the line.
+				type = doc.getTokenTypeAt(dot-1);
 			}
 
 			switch (type) {
@@ -264,13 +289,13 @@ public class LanguageAwareCompletionProvider extends CompletionProviderBase
 		}
 
 		// FIXME: This isn't always a safe assumption.
-		if (dot==curToken.offset) { // At the very beginning of a new token
+		if (dot==doc.getTokenStartOffset(dot)) { // At the start of a new token
 			// Need to check previous token for its type before deciding.
 			// Previous token may also be on previous line!
 			return getDefaultCompletionProvider();
 		}
 
-		switch (curToken.type) {
+		switch (type) {
 			case Token.LITERAL_STRING_DOUBLE_QUOTE:
 			case Token.ERROR_STRING_DOUBLE:
 				return getStringCompletionProvider();
@@ -24,7 +24,7 @@ import org.fife.ui.autocomplete.ParameterizedCompletion.Parameter;
 public class MarkupTagCompletion extends AbstractCompletion {
 
 	private String name;
-	private String desc;
+	private Object desc;
 	private String definedIn;
 
 	/**
@@ -136,7 +136,7 @@ public class MarkupTagCompletion extends AbstractCompletion {
 	 * @see #setDescription(String)
 	 */
 	public String getDescription() {
-		return desc;
+		return desc==null ? null : desc.toString();
 	}
 
 
@@ -192,6 +192,7 @@ public class MarkupTagCompletion extends AbstractCompletion {
 	 * @param sb The buffer to append to.
 	 */
 	protected void possiblyAddDescription(StringBuffer sb) {
+		String desc = getDescription();
 		if (desc!=null) {
 			sb.append("<hr><br>");
 			sb.append(desc);
@@ -224,6 +225,17 @@ public class MarkupTagCompletion extends AbstractCompletion {
 	}
 
 
+	/**
+	 * Sets the description of this tag to an object whose
+	 * <code>toString()</code> method returns it when it is needed.
+	 *
+	 * @param desc The description.
+	 */
+	void setDescriptionObject(Object desc) {
+		this.desc = desc;
+	}
+
+
 	/**
 	 * Sets the attributes of this tag.
 	 *
@@ -63,7 +63,7 @@ public interface ParameterizedCompletion extends Completion {
 
 		private String name;
 		private Object type;
-		private String desc;
+		private Object desc;
 
 		/**
 		 * Constructor.
@@ -82,7 +82,7 @@ public interface ParameterizedCompletion extends Completion {
 		}
 
 		public String getDescription() {
-			return desc;
+			return desc==null ? null : desc.toString();
 		}
 
 		public String getName() {
@@ -111,6 +111,16 @@ public interface ParameterizedCompletion extends Completion {
 			this.desc = desc;
 		}
 
+		/**
+		 * Sets the description of this parameter to an object whose
+		 * <code>toString()</code> method returns it when it is needed.
+		 *
+		 * @param desc The description.
+		 */
+		void setDescriptionObject(Object desc) {
+			this.desc = desc;
+		}
+
 		public String toString() {
 			StringBuffer sb = new StringBuffer();
 			if (getType()!=null) {
@@ -0,0 +1,134 @@
+/*
+ * 10/19/2026
+ *
+ * CompletionBundleBenchmark.java - Compares loading completions from XML
+ * and from a bundle.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+
+/**
+ * A benchmark comparing the time taken, and the memory retained, loading
+ * completions from XML and from the same XML compiled into a
+ * {@link CompletionBundle}.  It also checks that both produce the same
+ * completions.<p>
+ *
+ * Usage: <code>java org.fife.ui.autocomplete.CompletionBundleBenchmark
+ * file.xml</code>
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class CompletionBundleBenchmark {
+
+	private static final int ROUNDS = 5;
+
+
+	/**
+	 * Returns a string containing everything displayed for a completion.
+	 *
+	 * @param c The completion.
+	 * @return The string.
+	 */
+	private static String dump(Completion c) {
+		StringBuffer sb = new StringBuffer(c.getClass().getName());
+		sb.append('|').append(c.getReplacementText());
+		sb.append('|').append(c.getSummary());
+		sb.append('|').append(c.getToolTipText());
+		if (c instanceof ParameterizedCompletion) {
+			ParameterizedCompletion pc = (ParameterizedCompletion)c;
+			for (int i=0; i<pc.getParamCount(); i++) {
+				ParameterizedCompletion.Parameter param = pc.getParam(i);
+				sb.append('|').append(param);
+				sb.append('|').append(param.getDescription());
+			}
+		}
+		return sb.toString();
+	}
+
+
+	private static long getUsedMemory() {
+		Runtime r = Runtime.getRuntime();
+		for (int i=0; i<3; i++) {
+			System.gc();
+		}
+		return r.totalMemory() - r.freeMemory();
+	}
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args The XML file to load.
+	 * @throws IOException If an IO error occurs.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		File xml = new File(args[0]);
+		File bundleFile = File.createTempFile("completions",
+										CompletionBundle.EXTENSION);
+		bundleFile.deleteOnExit();
+		CompletionBundleCompiler.compile(xml, bundleFile);
+		System.out.println(xml + ": " + xml.length() + " bytes, bundle: " +
+				bundleFile.length() + " bytes");
+
+		DefaultCompletionProvider fromXml = null;
+		DefaultCompletionProvider fromBundle = null;
+		for (int i=0; i<ROUNDS; i++) {
+			long start = System.currentTimeMillis();
+			fromXml = new DefaultCompletionProvider();
+			fromXml.loadFromXML(xml);
+			long xmlTime = System.currentTimeMillis() - start;
+			start = System.currentTimeMillis();
+			fromBundle = new DefaultCompletionProvider();
+			fromBundle.loadFromBundle(CompletionBundle.load(bundleFile), null);
+			long bundleTime = System.currentTimeMillis() - start;
+			System.out.println("Load time: XML: " + xmlTime + " ms, bundle: " +
+					bundleTime + " ms");
+		}
+
+		List expected = fromXml.completions;
+		List actual = fromBundle.completions;
+		int mismatches = Math.abs(expected.size() - actual.size());
+		for (int i=0; i<Math.min(expected.size(), actual.size()); i++) {
+			if (!dump((Completion)expected.get(i)).equals(
+					dump((Completion)actual.get(i)))) {
+				mismatches++;
+			}
+		}
+		System.out.println(expected.size() + " completions, " + mismatches +
+							" mismatches");
+		fromXml = fromBundle = null;
+
+		// Memory retained, averaged over several providers kept alive at once.
+		DefaultCompletionProvider[] providers =
+							new DefaultCompletionProvider[ROUNDS];
+		long mem = getUsedMemory();
+		for (int i=0; i<ROUNDS; i++) {
+			providers[i] = new DefaultCompletionProvider();
+			providers[i].loadFromXML(xml);
+		}
+		long xmlMem = (getUsedMemory() - mem) / ROUNDS;
+		providers = new DefaultCompletionProvider[ROUNDS];
+		mem = getUsedMemory();
+		for (int i=0; i<ROUNDS; i++) {
+			providers[i] = new DefaultCompletionProvider();
+			providers[i].loadFromBundle(CompletionBundle.load(bundleFile),
+										null);
+		}
+		long bundleMem = (getUsedMemory() - mem) / ROUNDS;
+		System.out.println("Memory per provider: XML: " + (xmlMem/1024) +
+				" KB, bundle: " + (bundleMem/1024) + " KB (" +
+				providers.length + " providers)");
+
+	}
+
+
+}
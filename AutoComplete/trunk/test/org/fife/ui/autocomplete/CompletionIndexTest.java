@@ -0,0 +1,245 @@
+/*
+ * 10/19/2026
+ *
+ * CompletionIndexTest.java - Test cases for CompletionIndex.java
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.JTextField;
+
+import junit.framework.TestCase;
+
+
+/**
+ * Unit tests for the {@link CompletionIndex} used by
+ * {@link AbstractCompletionProvider} to find completions matching entered
+ * text: prefix matches, camel case matches, narrowing the previous lookup's
+ * matches as the user types, and detecting when the completions change.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class CompletionIndexTest extends TestCase {
+
+	private static final String[] INPUT_TEXTS = {
+		"equals", "get", "getClass", "getClassName", "GetName", "getName",
+		"getNameCount", "get_value", "hashCode", "NullPointerException",
+		"NumberFormatException", "toString", "URLConnection", "URLDecoder",
+	};
+
+	private CompletionProvider provider;
+	private List list;
+	private CompletionIndex index;
+
+
+	/**
+	 * Asserts that a lookup returns completions with the given input texts,
+	 * in order.
+	 *
+	 * @param expected The expected input texts.
+	 * @param text The text to look up.
+	 * @param camelCase Whether to include camel case matches.
+	 */
+	private void assertMatches(String[] expected, String text,
+								boolean camelCase) {
+		List matches = index.getMatches(text, camelCase);
+		assertEquals(toString(expected), toString(matches));
+		// A new index, not narrowing a previous lookup, must agree.
+		CompletionIndex fresh = new CompletionIndex(list);
+		assertEquals(toString(fresh.getMatches(text, camelCase)),
+					toString(matches));
+	}
+
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		provider = new DefaultCompletionProvider();
+		list = new ArrayList();
+		for (int i=0; i<INPUT_TEXTS.length; i++) {
+			list.add(new BasicCompletion(provider, INPUT_TEXTS[i]));
+		}
+		Collections.sort(list);
+		index = new CompletionIndex(list);
+	}
+
+
+	public void testCamelCase() {
+		assertMatches(new String[] { "getClassName" }, "gCN", true);
+		assertMatches(new String[] { "getClassName" }, "getCNa", true);
+		assertMatches(new String[] { "getClassName", "GetName", "getName",
+					"getNameCount" }, "gN", true);
+		assertMatches(new String[] { "NullPointerException" }, "NPE", true);
+		assertMatches(new String[] { "URLConnection" }, "UC", true);
+		assertMatches(new String[] { "get_value" }, "gV", true);
+		assertMatches(new String[] { "getNameCount" }, "gNC", true);
+	}
+
+
+	public void testCamelCaseDisabled() {
+		assertMatches(new String[0], "gCN", false);
+		assertMatches(new String[] { "NullPointerException" }, "NullP",
+						false);
+	}
+
+
+	public void testCamelCaseFirstCharacterMustMatch() {
+		assertMatches(new String[0], "CN", true);
+		assertMatches(new String[0], "xN", true);
+	}
+
+
+	public void testCamelCaseIncludesPrefixMatches() {
+		// "getC" is a prefix of getClass, and a camel case match of
+		// getNameCount; matches are in sorted order.
+		assertMatches(new String[] { "getClass", "getClassName",
+					"getNameCount" }, "getC", true);
+	}
+
+
+	public void testNarrowing() {
+		String[] typed = { "g", "ge", "get", "getN", "getNa", "getNaC" };
+		String[][] expected = {
+			{ "get", "get_value", "getClass", "getClassName", "GetName",
+				"getName", "getNameCount" },
+			{ "get", "get_value", "getClass", "getClassName", "GetName",
+				"getName", "getNameCount" },
+			{ "get", "get_value", "getClass", "getClassName", "GetName",
+				"getName", "getNameCount" },
+			{ "getClassName", "GetName", "getName", "getNameCount" },
+			{ "getClassName", "GetName", "getName", "getNameCount" },
+			{ "getNameCount" },
+		};
+		for (int i=0; i<typed.length; i++) {
+			assertMatches(expected[i], typed[i], true);
+		}
+	}
+
+
+	public void testNarrowingAfterBackspace() {
+		assertMatches(new String[] { "getNameCount" }, "getNaC", true);
+		assertMatches(new String[] { "getClassName", "GetName", "getName",
+					"getNameCount" }, "getNa", true);
+		assertMatches(new String[] { "hashCode" }, "h", true);
+	}
+
+
+	public void testNarrowingToCamelCase() {
+		// Camel case matches can't be found among the previous lookup's
+		// matches if it didn't include them.
+		assertMatches(new String[] { "GetName", "getName", "getNameCount" },
+						"getN", false);
+		assertMatches(new String[] { "getClassName", "GetName", "getName",
+					"getNameCount" }, "getN", true);
+	}
+
+
+	public void testNoMatches() {
+		assertMatches(new String[0], "zzz", true);
+		assertMatches(new String[0], "getNameCountX", true);
+	}
+
+
+	public void testPrefix() {
+		assertMatches(new String[] { "hashCode" }, "has", false);
+		assertMatches(new String[] { "NullPointerException",
+					"NumberFormatException" }, "N", false);
+		assertMatches(new String[] { "URLConnection", "URLDecoder" }, "URL",
+						false);
+	}
+
+
+	public void testPrefixIsCaseInsensitive() {
+		assertMatches(new String[] { "GetName", "getName", "getNameCount" },
+						"getname", false);
+		assertMatches(new String[] { "toString" }, "TOS", false);
+	}
+
+
+	public void testIsValid() {
+
+		assertTrue(index.isValid(list));
+		assertTrue(index.isValid(new ArrayList(list)));
+
+		// Replaced in place, without changing the size.
+		List copy = new ArrayList(list);
+		copy.set(3, new BasicCompletion(provider, "getClassName"));
+		assertFalse(index.isValid(copy));
+
+		// Re-ordered in place.
+		copy = new ArrayList(list);
+		Collections.reverse(copy);
+		assertFalse(index.isValid(copy));
+
+		copy = new ArrayList(list);
+		copy.remove(0);
+		assertFalse(index.isValid(copy));
+
+	}
+
+
+	public void testProviderNoticesInPlaceChanges() {
+
+		TestProvider p = new TestProvider();
+		for (int i=0; i<INPUT_TEXTS.length; i++) {
+			p.addCompletion(new BasicCompletion(p, INPUT_TEXTS[i]));
+		}
+		JTextField field = new JTextField("has");
+		field.setCaretPosition(3);
+		assertEquals("[hashCode]", toString(p.getCompletions(field)));
+
+		// Replaced without calling completionsChanged().
+		p.replace("hashCode", new BasicCompletion(p, "hashMap"));
+		assertEquals("[hashMap]", toString(p.getCompletions(field)));
+
+	}
+
+
+	/**
+	 * Returns the input texts of completions, or strings, as a string.
+	 *
+	 * @param items The completions or strings.
+	 * @return The string.
+	 */
+	private static String toString(Object[] items) {
+		StringBuffer sb = new StringBuffer("[");
+		for (int i=0; i<items.length; i++) {
+			if (i>0) {
+				sb.append(", ");
+			}
+			Object item = items[i];
+			sb.append(item instanceof Completion ?
+					((Completion)item).getInputText() : item);
+		}
+		return sb.append(']').toString();
+	}
+
+
+	private static String toString(List items) {
+		return toString(items.toArray());
+	}
+
+
+	/**
+	 * A provider that modifies its completions in place.
+	 */
+	private static class TestProvider extends DefaultCompletionProvider {
+
+		public void replace(String inputText, Completion c) {
+			for (int i=0; i<completions.size(); i++) {
+				Completion old = (Completion)completions.get(i);
+				if (old.getInputText().equals(inputText)) {
+					completions.set(i, c);
+				}
+			}
+		}
+
+	}
+
+
+}
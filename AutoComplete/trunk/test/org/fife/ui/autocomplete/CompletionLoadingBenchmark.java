@@ -0,0 +1,187 @@
+/*
+ * 10/19/2026
+ *
+ * CompletionLoadingBenchmark.java - Times loading and searching many
+ * completions.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.swing.JTextArea;
+
+
+/**
+ * A benchmark for loading a large number of completions into a
+ * {@link DefaultCompletionProvider}, one at a time, in batches, and all at
+ * once, and for looking up completions afterward: by prefix, and as they
+ * would be while typing words and their camel case abbreviations one
+ * character at a time.  The typing lookups are timed without sorting the
+ * results by relevance, which for short prefixes takes much longer than
+ * the lookups themselves.<p>
+ *
+ * Usage: <code>java org.fife.ui.autocomplete.CompletionLoadingBenchmark
+ * [completionCount]</code>
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class CompletionLoadingBenchmark {
+
+	private static final int BATCH_SIZE = 1000;
+	private static final int LOOKUP_COUNT = 10000;
+	private static final int TYPED_WORD_COUNT = 1000;
+
+
+	/**
+	 * Creates random words that look vaguely like API function names.
+	 *
+	 * @param count The number of words to create.
+	 * @return The words.
+	 */
+	private static String[] createWords(int count) {
+		String[] parts = { "get", "set", "is", "add", "remove", "create",
+				"Class", "Name", "Value", "Index", "List", "Map", "Element",
+				"Node", "Text", "Url", "Path", "Stream", "Buffer", "Char" };
+		Random r = new Random(0);
+		String[] words = new String[count];
+		for (int i=0; i<count; i++) {
+			StringBuffer sb = new StringBuffer();
+			int partCount = 2 + r.nextInt(3);
+			for (int j=0; j<partCount; j++) {
+				sb.append(parts[r.nextInt(parts.length)]);
+			}
+			words[i] = sb.append(i).toString();
+		}
+		return words;
+	}
+
+
+	/**
+	 * Returns the camel case abbreviation of a word, e.g. "gCN" for
+	 * "getClassName".
+	 *
+	 * @param word The word.
+	 * @return The abbreviation.
+	 */
+	private static String getAbbreviation(String word) {
+		StringBuffer sb = new StringBuffer().append(word.charAt(0));
+		for (int i=1; i<word.length(); i++) {
+			if (Character.isUpperCase(word.charAt(i))) {
+				sb.append(word.charAt(i));
+			}
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args The number of completions to load (optional).
+	 */
+	public static void main(String[] args) {
+
+		int count = args.length>0 ? Integer.parseInt(args[0]) : 50000;
+		String[] words = createWords(count);
+
+		DefaultCompletionProvider provider = new DefaultCompletionProvider();
+		long start = System.currentTimeMillis();
+		for (int i=0; i<count; i++) {
+			provider.addCompletion(new BasicCompletion(provider, words[i]));
+		}
+		System.out.println("addCompletion(), one at a time: " +
+				(System.currentTimeMillis()-start) + " ms");
+
+		provider = new DefaultCompletionProvider();
+		start = System.currentTimeMillis();
+		for (int i=0; i<count; i+=BATCH_SIZE) {
+			List batch = new ArrayList(BATCH_SIZE);
+			for (int j=i; j<Math.min(i+BATCH_SIZE, count); j++) {
+				batch.add(new BasicCompletion(provider, words[j]));
+			}
+			provider.addCompletions(batch);
+		}
+		System.out.println("addCompletions(), " + BATCH_SIZE +
+				" at a time: " + (System.currentTimeMillis()-start) + " ms");
+
+		provider = new DefaultCompletionProvider();
+		start = System.currentTimeMillis();
+		List all = new ArrayList(count);
+		for (int i=0; i<count; i++) {
+			all.add(new BasicCompletion(provider, words[i]));
+		}
+		provider.addCompletions(all);
+		System.out.println("addCompletions(), all at once: " +
+				(System.currentTimeMillis()-start) + " ms");
+
+		JTextArea textArea = new JTextArea();
+		int matches = 0;
+		start = System.currentTimeMillis();
+		for (int i=0; i<LOOKUP_COUNT; i++) {
+			String word = words[(i*31)%count];
+			textArea.setText(word.substring(0, word.length()-i%4));
+			textArea.setCaretPosition(textArea.getDocument().getLength());
+			matches += provider.getCompletions(textArea).size();
+			if (provider.getCompletionByInputText(word)==null) {
+				System.out.println("Error: no completion for " + word);
+			}
+		}
+		System.out.println(LOOKUP_COUNT + " prefix lookups (" + matches +
+				" matches): " + (System.currentTimeMillis()-start) + " ms");
+
+		type(provider, textArea, words, false);
+		type(provider, textArea, words, true);
+		provider.setCamelCaseMatchingEnabled(false);
+		type(provider, textArea, words, true);
+
+	}
+
+
+	/**
+	 * Times the lookups done while typing words, one character at a time.
+	 *
+	 * @param provider The provider.
+	 * @param textArea The text area to type into.
+	 * @param words The words.
+	 * @param abbreviate Whether to type the words' camel case abbreviations
+	 *        instead of the words themselves.
+	 */
+	private static void type(DefaultCompletionProvider provider,
+					JTextArea textArea, String[] words, boolean abbreviate) {
+
+		int keystrokes = 0;
+		int matches = 0;
+		long worst = 0;
+		long start = System.currentTimeMillis();
+
+		for (int i=0; i<TYPED_WORD_COUNT; i++) {
+			String word = words[(i*997)%words.length];
+			String typed = abbreviate ? getAbbreviation(word) : word;
+			textArea.setText(null);
+			for (int j=0; j<typed.length(); j++) {
+				long keystrokeStart = System.nanoTime();
+				textArea.append(typed.substring(j, j+1));
+				textArea.setCaretPosition(j+1);
+				matches += provider.getCompletionsImpl(textArea).size();
+				worst = Math.max(worst, System.nanoTime()-keystrokeStart);
+				keystrokes++;
+			}
+		}
+
+		long time = System.currentTimeMillis() - start;
+		System.out.println("Typing " + TYPED_WORD_COUNT +
+			(abbreviate ? " abbreviations" : " words") + " (camel case " +
+			(provider.isCamelCaseMatchingEnabled() ? "on, " : "off, ") +
+			keystrokes + " keystrokes, " + matches + " matches): " + time +
+			" ms, " + (time*1000/keystrokes) + " us/keystroke average, " +
+			(worst/1000) + " us worst");
+
+	}
+
+
+}
@@ -0,0 +1,158 @@
+/*
+ * 10/19/2026
+ *
+ * PopupFilteringBenchmark.java - Times updating the completion list as the
+ * user types.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JList;
+import javax.swing.JScrollPane;
+import javax.swing.plaf.ListUI;
+
+
+/**
+ * A benchmark for updating the completion choices list, the way the popup
+ * window does it, as the user types words one character at a time.  Each
+ * keystroke sets the list's contents to the completions matching the text
+ * typed so far, and lays the list out again; only that is timed, not finding
+ * the matches.  The completions are rendered
+ * with a {@link CompletionCellRenderer}, so each is displayed as HTML.<p>
+ *
+ * Usage: <code>java org.fife.ui.autocomplete.PopupFilteringBenchmark
+ * [completionCount]</code>
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class PopupFilteringBenchmark {
+
+	private static final int TYPED_WORD_COUNT = 200;
+
+
+	/**
+	 * Creates completions with names that look vaguely like API functions.
+	 * Many share a long prefix, so lists of thousands of completions are
+	 * still visible after a few characters are typed.
+	 *
+	 * @param provider The provider for the completions.
+	 * @param count The number of completions to create.
+	 * @return The completions, sorted.
+	 */
+	private static List createCompletions(CompletionProvider provider,
+										int count) {
+		String[] parts = { "get", "set", "Class", "Name", "Value", "Index",
+				"List", "Map", "Element", "Node" };
+		List completions = new ArrayList(count);
+		for (int i=0; i<count; i++) {
+			StringBuffer sb = new StringBuffer();
+			int n = i;
+			for (int j=0; j<3; j++) {
+				sb.append(parts[n%parts.length]);
+				n /= parts.length;
+			}
+			String name = sb.append(i).toString();
+			completions.add(new FunctionCompletion(provider, name, "int"));
+		}
+		java.util.Collections.sort(completions);
+		return completions;
+	}
+
+
+	/**
+	 * Returns the completions whose input text starts with a prefix.
+	 *
+	 * @param completions The completions to search.
+	 * @param prefix The prefix.
+	 * @return The matching completions.
+	 */
+	private static List getMatches(List completions, String prefix) {
+		List matches = new ArrayList();
+		for (int i=0; i<completions.size(); i++) {
+			Completion c = (Completion)completions.get(i);
+			if (c.getInputText().startsWith(prefix)) {
+				matches.add(c);
+			}
+		}
+		return matches;
+	}
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args The number of completions (optional).
+	 */
+	public static void main(String[] args) {
+
+		int count = args.length>0 ? Integer.parseInt(args[0]) : 20000;
+		DefaultCompletionProvider provider = new DefaultCompletionProvider();
+		provider.setListCellRenderer(new CompletionCellRenderer());
+		List completions = createCompletions(provider, count);
+
+		CompletionListModel model = new CompletionListModel();
+		JList list = new JList(model) {
+			public void setUI(ListUI ui) {
+				super.setUI(new FastListUI());
+			}
+		};
+		list.setCellRenderer(new DelegatingCellRenderer());
+		JScrollPane sp = new JScrollPane(list);
+		sp.setSize(300, 200);
+
+		int keystrokes = 0;
+		int visible = 0;
+		long total = 0;
+		long worst = 0;
+
+		for (int i=0; i<TYPED_WORD_COUNT; i++) {
+			Completion c = (Completion)completions.get((i*997)%count);
+			String word = c.getInputText();
+			for (int j=1; j<=word.length(); j++) {
+				List matches = getMatches(completions, word.substring(0, j));
+				long keystrokeStart = System.nanoTime();
+				model.setContents(matches);
+				list.setSelectedIndex(0);
+				list.getPreferredSize(); // Forces the list to be laid out
+				long time = System.nanoTime() - keystrokeStart;
+				total += time;
+				worst = Math.max(worst, time);
+				if (!matches.equals(getContents(model))) {
+					System.out.println("Error: wrong contents for " +
+										word.substring(0, j));
+				}
+				visible += matches.size();
+				keystrokes++;
+			}
+		}
+
+		System.out.println("Typing " + TYPED_WORD_COUNT + " words (" +
+			keystrokes + " keystrokes, " + (visible/keystrokes) +
+			" visible completions on average): " + (total/1000000) +
+			" ms, " + (total/1000/keystrokes) + " us/keystroke average, " +
+			(worst/1000) + " us worst");
+
+	}
+
+
+	/**
+	 * Returns the contents of a list model.
+	 *
+	 * @param model The model.
+	 * @return Its contents.
+	 */
+	private static List getContents(CompletionListModel model) {
+		List contents = new ArrayList(model.getSize());
+		for (int i=0; i<model.getSize(); i++) {
+			contents.add(model.getElementAt(i));
+		}
+		return contents;
+	}
+
+
+}
@@ -0,0 +1,440 @@
+/*
+ * 10/19/2026
+ *
+ * TypingLatencyBenchmark.java - Times auto-completion from a keystroke to
+ * the popup window being displayed.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.autocomplete;
+
+import java.awt.GraphicsEnvironment;
+import java.awt.event.ActionEvent;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import javax.swing.Action;
+import javax.swing.JFrame;
+import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+import javax.swing.text.DefaultEditorKit;
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
+import org.fife.ui.rtextarea.RecordableTextAction;
+
+
+/**
+ * A benchmark for the latency of auto-completion as the user types.  Words
+ * are typed into an {@link RSyntaxTextArea} one character at a time, through
+ * the same {@link RecordableTextAction} that the text area's key bindings
+ * (and macro playback) use.  Each keystroke auto-activates an
+ * {@link AutoCompletion} with a {@link LanguageAwareCompletionProvider}, and
+ * a {@link CompletionStageListener} timestamps each stage of updating the
+ * popup window.  The 50th and 99th percentile of each stage are reported
+ * for several languages and provider sizes.  The auto-activation delay is
+ * set to <code>0</code>, so it isn't included in the times.<p>
+ *
+ * The stages timed for each keystroke are:
+ * <ul>
+ *    <li><b>key</b> - Inserting the character, including any document and
+ *        caret listeners.</li>
+ *    <li><b>activate</b> - Until the auto-activation timer fires.</li>
+ *    <li><b>text</b> - Finding the text already entered, which includes
+ *        finding the provider for the caret's context.</li>
+ *    <li><b>provider</b> - Finding the completions.</li>
+ *    <li><b>popup</b> - Ranking and setting the completions in the popup
+ *        window.</li>
+ *    <li><b>paint</b> - Until pending repaints are done.</li>
+ * </ul>
+ *
+ * Completions are rendered with a {@link CompletionCellRenderer}.  The
+ * benchmark needs a display, since the text area and the popup are shown in
+ * real windows; it can't be run headless.<p>
+ *
+ * Usage: <code>java org.fife.ui.autocomplete.TypingLatencyBenchmark
+ * [completionCount...]</code>
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class TypingLatencyBenchmark {
+
+	private static final String[][] LANGUAGES = {
+		{ SyntaxConstants.SYNTAX_STYLE_JAVA,
+			"public class Example {\n\n\tpublic void run(int count) {\n" +
+			"\t\t// Count things\n\t\tString s = \"count: \" + count;\n" +
+			"\t}\n\n" },
+		{ SyntaxConstants.SYNTAX_STYLE_C,
+			"/* Example */\nint run(int count) {\n" +
+			"\tchar *s = \"count\";\n\treturn count;\n}\n\n" },
+		{ SyntaxConstants.SYNTAX_STYLE_PERL,
+			"# Example\nsub run {\n\tmy $count = shift;\n" +
+			"\tprint \"count: $count\\n\";\n}\n\n" },
+		{ SyntaxConstants.SYNTAX_STYLE_JAVASCRIPT,
+			"/* Example */\nfunction run(count) {\n" +
+			"\tvar s = \"count: \" + count;\n\treturn s;\n}\n\n" },
+	};
+
+	private static final int[] DEFAULT_COMPLETION_COUNTS = { 100, 1000, 10000 };
+
+	/**
+	 * The number of times the sample text is repeated in the document.
+	 */
+	private static final int SAMPLE_REPEAT_COUNT = 100;
+
+	private static final int WORD_COUNT = 100;
+
+	private static final String[] STAGES = {
+		"key", "activate", "text", "provider", "popup", "paint", "total" };
+
+	private RSyntaxTextArea textArea;
+	private AutoCompletion ac;
+	private Action typeAction;
+
+	/**
+	 * Timestamps for the current keystroke, indexed by stage.  These are
+	 * set on the EDT and read by the main thread.
+	 */
+	private final long[] times = new long[STAGES.length];
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param language The syntax style and sample text.
+	 * @param names The names of the completions.
+	 */
+	private TypingLatencyBenchmark(String[] language, List names) {
+
+		StringBuffer sb = new StringBuffer();
+		for (int i=0; i<SAMPLE_REPEAT_COUNT; i++) {
+			sb.append(language[1]);
+		}
+		textArea = new RSyntaxTextArea(25, 80);
+		textArea.setSyntaxEditingStyle(language[0]);
+		textArea.setText(sb.toString());
+		textArea.setCaretPosition(textArea.getDocument().getLength());
+
+		DefaultCompletionProvider provider = new DefaultCompletionProvider();
+		provider.setAutoActivationRules(true, null);
+		provider.setListCellRenderer(new CompletionCellRenderer());
+		List completions = new ArrayList(names.size());
+		for (int i=0; i<names.size(); i++) {
+			String name = (String)names.get(i);
+			completions.add(new FunctionCompletion(provider, name, "int"));
+		}
+		provider.addCompletions(completions);
+
+		ac = new AutoCompletion(new LanguageAwareCompletionProvider(provider));
+		ac.setAutoActivationEnabled(true);
+		ac.setAutoActivationDelay(0);
+		ac.setAutoCompleteSingleChoices(false);
+		ac.setCompletionStageListener(new StageRecorder());
+		ac.install(textArea);
+
+		Action[] actions = textArea.getActions();
+		for (int i=0; i<actions.length; i++) {
+			if (actions[i] instanceof RecordableTextAction &&
+					DefaultEditorKit.defaultKeyTypedAction.equals(
+					((RecordableTextAction)actions[i]).getMacroID())) {
+				typeAction = actions[i];
+			}
+		}
+
+		JFrame frame = new JFrame();
+		frame.setContentPane(new JScrollPane(textArea));
+		frame.pack();
+		frame.setVisible(true);
+
+	}
+
+
+	/**
+	 * Creates completion names that look vaguely like API functions.
+	 *
+	 * @param count The number of names to create.
+	 * @return The names.
+	 */
+	private static List createNames(int count) {
+		String[] parts = { "get", "set", "Class", "Name", "Value", "Index",
+				"List", "Map", "Element", "Node", "add", "remove" };
+		Random random = new Random(count);
+		List names = new ArrayList(count);
+		for (int i=0; i<count; i++) {
+			StringBuffer sb = new StringBuffer();
+			for (int j=0; j<3; j++) {
+				sb.append(parts[random.nextInt(parts.length)]);
+			}
+			names.add(sb.append(i).toString());
+		}
+		return names;
+	}
+
+
+	/**
+	 * Returns a percentile of some values.
+	 *
+	 * @param sorted The values, sorted.
+	 * @param percentile The percentile, from <code>0</code> to
+	 *        <code>100</code>.
+	 * @return The value.
+	 */
+	private static long getPercentile(long[] sorted, int percentile) {
+		int index = (int)Math.ceil(sorted.length * percentile / 100.0) - 1;
+		return sorted[Math.max(0, index)];
+	}
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args The provider sizes to test.  If none are specified, a
+	 *        default set is used.
+	 * @throws Exception If an error occurs.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		if (GraphicsEnvironment.isHeadless()) {
+			System.err.println("This benchmark needs a display.");
+			System.exit(1);
+		}
+
+		int[] counts = DEFAULT_COMPLETION_COUNTS;
+		if (args.length>0) {
+			counts = new int[args.length];
+			for (int i=0; i<args.length; i++) {
+				counts[i] = Integer.parseInt(args[i]);
+			}
+		}
+
+		System.out.println("Language     Completions  Keys  Stage      " +
+							"p50 (us)   p99 (us)");
+		for (int i=0; i<LANGUAGES.length; i++) {
+			for (int j=0; j<counts.length; j++) {
+				List names = createNames(counts[j]);
+				List words = createWords(names);
+				TypingLatencyBenchmark benchmark =
+								createBenchmark(LANGUAGES[i], names);
+				benchmark.type(words); // Warm up
+				long[][] samples = benchmark.type(words);
+				report(LANGUAGES[i][0], counts[j], samples);
+				benchmark.dispose();
+			}
+		}
+
+		System.exit(0);
+
+	}
+
+
+	/**
+	 * Creates a benchmark on the EDT.
+	 */
+	private static TypingLatencyBenchmark createBenchmark(
+						final String[] language, final List names)
+			throws InterruptedException, InvocationTargetException {
+		final TypingLatencyBenchmark[] benchmark =
+									new TypingLatencyBenchmark[1];
+		SwingUtilities.invokeAndWait(new Runnable() {
+			public void run() {
+				benchmark[0] = new TypingLatencyBenchmark(language,
+														names);
+			}
+		});
+		return benchmark[0];
+	}
+
+
+	/**
+	 * Returns the words to type: prefixes of random completion names.
+	 *
+	 * @param names The completion names.
+	 * @return The words.
+	 */
+	private static List createWords(List names) {
+		Random random = new Random(0);
+		List words = new ArrayList(WORD_COUNT);
+		for (int i=0; i<WORD_COUNT; i++) {
+			String name = (String)names.get(random.nextInt(names.size()));
+			words.add(name.substring(0, Math.min(name.length(),
+											2 + random.nextInt(6))));
+		}
+		return words;
+	}
+
+
+	/**
+	 * Uninstalls auto-completion and disposes of the text area's frame.
+	 */
+	private void dispose() throws InterruptedException,
+								InvocationTargetException {
+		SwingUtilities.invokeAndWait(new Runnable() {
+			public void run() {
+				ac.uninstall();
+				JFrame frame = (JFrame)SwingUtilities.getWindowAncestor(
+															textArea);
+				if (frame!=null) {
+					frame.dispose();
+				}
+			}
+		});
+	}
+
+
+	/**
+	 * Prints the percentiles of each stage.
+	 *
+	 * @param language The language.
+	 * @param completionCount The number of completions.
+	 * @param samples The times of each stage (in nanoseconds), indexed by
+	 *        stage.
+	 */
+	private static void report(String language, int completionCount,
+								long[][] samples) {
+		language = language.substring(language.lastIndexOf('/')+1);
+		for (int i=0; i<STAGES.length; i++) {
+			long[] sorted = (long[])samples[i].clone();
+			Arrays.sort(sorted);
+			StringBuffer sb = new StringBuffer();
+			pad(sb, i==0 ? language : "", 13);
+			pad(sb, i==0 ? Integer.toString(completionCount) : "", 13);
+			pad(sb, i==0 ? Integer.toString(sorted.length) : "", 6);
+			pad(sb, STAGES[i], 11);
+			pad(sb, Long.toString(getPercentile(sorted, 50)/1000), 11);
+			sb.append(getPercentile(sorted, 99)/1000);
+			System.out.println(sb);
+		}
+	}
+
+
+	private static void pad(StringBuffer sb, String str, int width) {
+		sb.append(str);
+		for (int i=str.length(); i<width; i++) {
+			sb.append(' ');
+		}
+	}
+
+
+	/**
+	 * Types words into the text area, each followed by a space, and times
+	 * each keystroke that displays completions.
+	 *
+	 * @param words The words to type.
+	 * @return The time taken by each stage (in nanoseconds) for each
+	 *         keystroke, indexed by stage.
+	 * @throws Exception If an error occurs.
+	 */
+	private long[][] type(List words) throws Exception {
+
+		List samples = new ArrayList();
+		Runnable flush = new Runnable() {
+			public void run() {
+			}
+		};
+
+		for (int i=0; i<words.size(); i++) {
+
+			String word = words.get(i) + " ";
+			for (int j=0; j<word.length(); j++) {
+
+				final String ch = word.substring(j, j+1);
+				synchronized (times) {
+					Arrays.fill(times, 0);
+				}
+				long start = System.nanoTime();
+				SwingUtilities.invokeAndWait(new Runnable() {
+					public void run() {
+						typeAction.actionPerformed(new ActionEvent(textArea,
+									ActionEvent.ACTION_PERFORMED, ch));
+						times[0] = System.nanoTime();
+					}
+				});
+				if (ch.charAt(0)==' ') {
+					continue; // Doesn't auto-activate
+				}
+
+				// Everything after auto-activation happens in one event, so
+				// once it has started, wait for the events queued after it.
+				synchronized (times) {
+					long timeout = System.currentTimeMillis() + 1000;
+					while (times[1]==0 &&
+							System.currentTimeMillis()<timeout) {
+						times.wait(10);
+					}
+				}
+				SwingUtilities.invokeAndWait(flush);
+				long end = System.nanoTime();
+
+				synchronized (times) {
+					if (times[4]==0) {
+						continue; // No completions were displayed
+					}
+					long[] sample = new long[STAGES.length];
+					long prev = start;
+					for (int k=0; k<5; k++) {
+						sample[k] = times[k] - prev;
+						prev = times[k];
+					}
+					sample[5] = end - prev;
+					sample[6] = end - start;
+					samples.add(sample);
+				}
+
+			}
+
+		}
+
+		long[][] result = new long[STAGES.length][samples.size()];
+		for (int i=0; i<samples.size(); i++) {
+			long[] sample = (long[])samples.get(i);
+			for (int j=0; j<STAGES.length; j++) {
+				result[j][i] = sample[j];
+			}
+		}
+		return result;
+
+	}
+
+
+	/**
+	 * Timestamps each stage of updating the popup window.
+	 */
+	private class StageRecorder implements CompletionStageListener {
+
+		public void stageReached(AutoCompletion ac, int stage,
+								List completions) {
+
+			long time = System.nanoTime();
+			switch (stage) {
+				case ACTIVATED:
+					times[1] = time;
+					break;
+				case ENTERED_TEXT_FOUND:
+					times[2] = time;
+					break;
+				case COMPLETIONS_FOUND:
+					times[3] = time;
+					break;
+				case POPUP_UPDATED:
+					if (completions!=null && completions.size()>1) {
+						times[4] = time;
+					}
+					break;
+			}
+
+			if (stage==ACTIVATED) {
+				synchronized (times) {
+					times.notifyAll();
+				}
+			}
+
+		}
+
+	}
+
+
+}
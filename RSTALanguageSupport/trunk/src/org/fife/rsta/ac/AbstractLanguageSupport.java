@@ -19,11 +19,21 @@ import javax.swing.ListCellRenderer;
 
 import org.fife.ui.autocomplete.AutoCompletion;
 import org.fife.ui.autocomplete.CompletionProvider;
+import org.fife.ui.autocomplete.CompletionUsageStatistics;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rtextarea.ToolTipSupplier;
 
 
 /**
- * A base class for language support implementations.
+ * A base class for language support implementations.<p>
+ *
+ * Subclasses whose completion providers hold large, unchanging sets of
+ * completions (such as a language's standard library) should share them
+ * through the {@link CompletionProviderRegistry}, by calling
+ * {@link #acquireSharedProvider(RSyntaxTextArea)} when installing on a text
+ * area and overriding {@link #createSharedProvider()}.  The provider is then
+ * shared with every text area editing the same language, and is released
+ * when the last of them is uninstalled.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -39,6 +49,14 @@ public abstract class AbstractLanguageSupport implements LanguageSupport {
 	 */
 	private Map textAreaToAutoCompletion;
 
+	/**
+	 * Maps text areas to the keys of the shared completion providers they
+	 * use.
+	 *
+	 * @see #acquireSharedProvider(RSyntaxTextArea)
+	 */
+	private Map textAreaToProviderKey;
+
 	/**
 	 * Whether auto-completion is enabled for this language.
 	 */
@@ -74,6 +92,12 @@ public abstract class AbstractLanguageSupport implements LanguageSupport {
 	 */
 	private ListCellRenderer renderer;
 
+	/**
+	 * Counts the completions chosen, to rank them.  This may be
+	 * <code>null</code>.
+	 */
+	private CompletionUsageStatistics usageStatistics;
+
 
 	/**
 	 * Constructor.
@@ -81,12 +105,41 @@ public abstract class AbstractLanguageSupport implements LanguageSupport {
 	protected AbstractLanguageSupport() {
 		setDefaultCompletionCellRenderer(null); // Force default
 		textAreaToAutoCompletion = new HashMap();
+		textAreaToProviderKey = new HashMap();
 		autoCompleteEnabled = true;
 		autoActivationEnabled = false;
 		autoActivationDelay = 300;
 	}
 
 
+	/**
+	 * Returns the completion provider for a text area, shared with every
+	 * other text area using the same key (see
+	 * {@link #getSharedProviderKey()}).  The provider is created with
+	 * {@link #createSharedProvider()} if it isn't already in use.  It is
+	 * released when the text area is uninstalled.
+	 *
+	 * @param textArea The text area being installed on.
+	 * @return The completion provider.
+	 * @see #reacquireSharedProviders()
+	 */
+	protected CompletionProvider acquireSharedProvider(
+										RSyntaxTextArea textArea) {
+		Object key = getSharedProviderKey();
+		CompletionProvider provider = CompletionProviderRegistry.acquire(key,
+				new CompletionProviderRegistry.ProviderFactory() {
+					public CompletionProvider createCompletionProvider() {
+						return createSharedProvider();
+					}
+				});
+		Object oldKey = textAreaToProviderKey.put(textArea, key);
+		if (oldKey!=null) {
+			CompletionProviderRegistry.release(oldKey);
+		}
+		return provider;
+	}
+
+
 	/**
 	 * Creates an auto-completion instance pre-configured and usable by
 	 * most <code>LanguageSupport</code>s.
@@ -102,6 +155,7 @@ public abstract class AbstractLanguageSupport implements LanguageSupport {
 		ac.setAutoActivationDelay(getAutoActivationDelay());
 		ac.setParameterAssistanceEnabled(isParameterAssistanceEnabled());
 		ac.setShowDescWindow(getShowDescWindow());
+		ac.setUsageStatistics(getUsageStatistics(), getClass().getName());
 		return ac;
 	}
 
@@ -118,6 +172,20 @@ public abstract class AbstractLanguageSupport implements LanguageSupport {
 	}
 
 
+	/**
+	 * Creates the completion provider shared by text areas using this
+	 * language support.  Subclasses calling
+	 * {@link #acquireSharedProvider(RSyntaxTextArea)} must override this
+	 * method.  The default implementation returns <code>null</code>.
+	 *
+	 * @return The completion provider.
+	 * @see #getSharedProviderKey()
+	 */
+	protected CompletionProvider createSharedProvider() {
+		return null;
+	}
+
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -146,6 +214,22 @@ public abstract class AbstractLanguageSupport implements LanguageSupport {
 	}
 
 
+	/**
+	 * Returns the key identifying the shared completion provider for this
+	 * language support's current configuration.  Language supports with
+	 * equal keys share a provider.  The default implementation returns this
+	 * class, so all instances of it share one provider.  Subclasses with
+	 * configuration affecting their provider should include it in the key,
+	 * and call {@link #reacquireSharedProviders()} when it changes.
+	 *
+	 * @return The key.
+	 * @see CompletionProviderRegistry
+	 */
+	protected Object getSharedProviderKey() {
+		return getClass();
+	}
+
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -164,6 +248,19 @@ public abstract class AbstractLanguageSupport implements LanguageSupport {
 	}
 
 
+	/**
+	 * Returns the statistics used to rank completions by how often they are
+	 * chosen.
+	 *
+	 * @return The statistics, or <code>null</code> if completions are not
+	 *         ranked by usage.
+	 * @see #setUsageStatistics(CompletionUsageStatistics)
+	 */
+	public CompletionUsageStatistics getUsageStatistics() {
+		return usageStatistics;
+	}
+
+
 	/**
 	 * Registers an auto-completion instance.  This should be called by
 	 * subclasses in their
@@ -203,6 +300,28 @@ public abstract class AbstractLanguageSupport implements LanguageSupport {
 	}
 
 
+	/**
+	 * Switches all text areas using a shared completion provider to the one
+	 * for the current value of {@link #getSharedProviderKey()}.  Subclasses
+	 * should call this method when configuration included in that key
+	 * changes.
+	 */
+	protected void reacquireSharedProviders() {
+		Object[] textAreas = textAreaToProviderKey.keySet().toArray();
+		for (int j=0; j<textAreas.length; j++) {
+			RSyntaxTextArea textArea = (RSyntaxTextArea)textAreas[j];
+			AutoCompletion ac = getAutoCompletionFor(textArea);
+			CompletionProvider old = ac.getCompletionProvider();
+			CompletionProvider provider = acquireSharedProvider(textArea);
+			ac.setCompletionProvider(provider);
+			if (textArea.getToolTipSupplier()==old &&
+					provider instanceof ToolTipSupplier) {
+				textArea.setToolTipSupplier((ToolTipSupplier)provider);
+			}
+		}
+	}
+
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -290,6 +409,28 @@ public abstract class AbstractLanguageSupport implements LanguageSupport {
 	}
 
 
+	/**
+	 * Sets the statistics used to rank completions by how often they are
+	 * chosen.  Completions are counted separately for each language support
+	 * class, so the same statistics can be used by all language supports.
+	 *
+	 * @param stats The statistics, or <code>null</code> to not rank
+	 *        completions by usage.
+	 * @see #getUsageStatistics()
+	 * @see AutoCompletion#setUsageStatistics(CompletionUsageStatistics, String)
+	 */
+	public void setUsageStatistics(CompletionUsageStatistics stats) {
+		if (stats!=usageStatistics) {
+			usageStatistics = stats;
+			Iterator i=textAreaToAutoCompletion.values().iterator();
+			while (i.hasNext()) {
+				AutoCompletion ac = (AutoCompletion)i.next();
+				ac.setUsageStatistics(stats, getClass().getName());
+			}
+		}
+	}
+
+
 	/**
 	 * Unregisters an textArea.  This should be called by subclasses in their
 	 * {@link #uninstall(org.fife.ui.rsyntaxtextarea.RSyntaxTextArea)} methods.
@@ -305,6 +446,10 @@ public abstract class AbstractLanguageSupport implements LanguageSupport {
 			ac.uninstall();
 		}
 		textAreaToAutoCompletion.remove(textArea);
+		Object key = textAreaToProviderKey.remove(textArea);
+		if (key!=null) {
+			CompletionProviderRegistry.release(key);
+		}
 	}
 
 
@@ -0,0 +1,155 @@
+/*
+ * 10/19/2026
+ *
+ * CompletionProviderRegistry.java - Completion providers shared by all
+ * text areas editing the same language.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.fife.ui.autocomplete.CompletionProvider;
+
+
+/**
+ * A JVM-wide registry of completion providers, shared by all text areas
+ * editing the same language with the same configuration, even if they use
+ * different {@link LanguageSupport} instances.  Providers for languages such
+ * as Perl and PHP hold thousands of completions describing the language's
+ * standard library, which never change; with this registry, the memory they
+ * use grows with the number of languages being edited rather than the number
+ * of open files.  Completions that depend on the document being edited, such
+ * as local variables, are computed by the providers for each request and
+ * are not shared.<p>
+ *
+ * Providers are reference counted.  Each call to
+ * {@link #acquire(Object, ProviderFactory)} must be balanced by a call to
+ * {@link #release(Object)}, and a provider is discarded when it is no longer
+ * used by any text area.  This class is thread-safe.  Creating a provider
+ * (which usually means loading its completions) does not block acquiring
+ * providers for other keys.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see AbstractLanguageSupport#acquireSharedProvider(org.fife.ui.rsyntaxtextarea.RSyntaxTextArea)
+ */
+public class CompletionProviderRegistry {
+
+	/**
+	 * Maps keys to {@link Entry}s.
+	 */
+	private static final Map entries = new HashMap();
+
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private CompletionProviderRegistry() {
+	}
+
+
+	/**
+	 * Returns the provider for a key, creating it if necessary.
+	 *
+	 * @param key The key, identifying a language and any configuration that
+	 *        affects its provider.  This should implement
+	 *        <code>equals()</code> and <code>hashCode()</code>, e.g. a
+	 *        <code>String</code> or a <code>List</code> of values.
+	 * @param factory Creates the provider if there isn't one for the key.
+	 * @return The provider.
+	 * @see #release(Object)
+	 */
+	public static CompletionProvider acquire(Object key,
+									ProviderFactory factory) {
+
+		Entry entry = null;
+		synchronized (entries) {
+			entry = (Entry)entries.get(key);
+			if (entry==null) {
+				entry = new Entry();
+				entries.put(key, entry);
+			}
+			entry.refCount++;
+		}
+
+		synchronized (entry) {
+			if (entry.provider==null) {
+				boolean created = false;
+				try {
+					entry.provider = factory.createCompletionProvider();
+					created = true;
+				} finally {
+					if (!created) {
+						release(key);
+					}
+				}
+			}
+			return entry.provider;
+		}
+
+	}
+
+
+	/**
+	 * Returns the number of references to the provider for a key.
+	 *
+	 * @param key The key.
+	 * @return The number of references.  If this is <code>0</code>, there is
+	 *         no provider for the key.
+	 */
+	public static int getReferenceCount(Object key) {
+		synchronized (entries) {
+			Entry entry = (Entry)entries.get(key);
+			return entry==null ? 0 : entry.refCount;
+		}
+	}
+
+
+	/**
+	 * Releases a reference to the provider for a key.  When the last
+	 * reference is released, the provider is discarded.
+	 *
+	 * @param key The key.
+	 * @see #acquire(Object, ProviderFactory)
+	 */
+	public static void release(Object key) {
+		synchronized (entries) {
+			Entry entry = (Entry)entries.get(key);
+			if (entry!=null && --entry.refCount==0) {
+				entries.remove(key);
+			}
+		}
+	}
+
+
+	/**
+	 * Creates a provider when one is first acquired for a key.
+	 */
+	public interface ProviderFactory {
+
+		/**
+		 * Creates a provider.
+		 *
+		 * @return The provider.
+		 */
+		public CompletionProvider createCompletionProvider();
+
+	}
+
+
+	/**
+	 * A shared provider and the number of references to it.
+	 */
+	private static class Entry {
+
+		private int refCount;
+		private CompletionProvider provider;
+
+	}
+
+
+}
@@ -15,6 +15,7 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.fife.ui.autocomplete.BasicCompletion;
+import org.fife.ui.autocomplete.CompletionBundle;
 import org.fife.ui.autocomplete.CompletionProvider;
 import org.fife.ui.autocomplete.DefaultCompletionProvider;
 import org.fife.ui.autocomplete.LanguageAwareCompletionProvider;
@@ -121,7 +122,8 @@ public class CCompletionProvider extends LanguageAwareCompletionProvider {
 	/**
 	 * Called from {@link #createCodeCompletionProvider()} to actually load
 	 * the completions from XML.  Subclasses that override that method will
-	 * want to call this one.
+	 * want to call this one.  If there is a precompiled
+	 * {@link CompletionBundle} for the XML resource, it is loaded instead.
 	 *
 	 * @param cp The code completion provider.
 	 */
@@ -131,8 +133,13 @@ public class CCompletionProvider extends LanguageAwareCompletionProvider {
 		ClassLoader cl = getClass().getClassLoader();
 		String res = getXmlResource();
 		if (res!=null) { // Subclasses may specify a null value
-			InputStream in = cl.getResourceAsStream(res);
 			try {
+				CompletionBundle bundle = CompletionBundle.find(res, cl);
+				if (bundle!=null) {
+					cp.loadFromBundle(bundle, cl);
+					return;
+				}
+				InputStream in = cl.getResourceAsStream(res);
 				if (in!=null) {
 					cp.loadFromXML(in);
 					in.close();
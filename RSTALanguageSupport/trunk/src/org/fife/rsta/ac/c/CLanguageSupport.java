@@ -14,6 +14,7 @@ import javax.swing.ListCellRenderer;
 
 import org.fife.rsta.ac.AbstractLanguageSupport;
 import org.fife.ui.autocomplete.AutoCompletion;
+import org.fife.ui.autocomplete.CompletionProvider;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 
 
@@ -25,12 +26,6 @@ import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
  */
 public class CLanguageSupport extends AbstractLanguageSupport {
 
-	/**
-	 * The completion provider, shared amongst all text areas editing C.
-	 */
-	private CCompletionProvider provider;
-
-
 	/**
 	 * Constructor.
 	 */
@@ -48,11 +43,14 @@ public class CLanguageSupport extends AbstractLanguageSupport {
 	}
 
 
-	private CCompletionProvider getProvider() {
-		if (provider==null) {
-			provider = new CCompletionProvider();
-		}
-		return provider;
+	/**
+	 * Creates the completion provider shared amongst all text areas editing
+	 * C.
+	 *
+	 * @return The completion provider.
+	 */
+	protected CompletionProvider createSharedProvider() {
+		return new CCompletionProvider();
 	}
 
 
@@ -61,7 +59,8 @@ public class CLanguageSupport extends AbstractLanguageSupport {
 	 */
 	public void install(RSyntaxTextArea textArea) {
 
-		CCompletionProvider provider = getProvider();
+		CCompletionProvider provider = (CCompletionProvider)
+				acquireSharedProvider(textArea);
 		AutoCompletion ac = createAutoCompletion(provider);
 		ac.install(textArea);
 		installImpl(textArea, ac);
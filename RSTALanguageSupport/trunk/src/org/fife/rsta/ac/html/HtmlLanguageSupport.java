@@ -14,6 +14,7 @@ import javax.swing.ListCellRenderer;
 
 import org.fife.rsta.ac.AbstractLanguageSupport;
 import org.fife.ui.autocomplete.AutoCompletion;
+import org.fife.ui.autocomplete.CompletionProvider;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 
 
@@ -25,12 +26,6 @@ import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
  */
 public class HtmlLanguageSupport extends AbstractLanguageSupport {
 
-	/**
-	 * The completion provider.  This is shared amongst all HTML text areas.
-	 */
-	private HtmlCompletionProvider provider;
-
-
 	/**
 	 * Constructor.
 	 */
@@ -49,11 +44,14 @@ public class HtmlLanguageSupport extends AbstractLanguageSupport {
 	}
 
 
-	private HtmlCompletionProvider getProvider() {
-		if (provider==null) {
-			provider = new HtmlCompletionProvider();
-		}
-		return provider;
+	/**
+	 * Creates the completion provider shared amongst all text areas editing
+	 * HTML.
+	 *
+	 * @return The completion provider.
+	 */
+	protected CompletionProvider createSharedProvider() {
+		return new HtmlCompletionProvider();
 	}
 
 
@@ -62,7 +60,8 @@ public class HtmlLanguageSupport extends AbstractLanguageSupport {
 	 */
 	public void install(RSyntaxTextArea textArea) {
 
-		HtmlCompletionProvider provider = getProvider();
+		HtmlCompletionProvider provider = (HtmlCompletionProvider)
+				acquireSharedProvider(textArea);
 		AutoCompletion ac = createAutoCompletion(provider);
 		ac.install(textArea);
 		installImpl(textArea, ac);
@@ -0,0 +1,290 @@
+/*
+ * 10/19/2026
+ *
+ * ClassFileCache.java - A bounded cache of ClassFiles read by JarReaders.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.fife.rsta.ac.java.classreader.ClassFile;
+
+
+/**
+ * A bounded cache of the {@link ClassFile}s read from class file sources,
+ * shared by all {@link JarManager}s.  Without a bound, every class ever
+ * offered as a completion would stay in memory for the life of the
+ * application.<p>
+ *
+ * The cache's size is the total weight of its class files, where a class
+ * file's weight is one plus its number of fields and methods, roughly
+ * proportional to the memory it retains.  When the size exceeds the
+ * maximum, the least recently used class files are evicted.  Evicted
+ * classes are simply read again the next time they're needed.<p>
+ *
+ * The names of the classes in each source are not kept here; they're always
+ * resident in each source's package map.  This class is thread-safe.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see JarManager#getClassFileCache()
+ */
+public class ClassFileCache {
+
+	/**
+	 * The default maximum size of the cache.  Each unit of size retains
+	 * roughly 300 bytes, so this is about 30 MB, or about a third of the
+	 * classes in a JRE's <tt>rt.jar</tt>.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 100000;
+
+	/**
+	 * Maps {@link Key}s to {@link ClassFile}s, least recently used first.
+	 */
+	private Map classFiles;
+
+	private int size;
+	private int maxSize;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxSize The maximum size of the cache.
+	 */
+	ClassFileCache(int maxSize) {
+		classFiles = new LinkedHashMap(16, 0.75f, true);
+		setMaximumSize(maxSize);
+	}
+
+
+	/**
+	 * Removes all class files from the cache.  The statistics are not
+	 * reset.
+	 */
+	public synchronized void clear() {
+		classFiles.clear();
+		size = 0;
+	}
+
+
+	/**
+	 * Evicts the least recently used class files until the cache is no
+	 * larger than its maximum size.
+	 */
+	private void evictIfNecessary() {
+		for (Iterator i=classFiles.values().iterator();
+				size>maxSize && i.hasNext(); ) {
+			size -= getWeight((ClassFile)i.next());
+			i.remove();
+			evictionCount++;
+		}
+	}
+
+
+	/**
+	 * Returns a class file from the cache.
+	 *
+	 * @param reader The reader the class file was read by.
+	 * @param entryName The name of the class file in the reader's source,
+	 *        e.g. "<code>java/lang/String.class</code>".
+	 * @return The class file, or <code>null</code> if it isn't cached.
+	 * @see #put(JarReader, String, ClassFile)
+	 */
+	synchronized ClassFile get(JarReader reader, String entryName) {
+		ClassFile cf = (ClassFile)classFiles.get(new Key(reader, entryName));
+		if (cf!=null) {
+			hitCount++;
+		}
+		else {
+			missCount++;
+		}
+		return cf;
+	}
+
+
+	/**
+	 * Returns the number of class files in the cache.
+	 *
+	 * @return The number of class files.
+	 * @see #getSize()
+	 */
+	public synchronized int getCount() {
+		return classFiles.size();
+	}
+
+
+	/**
+	 * Returns the number of class files evicted from the cache because it
+	 * was full.
+	 *
+	 * @return The number of evictions.
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+
+	/**
+	 * Returns the number of times a class file was found in the cache.
+	 *
+	 * @return The number of hits.
+	 * @see #getMissCount()
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+
+	/**
+	 * Returns the maximum size of the cache.
+	 *
+	 * @return The maximum size.
+	 * @see #setMaximumSize(int)
+	 */
+	public synchronized int getMaximumSize() {
+		return maxSize;
+	}
+
+
+	/**
+	 * Returns the number of times a class file was not found in the cache,
+	 * and had to be read.
+	 *
+	 * @return The number of misses.
+	 * @see #getHitCount()
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+
+	/**
+	 * Returns the size of the cache, i.e. the total weight of the class
+	 * files in it.
+	 *
+	 * @return The size.
+	 * @see #getCount()
+	 * @see #getMaximumSize()
+	 */
+	public synchronized int getSize() {
+		return size;
+	}
+
+
+	/**
+	 * Returns the weight of a class file.
+	 *
+	 * @param cf The class file.
+	 * @return The weight.
+	 */
+	private static int getWeight(ClassFile cf) {
+		return 1 + cf.getFieldCount() + cf.getMethodCount();
+	}
+
+
+	/**
+	 * Adds a class file to the cache.
+	 *
+	 * @param reader The reader the class file was read by.
+	 * @param entryName The name of the class file in the reader's source.
+	 * @param cf The class file.
+	 * @see #get(JarReader, String)
+	 */
+	synchronized void put(JarReader reader, String entryName, ClassFile cf) {
+		ClassFile old = (ClassFile)classFiles.put(new Key(reader, entryName),
+												cf);
+		if (old!=null) {
+			size -= getWeight(old);
+		}
+		size += getWeight(cf);
+		evictIfNecessary();
+	}
+
+
+	/**
+	 * Removes all class files read by a reader from the cache, e.g.
+	 * because its source has been modified.
+	 *
+	 * @param reader The reader.
+	 * @return The number of class files removed.
+	 */
+	synchronized int removeAll(JarReader reader) {
+		int count = 0;
+		for (Iterator i=classFiles.entrySet().iterator(); i.hasNext(); ) {
+			Map.Entry entry = (Map.Entry)i.next();
+			if (((Key)entry.getKey()).reader==reader) {
+				size -= getWeight((ClassFile)entry.getValue());
+				i.remove();
+				count++;
+			}
+		}
+		return count;
+	}
+
+
+	/**
+	 * Sets the maximum size of the cache.  If the cache is larger than
+	 * this, the least recently used class files are evicted.
+	 *
+	 * @param maxSize The maximum size.
+	 * @see #getMaximumSize()
+	 */
+	public synchronized void setMaximumSize(int maxSize) {
+		if (maxSize<0) {
+			throw new IllegalArgumentException("maxSize must be >= 0");
+		}
+		this.maxSize = maxSize;
+		evictIfNecessary();
+	}
+
+
+	public synchronized String toString() {
+		return "[ClassFileCache: " +
+			"count=" + getCount() +
+			", size=" + size +
+			", maxSize=" + maxSize +
+			", hits=" + hitCount +
+			", misses=" + missCount +
+			", evictions=" + evictionCount +
+			"]";
+	}
+
+
+	/**
+	 * A class file in a particular reader.
+	 */
+	private static class Key {
+
+		private JarReader reader;
+		private String entryName;
+
+		public Key(JarReader reader, String entryName) {
+			this.reader = reader;
+			this.entryName = entryName;
+		}
+
+		public boolean equals(Object o) {
+			if (o instanceof Key) {
+				Key key = (Key)o;
+				return reader==key.reader && entryName.equals(key.entryName);
+			}
+			return false;
+		}
+
+		public int hashCode() {
+			return System.identityHashCode(reader) ^ entryName.hashCode();
+		}
+
+	}
+
+
+}
@@ -0,0 +1,381 @@
+/*
+ * 10/19/2026
+ *
+ * ClassNameIndex.java - An index of the unqualified names of all classes
+ * known to a JarManager.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.fife.ui.autocomplete.CompletionRequest;
+
+
+/**
+ * An index of the unqualified names of all classes in a list of
+ * {@link JarReader}s.  The names are kept in a sorted array, with parallel
+ * arrays mapping each name to the reader and package it's in, so finding
+ * the classes whose names start with a prefix is a binary search followed
+ * by a scan of only the matches, rather than a walk of every package of
+ * every jar.  A second sorted array of each name's "humps" (its capital
+ * letters, e.g. "<code>HM</code>" for "<code>HashMap</code>") does the same
+ * for camel case patterns.<p>
+ *
+ * An index is immutable; {@link JarManager} creates a new one when its
+ * class file sources change.  The <code>ClassFile</code>s for matching
+ * classes are still loaded and cached by their <code>JarReader</code>s.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see JarManager
+ */
+class ClassNameIndex {
+
+	/**
+	 * The readers whose classes are indexed.
+	 */
+	private JarReader[] readers;
+
+	/**
+	 * The packages of the indexed classes, each part followed by
+	 * '<code>/</code>'.  A package in several readers is only here once.
+	 */
+	private String[] packages;
+
+	/**
+	 * The unqualified names of all classes, sorted ignoring case.
+	 */
+	private String[] names;
+
+	/**
+	 * For each name, the index of the reader it's in.
+	 */
+	private int[] readerIds;
+
+	/**
+	 * For each name, the index of its package.
+	 */
+	private int[] packageIds;
+
+	/**
+	 * The humps of each name, sorted.
+	 */
+	private String[] humps;
+
+	/**
+	 * For each element of {@link #humps}, the index of its name.
+	 */
+	private int[] humpNameIds;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param readers The {@link JarReader}s whose classes to index.
+	 */
+	public ClassNameIndex(List readers) {
+
+		this.readers = new JarReader[readers.size()];
+		readers.toArray(this.readers);
+
+		List entries = new ArrayList();
+		List packageList = new ArrayList();
+		Map packageIdMap = new HashMap();
+		List pkgs = new ArrayList();
+		List classNames = new ArrayList();
+
+		for (int i=0; i<this.readers.length; i++) {
+			pkgs.clear();
+			classNames.clear();
+			this.readers[i].getClassNames(pkgs, classNames);
+			for (int j=0; j<pkgs.size(); j++) {
+				String pkg = (String)pkgs.get(j);
+				Integer id = (Integer)packageIdMap.get(pkg);
+				if (id==null) {
+					id = new Integer(packageList.size());
+					packageIdMap.put(pkg, id);
+					packageList.add(pkg);
+				}
+				entries.add(new Entry((String)classNames.get(j), i,
+										id.intValue()));
+			}
+		}
+
+		packages = new String[packageList.size()];
+		packageList.toArray(packages);
+
+		int count = entries.size();
+		names = new String[count];
+		readerIds = new int[count];
+		packageIds = new int[count];
+		Collections.sort(entries, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				return ((Entry)o1).name.compareToIgnoreCase(((Entry)o2).name);
+			}
+		});
+		for (int i=0; i<count; i++) {
+			Entry entry = (Entry)entries.get(i);
+			entry.nameId = i;
+			names[i] = entry.name;
+			readerIds[i] = entry.readerId;
+			packageIds[i] = entry.packageId;
+		}
+
+		humps = new String[count];
+		humpNameIds = new int[count];
+		Collections.sort(entries, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				return ((Entry)o1).humps.compareTo(((Entry)o2).humps);
+			}
+		});
+		for (int i=0; i<count; i++) {
+			Entry entry = (Entry)entries.get(i);
+			humps[i] = entry.humps;
+			humpNameIds[i] = entry.nameId;
+		}
+
+	}
+
+
+	/**
+	 * Returns the index of the first element of a sorted array that is not
+	 * less than a key.
+	 *
+	 * @param array The array.
+	 * @param key The key.
+	 * @param ignoreCase Whether the array is sorted ignoring case.
+	 * @return The index, which may be the length of the array.
+	 */
+	private static int firstNotLessThan(String[] array, String key,
+										boolean ignoreCase) {
+		int low = 0;
+		int high = array.length;
+		while (low<high) {
+			int mid = (low+high) >>> 1;
+			int cmp = ignoreCase ? array[mid].compareToIgnoreCase(key) :
+									array[mid].compareTo(key);
+			if (cmp<0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * Returns the classes whose unqualified names match a camel case
+	 * pattern.  Each hump of the pattern must start the corresponding hump
+	 * of the name, ignoring case, e.g. "<code>HM</code>" and
+	 * "<code>HaMa</code>" both match "<code>HashMap</code>" and
+	 * "<code>HashMapEntry</code>".
+	 *
+	 * @param pattern The pattern.
+	 * @param addTo The list to add the matching {@link ClassFile}s to.
+	 * @param request The request the classes are for.  If this is
+	 *        cancelled, this method returns early.  This may be
+	 *        <code>null</code>.
+	 */
+	public void getClassesMatchingCamelCase(String pattern, List addTo,
+										CompletionRequest request) {
+
+		if (pattern.length()==0) {
+			return;
+		}
+
+		String key = getHumps(pattern);
+		int[] matches = new int[8];
+		int count = 0;
+		for (int i=firstNotLessThan(humps, key, false);
+				i<humps.length && humps[i].startsWith(key); i++) {
+			int nameId = humpNameIds[i];
+			if (matchesCamelCase(names[nameId], pattern)) {
+				if (count==matches.length) {
+					int[] temp = new int[count*2];
+					System.arraycopy(matches, 0, temp, 0, count);
+					matches = temp;
+				}
+				matches[count++] = nameId;
+			}
+		}
+
+		// Load in name order, as for prefixes.
+		Arrays.sort(matches, 0, count);
+		loadClassFiles(matches, count, addTo, request);
+
+	}
+
+
+	/**
+	 * Returns the classes whose unqualified names start with a prefix,
+	 * ignoring case.
+	 *
+	 * @param prefix The prefix.
+	 * @param addTo The list to add the matching {@link ClassFile}s to.
+	 * @param request The request the classes are for.  If this is
+	 *        cancelled, this method returns early.  This may be
+	 *        <code>null</code>.
+	 */
+	public void getClassesWithNamesStartingWith(String prefix, List addTo,
+										CompletionRequest request) {
+		int prefixLen = prefix.length();
+		int start = firstNotLessThan(names, prefix, true);
+		int end = start;
+		while (end<names.length &&
+				names[end].regionMatches(true, 0, prefix, 0, prefixLen)) {
+			end++;
+		}
+		int[] matches = new int[end-start];
+		for (int i=0; i<matches.length; i++) {
+			matches[i] = start + i;
+		}
+		loadClassFiles(matches, matches.length, addTo, request);
+	}
+
+
+	/**
+	 * Returns the humps of a class name or camel case pattern, i.e. its
+	 * first character and each capital letter and digit after that, in
+	 * upper case.
+	 *
+	 * @param name The name.
+	 * @return The humps.
+	 */
+	private static String getHumps(String name) {
+		StringBuffer sb = new StringBuffer();
+		sb.append(Character.toUpperCase(name.charAt(0)));
+		for (int i=1; i<name.length(); i++) {
+			char ch = name.charAt(i);
+			if (Character.isUpperCase(ch) || Character.isDigit(ch)) {
+				sb.append(ch);
+			}
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * Loads the <code>ClassFile</code>s for classes in this index.  The
+	 * classes are grouped by reader and package, so each group is loaded
+	 * together.
+	 *
+	 * @param matches The indices of the names of the classes.
+	 * @param count The number of elements of <code>matches</code> to use.
+	 * @param addTo The list to add the {@link ClassFile}s to.
+	 * @param request The request the classes are for.  If this is
+	 *        cancelled, this method returns early.  This may be
+	 *        <code>null</code>.
+	 */
+	private void loadClassFiles(int[] matches, int count, List addTo,
+								CompletionRequest request) {
+
+		Map groups = new LinkedHashMap();
+		for (int i=0; i<count; i++) {
+			int nameId = matches[i];
+			Long key = new Long(((long)readerIds[nameId]<<32) |
+								packageIds[nameId]);
+			List group = (List)groups.get(key);
+			if (group==null) {
+				group = new ArrayList();
+				groups.put(key, group);
+			}
+			group.add(names[nameId]);
+		}
+
+		for (Iterator i=groups.entrySet().iterator(); i.hasNext(); ) {
+			if (request!=null && request.isCancelled()) {
+				return;
+			}
+			Map.Entry entry = (Map.Entry)i.next();
+			long key = ((Long)entry.getKey()).longValue();
+			JarReader reader = readers[(int)(key>>>32)];
+			String pkg = packages[(int)key];
+			reader.getClassEntries(pkg, (List)entry.getValue(), addTo);
+		}
+
+	}
+
+
+	/**
+	 * Returns whether a class name matches a camel case pattern.
+	 *
+	 * @param name The class name.
+	 * @param pattern The pattern.
+	 * @return Whether the name matches.
+	 * @see #getClassesMatchingCamelCase(String, List, CompletionRequest)
+	 */
+	private static boolean matchesCamelCase(String name, String pattern) {
+		int n = 0;
+		int p = 0;
+		while (p<pattern.length()) {
+			if (n==name.length()) {
+				return false;
+			}
+			int patternHumpEnd = nextHump(pattern, p);
+			int nameHumpEnd = nextHump(name, n);
+			int len = patternHumpEnd - p;
+			if (n+len>nameHumpEnd ||
+					!name.regionMatches(true, n, pattern, p, len)) {
+				return false;
+			}
+			p = patternHumpEnd;
+			n = nameHumpEnd;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Returns the start of the hump after the one at an offset in a class
+	 * name or camel case pattern.
+	 *
+	 * @param name The name.
+	 * @param start The start of a hump.
+	 * @return The start of the next hump, or the length of the name if
+	 *         there is none.
+	 */
+	private static int nextHump(String name, int start) {
+		int i = start + 1;
+		while (i<name.length() && !Character.isUpperCase(name.charAt(i)) &&
+				!Character.isDigit(name.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+
+	/**
+	 * A class while the index is being built.
+	 */
+	private static class Entry {
+
+		private String name;
+		private String humps;
+		private int readerId;
+		private int packageId;
+		private int nameId;
+
+		public Entry(String name, int readerId, int packageId) {
+			this.name = name;
+			this.humps = getHumps(name);
+			this.readerId = readerId;
+			this.packageId = packageId;
+		}
+
+	}
+
+
+}
@@ -10,9 +10,12 @@
  */
 package org.fife.rsta.ac.java;
 
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -20,17 +23,26 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+import org.fife.rsta.ac.java.buildpath.CompilationUnitCache;
 import org.fife.rsta.ac.java.buildpath.JarLibraryInfo;
 import org.fife.rsta.ac.java.buildpath.LibraryInfo;
 import org.fife.rsta.ac.java.buildpath.SourceLocation;
 import org.fife.rsta.ac.java.classreader.ClassFile;
 import org.fife.rsta.ac.java.rjc.ast.ImportDeclaration;
 import org.fife.ui.autocomplete.CompletionProvider;
+import org.fife.ui.autocomplete.CompletionRequest;
 
 
 /**
  * Manages a list of jars and gets completions from them.  This can be shared
- * amongst multiple {@link JavaCompletionProvider} instances.
+ * amongst multiple {@link JavaCompletionProvider} instances.<p>
+ *
+ * The list of jars should only be modified on the EDT, but
+ * {@link #addCompletions(CompletionProvider, String, Set, CompletionRequest)}
+ * may be called from any thread.  The exception is
+ * {@link #addClassFileSources(Collection)}, which reads several sources at
+ * once on worker threads.  Each source can be used for completions as soon
+ * as it has been read.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -38,9 +50,52 @@ import org.fife.ui.autocomplete.CompletionProvider;
 public class JarManager {
 
 	/**
-	 * Locations of class files to get completions from.
+	 * The property change event that's fired each time a class file source
+	 * is read by {@link #addClassFileSources(Collection)}.  The new value
+	 * is the number of sources read so far, as an <code>Integer</code>.
+	 * This event is fired on the worker thread that read the source, not
+	 * the EDT, so listeners updating the UI must use
+	 * <code>SwingUtilities.invokeLater()</code>.
+	 */
+	public static final String PROPERTY_SOURCES_READ = "JarManager.sourcesRead";
+
+	/**
+	 * Locations of class files to get completions from.  This list is
+	 * never modified; it is replaced instead, so it can be read without
+	 * synchronizing.
 	 */
-	private List classFileSources;
+	private volatile List classFileSources;
+
+	/**
+	 * An index of the unqualified names of the classes in
+	 * {@link #classFileSources}, or <code>null</code> if it must be
+	 * rebuilt.
+	 */
+	private ClassNameIndex classNameIndex;
+
+	/**
+	 * Incremented each time {@link #classFileSources} changes.  When a
+	 * reader is removed, its reload count is added too, so that
+	 * {@link #getModificationCount()} never goes back to an earlier value.
+	 * This is only modified while synchronized.
+	 */
+	private long modCount;
+
+	private PropertyChangeSupport support;
+
+	/**
+	 * The <code>ClassFile</code>s read from all class file sources, shared
+	 * by all <code>JarManager</code>s.
+	 */
+	private static final ClassFileCache classFileCache =
+				new ClassFileCache(ClassFileCache.DEFAULT_MAXIMUM_SIZE);
+
+	/**
+	 * The source files parsed for completion descriptions and parameter
+	 * names, shared by all source locations.
+	 */
+	private static final CompilationUnitCache compilationUnitCache =
+		new CompilationUnitCache(CompilationUnitCache.DEFAULT_MAXIMUM_SIZE);
 
 	/**
 	 * Whether to check datestamps on jars/directories when completion
@@ -54,6 +109,7 @@ public class JarManager {
 	 */
 	public JarManager() {
 		classFileSources = new ArrayList();
+		support = new PropertyChangeSupport(this);
 		setCheckModifiedDatestamps(true);
 	}
 
@@ -64,8 +120,26 @@ public class JarManager {
 	 * @param p The parent completion provider.
 	 * @param text The text to match.
 	 * @param addTo The list to add completion choices to.
+	 * @see #addCompletions(CompletionProvider, String, Set, CompletionRequest)
 	 */
 	public void addCompletions(CompletionProvider p, String text, Set addTo) {
+		addCompletions(p, text, addTo, null);
+	}
+
+
+	/**
+	 * Adds completions matching the specified text to a list.  This method
+	 * may be called from any thread.
+	 *
+	 * @param p The parent completion provider.
+	 * @param text The text to match.
+	 * @param addTo The list to add completion choices to.
+	 * @param request The request the completions are for.  If this is
+	 *        cancelled, this method returns early, after searching the
+	 *        current jar.  This may be <code>null</code>.
+	 */
+	public void addCompletions(CompletionProvider p, String text, Set addTo,
+								CompletionRequest request) {
 /*
  * The commented-out code below is probably replaced by the rest of the code
  * in this method...
@@ -84,9 +158,13 @@ TODO: Verify me!!!
 
 		// If what they've typed is qualified, add qualified completions.
 		if (text.indexOf('.')>-1) {
+			List sources = classFileSources;
 			String[] pkgNames = Util.splitOnChar(text, '.');
-			for (int i=0; i<classFileSources.size(); i++) {
-				JarReader jar = (JarReader)classFileSources.get(i);
+			for (int i=0; i<sources.size(); i++) {
+				if (request!=null && request.isCancelled()) {
+					return;
+				}
+				JarReader jar = (JarReader)sources.get(i);
 				jar.addCompletions(p, pkgNames, addTo);
 			}
 		}
@@ -97,24 +175,36 @@ TODO: Verify me!!!
 		// completions for classes not in their import statements.
 		// Thanks to Guilherme Joao Frantz and Jonatas Schuler for the patch!
 		else {//if (text.indexOf('.')==-1) {
-			String lowerCaseText = text.toLowerCase();
-			for (int i=0; i<classFileSources.size(); i++) {
-				JarReader jar = (JarReader) classFileSources.get(i);
-				List classFiles = jar.getClassesWithNamesStartingWith(lowerCaseText);
-				if (classFiles!=null) {
-					for (Iterator j=classFiles.iterator(); j.hasNext(); ) {
-						ClassFile cf = (ClassFile)j.next();
-						if (org.fife.rsta.ac.java.classreader.Util.isPublic(cf.getAccessFlags())) {
-							addTo.add(new ClassCompletion(p, cf));
-						}
-					}
-				}
-			}
+			List classFiles = new ArrayList();
+			getClassNameIndex().getClassesWithNamesStartingWith(text,
+												classFiles, request);
+			addPublicClassCompletions(p, classFiles, addTo);
 		}
 
 	}
 
 
+	/**
+	 * Adds completions for the classes whose unqualified names match a
+	 * camel case pattern, e.g. "<code>HM</code>" or "<code>HaMa</code>" for
+	 * "<code>HashMap</code>".  This method may be called from any thread.
+	 *
+	 * @param p The parent completion provider.
+	 * @param pattern The pattern.
+	 * @param addTo The list to add completion choices to.
+	 * @param request The request the completions are for.  If this is
+	 *        cancelled, this method returns early.  This may be
+	 *        <code>null</code>.
+	 */
+	public void addCamelCaseCompletions(CompletionProvider p, String pattern,
+								Set addTo, CompletionRequest request) {
+		List classFiles = new ArrayList();
+		getClassNameIndex().getClassesMatchingCamelCase(pattern, classFiles,
+														request);
+		addPublicClassCompletions(p, classFiles, addTo);
+	}
+
+
 	/**
 	 * Adds a jar to read from.  This is a convenience method for folks only
 	 * reading classes from jar files.
@@ -158,27 +248,143 @@ TODO: Verify me!!!
 			throw new IllegalArgumentException("info cannot be null");
 		}
 
-		// First see if this jar is already on the "build path."
-		for (int i=0; i<classFileSources.size(); i++) {
-			JarReader jar = (JarReader)classFileSources.get(i);
-			LibraryInfo info2 = jar.getLibraryInfo();
-			if (info2.equals(info)) {
-				// Only update if the source location is different.
-				SourceLocation  source = info.getSourceLocation();
-				SourceLocation  source2 = info2.getSourceLocation();
-				if ((source==null && source2!=null) ||
-						(source!=null && !source.equals(source2))) {
-					classFileSources.set(i, new JarReader((LibraryInfo)info.clone()));
-					return true;
+		if (!isNewOrChanged(info)) {
+			return false;
+		}
+
+		// Read the source outside of the lock, since it may take a while
+		// and completions may be requested from other threads meanwhile.
+		return addJarReader(new JarReader((LibraryInfo)info.clone()));
+
+	}
+
+
+	/**
+	 * Adds several class file sources to read from.  The sources are read
+	 * concurrently, on a worker thread per processor, which is much faster
+	 * than adding them one at a time when there are many jars.  Each source
+	 * is used for completions as soon as it has been read, so this method
+	 * may be called on a background thread while the user keeps typing.
+	 * Listen for {@link #PROPERTY_SOURCES_READ} events to track progress;
+	 * note that they are fired on the worker threads.  After all sources
+	 * are read, the sources that were new to the build path are put in the
+	 * order given.  Sources already on the build path keep their place.
+	 *
+	 * @param infos The {@link LibraryInfo}s of the sources to add.  Sources
+	 *        already added are handled as in
+	 *        {@link #addClassFileSource(LibraryInfo)}.
+	 * @return Whether any sources were added.
+	 * @throws IOException If an IO error occurs reading any of the sources.
+	 *         The other sources are still added.
+	 * @see #addClassFileSource(LibraryInfo)
+	 */
+	public boolean addClassFileSources(Collection infos) throws IOException {
+
+		final List toAdd = new ArrayList(infos);
+		for (int i=0; i<toAdd.size(); i++) {
+			if (toAdd.get(i)==null) {
+				throw new IllegalArgumentException("infos cannot contain null");
+			}
+		}
+
+		List existing = new ArrayList();
+		List sources = classFileSources;
+		for (int i=0; i<sources.size(); i++) {
+			existing.add(((JarReader)sources.get(i)).getLibraryInfo());
+		}
+
+		SourceReaderPool pool = new SourceReaderPool(toAdd);
+		int threadCount = Math.min(toAdd.size(),
+							Runtime.getRuntime().availableProcessors());
+		Thread[] threads = new Thread[threadCount];
+		for (int i=0; i<threadCount; i++) {
+			threads[i] = new Thread(pool, "JarManagerSourceReader-" + i);
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+		try {
+			for (int i=0; i<threadCount; i++) {
+				threads[i].join();
+			}
+		} catch (InterruptedException ie) {
+			pool.cancel();
+			Thread.currentThread().interrupt();
+		}
+
+		// New readers were appended in the order they finished; put them
+		// in the order given, since the first source containing a class
+		// wins.  They're shuffled among the slots they already occupy, so
+		// sources already on the build path (including those that were
+		// just re-read) keep their place.
+		synchronized (this) {
+			sources = new ArrayList(classFileSources);
+			List slots = new ArrayList();
+			List created = new ArrayList();
+			for (int i=0; i<sources.size(); i++) {
+				JarReader reader = (JarReader)sources.get(i);
+				LibraryInfo info = reader.getLibraryInfo();
+				if (toAdd.contains(info) && !existing.contains(info)) {
+					slots.add(new Integer(i));
+					created.add(reader);
 				}
-				return false;
 			}
+			int slot = 0;
+			for (int i=0; i<toAdd.size() && !created.isEmpty(); i++) {
+				LibraryInfo info = (LibraryInfo)toAdd.get(i);
+				for (Iterator j=created.iterator(); j.hasNext(); ) {
+					JarReader reader = (JarReader)j.next();
+					if (reader.getLibraryInfo().equals(info)) {
+						int index = ((Integer)slots.get(slot++)).intValue();
+						sources.set(index, reader);
+						j.remove();
+						break;
+					}
+				}
+			}
+			classFileSources = sources;
+			classNameIndex = null;
+			modCount++;
 		}
 
-		// If it isn't on the build path, add it now.
-		classFileSources.add(new JarReader(info));
-		return true;
+		if (pool.error!=null) {
+			throw pool.error;
+		}
+		return pool.added;
+
+	}
 
+
+	/**
+	 * Adds a reader to the "build path," replacing the reader for the same
+	 * source if it's already there.
+	 *
+	 * @param reader The reader.
+	 * @return Whether the reader was added.  This is <code>false</code> if
+	 *         the source was added, with the same source location, while
+	 *         this reader was being created.
+	 */
+	private synchronized boolean addJarReader(JarReader reader) {
+		LibraryInfo info = reader.getLibraryInfo();
+		if (!isNewOrChanged(info)) {
+			return false;
+		}
+		List sources = new ArrayList(classFileSources);
+		for (int i=0; i<sources.size(); i++) {
+			JarReader jar = (JarReader)sources.get(i);
+			if (jar.getLibraryInfo().equals(info)) {
+				sources.set(i, reader);
+				classFileCache.removeAll(jar);
+				modCount += jar.getReloadCount();
+				break;
+			}
+		}
+		if (!sources.contains(reader)) {
+			sources.add(reader);
+		}
+		classFileSources = sources;
+		classNameIndex = null;
+		modCount++;
+		return true;
 	}
 
 
@@ -195,6 +401,39 @@ TODO: Verify me!!!
 	}
 
 
+	/**
+	 * Adds a listener for property change events, such as
+	 * {@link #PROPERTY_SOURCES_READ}.  Note that events may be fired on
+	 * threads other than the EDT.
+	 *
+	 * @param prop The property to listen for.
+	 * @param l The listener to add.
+	 * @see #removePropertyChangeListener(String, PropertyChangeListener)
+	 */
+	public void addPropertyChangeListener(String prop,
+										PropertyChangeListener l) {
+		support.addPropertyChangeListener(prop, l);
+	}
+
+
+	/**
+	 * Adds completions for the public classes in a list.
+	 *
+	 * @param p The parent completion provider.
+	 * @param classFiles The {@link ClassFile}s of the classes.
+	 * @param addTo The list to add completion choices to.
+	 */
+	private void addPublicClassCompletions(CompletionProvider p,
+										List classFiles, Set addTo) {
+		for (Iterator i=classFiles.iterator(); i.hasNext(); ) {
+			ClassFile cf = (ClassFile)i.next();
+			if (org.fife.rsta.ac.java.classreader.Util.isPublic(cf.getAccessFlags())) {
+				addTo.add(new ClassCompletion(p, cf));
+			}
+		}
+	}
+
+
 	/**
 	 * Removes all class file sources from the "build path."
 	 *
@@ -203,8 +442,17 @@ TODO: Verify me!!!
 	 * @see #addClassFileSource(LibraryInfo)
 	 * @see #getClassFileSources()
 	 */
-	public void clearClassFileSources() {
-		classFileSources.clear();
+	public synchronized void clearClassFileSources() {
+		List sources = classFileSources;
+		for (int i=0; i<sources.size(); i++) {
+			JarReader reader = (JarReader)sources.get(i);
+			classFileCache.removeAll(reader);
+			reader.getLibraryInfo().close();
+			modCount += reader.getReloadCount();
+		}
+		classFileSources = new ArrayList();
+		classNameIndex = null;
+		modCount++;
 	}
 
 
@@ -228,12 +476,39 @@ TODO: Verify me!!!
 	}
 
 
+	/**
+	 * Returns the cache of <code>ClassFile</code>s read from class file
+	 * sources.  It is shared by all <code>JarManager</code>s.  Applications
+	 * can use it to monitor how well the cache is working, or to change its
+	 * maximum size.
+	 *
+	 * @return The cache.
+	 */
+	public static ClassFileCache getClassFileCache() {
+		return classFileCache;
+	}
+
+
+	/**
+	 * Returns the cache of source files parsed for completion descriptions
+	 * and parameter names.  It is shared by all source locations.
+	 * Applications can use it to monitor how well the cache is working, or
+	 * to change its maximum size.
+	 *
+	 * @return The cache.
+	 */
+	public static CompilationUnitCache getCompilationUnitCache() {
+		return compilationUnitCache;
+	}
+
+
 	public ClassFile getClassEntry(String className) {
 
 		String[] items = Util.splitOnChar(className, '.');
 
-		for (int i=0; i<classFileSources.size(); i++) {
-			JarReader jar = (JarReader)classFileSources.get(i);
+		List sources = classFileSources;
+		for (int i=0; i<sources.size(); i++) {
+			JarReader jar = (JarReader)sources.get(i);
 			ClassFile cf = jar.getClassEntry(items);
 			if (cf!=null) {
 				return cf;
@@ -331,8 +606,9 @@ TODO: Verify me!!!
 		List list = new ArrayList();
 		String[] pkgs = Util.splitOnChar(pkgName, '.');
 
-		for (int i=0; i<classFileSources.size(); i++) {
-			JarReader jar = (JarReader)classFileSources.get(i);
+		List sources = classFileSources;
+		for (int i=0; i<sources.size(); i++) {
+			JarReader jar = (JarReader)sources.get(i);
 			jar.getClassesInPackage(list, pkgs, inPkg);
 		}
 
@@ -341,6 +617,23 @@ TODO: Verify me!!!
 	}
 
 
+	/**
+	 * Returns the index of the unqualified names of the classes on the
+	 * "build path," building it if the build path has changed since it was
+	 * last built.  Building it here rather than in
+	 * {@link #addClassFileSource(LibraryInfo)} means adding many jars in a
+	 * row only builds it once.
+	 *
+	 * @return The index.
+	 */
+	private synchronized ClassNameIndex getClassNameIndex() {
+		if (classNameIndex==null) {
+			classNameIndex = new ClassNameIndex(classFileSources);
+		}
+		return classNameIndex;
+	}
+
+
 	/**
 	 * Returns the jars on the "build path."
 	 *
@@ -352,8 +645,9 @@ TODO: Verify me!!!
 	 * @see #addClassFileSource(LibraryInfo)
 	 */
 	public List getClassFileSources() {
-		List jarList = new ArrayList(classFileSources.size());
-		for (Iterator i=classFileSources.iterator(); i.hasNext(); ) {
+		List sources = classFileSources;
+		List jarList = new ArrayList(sources.size());
+		for (Iterator i=sources.iterator(); i.hasNext(); ) {
 			JarReader reader = (JarReader)i.next();
 			jarList.add(reader.getLibraryInfo().clone());
 		}
@@ -361,14 +655,35 @@ TODO: Verify me!!!
 	}
 
 
+	/**
+	 * Returns a number that changes whenever the classes on the "build path"
+	 * may have changed: when class file sources are added, removed or
+	 * re-ordered, or when a source is found to be modified and its cached
+	 * classes are discarded.  Callers caching what they look up here can
+	 * compare it to its value when they cached to know when to discard
+	 * their work.
+	 *
+	 * @return The modification count.
+	 */
+	public synchronized long getModificationCount() {
+		long count = modCount;
+		List sources = classFileSources;
+		for (int i=0; i<sources.size(); i++) {
+			count += ((JarReader)sources.get(i)).getReloadCount();
+		}
+		return count;
+	}
+
+
 	public SortedMap getPackageEntry(String pkgName) {
 
 		String[] pkgs = Util.splitOnChar(pkgName, '.');
 
 		SortedMap map = new TreeMap();
 
-		for (int i=0; i<classFileSources.size(); i++) {
-			JarReader jar = (JarReader)classFileSources.get(i);
+		List sources = classFileSources;
+		for (int i=0; i<sources.size(); i++) {
+			JarReader jar = (JarReader)sources.get(i);
 			SortedMap map2 = jar.getPackageEntry(pkgs);
 			if (map2!=null) {
 				mergeMaps(map, map2);
@@ -382,8 +697,9 @@ TODO: Verify me!!!
 
 public SourceLocation getSourceLocForClass(String className) {
 	SourceLocation  sourceLoc = null;
-	for (int i=0; i<classFileSources.size(); i++) {
-		JarReader jar = (JarReader)classFileSources.get(i);
+	List sources = classFileSources;
+	for (int i=0; i<sources.size(); i++) {
+		JarReader jar = (JarReader)sources.get(i);
 		if (jar.containsClass(className)) {
 			sourceLoc = jar.getLibraryInfo().getSourceLocation();
 			break;
@@ -393,6 +709,30 @@ public SourceLocation getSourceLocForClass(String className) {
 }
 
 
+	/**
+	 * Returns whether a class file source isn't on the "build path," or is
+	 * but with a different source location.
+	 *
+	 * @param info The source.
+	 * @return Whether the source should be (re-)added.
+	 */
+	private boolean isNewOrChanged(LibraryInfo info) {
+		List sources = classFileSources;
+		for (int i=0; i<sources.size(); i++) {
+			JarReader jar = (JarReader)sources.get(i);
+			LibraryInfo info2 = jar.getLibraryInfo();
+			if (info2.equals(info)) {
+				// Only update if the source location is different.
+				SourceLocation  source = info.getSourceLocation();
+				SourceLocation  source2 = info2.getSourceLocation();
+				return (source==null && source2!=null) ||
+						(source!=null && !source.equals(source2));
+			}
+		}
+		return true;
+	}
+
+
 	private void mergeMaps(SortedMap map, SortedMap toAdd) {
 
 		for (Iterator i=toAdd.entrySet().iterator(); i.hasNext(); ) {
@@ -443,12 +783,18 @@ public SourceLocation getSourceLocForClass(String className) {
 	 * @see #addClassFileSource(LibraryInfo)
 	 * @see #getClassFileSources()
 	 */
-	public boolean removeClassFileSource(LibraryInfo toRemove) {
-		for (Iterator i=classFileSources.iterator(); i.hasNext(); ) {
+	public synchronized boolean removeClassFileSource(LibraryInfo toRemove) {
+		List sources = new ArrayList(classFileSources);
+		for (Iterator i=sources.iterator(); i.hasNext(); ) {
 			JarReader reader = (JarReader)i.next();
 			LibraryInfo info = reader.getLibraryInfo();
 			if (info.equals(toRemove)) {
 				i.remove();
+				classFileCache.removeAll(reader);
+				info.close();
+				classFileSources = sources;
+				classNameIndex = null;
+				modCount += reader.getReloadCount() + 1;
 				return true;
 			}
 		}
@@ -456,6 +802,19 @@ public SourceLocation getSourceLocForClass(String className) {
 	}
 
 
+	/**
+	 * Removes a listener for property change events.
+	 *
+	 * @param prop The property the listener was listening for.
+	 * @param l The listener to remove.
+	 * @see #addPropertyChangeListener(String, PropertyChangeListener)
+	 */
+	public void removePropertyChangeListener(String prop,
+										PropertyChangeListener l) {
+		support.removePropertyChangeListener(prop, l);
+	}
+
+
 	/**
 	 * Sets whether the "last modified" time stamp on jars and class
 	 * directories should be checked whenever completions are requested, and
@@ -476,4 +835,61 @@ public SourceLocation getSourceLocForClass(String className) {
 	}
 
 
+	/**
+	 * Reads class file sources for
+	 * {@link JarManager#addClassFileSources(Collection)}.  Each worker
+	 * thread runs the same instance, taking sources from a shared list
+	 * until none are left.
+	 */
+	private class SourceReaderPool implements Runnable {
+
+		private List infos;
+		private int next;
+		private int readCount;
+		private boolean cancelled;
+		private boolean added;
+		private IOException error;
+
+		public SourceReaderPool(List infos) {
+			this.infos = infos;
+		}
+
+		public synchronized void cancel() {
+			cancelled = true;
+		}
+
+		private synchronized LibraryInfo nextInfo() {
+			if (cancelled || next==infos.size()) {
+				return null;
+			}
+			return (LibraryInfo)infos.get(next++);
+		}
+
+		public void run() {
+			LibraryInfo info = null;
+			while ((info=nextInfo())!=null) {
+				boolean added = false;
+				IOException error = null;
+				try {
+					added = addClassFileSource(info);
+				} catch (IOException ioe) {
+					error = ioe;
+				}
+				int count = sourceRead(added, error);
+				support.firePropertyChange(PROPERTY_SOURCES_READ,
+							new Integer(count-1), new Integer(count));
+			}
+		}
+
+		private synchronized int sourceRead(boolean added, IOException error) {
+			this.added |= added;
+			if (this.error==null) {
+				this.error = error;
+			}
+			return ++readCount;
+		}
+
+	}
+
+
 }
\ No newline at end of file
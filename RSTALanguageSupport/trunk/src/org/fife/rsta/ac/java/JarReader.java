@@ -13,6 +13,7 @@ package org.fife.rsta.ac.java;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -30,7 +31,11 @@ import org.fife.ui.autocomplete.CompletionProvider;
  * directory.  This class acts as an intermediary between a raw
  * <code>LibraryInfo</code> and the higher level Java completion classes.
  * It caches information about classes and refreshes that cache when
- * appropriate.
+ * appropriate.<p>
+ *
+ * Methods that read or update the cache are synchronized, since completions
+ * may be looked up on a background thread (see
+ * {@link SourceCompletionProvider}) while the EDT resolves types.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -45,21 +50,26 @@ class JarReader {
 	/**
 	 * This is essentially a tree model of all classes in the jar or
 	 * directory.  It's a recursive mapping of <code>String</code>s to either
-	 * <code>Map</code>s or {@link ClassFile}s (which are lazily created and
-	 * may be <code>null</code>).  At each level of the nested map, the string
-	 * key is a package name iff its corresponding value is a <code>Map</code>.
-	 * Examine that <code>Map</code>'s contents to explore the contents of
-	 * that package.  If the corresponding value is a <code>ClassFile</code>,
-	 * then the string key's value is the name of that class.  Finally, if
-	 * the corresponding value is <code>null</code>, then the string key's
-	 * value is the name of a class, but its contents have not yet been
-	 * loaded for use by the code completion library (<code>ClassFile</code>s
-	 * are lazily loaded to conserve memory).
+	 * <code>Map</code>s or <code>null</code>.  At each level of the nested
+	 * map, the string key is a package name iff its corresponding value is a
+	 * <code>Map</code>.  Examine that <code>Map</code>'s contents to explore
+	 * the contents of that package.  If the corresponding value is
+	 * <code>null</code>, then the string key's value is the name of a class.
+	 * The {@link ClassFile}s for classes are lazily loaded, and kept in the
+	 * bounded {@link ClassFileCache} rather than here, to conserve memory.
 	 */
 	private TreeMap packageMap;
 
 	private long lastModified;
 
+	/**
+	 * The number of times the jar or directory was found to be modified, and
+	 * this reader's cached <code>ClassFile</code>s were discarded.  This is
+	 * only modified while synchronized, so it can be read without
+	 * synchronizing.
+	 */
+	private volatile int reloadCount;
+
 
 	/**
 	 * Constructor.
@@ -83,8 +93,8 @@ class JarReader {
 	 *        fully-qualified class, interface, or enum name.
 	 * @param addTo The list to add completion choices to.
 	 */
-	public void addCompletions(CompletionProvider provider, String[] pkgNames,
-								Set addTo) {
+	public synchronized void addCompletions(CompletionProvider provider,
+									String[] pkgNames, Set addTo) {
 
 		checkLastModified();
 
@@ -109,18 +119,8 @@ class JarReader {
 			//System.out.println(obj + " - " + sm.get(obj));
 			Object value = sm.get(obj);
 
-			// See if this is a class, and we already have the ClassFile
-			if (value instanceof ClassFile) {
-				ClassFile cf = (ClassFile)value;
-				boolean inPkg = false; // TODO: Pass me in
-				if (inPkg || org.fife.rsta.ac.java.classreader.Util.isPublic(cf.getAccessFlags())) {
-					addTo.add(new ClassCompletion(provider, cf));
-				}
-			}
-
-			// If a ClassFile isn't cached, it's either a class that hasn't
-			// had its ClassFile cached yet, or a package.
-			else {
+			// A class, whose ClassFile may or may not be cached yet
+			if (!(value instanceof Map)) {
 				String[] items = new String[pkgNames.length];
 				System.arraycopy(pkgNames, 0, items, 0, pkgNames.length-1);
 				items[items.length-1] = obj.toString();
@@ -131,16 +131,18 @@ class JarReader {
 						addTo.add(new ClassCompletion(provider, cf));
 					}
 				}
-				else {
-					StringBuffer sb = new StringBuffer();
-					for (int j=0; j<pkgNames.length-1; j++) {
-						sb.append(pkgNames[j]).append('.');
-					}
-					sb.append(obj.toString());
-					String text = sb.toString();//obj.toString();
-					addTo.add(new PackageNameCompletion(provider, text,
-														fromKey));
+			}
+
+			// A package
+			else {
+				StringBuffer sb = new StringBuffer();
+				for (int j=0; j<pkgNames.length-1; j++) {
+					sb.append(pkgNames[j]).append('.');
 				}
+				sb.append(obj.toString());
+				String text = sb.toString();//obj.toString();
+				addTo.add(new PackageNameCompletion(provider, text,
+													fromKey));
 			}
 
 		}
@@ -157,42 +159,15 @@ class JarReader {
 	private void checkLastModified() {
 		long newLastModified = info.getLastModified();
 		if (newLastModified!=0 && newLastModified!=lastModified) {
-			int count = 0;
-			count = clearClassFiles(packageMap);
+			int count = JarManager.getClassFileCache().removeAll(this);
 			System.out.println("DEBUG: Cleared " + count + " cached ClassFiles");
 			lastModified = newLastModified;
+			reloadCount++;
 		}
 	}
 
 
-	/**
-	 * Removes all <code>ClassFile</code>s from a map.
-	 *
-	 * @param map The map.
-	 * @return The number of class file entries removed.
-	 */
-	private int clearClassFiles(Map map) {
-
-		int clearedCount = 0;
-
-		for (Iterator i=map.entrySet().iterator(); i.hasNext(); ) {
-			Map.Entry entry = (Map.Entry)i.next();
-			Object value = entry.getValue();
-			if (value instanceof ClassFile) {
-				entry.setValue(null);
-				clearedCount++;
-			}
-			else if (value instanceof Map) {
-				clearedCount += clearClassFiles((Map)value);
-			}
-		}
-
-		return clearedCount;
-
-	}
-
-
-	public boolean containsClass(String className) {
+	public synchronized boolean containsClass(String className) {
 
 		String[] items = className.split("\\.");
 
@@ -213,7 +188,7 @@ class JarReader {
 	}
 
 
-	public boolean containsPackage(String pkgName) {
+	public synchronized boolean containsPackage(String pkgName) {
 
 		String[] items = Util.splitOnChar(pkgName, '.');
 
@@ -234,7 +209,7 @@ class JarReader {
 	}
 
 
-	public ClassFile getClassEntry(String[] items) {
+	public synchronized ClassFile getClassEntry(String[] items) {
 
 		SortedMap map = packageMap;
 		for (int i=0; i<items.length-1; i++) {
@@ -251,28 +226,17 @@ class JarReader {
 		}
 
 		String className = items[items.length-1];
-		if (map.containsKey(className)) {
-			Object value = map.get(className);
-			if (value instanceof Map) { // i.e., it's a package
-				return null;
+		if (map.containsKey(className) &&
+				!(map.get(className) instanceof Map)) { // i.e., not a package
+			StringBuffer pkg = new StringBuffer();
+			for (int i=0; i<items.length-1; i++) {
+				pkg.append(items[i]).append('/');
 			}
-			else if (value instanceof ClassFile) { // Already created
-				ClassFile cf = (ClassFile)value;
-				return cf;
-			}
-			else { // A class, just no ClassFile cached yet
-				try {
-					StringBuffer name = new StringBuffer(items[0]);
-					for (int i=1; i<items.length; i++) {
-						name.append('/').append(items[i]);
-					}
-					name.append(".class");
-					ClassFile cf = info.createClassFile(name.toString());
-					map.put(className, cf);
-					return cf;
-				} catch (IOException ioe) {
-					ioe.printStackTrace();
-				}
+			List classFiles = new ArrayList(1);
+			getClassFiles(pkg.toString(), Collections.singletonList(className),
+						classFiles);
+			if (!classFiles.isEmpty()) {
+				return (ClassFile)classFiles.get(0);
 			}
 		}
 
@@ -281,7 +245,7 @@ class JarReader {
 	}
 
 
-	public void getClassesInPackage(List addTo, String[] pkgs, boolean inPkg) {
+	public synchronized void getClassesInPackage(List addTo, String[] pkgs, boolean inPkg) {
 
 		SortedMap map = packageMap;
 
@@ -299,120 +263,161 @@ class JarReader {
 			}
 		}
 
-		// We can't modify map during our iteration, so we save any
-		// newly-created ClassFiles.
-		Map newClassFiles = null;
-
+		List classNames = new ArrayList();
 		for (Iterator i=map.entrySet().iterator(); i.hasNext(); ) {
-
 			Map.Entry entry = (Map.Entry)i.next();
-			Object value = entry.getValue();
-			if (value==null) {
-				StringBuffer name = new StringBuffer(pkgs[0]);
-				for (int j=1; j<pkgs.length; j++) {
-					name.append('/').append(pkgs[j]);
-				}
-				name.append('/');
-				name.append((String)entry.getKey()).append(".class");
-				try {
-					ClassFile cf = info.createClassFile(name.toString());
-					if (newClassFiles==null) {
-						newClassFiles = new TreeMap();
-					}
-					newClassFiles.put(entry.getKey(), cf);
-					possiblyAddTo(addTo, cf, inPkg);
-				} catch (IOException ioe) {
-					ioe.printStackTrace();
-					break;
-				}
-			}
-			else if (value instanceof ClassFile) {
-				possiblyAddTo(addTo, (ClassFile)value, inPkg);
+			if (!(entry.getValue() instanceof Map)) {
+				classNames.add(entry.getKey());
 			}
+		}
+		StringBuffer pkg = new StringBuffer();
+		for (int i=0; i<pkgs.length; i++) {
+			pkg.append(pkgs[i]).append('/');
+		}
+		List classFiles = new ArrayList(classNames.size());
+		getClassFiles(pkg.toString(), classNames, classFiles);
 
+		for (int i=0; i<classFiles.size(); i++) {
+			possiblyAddTo(addTo, (ClassFile)classFiles.get(i), inPkg);
 		}
 
-		if (newClassFiles!=null) {
-			map.putAll(newClassFiles);
+	}
+
+
+	/**
+	 * Returns the <code>ClassFile</code>s for several classes in a package,
+	 * loading any that aren't cached yet together.
+	 *
+	 * @param pkg The package, with each part followed by '<code>/</code>'.
+	 *        This is the empty string for the default package.
+	 * @param classNames The unqualified names of the classes.
+	 * @param addTo The list to add the {@link ClassFile}s to.  Classes that
+	 *        aren't in this jar or directory, or can't be loaded, are
+	 *        skipped.
+	 * @see #getClassNames(List, List)
+	 */
+	public synchronized void getClassEntries(String pkg, List classNames,
+											List addTo) {
+
+		Map map = packageMap;
+		int start = 0;
+		int end;
+		while ((end=pkg.indexOf('/', start))>-1) {
+			Object value = map.get(pkg.substring(start, end));
+			if (!(value instanceof Map)) {
+				return;
+			}
+			map = (Map)value;
+			start = end + 1;
 		}
 
+		List inThisSource = new ArrayList(classNames.size());
+		for (int i=0; i<classNames.size(); i++) {
+			Object className = classNames.get(i);
+			if (map.containsKey(className) &&
+					!(map.get(className) instanceof Map)) {
+				inThisSource.add(className);
+			}
+		}
+		getClassFiles(pkg, inThisSource, addTo);
+
 	}
 
 
 	/**
-	 * Looks through all classes in this jar or directory, trying to find any
-	 * whose unqualified names start with a given prefix.
+	 * Returns the <code>ClassFile</code>s for several classes in a package,
+	 * from the {@link ClassFileCache} where possible.  Any that aren't cached
+	 * are loaded together, which is cheaper than one at a time, and added to
+	 * the cache.
 	 *
-	 * @param prefix The prefix of the class names.  Case is ignored on this
-	 *        parameter.
-	 * @return A list of {@link ClassFile}s representing classes in this
-	 *         jar or directory whose unqualified names start with the prefix.
-	 *         This will never be <code>null</code>, but may of course be
-	 *         empty.
+	 * @param pkg The package, with each part followed by '<code>/</code>'.
+	 *        This is the empty string for the default package.
+	 * @param classNames The unqualified names of the classes.
+	 * @param addTo The list to add the {@link ClassFile}s to, in the same
+	 *        order as their names.  Classes that can't be loaded are skipped.
 	 */
-	public List getClassesWithNamesStartingWith(String prefix) {
-		List res = new ArrayList();
-		String currentPkg = ""; // Don't use null; we're appending to it
-		getClassesWithNamesStartingWithImpl(prefix, packageMap, currentPkg,
-												res);
-		return res;
+	private void getClassFiles(String pkg, List classNames, List addTo) {
+
+		ClassFileCache cache = JarManager.getClassFileCache();
+		int count = classNames.size();
+		String[] entryNames = new String[count];
+		ClassFile[] classFiles = new ClassFile[count];
+		int[] misses = new int[count];
+		int missCount = 0;
+
+		for (int i=0; i<count; i++) {
+			entryNames[i] = pkg + classNames.get(i) + ".class";
+			classFiles[i] = cache.get(this, entryNames[i]);
+			if (classFiles[i]==null) {
+				misses[missCount++] = i;
+			}
+		}
+
+		if (missCount>0) {
+			String[] toLoad = new String[missCount];
+			for (int i=0; i<missCount; i++) {
+				toLoad[i] = entryNames[misses[i]];
+			}
+			try {
+				ClassFile[] loaded = info.createClassFiles(toLoad);
+				for (int i=0; i<missCount; i++) {
+					if (loaded[i]!=null) {
+						classFiles[misses[i]] = loaded[i];
+						cache.put(this, toLoad[i], loaded[i]);
+					}
+				}
+			} catch (IOException ioe) {
+				ioe.printStackTrace();
+			}
+		}
+
+		for (int i=0; i<count; i++) {
+			if (classFiles[i]!=null) {
+				addTo.add(classFiles[i]);
+			}
+		}
+
 	}
 
 
 	/**
-	 * Method used to recursively scan our package map for classes whose names
-	 * start with a given prefix, ignoring case.
+	 * Returns the names of all classes in this jar or directory.
 	 *
-	 * @param prefix The prefix that the unqualified class names must match
-	 *        (ignoring case). 
-	 * @param map A piece of our package map.
-	 * @param currentPkg The package that <code>map</code> belongs to (i.e.
-	 *        all levels of packages scanned before this one), separated by
-	 *        '<code>/</code>'.
-	 * @param addTo The list to add any matching <code>ClassFile</code>s to.
+	 * @param pkgs The list to add the package of each class to, with each
+	 *        part followed by '<code>/</code>'.  Classes in the same package
+	 *        share the same string.
+	 * @param addTo The list to add the unqualified name of each class to.
+	 * @see ClassNameIndex
 	 */
-	private void getClassesWithNamesStartingWithImpl(String prefix, Map map,
-											String currentPkg, List addTo) {
+	public synchronized void getClassNames(List pkgs, List addTo) {
+		getClassNamesImpl(packageMap, "", pkgs, addTo);
+	}
 
-		final int prefixLen = prefix.length();
 
-		// Loop through the map's entries, which are String keys mapping to
-		// one of a Map (if the key is a package name), a ClassFile (if the
-		// key is a class name), or null (if the key is a class name, but the
-		// corresponding ClassFile has not been loaded yet).
+	/**
+	 * Method used to recursively scan our package map for the names of
+	 * classes.
+	 *
+	 * @param map A piece of our package map.
+	 * @param currentPkg The package that <code>map</code> belongs to,
+	 *        with each part followed by '<code>/</code>'.
+	 * @param pkgs The list to add the package of each class to.
+	 * @param addTo The list to add the unqualified name of each class to.
+	 */
+	private void getClassNamesImpl(Map map, String currentPkg, List pkgs,
+									List addTo) {
 		for (Iterator i=map.entrySet().iterator(); i.hasNext(); ) {
-
 			Map.Entry entry = (Map.Entry)i.next();
 			String key = (String)entry.getKey();
-			Object value = entry.getValue();
-
-			if (value instanceof Map) {
-				getClassesWithNamesStartingWithImpl(prefix, (Map)value,
-										currentPkg + key + "/", addTo);
+			if (entry.getValue() instanceof Map) {
+				getClassNamesImpl((Map)entry.getValue(),
+								currentPkg + key + "/", pkgs, addTo);
 			}
-			else { // value is either a ClassFile or null
-				// If value is null, we only lazily create the ClassFile if
-				// necessary (i.e. if the class name does match what they've
-				// typed).
-				String className = key;
-				if (className.regionMatches(true, 0, prefix, 0, prefixLen)) {
-					if (value==null) {
-						String fqClassName = currentPkg + className + ".class";
-						try {
-							value = info.createClassFile(fqClassName);
-							entry.setValue(value); // Update the map
-						} catch (IOException ioe) {
-							ioe.printStackTrace();
-						}
-					}
-					if (value!=null) { // possibly null if IOException above
-						addTo.add(/*(ClassFile)*/value);
-					}
-				}
+			else {
+				pkgs.add(currentPkg);
+				addTo.add(key);
 			}
-
 		}
-
 	}
 
 
@@ -430,7 +435,7 @@ class JarReader {
 	}
 
 
-	public SortedMap getPackageEntry(String[] pkgs) {
+	public synchronized SortedMap getPackageEntry(String[] pkgs) {
 
 		SortedMap map = packageMap;
 
@@ -452,6 +457,18 @@ class JarReader {
 	}
 
 
+	/**
+	 * Returns the number of times the jar or directory was found to be
+	 * modified since this reader was created, and its cached
+	 * <code>ClassFile</code>s discarded.
+	 *
+	 * @return The number of times.
+	 */
+	public int getReloadCount() {
+		return reloadCount;
+	}
+
+
 	private void loadCompletions() throws IOException {
 		packageMap = info.createPackageMap();
 		lastModified = info.getLastModified();
@@ -194,6 +194,7 @@ public class JavaLanguageSupport extends AbstractLanguageSupport {
 				JavaParser.PROPERTY_COMPILATION_UNIT, info);
 		}
 		textArea.removeParser(parser);
+		parser.uninstall();
 		textArea.putClientProperty(PROPERTY_LANGUAGE_PARSER, null);
 
 		Object listener = textArea.getClientProperty(PROPERTY_LISTENER);
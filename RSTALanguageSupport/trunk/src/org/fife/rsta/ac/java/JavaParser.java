@@ -13,11 +13,22 @@ package org.fife.rsta.ac.java;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
 import javax.swing.text.Element;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
 
-import org.fife.io.DocumentReader;
+import org.fife.rsta.ac.java.rjc.ast.CodeBlock;
 import org.fife.rsta.ac.java.rjc.ast.CompilationUnit;
+import org.fife.rsta.ac.java.rjc.ast.Method;
+import org.fife.rsta.ac.java.rjc.ast.TypeDeclaration;
 import org.fife.rsta.ac.java.rjc.lexer.Scanner;
+import org.fife.rsta.ac.java.rjc.lexer.Token;
 import org.fife.rsta.ac.java.rjc.notices.ParserNotice;
 import org.fife.rsta.ac.java.rjc.parser.ASTFactory;
 import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
@@ -41,11 +52,20 @@ import org.fife.ui.rsyntaxtextarea.parser.ParseResult;
  * may be incomplete if there were parsing/syntax errors (it will usually be
  * complete "up to" the error in the content).<p>
  *
+ * Most edits are inside a single method body.  In incremental mode (the
+ * default), when every change since the last parse is inside the body of
+ * one method, only that body is re-parsed, and it replaces the method's old
+ * body in the existing <tt>CompilationUnit</tt>.  A
+ * {@link #PROPERTY_METHOD_BODY} event is fired instead of
+ * {@link #PROPERTY_COMPILATION_UNIT} in that case, since the members of the
+ * types (for example, as displayed in an outline tree) haven't changed.
+ * Any other change causes the whole document to be parsed again.<p>
+ *
  * This parser cannot be shared amongst multiple instances of
  * <tt>RSyntaxTextArea</tt>.<p>
  *
  * Please keep in mind that this class is a work-in-progress!
- * 
+ *
  * @author Robert Futrell
  * @version 0.5
  */
@@ -58,9 +78,40 @@ public class JavaParser extends AbstractParser {
 	 */
 	public static final String PROPERTY_COMPILATION_UNIT = "CompilationUnit";
 
+	/**
+	 * The property change event that's fired when only the body of a method
+	 * was re-parsed, in incremental mode.  The method's body in the
+	 * existing {@link CompilationUnit} has been replaced; the new value of
+	 * the property is the {@link Method}.
+	 *
+	 * @see #setIncremental(boolean)
+	 */
+	public static final String PROPERTY_METHOD_BODY = "MethodBody";
+
 	private CompilationUnit cu;
 	private PropertyChangeSupport support;
 	private DefaultParseResult result;
+	private boolean incremental;
+
+	/**
+	 * The document last parsed, whose changes are being tracked.
+	 */
+	private RSyntaxDocument doc;
+	private Listener listener;
+
+	/**
+	 * The range of the document changed since the last parse, or
+	 * <code>-1</code> if it hasn't changed.
+	 */
+	private int changeStart;
+	private int changeEnd;
+
+	/**
+	 * Tracks where each of the compilation unit's parser notices is in the
+	 * document, so they can be kept after a method body is re-parsed.
+	 * Elements may be <code>null</code> for notices outside the document.
+	 */
+	private List noticePositions;
 
 
 	/**
@@ -69,6 +120,10 @@ public class JavaParser extends AbstractParser {
 	public JavaParser(RSyntaxTextArea textArea) {
 		support = new PropertyChangeSupport(this);
 		result = new DefaultParseResult(this);
+		incremental = true;
+		listener = new Listener();
+		changeStart = changeEnd = -1;
+		noticePositions = new ArrayList();
 	}
 
 
@@ -78,6 +133,7 @@ public class JavaParser extends AbstractParser {
 	private void addNotices(RSyntaxDocument doc) {
 
 		result.clearNotices();
+		noticePositions.clear();
 		int count = cu==null ? 0 : cu.getParserNoticeCount();
 
 		if (count==0) {
@@ -87,11 +143,18 @@ public class JavaParser extends AbstractParser {
 		for (int i=0; i<count; i++) {
 			ParserNotice notice = cu.getParserNotice(i);
 			int offs = getOffset(doc, notice);
+			Position pos = null;
 			if (offs>-1) {
 				int len = notice.getLength();
 				result.addNotice(new DefaultParserNotice(this,
 						notice.getMessage(), notice.getLine(), offs, len));
+				try {
+					pos = doc.createPosition(offs);
+				} catch (BadLocationException ble) { // Never happens
+					ble.printStackTrace();
+				}
 			}
+			noticePositions.add(pos);
 		}
 
 	}
@@ -102,6 +165,63 @@ public class JavaParser extends AbstractParser {
 	}
 
 
+	/**
+	 * Returns the method whose body contains all changes to the document
+	 * since the last parse.
+	 *
+	 * @return The method, or <code>null</code> if there is none, or the
+	 *         document hasn't changed.
+	 */
+	private Method getChangedMethod() {
+		if (cu!=null && changeStart>-1) {
+			for (Iterator i=cu.getTypeDeclarationIterator(); i.hasNext(); ) {
+				TypeDeclaration td = (TypeDeclaration)i.next();
+				Method m = getChangedMethod(td);
+				if (m!=null) {
+					return m;
+				}
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Returns the method in a type declaration, or any type nested in it,
+	 * whose body contains all changes to the document since the last parse.
+	 * The body's braces themselves must not have changed.
+	 *
+	 * @param td The type declaration.
+	 * @return The method, or <code>null</code> if there is none.
+	 */
+	private Method getChangedMethod(TypeDeclaration td) {
+
+		if (changeStart<=td.getBodyStartOffset() ||
+				changeEnd>td.getBodyEndOffset()) {
+			return null;
+		}
+
+		for (Iterator i=td.getMethodIterator(); i.hasNext(); ) {
+			Method m = (Method)i.next();
+			CodeBlock body = m.getBody();
+			if (body!=null && changeStart>body.getNameStartOffset() &&
+					changeEnd<=body.getNameEndOffset()) {
+				return m;
+			}
+		}
+
+		for (int i=0; i<td.getChildTypeCount(); i++) {
+			Method m = getChangedMethod(td.getChildType(i));
+			if (m!=null) {
+				return m;
+			}
+		}
+
+		return null;
+
+	}
+
+
 	/**
 	 * Returns the compilation unit from the last time the text area was
 	 * parsed.
@@ -122,33 +242,98 @@ public class JavaParser extends AbstractParser {
 	}
 
 
+	/**
+	 * Returns whether a re-parsed method body was closed by its own
+	 * '<code>}</code>' at an offset.  A block reaching the end of its
+	 * input also ends there, e.g. if a comment now swallows the
+	 * '<code>}</code>', or if a nested block closes with it.
+	 *
+	 * @param body The method body.
+	 * @param s The scanner it was parsed with.
+	 * @param end The offset of the '<code>}</code>'.
+	 * @return Whether the body was closed at <code>end</code>.
+	 */
+	private static boolean isClosedAt(CodeBlock body, Scanner s, int end) {
+		Token t = s.getMostRecentToken();
+		if (body.getNameEndOffset()!=end || t==null ||
+				!t.isType(Token.SEPARATOR_RBRACE) || t.getOffset()!=end) {
+			return false;
+		}
+		// No nested block may have ended at the '}' too.
+		CodeBlock block = body;
+		while (block.getChildBlockCount()>0) {
+			block = block.getChildBlock(block.getChildBlockCount()-1);
+			if (block.getNameEndOffset()==end) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Returns whether only the changed method body is re-parsed when
+	 * possible.
+	 *
+	 * @return Whether incremental parsing is enabled.
+	 * @see #setIncremental(boolean)
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+
 	/**
 	 * {@inheritDoc}
 	 */
 	public ParseResult parse(RSyntaxDocument doc, String style) {
 
-		cu = null;
-		result.clearNotices();
+		if (doc!=this.doc) {
+			if (this.doc!=null) {
+				this.doc.removeDocumentListener(listener);
+			}
+			this.doc = doc;
+			doc.addDocumentListener(listener);
+			cu = null;
+		}
+
 		// Always spell check all lines, for now.
 		int lineCount = doc.getDefaultRootElement().getElementCount();
 		result.setParsedLines(0, lineCount-1);
 
-		DocumentReader r = new DocumentReader(doc);
-		Scanner scanner = new Scanner(r);
-		scanner.setDocument(doc);
+		Method m = incremental ? getChangedMethod() : null;
+		changeStart = changeEnd = -1;
+		if (m!=null) {
+			long start = System.currentTimeMillis();
+			if (reparseMethodBody(doc, m)) {
+				result.setParseTime(System.currentTimeMillis() - start);
+				addNotices(doc);
+				support.firePropertyChange(PROPERTY_METHOD_BODY, null, m);
+				return result;
+			}
+		}
+
+		cu = null;
+		result.clearNotices();
+
 		ASTFactory fact = new ASTFactory();
 		long start = System.currentTimeMillis();
 		try {
+			// Scan the document's text in place; we hold its read lock.
+			Segment text = new Segment();
+			doc.getText(0, doc.getLength(), text);
+			Scanner scanner = new Scanner(text.array, text.offset, text.count);
+			scanner.setDocument(doc);
 			cu = fact.getCompilationUnit("SomeFile.java", scanner); // TODO: Real name?
 			long time = System.currentTimeMillis() - start;
 			result.setParseTime(time);
+		} catch (BadLocationException ble) { // Never happens
+			ble.printStackTrace();
 		} catch (IOException ioe) {
 			result.setError(ioe);
 //			ioe.printStackTrace();
 		}
 
-		r.close();
-
 		addNotices(doc);
 		support.firePropertyChange(PROPERTY_COMPILATION_UNIT, null, cu);
 		return result;
@@ -161,4 +346,157 @@ public class JavaParser extends AbstractParser {
 	}
 
 
-}
\ No newline at end of file
+	/**
+	 * Re-parses the body of a method, and replaces the method's old body
+	 * with it.  The compilation unit's parser notices in the old body are
+	 * replaced with those for the new one.
+	 *
+	 * @param doc The document.
+	 * @param m The method.
+	 * @return Whether the body was re-parsed.  This is <code>false</code>
+	 *         if it no longer ends with the same '<code>}</code>', for
+	 *         example if the braces in it are now unbalanced, or a comment
+	 *         opened in it now swallows the '<code>}</code>'; the whole
+	 *         document must be re-parsed.
+	 */
+	private boolean reparseMethodBody(RSyntaxDocument doc, Method m) {
+
+		CodeBlock body = m.getBody();
+		int start = body.getNameStartOffset();
+		int end = body.getNameEndOffset();
+		CompilationUnit bodyCu = new CompilationUnit(cu.getName());
+
+		try {
+			Element root = doc.getDefaultRootElement();
+			int line = root.getElementIndex(start);
+			int column = start - root.getElement(line).getStartOffset();
+			// Scan through to the end of the document, not just the body,
+			// so that tokens (such as comments) starting in the body but
+			// ending after it are lexed as in a full parse.  Only the body
+			// is actually parsed.
+			Segment text = new Segment();
+			doc.getText(start, doc.getLength()-start, text);
+			Scanner scanner = new Scanner(text.array, text.offset, text.count);
+			scanner.setDocument(doc);
+			scanner.setStartPosition(start, line, column);
+			body = new ASTFactory().getMethodBody(bodyCu, m, scanner);
+			if (!isClosedAt(body, scanner, end)) {
+				return false;
+			}
+		} catch (BadLocationException ble) { // Never happens
+			ble.printStackTrace();
+			return false;
+		} catch (IOException ioe) { // e.g. no longer starts with '{'
+			return false;
+		}
+
+		m.setBody(body);
+
+		// Keep the notices outside of the body, in document order, updating
+		// their lines and columns for the changes.
+		List before = new ArrayList();
+		List after = new ArrayList();
+		Element root = doc.getDefaultRootElement();
+		for (int i=0; i<cu.getParserNoticeCount(); i++) {
+			Position pos = (Position)noticePositions.get(i);
+			if (pos!=null) {
+				int offs = pos.getOffset();
+				if (offs<start || offs>end) {
+					ParserNotice notice = cu.getParserNotice(i);
+					int line = root.getElementIndex(offs);
+					int column = offs - root.getElement(line).getStartOffset();
+					notice = new ParserNotice(line, column,
+								notice.getLength(), notice.getMessage());
+					(offs<start ? before : after).add(notice);
+				}
+			}
+		}
+		cu.clearParserNotices();
+		for (int i=0; i<before.size(); i++) {
+			cu.addParserNotice((ParserNotice)before.get(i));
+		}
+		for (int i=0; i<bodyCu.getParserNoticeCount(); i++) {
+			cu.addParserNotice(bodyCu.getParserNotice(i));
+		}
+		for (int i=0; i<after.size(); i++) {
+			cu.addParserNotice((ParserNotice)after.get(i));
+		}
+
+		return true;
+
+	}
+
+
+	/**
+	 * Stops tracking changes to the document last parsed.  This should be
+	 * called when this parser is removed from its text area, since it
+	 * otherwise stays registered as a listener on the document.  If the
+	 * parser is used again, the next parse is a full one.
+	 */
+	public void uninstall() {
+		if (doc!=null) {
+			doc.removeDocumentListener(listener);
+			doc = null;
+		}
+		changeStart = changeEnd = -1;
+		noticePositions.clear();
+	}
+
+
+	/**
+	 * Sets whether only the changed method body is re-parsed when possible.
+	 *
+	 * @param incremental Whether to enable incremental parsing.
+	 * @see #isIncremental()
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+
+	/**
+	 * Tracks the range of the document changed since the last parse.
+	 */
+	private class Listener implements DocumentListener {
+
+		public void changedUpdate(DocumentEvent e) {
+		}
+
+		public void insertUpdate(DocumentEvent e) {
+			int offs = e.getOffset();
+			int end = offs + e.getLength();
+			if (changeStart==-1) {
+				changeStart = offs;
+				changeEnd = end;
+			}
+			else {
+				if (changeEnd>=offs) {
+					changeEnd += e.getLength();
+				}
+				changeStart = Math.min(changeStart, offs);
+				changeEnd = Math.max(changeEnd, end);
+			}
+		}
+
+		public void removeUpdate(DocumentEvent e) {
+			int offs = e.getOffset();
+			int end = offs + e.getLength();
+			if (changeStart==-1) {
+				changeStart = changeEnd = offs;
+			}
+			else {
+				if (changeEnd>=end) {
+					changeEnd -= e.getLength();
+				}
+				else if (changeEnd>offs) {
+					changeEnd = offs;
+				}
+				changeStart = Math.min(changeStart, offs);
+				changeEnd = Math.max(changeEnd, offs);
+			}
+		}
+
+	}
+
+
+}
@@ -15,12 +15,15 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import javax.swing.SwingUtilities;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.JTextComponent;
 
@@ -43,7 +46,10 @@ import org.fife.rsta.ac.java.rjc.ast.TypeDeclaration;
 import org.fife.rsta.ac.java.rjc.lang.Type;
 import org.fife.rsta.ac.java.rjc.lang.TypeArgument;
 import org.fife.rsta.ac.java.rjc.lang.TypeParameter;
+import org.fife.ui.autocomplete.AsyncCompletionProvider;
+import org.fife.ui.autocomplete.CompletionRequest;
 import org.fife.ui.autocomplete.DefaultCompletionProvider;
+import org.fife.ui.autocomplete.SortByRelevanceComparator;
 import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 import org.fife.ui.rsyntaxtextarea.RSyntaxUtilities;
@@ -60,12 +66,17 @@ import org.fife.ui.rsyntaxtextarea.Token;
  * </ul>
  *
  * Also, if the caret is inside a method, local variables up to the caret
- * position are also returned.
+ * position are also returned.<p>
+ *
+ * When completions are requested asynchronously, everything but the classes
+ * on the classpath matching the entered text is computed on the EDT, and
+ * displayed while the classpath is searched on a background thread.
  *
  * @author Robert Futrell
  * @version 1.0
  */
-class SourceCompletionProvider extends DefaultCompletionProvider {
+class SourceCompletionProvider extends DefaultCompletionProvider
+								implements AsyncCompletionProvider {
 
 	/**
 	 * The parent completion provider.
@@ -77,9 +88,28 @@ class SourceCompletionProvider extends DefaultCompletionProvider {
 	 */
 	private JarManager jarManager;
 
+	/**
+	 * Types resolved, and completions created, for the current compilation
+	 * unit.  This is only used on the EDT.
+	 */
+	private ResolutionCache resolutionCache;
+
 	private static final String JAVA_LANG_PACKAGE			= "java.lang.*";
 	private static final String THIS						= "this";
 
+	/**
+	 * Sorts asynchronously computed completions the same way
+	 * <code>getCompletions()</code> does.
+	 */
+	private static final Comparator SORT_BY_RELEVANCE_COMPARATOR =
+									new SortByRelevanceComparator();
+
+	/**
+	 * Cached in place of a {@link ClassFile} for class names that couldn't
+	 * be resolved.
+	 */
+	private static final Object NOT_FOUND = new Object();
+
 
 	/**
 	 * Constructor.
@@ -105,8 +135,42 @@ class SourceCompletionProvider extends DefaultCompletionProvider {
 	}
 
 
+	/**
+	 * Adds completions for accessible static methods and fields of a class
+	 * and its super classes.
+	 *
+	 * @param set The set to add to.
+	 * @param cu The compilation unit.
+	 * @param cf The class.
+	 * @param pkg The package of the source being parsed.
+	 */
 	private void addCompletionsForStaticMembers(Set set,
 						CompilationUnit cu, ClassFile cf, String pkg) {
+		ResolutionCache cache = getResolutionCache(cu);
+		MemberKey key = new MemberKey(cf, null, true);
+		Members members = (Members)cache.members.get(key);
+		if (members==null) {
+			members = new Members();
+			loadCompletionsForStaticMembers(members, cu, cf, pkg);
+			cache.members.put(key, members);
+		}
+		set.addAll(members.completions);
+	}
+
+
+	/**
+	 * Loads completions for accessible static methods and fields of a class
+	 * and its super classes, bypassing the resolution cache.
+	 *
+	 * @param members Receives the completions.
+	 * @param cu The compilation unit.
+	 * @param cf The class.
+	 * @param pkg The package of the source being parsed.
+	 */
+	private void loadCompletionsForStaticMembers(Members members,
+						CompilationUnit cu, ClassFile cf, String pkg) {
+
+		Set set = members.completions;
 
 		// Check us first, so if we override anything, we get the "newest"
 		// version.
@@ -130,7 +194,7 @@ class SourceCompletionProvider extends DefaultCompletionProvider {
 
 		ClassFile superClass = getClassFileFor(cu, cf.getSuperClassName(true));
 		if (superClass!=null) {
-			addCompletionsForStaticMembers(set, cu, superClass, pkg);
+			loadCompletionsForStaticMembers(members, cu, superClass, pkg);
 		}
 
 	}
@@ -153,11 +217,49 @@ class SourceCompletionProvider extends DefaultCompletionProvider {
 	private void addCompletionsForExtendedClass(Set set,
 						CompilationUnit cu, ClassFile cf, String pkg,
 						Map typeParamMap) {
+		ResolutionCache cache = getResolutionCache(cu);
+		MemberKey key = new MemberKey(cf, typeParamMap, false);
+		Members members = (Members)cache.members.get(key);
+		if (members==null) {
+			members = new Members();
+			loadCompletionsForExtendedClass(members, cu, cf, pkg,
+											typeParamMap);
+			cache.members.put(key, members);
+		}
+		else {
+			// The class files are shared, and another type's arguments may
+			// have been set on them since.
+			for (int i=0; i<members.classFiles.size(); i++) {
+				ClassFile temp = (ClassFile)members.classFiles.get(i);
+				temp.setTypeParamsToTypeArgs(typeParamMap);
+			}
+		}
+		set.addAll(members.completions);
+	}
+
+
+	/**
+	 * Loads completions for accessible methods and fields of a class and the
+	 * classes it extends, bypassing the resolution cache.
+	 *
+	 * @param members Receives the completions and the classes visited.
+	 * @param cu The compilation unit.
+	 * @param cf A class in the chain of classes that a type being parsed
+	 *        inherits from.
+	 * @param pkg The package of the source being parsed.
+	 * @param typeParamMap A mapping of type parameters to type arguments.
+	 */
+	private void loadCompletionsForExtendedClass(Members members,
+						CompilationUnit cu, ClassFile cf, String pkg,
+						Map typeParamMap) {
+
+		Set set = members.completions;
 
 		// Reset this class's type-arguments-to-type-parameters map, so that
 		// when methods and fields need to know type arguments, they can query
 		// for them.
 		cf.setTypeParamsToTypeArgs(typeParamMap);
+		members.classFiles.add(cf);
 
 		// Check us first, so if we override anything, we get the "newest"
 		// version.
@@ -183,7 +285,8 @@ class SourceCompletionProvider extends DefaultCompletionProvider {
 		// Add completions for any non-overridden super-class methods.
 		ClassFile superClass = getClassFileFor(cu, cf.getSuperClassName(true));
 		if (superClass!=null) {
-			addCompletionsForExtendedClass(set, cu, superClass, pkg, typeParamMap);
+			loadCompletionsForExtendedClass(members, cu, superClass, pkg,
+											typeParamMap);
 		}
 
 		// Add completions for any interface methods, in case this class is
@@ -192,7 +295,7 @@ class SourceCompletionProvider extends DefaultCompletionProvider {
 		for (int i=0; i<cf.getImplementedInterfaceCount(); i++) {
 			String inter = cf.getImplementedInterfaceName(i, true);
 			cf = getClassFileFor(cu, inter);
-			addCompletionsForExtendedClass(set, cu, cf, pkg, typeParamMap);
+			loadCompletionsForExtendedClass(members, cu, cf, pkg, typeParamMap);
 		}
 
 	}
@@ -260,6 +363,53 @@ class SourceCompletionProvider extends DefaultCompletionProvider {
 			return null;
 		}
 
+		ResolutionCache cache = getResolutionCache(cu);
+		Object cf = cache.classFiles.get(className);
+		if (cf==null) {
+			cf = resolveClassFile(cu, className);
+			cache.classFiles.put(className, cf!=null ? cf : NOT_FOUND);
+		}
+		return cf==NOT_FOUND ? null : (ClassFile)cf;
+
+	}
+
+
+	/**
+	 * Returns the work done resolving types for a compilation unit.  This
+	 * is discarded whenever a new compilation unit is parsed, or the build
+	 * path changes.  The imports and package of a compilation unit never
+	 * change once it is created (when just a method body is re-parsed, the
+	 * compilation unit is updated in place), so that work otherwise stays
+	 * valid for its lifetime.  The jar manager may be shared, and modified
+	 * without going through this provider, so its modification count is
+	 * checked rather than relying on {@link #addJar(LibraryInfo)} and
+	 * friends.
+	 *
+	 * @param cu The compilation unit.
+	 * @return The resolution cache.
+	 */
+	private ResolutionCache getResolutionCache(CompilationUnit cu) {
+		long modCount = jarManager.getModificationCount();
+		if (resolutionCache==null || resolutionCache.cu!=cu ||
+				resolutionCache.modCount!=modCount) {
+			resolutionCache = new ResolutionCache(cu, modCount);
+		}
+		return resolutionCache;
+	}
+
+
+	/**
+	 * Finds the {@link ClassFile} for a class, without checking the
+	 * resolution cache.
+	 *
+	 * @param cu The compilation unit being parsed.
+	 * @param className The name of the class (fully qualified or not).
+	 * @return The {@link ClassFile} for the class, or <code>null</code> if
+	 *         it could not be found.
+	 * @see #getClassFileFor(CompilationUnit, String)
+	 */
+	private ClassFile resolveClassFile(CompilationUnit cu, String className) {
+
 		ClassFile superClass = null;
 
 		// Determine the fully qualified class to grab
@@ -531,31 +681,92 @@ class SourceCompletionProvider extends DefaultCompletionProvider {
 		// Do a final sort of all of our completions and we're good to go!
 		completions = new ArrayList(set);
 		Collections.sort(completions);
+		return getMatches(completions, text);
+
+		} finally {
+			comp.setCursor(Cursor.getPredefinedCursor(Cursor.TEXT_CURSOR));
+		}
+
+	}
+
+
+	/**
+	 * Computes the same completions as {@link #getCompletions(JTextComponent)},
+	 * but searches the classpath for classes matching the entered text on a
+	 * background thread.  Until that finishes, the other completions are
+	 * published as partial results.
+	 *
+	 * @param request The request.
+	 */
+	public void getCompletionsAsync(CompletionRequest request) {
+
+		JTextComponent comp = request.getTextComponent();
+		CompilationUnit cu = javaProvider.getCompilationUnit();
+		if (cu==null || getParent()!=null) {
+			request.setCompletions(getCompletions(comp));
+			return;
+		}
+
+		// Gather everything but the classpath matches, in the same order as
+		// getCompletionsImpl(), in case any of them are equal.
+		Set before = new TreeSet();
+		Set after = new TreeSet();
+		String text = getAlreadyEnteredText(comp);
+		boolean searchClasspath = false;
+		if (!checkStringLiteralMember(comp, text, cu, before)) {
+			if (text.indexOf('.')==-1) {
+				addShorthandCompletions(before);
+			}
+			loadImportCompletions(before, text, cu);
+			loadCompletionsForCaretPosition(cu, comp, text, after);
+			searchClasspath = text.length()>0;
+		}
+
+		ClasspathSearch search = new ClasspathSearch(request, text, before,
+													after);
+		List all = search.getCompletions(null);
+		if (searchClasspath) {
+			request.publish(search.getMatches(all));
+			ClasspathSearcher.getInstance().search(search);
+		}
+		else {
+			completions = all;
+			request.setCompletions(search.getMatches(all));
+		}
+
+	}
+
+
+	/**
+	 * Returns the completions in a sorted list whose input text matches the
+	 * entered text.
+	 *
+	 * @param sorted The completions, sorted.
+	 * @param text The entered text.
+	 * @return The matching completions, as a view of <code>sorted</code>.
+	 */
+	private List getMatches(List sorted, String text) {
 
 		// Only match based on stuff after the final '.', since that's what is
 		// displayed for all of our completions.
 		text = text.substring(text.lastIndexOf('.')+1);
 
-		int start = Collections.binarySearch(completions, text, comparator);
+		int start = Collections.binarySearch(sorted, text, comparator);
 		if (start<0) {
 			start = -(start+1);
 		}
 		else {
 			// There might be multiple entries with the same input text.
 			while (start>0 &&
-					comparator.compare(completions.get(start-1), text)==0) {
+					comparator.compare(sorted.get(start-1), text)==0) {
 				start--;
 			}
 		}
 
-		int end = Collections.binarySearch(completions, text+'{', comparator);
+		int end = Collections.binarySearch(sorted, text+'{', comparator);
 		end = -(end+1);
 
-		return completions.subList(start, end);
-
-		} finally {
-			comp.setCursor(Cursor.getPredefinedCursor(Cursor.TEXT_CURSOR));
-		}
+		return sorted.subList(start, end);
 
 	}
 
@@ -889,9 +1100,14 @@ public SourceLocation  getSourceLocForClass(String className) {
 		// Could be a class name, in which case we'll need to add completions
 		// for static fields and methods.
 		if (!matched) {
-			List imports = cu.getImports();
-			List matches = jarManager.getClassesWithUnqualifiedName(
-															prefix, imports);
+			ResolutionCache cache = getResolutionCache(cu);
+			List matches = (List)cache.classesByName.get(prefix);
+			if (matches==null && !cache.classesByName.containsKey(prefix)) {
+				List imports = cu.getImports();
+				matches = jarManager.getClassesWithUnqualifiedName(prefix,
+																imports);
+				cache.classesByName.put(prefix, matches);
+			}
 			if (matches!=null) {
 				for (int i=0; i<matches.size(); i++) {
 					ClassFile cf = (ClassFile)matches.get(i);
@@ -989,15 +1205,21 @@ public SourceLocation  getSourceLocForClass(String className) {
 
 		//long startTime = System.currentTimeMillis();
 
-		String pkgName = cu.getPackageName();
-		loadCompletionsForImport(set, JAVA_LANG_PACKAGE, pkgName);
-		for (Iterator i=cu.getImportIterator(); i.hasNext(); ) {
-			ImportDeclaration id = (ImportDeclaration)i.next();
-			String name = id.getName();
-			if (!JAVA_LANG_PACKAGE.equals(name)) {
-				loadCompletionsForImport(set, name, pkgName);
+		ResolutionCache cache = getResolutionCache(cu);
+		if (cache.importCompletions==null) {
+			Set imports = new TreeSet();
+			String pkgName = cu.getPackageName();
+			loadCompletionsForImport(imports, JAVA_LANG_PACKAGE, pkgName);
+			for (Iterator i=cu.getImportIterator(); i.hasNext(); ) {
+				ImportDeclaration id = (ImportDeclaration)i.next();
+				String name = id.getName();
+				if (!JAVA_LANG_PACKAGE.equals(name)) {
+					loadCompletionsForImport(imports, name, pkgName);
+				}
 			}
+			cache.importCompletions = imports;
 		}
+		set.addAll(cache.importCompletions);
 //		Collections.sort(completions);
 
 		//long time = System.currentTimeMillis() - startTime;
@@ -1038,4 +1260,269 @@ public SourceLocation  getSourceLocForClass(String className) {
 	}
 
 
+
+	/**
+	 * Searches the classpath for classes matching the entered text, off of
+	 * the EDT, and delivers the full list of completions when done.
+	 */
+	private class ClasspathSearch implements Runnable {
+
+		private CompletionRequest request;
+		private String text;
+		private Set before;
+		private Set after;
+
+		public ClasspathSearch(CompletionRequest request, String text,
+								Set before, Set after) {
+			this.request = request;
+			this.text = text;
+			this.before = before;
+			this.after = after;
+		}
+
+		/**
+		 * Returns all completions, sorted.
+		 *
+		 * @param classes Completions for classes on the classpath.  This may
+		 *        be <code>null</code>.
+		 * @return The completions.
+		 */
+		public List getCompletions(Set classes) {
+			Set set = new TreeSet(before);
+			if (classes!=null) {
+				set.addAll(classes);
+			}
+			set.addAll(after);
+			List list = new ArrayList(set);
+			Collections.sort(list);
+			return list;
+		}
+
+		/**
+		 * Returns the completions matching the entered text, sorted by
+		 * relevance.
+		 *
+		 * @param all All completions, as returned by
+		 *        {@link #getCompletions(Set)}.
+		 * @return The completions.
+		 */
+		public List getMatches(List all) {
+			List matches = new ArrayList(
+					SourceCompletionProvider.this.getMatches(all, text));
+			Collections.sort(matches, SORT_BY_RELEVANCE_COMPARATOR);
+			return matches;
+		}
+
+		public void run() {
+
+			Set classes = new TreeSet();
+			jarManager.addCompletions(SourceCompletionProvider.this, text,
+									classes, request);
+			if (request.isCancelled()) {
+				return;
+			}
+
+			final List all = getCompletions(classes);
+			final List matches = getMatches(all);
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					if (!request.isCancelled()) {
+						completions = all; // For getCompletionsAt()
+						request.setCompletions(matches);
+					}
+				}
+			});
+
+		}
+
+	}
+
+
+	/**
+	 * Runs classpath searches off the EDT.  A single daemon thread is shared
+	 * by all providers, so fast typing doesn't pile up threads contending
+	 * for the jar manager's locks.  Queued searches whose requests have been
+	 * cancelled (i.e., superseded by a newer one) are dropped without
+	 * running.
+	 */
+	private static class ClasspathSearcher implements Runnable {
+
+		/**
+		 * The queued searches, in the order they'll be run.
+		 */
+		private LinkedList queue;
+
+		private static ClasspathSearcher instance;
+
+		private ClasspathSearcher() {
+			queue = new LinkedList();
+			Thread t = new Thread(this, "JavaCompletionClasspathSearch");
+			t.setDaemon(true);
+			t.start();
+		}
+
+		public static synchronized ClasspathSearcher getInstance() {
+			if (instance==null) {
+				instance = new ClasspathSearcher();
+			}
+			return instance;
+		}
+
+		/**
+		 * Queues a search, dropping any queued searches that have been
+		 * cancelled.
+		 *
+		 * @param search The search to run.
+		 */
+		public synchronized void search(ClasspathSearch search) {
+			for (Iterator i=queue.iterator(); i.hasNext(); ) {
+				if (((ClasspathSearch)i.next()).request.isCancelled()) {
+					i.remove();
+				}
+			}
+			queue.addLast(search);
+			notify();
+		}
+
+		public void run() {
+			while (true) {
+				ClasspathSearch search = null;
+				synchronized (this) {
+					while (queue.isEmpty()) {
+						try {
+							wait();
+						} catch (InterruptedException ie) {
+							// Keep waiting
+						}
+					}
+					search = (ClasspathSearch)queue.removeFirst();
+				}
+				if (!search.request.isCancelled()) {
+					try {
+						search.run();
+					} catch (RuntimeException re) { // Don't kill thread
+						re.printStackTrace();
+					}
+				}
+			}
+		}
+
+	}
+
+
+	/**
+	 * Identifies the members of a class, as loaded with a given mapping of
+	 * type parameters to type arguments.
+	 */
+	private static class MemberKey {
+
+		private ClassFile cf;
+		private Map typeParamMap;
+		private boolean staticOnly;
+
+		public MemberKey(ClassFile cf, Map typeParamMap, boolean staticOnly) {
+			this.cf = cf;
+			this.typeParamMap = typeParamMap;
+			this.staticOnly = staticOnly;
+		}
+
+		public boolean equals(Object o) {
+			if (o instanceof MemberKey) {
+				MemberKey key = (MemberKey)o;
+				return cf==key.cf && staticOnly==key.staticOnly &&
+					(typeParamMap==null ? key.typeParamMap==null :
+						typeParamMap.equals(key.typeParamMap));
+			}
+			return false;
+		}
+
+		public int hashCode() {
+			int hash = System.identityHashCode(cf);
+			if (typeParamMap!=null) {
+				hash ^= typeParamMap.hashCode();
+			}
+			return staticOnly ? ~hash : hash;
+		}
+
+	}
+
+
+	/**
+	 * The completions for the members of a class and the classes it
+	 * extends.
+	 */
+	private static class Members {
+
+		/**
+		 * The completions.
+		 */
+		public Set completions;
+
+		/**
+		 * The classes the completions came from, whose type arguments must
+		 * be set when the completions are reused.
+		 */
+		public List classFiles;
+
+		public Members() {
+			completions = new TreeSet();
+			classFiles = new ArrayList();
+		}
+
+	}
+
+
+	/**
+	 * Types resolved and completions created for a compilation unit, so
+	 * that asking for completions again, for example as the user continues
+	 * typing, doesn't repeat the work.  This is everything that depends
+	 * only on the compilation unit's package and imports, and on the build
+	 * path, and not on where the caret is.
+	 */
+	private static class ResolutionCache {
+
+		/**
+		 * The compilation unit this cache is for.
+		 */
+		public CompilationUnit cu;
+
+		/**
+		 * The jar manager's modification count when this cache was created.
+		 */
+		public long modCount;
+
+		/**
+		 * Maps class names, as they appear in the source, to the
+		 * {@link ClassFile}s they resolve to, or {@link #NOT_FOUND}.
+		 */
+		public Map classFiles;
+
+		/**
+		 * Maps {@link MemberKey}s to {@link Members}.
+		 */
+		public Map members;
+
+		/**
+		 * Maps unqualified class names to the list of imported classes with
+		 * that name, or <code>null</code> if there are none.
+		 */
+		public Map classesByName;
+
+		/**
+		 * Completions for the imported classes, or <code>null</code> if they
+		 * haven't been loaded yet.
+		 */
+		public Set importCompletions;
+
+		public ResolutionCache(CompilationUnit cu, long modCount) {
+			this.cu = cu;
+			this.modCount = modCount;
+			classFiles = new HashMap();
+			members = new HashMap();
+			classesByName = new HashMap();
+		}
+
+	}
+
+
 }
\ No newline at end of file
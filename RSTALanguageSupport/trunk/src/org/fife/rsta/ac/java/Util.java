@@ -11,7 +11,6 @@
 package org.fife.rsta.ac.java;
 
 import java.io.BufferedReader;
-import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
@@ -19,6 +18,7 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.fife.rsta.ac.java.buildpath.CompilationUnitCache;
 import org.fife.rsta.ac.java.buildpath.SourceLocation;
 import org.fife.rsta.ac.java.classreader.ClassFile;
 import org.fife.rsta.ac.java.rjc.ast.CompilationUnit;
@@ -58,18 +58,6 @@ public class Util {
 		Pattern.compile("(?:\\w+\\.)*\\w+(?:#\\w+(?:\\([^\\)]*\\))?)?|" +
 				"#\\w+(?:\\([^\\)]*\\))?");
 
-	/**
-	 * A cache of the last {@link CompilationUnit} read from some attached
-	 * source on disk.  This is cached because, in some scenarios, the method
-	 * {@link #getCompilationUnitFromDisk(File, ClassFile)} will be called for
-	 *  the same class many times in a row (such as to get method parameter
-	 *  info for all methods in a single class).
-	 */
-	private static CompilationUnit lastCUFromDisk;
-
-	private static SourceLocation lastCUFileParam;
-	private static ClassFile lastCUClassFileParam;
-
 
 	/**
 	 * Private constructor to prevent instantiation.
@@ -526,9 +514,10 @@ System.out.println("Unmatched linkContent: " + linkContent);
 
 	/**
 	 * Used by {@link MemberCompletion.Data} implementations to get an AST
-	 * from a source file in a {@link SourceLocation}.  Classes should prefer
-	 * this method over calling into the location directly since this method
-	 * caches the most recent result for performance.
+	 * from a source file in a {@link SourceLocation}.  Parsed source files
+	 * are cached by the location (see {@link CompilationUnitCache}), since
+	 * this is often called for the same class many times in a row (such as
+	 * to get method parameter info for all methods in a single class).
 	 *
 	 * @param loc A directory or zip/jar file.
 	 * @param cf The {@link ClassFile} representing the source grab from the
@@ -539,14 +528,6 @@ System.out.println("Unmatched linkContent: " + linkContent);
 	public static CompilationUnit getCompilationUnitFromDisk(
 								SourceLocation loc, ClassFile cf) {
 
-		// Cached value?
-		if (loc==lastCUFileParam && cf==lastCUClassFileParam) {
-			//System.out.println("Returning cached CompilationUnit");
-			return lastCUFromDisk;
-		}
-
-		lastCUFileParam = loc;
-		lastCUClassFileParam = cf;
 		CompilationUnit cu = null;
 
 		if(loc != null) {
@@ -557,7 +538,6 @@ System.out.println("Unmatched linkContent: " + linkContent);
 			}
 		}
 
-		lastCUFromDisk = cu;
 		return cu;
 
 	}
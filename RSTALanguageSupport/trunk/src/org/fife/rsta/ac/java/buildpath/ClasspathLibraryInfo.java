@@ -156,7 +156,7 @@ public class ClasspathLibraryInfo extends LibraryInfo {
 			try {
 				BufferedInputStream bin = new BufferedInputStream(in);
 				din = new DataInputStream(bin);
-				cf = new ClassFile(din);
+				cf = new ClassFile(din, true);
 			} finally {
 				in.close(); // DIS and BIS just delegate the close to the child
 			}
@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 
+import org.fife.rsta.ac.java.JarManager;
 import org.fife.rsta.ac.java.classreader.ClassFile;
 import org.fife.rsta.ac.java.rjc.ast.CompilationUnit;
 import org.fife.rsta.ac.java.rjc.lexer.Scanner;
@@ -31,7 +32,8 @@ import org.fife.rsta.ac.java.rjc.parser.ASTFactory;
  *
  * This class has no state; any classes it's asked about, it assumes it can
  * find the corresponding .java file somewhere on the classpath using the
- * class's ClassLoader.
+ * class's ClassLoader.  Parsed source files are kept in the
+ * {@link CompilationUnitCache}.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -51,13 +53,18 @@ public class ClasspathSourceLocation implements SourceLocation {
 	 */
 	public CompilationUnit getCompilationUnit(ClassFile cf) throws IOException {
 
-		CompilationUnit cu = null;
-
 		String res = cf.getClassName(true).replace('.', '/') + ".java";
+		String key = "classpath:" + res;
+		CompilationUnit cu = JarManager.getCompilationUnitCache().get(key, 0);
+		if (cu!=null) {
+			return cu;
+		}
+
 		InputStream in = getClass().getClassLoader().getResourceAsStream(res);
 		if (in!=null) {
 			Scanner s = new Scanner(new InputStreamReader(in));
 			cu = new ASTFactory().getCompilationUnit(res, s);
+			JarManager.getCompilationUnitCache().put(key, 0, cu);
 		}
 
 		return cu;
@@ -0,0 +1,213 @@
+/*
+ * 10/19/2026
+ *
+ * CompilationUnitCache.java - Recently parsed library source files.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java.buildpath;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.fife.rsta.ac.java.JarManager;
+import org.fife.rsta.ac.java.rjc.ast.CompilationUnit;
+
+
+/**
+ * A cache of the most recently parsed source files of library classes,
+ * shared by all {@link SourceLocation}s.  Completion descriptions and
+ * parameter names for a library class both come from its source, and
+ * browsing the completions of a class like <code>String</code> asks for
+ * the same source file over and over; without this cache, it would be
+ * read and parsed every time.<p>
+ *
+ * Each source file is cached with a stamp, usually its last modified time,
+ * so files edited since they were parsed are parsed again.  When the cache
+ * holds more than its maximum number of source files, the least recently
+ * used ones are evicted.  This class is thread-safe, since descriptions
+ * are loaded off the EDT.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see JarManager#getCompilationUnitCache()
+ * @see SourceLocation#getCompilationUnit(org.fife.rsta.ac.java.classreader.ClassFile)
+ */
+public class CompilationUnitCache {
+
+	/**
+	 * The default maximum number of source files in the cache.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 32;
+
+	/**
+	 * Maps source file keys to {@link Entry}s, least recently used first.
+	 */
+	private Map entries;
+
+	private int maxSize;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxSize The maximum number of source files in the cache.
+	 */
+	public CompilationUnitCache(int maxSize) {
+		entries = new LinkedHashMap(16, 0.75f, true);
+		setMaximumSize(maxSize);
+	}
+
+
+	/**
+	 * Removes all source files from the cache.  The statistics are not
+	 * reset.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+
+	/**
+	 * Evicts the least recently used source files until the cache holds no
+	 * more than its maximum number.
+	 */
+	private void evictIfNecessary() {
+		for (Iterator i=entries.values().iterator();
+				entries.size()>maxSize && i.hasNext(); ) {
+			i.next();
+			i.remove();
+			evictionCount++;
+		}
+	}
+
+
+	/**
+	 * Returns a parsed source file from the cache.
+	 *
+	 * @param key Identifies the source file, e.g. its path.
+	 * @param stamp The source file's current stamp, e.g. its last modified
+	 *        time.
+	 * @return The parsed source file, or <code>null</code> if it isn't
+	 *         cached, or was cached with a different stamp.
+	 * @see #put(String, long, CompilationUnit)
+	 */
+	synchronized CompilationUnit get(String key, long stamp) {
+		Entry entry = (Entry)entries.get(key);
+		if (entry!=null && entry.stamp==stamp) {
+			hitCount++;
+			return entry.cu;
+		}
+		missCount++;
+		return null;
+	}
+
+
+	/**
+	 * Returns the number of source files in the cache.
+	 *
+	 * @return The number of source files.
+	 */
+	public synchronized int getCount() {
+		return entries.size();
+	}
+
+
+	/**
+	 * Returns the number of source files evicted from the cache because it
+	 * was full.
+	 *
+	 * @return The number of evictions.
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+
+	/**
+	 * Returns the number of times a source file was found in the cache.
+	 *
+	 * @return The number of hits.
+	 * @see #getMissCount()
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+
+	/**
+	 * Returns the maximum number of source files in the cache.
+	 *
+	 * @return The maximum number.
+	 * @see #setMaximumSize(int)
+	 */
+	public synchronized int getMaximumSize() {
+		return maxSize;
+	}
+
+
+	/**
+	 * Returns the number of times a source file was not found in the
+	 * cache, and had to be parsed.
+	 *
+	 * @return The number of misses.
+	 * @see #getHitCount()
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+
+	/**
+	 * Adds a parsed source file to the cache.
+	 *
+	 * @param key Identifies the source file.
+	 * @param stamp The stamp of the source file when it was read.
+	 * @param cu The parsed source file.
+	 * @see #get(String, long)
+	 */
+	synchronized void put(String key, long stamp, CompilationUnit cu) {
+		entries.put(key, new Entry(stamp, cu));
+		evictIfNecessary();
+	}
+
+
+	/**
+	 * Sets the maximum number of source files in the cache.  If the cache
+	 * holds more than this, the least recently used ones are evicted.
+	 *
+	 * @param maxSize The maximum number.  If this is <code>0</code>,
+	 *        nothing is cached.
+	 * @see #getMaximumSize()
+	 */
+	public synchronized void setMaximumSize(int maxSize) {
+		if (maxSize<0) {
+			throw new IllegalArgumentException("maxSize must be >= 0");
+		}
+		this.maxSize = maxSize;
+		evictIfNecessary();
+	}
+
+
+	/**
+	 * A parsed source file and the stamp it was read with.
+	 */
+	private static class Entry {
+
+		private long stamp;
+		private CompilationUnit cu;
+
+		public Entry(long stamp, CompilationUnit cu) {
+			this.stamp = stamp;
+			this.cu = cu;
+		}
+
+	}
+
+
+}
@@ -80,7 +80,7 @@ public class DirLibraryInfo extends LibraryInfo {
 			System.err.println("ERROR: Invalid class file: " + file.getAbsolutePath());
 			return null;
 		}
-		return new ClassFile(file);
+		return new ClassFile(file, true);
 	}
 
 
@@ -15,6 +15,7 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 
+import org.fife.rsta.ac.java.JarManager;
 import org.fife.rsta.ac.java.classreader.ClassFile;
 import org.fife.rsta.ac.java.rjc.ast.CompilationUnit;
 import org.fife.rsta.ac.java.rjc.lexer.Scanner;
@@ -23,7 +24,9 @@ import org.fife.rsta.ac.java.rjc.parser.ASTFactory;
 
 /**
  * Represents Java source in a directory, such as in a project's source folder.
- * 
+ * Parsed source files are kept in the {@link CompilationUnitCache} until
+ * they are modified.
+ *
  * @author Robert Futrell
  * @version 1.0
  */
@@ -70,13 +73,19 @@ public class DirSourceLocation implements SourceLocation {
 		}
 
 		if (file.isFile()) {
-			BufferedReader r = new BufferedReader(new FileReader(file));
-			try {
-				Scanner s = new Scanner(r);
-				cu = new ASTFactory().getCompilationUnit(entryName, s);
-				//System.out.println("DEBUG: cu: " + cu);
-			} finally {
-				r.close();
+			String key = file.getAbsolutePath();
+			long stamp = file.lastModified();
+			cu = JarManager.getCompilationUnitCache().get(key, stamp);
+			if (cu==null) {
+				BufferedReader r = new BufferedReader(new FileReader(file));
+				try {
+					Scanner s = new Scanner(r);
+					cu = new ASTFactory().getCompilationUnit(entryName, s);
+					//System.out.println("DEBUG: cu: " + cu);
+				} finally {
+					r.close();
+				}
+				JarManager.getCompilationUnitCache().put(key, stamp, cu);
 			}
 		}
 
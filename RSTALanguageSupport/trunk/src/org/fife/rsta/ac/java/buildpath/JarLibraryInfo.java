@@ -14,11 +14,10 @@ import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Enumeration;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
 import org.fife.rsta.ac.java.Util;
@@ -26,7 +25,9 @@ import org.fife.rsta.ac.java.classreader.ClassFile;
 
 
 /**
- * Information about a jar of classes to add to the "build path."
+ * Information about a jar of classes to add to the "build path."  The jar is
+ * kept open in a {@link ZipFilePool} shared by all libraries, so loading a
+ * class doesn't mean reading the jar's directory again.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -73,33 +74,103 @@ public class JarLibraryInfo extends LibraryInfo {
 	}
 
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public void close() {
+		ZipFilePool.close(jarFile);
+		super.close();
+	}
+
+
 	public ClassFile createClassFile(String entryName) throws IOException {
-		JarFile jar = new JarFile(jarFile);
+		ZipFilePool.Handle jar = ZipFilePool.acquire(jarFile);
+		try {
+			return createClassFile(jar, entryName);
+		} finally {
+			ZipFilePool.release(jar);
+		}
+	}
+
+
+	/**
+	 * Reads a class file from the jar.
+	 *
+	 * @param jar The open jar.
+	 * @param entryName The fully qualified name of the class file.
+	 * @return The class file, or <code>null</code> if it isn't in the jar.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private static ClassFile createClassFile(ZipFilePool.Handle jar,
+								String entryName) throws IOException {
+		InputStream in = jar.getInputStream(entryName);
+		if (in==null) {
+			System.err.println("ERROR: Invalid entry: " + entryName);
+			return null;
+		}
+		DataInputStream din = new DataInputStream(
+										new BufferedInputStream(in));
 		try {
-			JarEntry entry = (JarEntry)jar.getEntry(entryName);
-			if (entry==null) {
-				System.err.println("ERROR: Invalid entry: " + entryName);
-				return null;
+			return new ClassFile(din, true);
+		} finally {
+			din.close();
+		}
+	}
+
+
+	/**
+	 * Reads several class files while acquiring the jar only once.
+	 *
+	 * @param entryNames The fully qualified names of the class files.
+	 * @return The class files, in the same order.  An element is
+	 *         <code>null</code> if that class isn't in the jar, or can't be
+	 *         read.
+	 * @throws IOException If the jar can't be opened.
+	 */
+	public ClassFile[] createClassFiles(String[] entryNames)
+										throws IOException {
+		ClassFile[] classFiles = new ClassFile[entryNames.length];
+		ZipFilePool.Handle jar = ZipFilePool.acquire(jarFile);
+		try {
+			for (int i=0; i<entryNames.length; i++) {
+				try {
+					classFiles[i] = createClassFile(jar, entryNames[i]);
+				} catch (IOException ioe) {
+					ioe.printStackTrace();
+				}
 			}
-			DataInputStream in = new DataInputStream(
-					new BufferedInputStream(jar.getInputStream(entry)));
-			ClassFile cf = new ClassFile(in);
-			in.close();
-			return cf;
 		} finally {
-			jar.close();
+			ZipFilePool.release(jar);
 		}
+		return classFiles;
 	}
 
 
+	/**
+	 * Returns the package map of the jar.  If it was saved by a previous
+	 * run and the jar hasn't changed since, the saved one is returned
+	 * without reading the jar.  Otherwise, it is read from the jar and
+	 * saved.
+	 *
+	 * @return The package map.
+	 * @throws IOException If an IO error occurs.
+	 * @see PackageMapCache
+	 */
 	public TreeMap createPackageMap() throws IOException {
 
-		TreeMap packageMap = new TreeMap();
-		JarFile jar = new JarFile(jarFile);
+		TreeMap packageMap = PackageMapCache.load(jarFile);
+		if (packageMap!=null) {
+			return packageMap;
+		}
+
+		long length = jarFile.length();
+		long lastModified = jarFile.lastModified();
+		packageMap = new TreeMap();
+		ZipFilePool.Handle jar = ZipFilePool.acquire(jarFile);
 
 		try {
 
-			Enumeration e = jar.entries();
+			Enumeration e = jar.getZipFile().entries();
 			while (e.hasMoreElements()) {
 				ZipEntry entry = (ZipEntry)e.nextElement();
 				String entryName = entry.getName();
@@ -121,9 +192,10 @@ public class JarLibraryInfo extends LibraryInfo {
 			}
 
 		} finally {
-			jar.close();
+			ZipFilePool.release(jar);
 		}
 
+		PackageMapCache.save(jarFile, length, lastModified, packageMap);
 		return packageMap;
 
 	}
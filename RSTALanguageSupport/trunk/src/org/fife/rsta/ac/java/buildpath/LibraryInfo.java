@@ -59,6 +59,33 @@ public abstract class LibraryInfo implements Comparable, Cloneable {
 	}
 
 
+	/**
+	 * Closes any archives kept open for this library and its source
+	 * location.  They are reopened if this library is used again.
+	 * {@link JarManager} calls this method when the library is removed from
+	 * the build path.
+	 *
+	 * @see #closeAll()
+	 */
+	public void close() {
+		if (sourceLoc instanceof ZipSourceLocation) {
+			((ZipSourceLocation)sourceLoc).close();
+		}
+	}
+
+
+	/**
+	 * Closes all archives kept open for any library or source location,
+	 * e.g. before the application replaces or deletes them.  They are
+	 * reopened if they are used again.
+	 *
+	 * @see #close()
+	 */
+	public static void closeAll() {
+		ZipFilePool.closeAll();
+	}
+
+
 	/**
 	 * Returns the class file information for the specified class.  Instances
 	 * of <code>JarReader</code> can call this method to lazily load
@@ -72,6 +99,34 @@ public abstract class LibraryInfo implements Comparable, Cloneable {
 	public abstract ClassFile createClassFile(String entryName) throws IOException;
 
 
+	/**
+	 * Returns the class file information for several classes.  Libraries
+	 * that can read several classes more cheaply than one at a time, such
+	 * as jars, override this method.  A class that can't be read doesn't
+	 * keep the others from being read; the error is printed, and its class
+	 * file is <code>null</code>.
+	 *
+	 * @param entryNames The fully qualified names of the class files.
+	 * @return The class files, in the same order.  An element is
+	 *         <code>null</code> if that class isn't found in this library,
+	 *         or can't be read.
+	 * @throws IOException If the library itself can't be read.
+	 * @see #createClassFile(String)
+	 */
+	public ClassFile[] createClassFiles(String[] entryNames)
+										throws IOException {
+		ClassFile[] classFiles = new ClassFile[entryNames.length];
+		for (int i=0; i<entryNames.length; i++) {
+			try {
+				classFiles[i] = createClassFile(entryNames[i]);
+			} catch (IOException ioe) {
+				ioe.printStackTrace();
+			}
+		}
+		return classFiles;
+	}
+
+
 	/**
 	 * Creates and returns a map of maps representing the hierarchical package
 	 * structure in this library.
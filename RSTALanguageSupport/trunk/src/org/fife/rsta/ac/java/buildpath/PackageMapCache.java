@@ -0,0 +1,301 @@
+/*
+ * 10/19/2026
+ *
+ * PackageMapCache.java - Package maps of jars, saved between runs.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java.buildpath;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Saves the package maps of jars to disk, so they don't have to be read from
+ * the jars again the next time the application runs.  Creating a package map
+ * means reading a jar's entire central directory, which for a JRE's
+ * <tt>rt.jar</tt> and a large classpath can take a noticeable amount of time
+ * at startup.<p>
+ *
+ * Each jar's package map is saved in its own file in the cache directory.  A
+ * saved package map is only used if the jar's size and last modified time
+ * match those it was saved with; otherwise, it is read from the jar again and
+ * resaved.  The files use a compact binary format: each package name is
+ * written once, followed by the names of the classes in it.<p>
+ *
+ * Only package maps are saved.  Class files are still parsed lazily from
+ * the jars when first needed, since saving their members would need a
+ * second, serializable model of <code>ClassFile</code>.  Directories aren't
+ * cached, since they change constantly while a project is edited.<p>
+ *
+ * The cache is disabled by default.  Applications enable it by calling
+ * {@link #setCacheDirectory(File)}, e.g. with
+ * {@link #getDefaultCacheDirectory()}.  Saved files are never removed, as
+ * there's one per jar path; applications whose jar paths come and go (such
+ * as temporary copies) should use a directory they clean up themselves.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see JarLibraryInfo#createPackageMap()
+ */
+public final class PackageMapCache {
+
+	/**
+	 * Identifies package map files, and their format version.
+	 */
+	private static final int MAGIC = 0x52504d01;
+
+	/**
+	 * The directory package maps are saved in, or <code>null</code> if the
+	 * cache is disabled.
+	 */
+	private static File cacheDir;
+
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private PackageMapCache() {
+	}
+
+
+	/**
+	 * Returns the directory package maps are saved in.
+	 *
+	 * @return The directory, or <code>null</code> if package maps aren't
+	 *         saved.  This is <code>null</code> unless it has been set.
+	 * @see #setCacheDirectory(File)
+	 */
+	public static synchronized File getCacheDirectory() {
+		return cacheDir;
+	}
+
+
+	/**
+	 * Returns a suggested directory to save package maps in,
+	 * <tt>.rsta/packageMaps</tt> in the user's home directory.
+	 *
+	 * @return The directory, or <code>null</code> if the user's home
+	 *         directory can't be determined (e.g. in an applet).
+	 * @see #setCacheDirectory(File)
+	 */
+	public static File getDefaultCacheDirectory() {
+		try {
+			return new File(System.getProperty("user.home"),
+								".rsta" + File.separatorChar + "packageMaps");
+		} catch (SecurityException se) { // e.g. an applet
+			return null;
+		}
+	}
+
+
+	/**
+	 * Returns the file a jar's package map is saved in.
+	 *
+	 * @param dir The cache directory.
+	 * @param jar The jar.
+	 * @return The file.
+	 */
+	private static File getCacheFile(File dir, File jar) {
+		String path = jar.getAbsolutePath();
+		String name = jar.getName() + "-" +
+					Integer.toHexString(path.hashCode()) + ".pkgs";
+		return new File(dir, name);
+	}
+
+
+	/**
+	 * Loads the saved package map of a jar.
+	 *
+	 * @param jar The jar.
+	 * @return The package map, or <code>null</code> if it isn't saved, or
+	 *         the jar has changed since it was.
+	 */
+	static TreeMap load(File jar) {
+
+		File dir = getCacheDirectory();
+		if (dir==null) {
+			return null;
+		}
+		File file = getCacheFile(dir, jar);
+		if (!file.isFile()) {
+			return null;
+		}
+
+		TreeMap packageMap = null;
+
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(
+											new FileInputStream(file)));
+			try {
+				if (in.readInt()==MAGIC &&
+						in.readUTF().equals(jar.getAbsolutePath()) &&
+						in.readLong()==jar.length() &&
+						in.readLong()==jar.lastModified()) {
+					packageMap = new TreeMap();
+					int packageCount = in.readInt();
+					for (int i=0; i<packageCount; i++) {
+						Map m = getPackage(packageMap, in.readUTF());
+						int classCount = in.readInt();
+						for (int j=0; j<classCount; j++) {
+							m.put(in.readUTF(), null);
+						}
+					}
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException ioe) { // Corrupt; it'll be resaved
+			ioe.printStackTrace();
+			packageMap = null;
+		}
+
+		return packageMap;
+
+	}
+
+
+	/**
+	 * Returns the piece of a package map for a package, creating it if
+	 * necessary.
+	 *
+	 * @param packageMap The package map.
+	 * @param pkg The package, with each part followed by '<code>/</code>'.
+	 *        This is the empty string for the default package.
+	 * @return The piece of the package map.
+	 */
+	private static Map getPackage(TreeMap packageMap, String pkg) {
+		Map m = packageMap;
+		int start = 0;
+		int end;
+		while ((end=pkg.indexOf('/', start))>-1) {
+			String part = pkg.substring(start, end);
+			TreeMap submap = (TreeMap)m.get(part);
+			if (submap==null) {
+				submap = new TreeMap();
+				m.put(part, submap);
+			}
+			m = submap;
+			start = end + 1;
+		}
+		return m;
+	}
+
+
+	/**
+	 * Adds the packages in a package map, and the classes in each package,
+	 * to lists.
+	 *
+	 * @param map A piece of a package map.
+	 * @param pkg The package <code>map</code> is for, with each part
+	 *        followed by '<code>/</code>'.
+	 * @param pkgs The list to add each package to.
+	 * @param classes The list to add a list of the class names in each
+	 *        package to.
+	 */
+	private static void getPackages(Map map, String pkg, List pkgs,
+									List classes) {
+		List classNames = new ArrayList();
+		for (Iterator i=map.entrySet().iterator(); i.hasNext(); ) {
+			Map.Entry entry = (Map.Entry)i.next();
+			if (entry.getValue() instanceof Map) {
+				getPackages((Map)entry.getValue(),
+						pkg + entry.getKey() + "/", pkgs, classes);
+			}
+			else {
+				classNames.add(entry.getKey());
+			}
+		}
+		if (!classNames.isEmpty()) {
+			pkgs.add(pkg);
+			classes.add(classNames);
+		}
+	}
+
+
+	/**
+	 * Saves the package map of a jar.  Errors are ignored, since the
+	 * package map can always be read from the jar again.
+	 *
+	 * @param jar The jar.
+	 * @param length The length of the jar when the package map was created.
+	 * @param lastModified The last modified time of the jar when the
+	 *        package map was created.
+	 * @param packageMap The package map.  This should not contain any
+	 *        <code>ClassFile</code>s.
+	 */
+	static void save(File jar, long length, long lastModified,
+					TreeMap packageMap) {
+
+		File dir = getCacheDirectory();
+		if (dir==null || (!dir.isDirectory() && !dir.mkdirs())) {
+			return;
+		}
+
+		List pkgs = new ArrayList();
+		List classes = new ArrayList();
+		getPackages(packageMap, "", pkgs, classes);
+
+		// Write to a temporary file first, so another process never sees
+		// a partially written one.
+		File file = getCacheFile(dir, jar);
+		try {
+			File temp = File.createTempFile("pkgs", null, dir);
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temp)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeUTF(jar.getAbsolutePath());
+				out.writeLong(length);
+				out.writeLong(lastModified);
+				out.writeInt(pkgs.size());
+				for (int i=0; i<pkgs.size(); i++) {
+					out.writeUTF((String)pkgs.get(i));
+					List classNames = (List)classes.get(i);
+					out.writeInt(classNames.size());
+					for (int j=0; j<classNames.size(); j++) {
+						out.writeUTF((String)classNames.get(j));
+					}
+				}
+			} finally {
+				out.close();
+			}
+			file.delete(); // renameTo() fails on Windows if it exists
+			if (!temp.renameTo(file)) {
+				temp.delete();
+			}
+		} catch (IOException ioe) {
+			ioe.printStackTrace();
+		}
+
+	}
+
+
+	/**
+	 * Sets the directory package maps are saved in, enabling the cache.  It
+	 * is created if it doesn't exist.
+	 *
+	 * @param dir The directory.  If this is <code>null</code>, package maps
+	 *        aren't saved, and are always read from the jars.
+	 * @see #getCacheDirectory()
+	 * @see #getDefaultCacheDirectory()
+	 */
+	public static synchronized void setCacheDirectory(File dir) {
+		cacheDir = dir;
+	}
+
+
+}
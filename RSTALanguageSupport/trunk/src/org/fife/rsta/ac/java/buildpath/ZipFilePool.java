@@ -0,0 +1,240 @@
+/*
+ * 10/19/2026
+ *
+ * ZipFilePool.java - Open zip and jar files shared by all libraries.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java.buildpath;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+
+/**
+ * A bounded pool of open zip and jar files.  Opening an archive reads its
+ * entire central directory, which for a JRE's <tt>rt.jar</tt> is tens of
+ * thousands of entries; keeping archives open turns loading a class or a
+ * source file into a lookup in the already-read directory.<p>
+ *
+ * Archives are keyed by their absolute path.  If an archive is modified on
+ * disk, its handle is replaced the next time it is acquired.  When more than
+ * {@link #MAX_OPEN_FILES} archives are open, the least recently used ones
+ * are closed.  Archives are also closed by {@link #close(File)} and
+ * {@link #closeAll()}, e.g. when a library is removed from the build path,
+ * so they aren't left open (and, on Windows, locked).  A handle that is in
+ * use is not closed until it is released, so each call to
+ * {@link #acquire(File)} must be balanced by a call to
+ * {@link #release(Handle)}.  This class is thread-safe.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ * @see JarLibraryInfo
+ * @see ZipSourceLocation
+ */
+final class ZipFilePool {
+
+	/**
+	 * The maximum number of archives in the pool.
+	 */
+	static final int MAX_OPEN_FILES = 16;
+
+	/**
+	 * Maps absolute paths to {@link Handle}s, least recently used first.
+	 */
+	private static final Map handles = new LinkedHashMap(16, 0.75f, true);
+
+
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private ZipFilePool() {
+	}
+
+
+	/**
+	 * Returns a handle to an open archive, opening it if necessary.
+	 *
+	 * @param file The archive.
+	 * @return The handle.  This must be passed to {@link #release(Handle)}
+	 *         when it is no longer needed.
+	 * @throws IOException If the archive can't be opened.
+	 */
+	public static Handle acquire(File file) throws IOException {
+
+		String key = file.getAbsolutePath();
+		long lastModified = file.lastModified();
+
+		synchronized (handles) {
+			Handle handle = (Handle)handles.get(key);
+			if (handle!=null && handle.lastModified==lastModified) {
+				handle.refCount++;
+				return handle;
+			}
+			if (handle!=null) { // Modified on disk
+				handles.remove(key);
+				handle.retire();
+			}
+		}
+
+		// Open outside of the lock, since it may take a while.  If another
+		// thread opens the same archive meanwhile, we keep the first one.
+		ZipFile zipFile = new ZipFile(file);
+		synchronized (handles) {
+			Handle handle = (Handle)handles.get(key);
+			if (handle!=null && handle.lastModified==lastModified) {
+				handle.refCount++;
+				closeQuietly(zipFile);
+				return handle;
+			}
+			if (handle!=null) {
+				handles.remove(key);
+				handle.retire();
+			}
+			handle = new Handle(zipFile, lastModified);
+			handle.refCount++;
+			handles.put(key, handle);
+			evictIfNecessary();
+			return handle;
+		}
+
+	}
+
+
+	/**
+	 * Closes an archive if it is open.  If it is in use, it is closed when
+	 * it is released.  It is reopened if it is acquired again.
+	 *
+	 * @param file The archive.
+	 * @see #closeAll()
+	 */
+	public static void close(File file) {
+		synchronized (handles) {
+			Handle handle = (Handle)handles.remove(file.getAbsolutePath());
+			if (handle!=null) {
+				handle.retire();
+			}
+		}
+	}
+
+
+	/**
+	 * Closes all open archives.  Those in use are closed when they are
+	 * released.
+	 *
+	 * @see #close(File)
+	 */
+	public static void closeAll() {
+		synchronized (handles) {
+			for (Iterator i=handles.values().iterator(); i.hasNext(); ) {
+				((Handle)i.next()).retire();
+				i.remove();
+			}
+		}
+	}
+
+
+	/**
+	 * Closes an archive, ignoring any errors.
+	 *
+	 * @param zipFile The archive to close.
+	 */
+	private static void closeQuietly(ZipFile zipFile) {
+		try {
+			zipFile.close();
+		} catch (IOException ioe) {
+			ioe.printStackTrace();
+		}
+	}
+
+
+	/**
+	 * Closes the least recently used archives if too many are open.  This
+	 * should be called while synchronized on {@link #handles}.
+	 */
+	private static void evictIfNecessary() {
+		int count = handles.size();
+		for (Iterator i=handles.values().iterator();
+				count>MAX_OPEN_FILES && i.hasNext(); count--) {
+			((Handle)i.next()).retire();
+			i.remove();
+		}
+	}
+
+
+	/**
+	 * Releases a handle returned by {@link #acquire(File)}.
+	 *
+	 * @param handle The handle.
+	 */
+	public static void release(Handle handle) {
+		synchronized (handles) {
+			if (--handle.refCount==0 && handle.retired) {
+				closeQuietly(handle.zipFile);
+			}
+		}
+	}
+
+
+	/**
+	 * An open archive.
+	 */
+	static class Handle {
+
+		private ZipFile zipFile;
+		private long lastModified;
+		private int refCount;
+		private boolean retired;
+
+		private Handle(ZipFile zipFile, long lastModified) {
+			this.zipFile = zipFile;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * Returns an input stream for an entry in the archive.  The stream
+		 * should be closed before the handle is released.
+		 *
+		 * @param entryName The name of the entry.
+		 * @return The input stream, or <code>null</code> if there is no such
+		 *         entry.
+		 * @throws IOException If an IO error occurs.
+		 */
+		public InputStream getInputStream(String entryName)
+											throws IOException {
+			ZipEntry entry = zipFile.getEntry(entryName);
+			return entry==null ? null : zipFile.getInputStream(entry);
+		}
+
+		/**
+		 * Returns the open archive.  This should not be closed.
+		 *
+		 * @return The archive.
+		 */
+		public ZipFile getZipFile() {
+			return zipFile;
+		}
+
+		/**
+		 * Marks this handle as no longer in the pool, and closes it if it
+		 * isn't in use.  This should be called while synchronized on
+		 * {@link ZipFilePool#handles}.
+		 */
+		private void retire() {
+			retired = true;
+			if (refCount==0) {
+				closeQuietly(zipFile);
+			}
+		}
+
+	}
+
+
+}
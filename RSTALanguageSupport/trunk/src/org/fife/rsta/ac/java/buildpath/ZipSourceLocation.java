@@ -14,9 +14,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
+import org.fife.rsta.ac.java.JarManager;
 import org.fife.rsta.ac.java.classreader.ClassFile;
 import org.fife.rsta.ac.java.rjc.ast.CompilationUnit;
 import org.fife.rsta.ac.java.rjc.lexer.Scanner;
@@ -27,7 +26,9 @@ import org.fife.rsta.ac.java.rjc.parser.ASTFactory;
  * Represents source inside a zip or jar file.  The source can be either in
  * a "<code>src/</code>" subfolder, or at the root level of the archive.  This
  * class is useful for the JDK or other libraries that come with a
- * <code>src.zip</code> file (<code>src.jar</code> on OS X).
+ * <code>src.zip</code> file (<code>src.jar</code> on OS X).  The archive is
+ * kept open in a {@link ZipFilePool} shared by all libraries, and parsed
+ * source files are kept in the {@link CompilationUnitCache}.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -58,34 +59,52 @@ public class ZipSourceLocation implements SourceLocation {
 	}
 
 
+	/**
+	 * Closes the archive if it is open.  It is reopened if it is used
+	 * again.
+	 */
+	void close() {
+		ZipFilePool.close(archive);
+	}
+
+
 	/**
 	 * {@inheritDoc}
 	 */
 	public CompilationUnit getCompilationUnit(ClassFile cf) throws IOException {
 
-		CompilationUnit cu = null;
+		String entryName = cf.getClassName(true).replace('.', '/');
+		entryName += ".java";
+		String key = getLocationAsString() + "!/" + entryName;
+		long stamp = archive.lastModified();
+		CompilationUnit cu = JarManager.getCompilationUnitCache().get(key, stamp);
+		if (cu!=null) {
+			return cu;
+		}
 
-		ZipFile zipFile = new ZipFile(archive);
+		ZipFilePool.Handle zipFile = ZipFilePool.acquire(archive);
 
 		try {
 
-			String entryName = cf.getClassName(true).replaceAll("\\.", "/");
-			entryName += ".java";
 			//System.out.println("DEBUG: entry name: " + entryName);
-			ZipEntry entry = zipFile.getEntry(entryName);
-			if (entry == null) {
+			InputStream in = zipFile.getInputStream(entryName);
+			if (in == null) {
 				// Seen in some src.jar files, for example OS X's src.jar
-				entry = zipFile.getEntry("src/" + entryName);
+				in = zipFile.getInputStream("src/" + entryName);
 			}
 
-			if (entry != null) {
-				InputStream in = zipFile.getInputStream(entry);
-				Scanner s = new Scanner(new InputStreamReader(in));
-				cu = new ASTFactory().getCompilationUnit(entryName, s);
+			if (in != null) {
+				try {
+					Scanner s = new Scanner(new InputStreamReader(in));
+					cu = new ASTFactory().getCompilationUnit(entryName, s);
+				} finally {
+					in.close();
+				}
+				JarManager.getCompilationUnitCache().put(key, stamp, cu);
 			}
 
 		} finally {
-			zipFile.close(); // Closes the input stream too
+			ZipFilePool.release(zipFile);
 		}
 
 		return cu;
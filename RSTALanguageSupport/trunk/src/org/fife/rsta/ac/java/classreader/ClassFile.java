@@ -20,7 +20,15 @@ import org.fife.rsta.ac.java.classreader.constantpool.*;
 
 
 /**
- * Class representing a <code>ClassFile</code> structure.
+ * Class representing a <code>ClassFile</code> structure.<p>
+ *
+ * A class file can be read in a <em>lightweight</em> mode, which keeps only
+ * what code completion needs: names, descriptors, access flags, signatures,
+ * constant values, thrown exceptions and parameter names.  Method bodies,
+ * their exception tables and debugging attributes are skipped without being
+ * parsed, as are the constant pool entries only bytecode refers to, and
+ * attributes this class doesn't understand.  This makes reading and caching
+ * the thousands of classes in a JRE noticeably cheaper.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -87,6 +95,11 @@ public class ClassFile implements AccessFlags {
 	 */
 	private boolean deprecated;
 
+	/**
+	 * Whether this class file was read in lightweight mode.
+	 */
+	private boolean lightweight;
+
 	/**
 	 * Attributes of this class or interface.
 	 */
@@ -121,6 +134,20 @@ public class ClassFile implements AccessFlags {
 
 
 	public ClassFile(File classFile) throws IOException {
+		this(classFile, false);
+	}
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param classFile The class file to read.
+	 * @param lightweight Whether to only read what code completion needs.
+	 * @throws IOException If an IO error occurs.
+	 * @see #isLightweight()
+	 */
+	public ClassFile(File classFile, boolean lightweight) throws IOException {
+		this.lightweight = lightweight;
 		DataInputStream in = new DataInputStream(new BufferedInputStream(
 				new FileInputStream(classFile)));
 		try {
@@ -132,6 +159,21 @@ public class ClassFile implements AccessFlags {
 
 
 	public ClassFile(DataInputStream in) throws IOException {
+		this(in, false);
+	}
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param in The input stream to read the class file from.
+	 * @param lightweight Whether to only read what code completion needs.
+	 * @throws IOException If an IO error occurs.
+	 * @see #isLightweight()
+	 */
+	public ClassFile(DataInputStream in, boolean lightweight)
+										throws IOException {
+		this.lightweight = lightweight;
 		init(in);
 	}
 
@@ -494,6 +536,9 @@ public class ClassFile implements AccessFlags {
 		readFields(in);
 		readMethods(in);
 		readAttributes(in);
+		if (lightweight) {
+			removeUnusedConstantPoolInfos();
+		}
 	}
 
 
@@ -507,6 +552,44 @@ public class ClassFile implements AccessFlags {
 	}
 
 
+	/**
+	 * Returns whether this class file was read in lightweight mode.  If it
+	 * was, constant pool entries not referred to by the class, its members,
+	 * or their attributes are <code>null</code>, and methods have no
+	 * <code>Code</code> attributes.
+	 *
+	 * @return Whether this class file was read in lightweight mode.
+	 * @see #ClassFile(DataInputStream, boolean)
+	 */
+	public boolean isLightweight() {
+		return lightweight;
+	}
+
+
+	/**
+	 * Marks a constant pool entry, and the entry it refers to if it's a
+	 * class or string, as used.
+	 *
+	 * @param used Whether each constant pool entry is used.
+	 * @param index The index of the entry.  This should be
+	 *        <code>1</code>-based.
+	 * @see #removeUnusedConstantPoolInfos()
+	 */
+	void markConstantPoolInfoUsed(boolean[] used, int index) {
+		if (index==0 || used[index]) {
+			return;
+		}
+		used[index] = true;
+		ConstantPoolInfo cpi = getConstantPoolInfo(index);
+		if (cpi instanceof ConstantClassInfo) {
+			used[((ConstantClassInfo)cpi).getNameIndex()] = true;
+		}
+		else if (cpi instanceof ConstantStringInfo) {
+			used[((ConstantStringInfo)cpi).getStringIndex()] = true;
+		}
+	}
+
+
 	/**
 	 * Reads this class or interface's access flags.
 	 *
@@ -578,6 +661,10 @@ public class ClassFile implements AccessFlags {
 
 		// TODO: Handle other useful Attribute types, if any.
 
+		else if (lightweight) {
+			Util.skipBytes(in, attributeLength);
+		}
+
 		else { // An unknown/unsupported attribute.
 			System.out.println("Unsupported class attribute: "+  attrName);
 			ai = AttributeInfo.readUnsupportedAttribute(this, in, attrName,
@@ -727,6 +814,42 @@ public class ClassFile implements AccessFlags {
 	}
 
 
+	/**
+	 * Discards the constant pool entries that nothing read in lightweight
+	 * mode refers to.  Most of a class's constant pool is only used by its
+	 * bytecode, e.g. the names of the methods it calls, so this frees most
+	 * of the memory a lightweight class file would otherwise retain.
+	 */
+	private void removeUnusedConstantPoolInfos() {
+
+		boolean[] used = new boolean[constantPool.length+1];
+		markConstantPoolInfoUsed(used, thisClass);
+		markConstantPoolInfoUsed(used, superClass);
+		for (int i=0; i<getImplementedInterfaceCount(); i++) {
+			markConstantPoolInfoUsed(used, interfaces[i]);
+		}
+		for (int i=0; i<getFieldCount(); i++) {
+			fields[i].markConstantPoolInfosUsed(used);
+		}
+		for (int i=0; i<getMethodCount(); i++) {
+			methods[i].markConstantPoolInfosUsed(used);
+		}
+		for (int i=0; i<getAttributeCount(); i++) {
+			if (attributes[i] instanceof SourceFile) {
+				SourceFile sf = (SourceFile)attributes[i];
+				markConstantPoolInfoUsed(used, sf.getSourceFileIndex());
+			}
+		}
+
+		for (int i=0; i<constantPool.length; i++) {
+			if (!used[i+1]) {
+				constantPool[i] = null;
+			}
+		}
+
+	}
+
+
 	/**
 	 * Sets a mapping of type parameters of this class to type arguments for
 	 * a particular instance of this class.  Note that <code>ClassFile</code>
@@ -55,7 +55,6 @@ public class FieldInfo extends MemberInfo {
 		super(cf, accessFlags);
 		this.nameIndex = nameIndex;
 		this.descriptorIndex = descriptorIndex;
-		attributes = new ArrayList(1); // Usually 0 or 1?
 	}
 
 
@@ -65,6 +64,9 @@ public class FieldInfo extends MemberInfo {
 	 * @param info Information about the attribute.
 	 */
 	public void addAttribute(AttributeInfo info) {
+		if (attributes==null) {
+			attributes = new ArrayList(1); // Usually 0 or 1?
+		}
 		attributes.add(info);
 	}
 
@@ -86,7 +88,7 @@ public class FieldInfo extends MemberInfo {
 	 * @return The number of attributes.
 	 */
 	public int getAttributeCount() {
-		return attributes.size();
+		return attributes==null ? 0 : attributes.size();
 	}
 
 
@@ -216,6 +218,16 @@ public class FieldInfo extends MemberInfo {
 	}
 
 
+	void markConstantPoolInfosUsed(boolean[] used) {
+		cf.markConstantPoolInfoUsed(used, nameIndex);
+		cf.markConstantPoolInfoUsed(used, descriptorIndex);
+		ConstantValue cv = getConstantValueAttributeInfo();
+		if (cv!=null) {
+			cf.markConstantPoolInfoUsed(used, cv.getConstantValueIndex());
+		}
+	}
+
+
 	/**
 	 * Reads a <code>FieldInfo</code> structure from the specified input
 	 * stream.
@@ -117,6 +117,17 @@ public abstract class MemberInfo {
 	public abstract String getDescriptor();
 
 
+	/**
+	 * Marks the constant pool entries this member refers to as used.  This
+	 * is called after a class file is read in lightweight mode, so the
+	 * unused entries can be discarded.
+	 *
+	 * @param used Whether each constant pool entry is used.
+	 * @see ClassFile#markConstantPoolInfoUsed(boolean[], int)
+	 */
+	abstract void markConstantPoolInfosUsed(boolean[] used);
+
+
 	/**
 	 * Returns whether this member is final.
 	 *
@@ -173,6 +184,10 @@ public abstract class MemberInfo {
 			//ai = null;
 		}
 
+		else if (cf.isLightweight()) {
+			Util.skipBytes(in, attrLength);
+		}
+
 		else {
 			//String name = getClassFile().getClassName(false) + "." + getName();
 			//System.out.println(name + ": Unsupported attribute: " + attrName);
@@ -53,6 +53,13 @@ public class MethodInfo extends MemberInfo implements AccessFlags {
 	 */
 	private Code codeAttr;
 
+	/**
+	 * The names of this method's parameters, if this method's class file
+	 * was read in lightweight mode and compiled with debugging information.
+	 * Otherwise, this is <code>null</code>.
+	 */
+	private String[] paramNames;
+
 	/**
 	 * All attributes of this method that aren't explicitly covered by the
 	 * private members {@link #signatureAttr} and {@link #codeAttr}.
@@ -96,7 +103,6 @@ public class MethodInfo extends MemberInfo implements AccessFlags {
 		super(cf, accessFlags);
 		this.nameIndex = nameIndex;
 		this.descriptorIndex = descriptorIndex;
-		attributes = new ArrayList(1); // Usually only 0 or 1?
 	}
 
 
@@ -106,6 +112,9 @@ public class MethodInfo extends MemberInfo implements AccessFlags {
 	 * @param info Information about the attribute.
 	 */
 	private void addAttribute(AttributeInfo info) {
+		if (attributes==null) {
+			attributes = new ArrayList(1); // Usually only 0 or 1?
+		}
 		attributes.add(info);
 	}
 
@@ -300,7 +309,7 @@ public class MethodInfo extends MemberInfo implements AccessFlags {
 	 * @return The number of attributes.
 	 */
 	public int getAttributeCount() {
-		return attributes.size();
+		return attributes==null ? 0 : attributes.size();
 	}
 
 
@@ -383,6 +392,9 @@ public class MethodInfo extends MemberInfo implements AccessFlags {
 			if (codeAttr!=null) {
 				return codeAttr.getParameterName(index);
 			}
+			if (paramNames!=null) {
+				return paramNames[index];
+			}
 		}
 		return null;
 	}
@@ -632,6 +644,21 @@ public class MethodInfo extends MemberInfo implements AccessFlags {
 	}
 
 
+	void markConstantPoolInfosUsed(boolean[] used) {
+		cf.markConstantPoolInfoUsed(used, nameIndex);
+		cf.markConstantPoolInfoUsed(used, descriptorIndex);
+		for (int i=0; i<getAttributeCount(); i++) {
+			AttributeInfo ai = (AttributeInfo)attributes.get(i);
+			if (ai instanceof Exceptions) {
+				Exceptions ex = (Exceptions)ai;
+				for (int j=0; j<ex.getExceptionCount(); j++) {
+					cf.markConstantPoolInfoUsed(used, ex.getExceptionIndex(j));
+				}
+			}
+		}
+	}
+
+
 	/**
 	 * Reads a <code>MethodInfo</code> from an input stream.
 	 *
@@ -682,7 +709,12 @@ public class MethodInfo extends MemberInfo implements AccessFlags {
 		String attrName = cf.getUtf8ValueFromConstantPool(attributeNameIndex);
 
 		if (CODE.equals(attrName)) { // 4.7.3
-			ai = Code.read(this, in);
+			if (cf.isLightweight()) {
+				paramNames = Code.readParameterNames(this, in);
+			}
+			else {
+				ai = Code.read(this, in);
+			}
 		}
 
 		else if (EXCEPTIONS.equals(attrName)) { // 4.7.4
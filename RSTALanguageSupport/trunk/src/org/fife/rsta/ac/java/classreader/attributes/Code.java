@@ -213,6 +213,102 @@ public class Code extends AttributeInfo {
 	}
 
 
+	/**
+	 * Reads a <code>LocalVariableTable</code> attribute, keeping only the
+	 * names of the method's parameters.
+	 *
+	 * @param mi The method.
+	 * @param in The input stream, positioned after the attribute's name and
+	 *        length.
+	 * @return The names of the parameters.  A name is <code>null</code> if
+	 *         it isn't in the table.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private static String[] readLocalVariableTable(MethodInfo mi,
+								DataInputStream in) throws IOException {
+
+		// If this attribute is defined, then this class was compiled with
+		// debugging enabled!  We can grab the names of the method
+		// parameters, to make code completion a little nicer.  Note that
+		// we only grab the names of parameters, not all local variables,
+		// for speed and space.
+
+		ClassFile cf = mi.getClassFile();
+		int paramCount = mi.getParameterCount();
+		String[] paramNames = new String[paramCount];
+		boolean isStatic = mi.isStatic();
+
+		int localVariableTableLength = in.readUnsignedShort();
+		for (int i=0; i<localVariableTableLength; i++) {
+
+			/*int startPC = */in.readUnsignedShort();
+			/*int length = */in.readUnsignedShort();
+			int nameIndex = in.readUnsignedShort();
+			/*int descriptorIndex = */in.readUnsignedShort();
+
+			// Non-static methods have implicit "this" variable passed in,
+			// so we must avoid that
+			int index = in.readUnsignedShort();
+			int adjustedIndex = isStatic ? index : index-1;
+
+			if (adjustedIndex>=0 && adjustedIndex<paramNames.length) {
+				String name = cf.getUtf8ValueFromConstantPool(nameIndex);
+				//System.out.println("!!! " + getClassFile().
+				//	getClassName(false) + "." + getMethodInfo().
+				//	getNameAndParameters() + " - " + index + ": " + name);
+				paramNames[adjustedIndex] = name;
+			}
+
+		}
+
+		return paramNames;
+
+	}
+
+
+	/**
+	 * Reads the names of a method's parameters from its <code>Code</code>
+	 * attribute, skipping everything else.  This is used instead of
+	 * {@link #read(MethodInfo, DataInputStream)} when the class file is
+	 * read in lightweight mode.
+	 *
+	 * @param mi The method.
+	 * @param in The input stream, positioned after the attribute's name and
+	 *        length.
+	 * @return The names of the parameters, or <code>null</code> if the
+	 *         class wasn't compiled with debugging information.
+	 * @throws IOException If an IO error occurs.
+	 * @see ClassFile#isLightweight()
+	 */
+	public static String[] readParameterNames(MethodInfo mi,
+								DataInputStream in) throws IOException {
+
+		String[] paramNames = null;
+		ClassFile cf = mi.getClassFile();
+
+		Util.skipBytes(in, 4); // max_stack, max_locals
+		Util.skipBytes(in, in.readInt()); // code
+		Util.skipBytes(in, 8*in.readUnsignedShort()); // exception_table
+
+		int attrCount = in.readUnsignedShort();
+		for (int i=0; i<attrCount; i++) {
+			int attributeNameIndex = in.readUnsignedShort();
+			int attributeLength = in.readInt();
+			String attrName = cf.getUtf8ValueFromConstantPool(
+												attributeNameIndex);
+			if (LOCAL_VARIABLE_TABLE.equals(attrName)) {
+				paramNames = readLocalVariableTable(mi, in);
+			}
+			else {
+				Util.skipBytes(in, attributeLength);
+			}
+		}
+
+		return paramNames;
+
+	}
+
+
 	/**
 	 * Reads an attribute for this <code>Code</code> attribute from an input
 	 * stream.
@@ -242,40 +338,7 @@ public class Code extends AttributeInfo {
 		// Describes a local variable during execution of this code.  We only
 		// use it to grab the names of method parameters.
 		else if (LOCAL_VARIABLE_TABLE.equals(attrName)) { // 4.7.13
-
-			// If this attribute is defined, then this class was compiled with
-			// debugging enabled!  We can grab the names of the method
-			// parameters, to make code completion a little nicer.  Note that
-			// we only grab the names of parameters, not all local variables,
-			// for speed and space.
-
-			int paramCount = mi.getParameterCount();
-			paramNames = new String[paramCount];
-			boolean isStatic = mi.isStatic();
-
-			int localVariableTableLength = in.readUnsignedShort();
-			for (int i=0; i<localVariableTableLength; i++) {
-
-				/*int startPC = */in.readUnsignedShort();
-				/*int length = */in.readUnsignedShort();
-				int nameIndex = in.readUnsignedShort();
-				/*int descriptorIndex = */in.readUnsignedShort();
-
-				// Non-static methods have implicit "this" variable passed in,
-				// so we must avoid that
-				int index = in.readUnsignedShort();
-				int adjustedIndex = isStatic ? index : index-1;
-
-				if (adjustedIndex>=0 && adjustedIndex<paramNames.length) {
-					String name = cf.getUtf8ValueFromConstantPool(nameIndex);
-					//System.out.println("!!! " + getClassFile().
-					//	getClassName(false) + "." + getMethodInfo().
-					//	getNameAndParameters() + " - " + index + ": " + name);
-					paramNames[adjustedIndex] = name;
-				}
-
-			}
-
+			paramNames = readLocalVariableTable(mi, in);
 		}
 
 		// We don't care about LocalVariableTypeTables
@@ -63,6 +63,18 @@ public class Exceptions extends AttributeInfo {
 	}
 
 
+	/**
+	 * Returns the index into the constant pool of the specified exception's
+	 * <code>ConstantClassInfo</code>.
+	 *
+	 * @param index The index of the exception.
+	 * @return The index into the constant pool.
+	 */
+	public int getExceptionIndex(int index) {
+		return exceptionIndexTable[index];
+	}
+
+
 	/**
 	 * Returns the number of exceptions this attribute knows about.
 	 *
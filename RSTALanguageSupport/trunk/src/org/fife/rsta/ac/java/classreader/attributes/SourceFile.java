@@ -46,6 +46,18 @@ public class SourceFile extends AttributeInfo {
 	}
 
 
+	/**
+	 * Returns the index into the constant pool of the name of the source
+	 * file.
+	 *
+	 * @return The index into the constant pool.
+	 * @see #getSourceFileName()
+	 */
+	public int getSourceFileIndex() {
+		return sourceFileIndex;
+	}
+
+
 	/**
 	 * Returns the name of the source file that was compiled to create this
 	 * class file.
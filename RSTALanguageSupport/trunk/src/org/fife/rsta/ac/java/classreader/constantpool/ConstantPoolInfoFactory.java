@@ -32,6 +32,26 @@ public class ConstantPoolInfoFactory implements ConstantTypes {
 		ConstantPoolInfo cpi = null;
 		int tag = in.read();
 
+		// Entries only referenced by bytecode are skipped when reading
+		// just what's needed for code completion.
+		if (cf.isLightweight()) {
+			switch (tag) {
+				case CONSTANT_Fieldref:
+				case CONSTANT_InterfaceMethodref:
+				case CONSTANT_Methodref:
+				case CONSTANT_NameAndType:
+				case CONSTANT_InvokeDynamic:
+					Util.skipBytes(in, 4);
+					return null;
+				case CONSTANT_MethodHandle:
+					Util.skipBytes(in, 3);
+					return null;
+				case CONSTANT_MethodType:
+					Util.skipBytes(in, 2);
+					return null;
+			}
+		}
+
 		switch (tag) {
 
 			case CONSTANT_Class:
@@ -21,7 +21,13 @@ import java.io.UnsupportedEncodingException;
  */
 public class ConstantUtf8Info extends ConstantPoolInfo {
 
-	//private byte[] bytes;
+	/**
+	 * The modified UTF-8 bytes of the string, until it is decoded.  Many
+	 * strings in a class file are never needed by code completion (e.g.
+	 * names of methods called from bytecode), so they're decoded lazily.
+	 */
+	private byte[] bytes;
+
 	private String representedString;
 
 
@@ -33,8 +39,7 @@ public class ConstantUtf8Info extends ConstantPoolInfo {
 	 */
 	public ConstantUtf8Info(byte[] bytes) {
 		super(CONSTANT_Utf8);
-		//this.bytes = bytes;
-		representedString = createRepresentedString(bytes);
+		this.bytes = bytes;
 	}
 
 
@@ -48,6 +53,21 @@ public class ConstantUtf8Info extends ConstantPoolInfo {
 	}
 */
 
+	/**
+	 * Decodes the represented string, if it hasn't been already.  This is
+	 * synchronized since class files may be shared between threads.
+	 *
+	 * @return The represented string.
+	 */
+	private synchronized String decode() {
+		if (representedString==null) {
+			representedString = createRepresentedString(bytes);
+			bytes = null;
+		}
+		return representedString;
+	}
+
+
 	private String createRepresentedString(byte[] bytes) {
 /*
 		StringBuffer sb = new StringBuffer();
@@ -115,6 +135,10 @@ try {
 	 * @return The string represented.
 	 */
 	public String getRepresentedString(boolean quoted) {
+		String representedString = this.representedString;
+		if (representedString==null) {
+			representedString = decode();
+		}
 		if (!quoted) {
 			return representedString;
 		}
@@ -129,7 +153,7 @@ try {
 	 * @return A string representation of this object.
 	 */
 	public String toString() {
-		return "[ConstantUtf8Info: " + representedString +
+		return "[ConstantUtf8Info: " + getRepresentedString(false) +
 				"]";
 	}
 
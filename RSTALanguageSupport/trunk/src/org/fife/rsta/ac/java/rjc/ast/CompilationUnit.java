@@ -80,6 +80,15 @@ public class CompilationUnit extends AbstractASTNode
 	}
 
 
+	/**
+	 * Removes all parser notices, for example before those for a re-parsed
+	 * part of the source are added back.
+	 */
+	public void clearParserNotices() {
+		notices = null;
+	}
+
+
 	public int getAnnotationCount() {
 		return annotations.size();
 	}
@@ -0,0 +1,125 @@
+/*
+ * 10/19/2026
+ *
+ * LexemeTable.java - Shares the text of tokens with the same lexeme.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java.rjc.lexer;
+
+
+/**
+ * The distinct lexemes seen by a scanner, so that tokens with the same text
+ * share a single <code>String</code> rather than each creating their own.
+ * Most tokens in a source file are keywords, separators, operators, and
+ * identifiers used many times, so only a small fraction of them need a new
+ * <code>String</code>.  Lexemes are looked up directly from the scanner's
+ * buffer, so nothing is allocated for a lexeme already in the table.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class LexemeTable {
+
+	/**
+	 * The lexemes, hashed with open addressing.  The length is always a
+	 * power of two.
+	 */
+	private String[] lexemes;
+
+	/**
+	 * The number of lexemes in the table.
+	 */
+	private int count;
+
+
+	/**
+	 * Constructor.
+	 */
+	public LexemeTable() {
+		lexemes = new String[256];
+	}
+
+
+	/**
+	 * Returns the lexeme for text in an array, adding it to the table if it
+	 * isn't there already.
+	 *
+	 * @param array The array containing the text.
+	 * @param offset The offset of the text in the array.
+	 * @param length The length of the text.
+	 * @return The lexeme.
+	 */
+	public String get(char[] array, int offset, int length) {
+
+		int hash = 0;
+		for (int i=0; i<length; i++) {
+			hash = 31*hash + array[offset+i];
+		}
+
+		int mask = lexemes.length - 1;
+		int index = hash & mask;
+		String lexeme = null;
+		while ((lexeme=lexemes[index])!=null) {
+			if (matches(lexeme, array, offset, length)) {
+				return lexeme;
+			}
+			index = (index+1) & mask;
+		}
+
+		lexeme = new String(array, offset, length);
+		lexemes[index] = lexeme;
+		if (++count>lexemes.length/2) {
+			rehash();
+		}
+		return lexeme;
+
+	}
+
+
+	/**
+	 * Returns whether a lexeme has the same text as a range of an array.
+	 *
+	 * @param lexeme The lexeme.
+	 * @param array The array.
+	 * @param offset The offset of the text in the array.
+	 * @param length The length of the text.
+	 * @return Whether the text is the same.
+	 */
+	private static boolean matches(String lexeme, char[] array, int offset,
+									int length) {
+		if (lexeme.length()!=length) {
+			return false;
+		}
+		for (int i=0; i<length; i++) {
+			if (lexeme.charAt(i)!=array[offset+i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Doubles the size of the table.
+	 */
+	private void rehash() {
+		String[] old = lexemes;
+		lexemes = new String[old.length*2];
+		int mask = lexemes.length - 1;
+		for (int i=0; i<old.length; i++) {
+			String lexeme = old[i];
+			if (lexeme!=null) {
+				// String.hashCode() is computed as in get().
+				int index = lexeme.hashCode() & mask;
+				while (lexemes[index]!=null) {
+					index = (index+1) & mask;
+				}
+				lexemes[index] = lexeme;
+			}
+		}
+	}
+
+
+}
@@ -93,6 +93,23 @@ public class Scanner {
 	}
 
 
+	/**
+	 * Constructor.  The text is scanned in place, which is faster than
+	 * reading it through a <code>Reader</code>.  The array can be that of a
+	 * <code>Segment</code> filled by a document, as long as the document
+	 * is not modified while the text is being scanned.
+	 *
+	 * @param text The text to scan.
+	 * @param offset The offset of the first character to scan.
+	 * @param length The number of characters to scan.
+	 */
+	public Scanner(char[] text, int offset, int length) {
+		s = new SourceCodeScanner(text, offset, length);
+		s.setKeepLastDocComment(true);
+		stack = new Stack();
+	}
+
+
 /**
  * This method is just here for debugging purposes to make sure
  * our parser is sound.
@@ -494,6 +511,20 @@ private int currentResetStartOffset;
 	}
 
 
+	/**
+	 * Sets the position in the source of the first character read, for when
+	 * only part of the source is being parsed (for example, a single method
+	 * body).  This should be called before any tokens are read.
+	 *
+	 * @param offset The offset of the first character.
+	 * @param line The line of the first character.
+	 * @param column The column of the first character.
+	 */
+	public void setStartPosition(int offset, int line, int column) {
+		s.setStartPosition(offset, line, column);
+	}
+
+
 	/**
 	 * Skips all bracket pairs ('[' followed by ']') in the stream.
 	 *
@@ -743,6 +743,30 @@ class SourceCodeScanner implements org.fife.rsta.ac.java.rjc.lexer.TokenTypes {
 	 */
 	private String lastDocComment;
 
+	/**
+	 * The text of the tokens scanned so far, so that tokens with the same
+	 * text share a single <code>String</code>.
+	 */
+	private LexemeTable lexemes = new LexemeTable();
+
+
+	/**
+	 * Constructor.  The entire input is in a <code>char</code> array, so
+	 * it is scanned in place rather than copied into a buffer.  The array
+	 * is never modified, but it must not be modified by anyone else while
+	 * it is being scanned.
+	 *
+	 * @param text The text to scan.
+	 * @param offset The offset of the first character to scan.
+	 * @param length The number of characters to scan.
+	 */
+	SourceCodeScanner(char[] text, int offset, int length) {
+		zzBuffer = text;
+		zzStartRead = zzCurrentPos = zzMarkedPos = zzPushbackPos = offset;
+		zzEndRead = offset + length;
+		zzAtEOF = true; // There is nothing more to read, so no refills
+	}
+
 
 	private Token createToken(int type) {
 		return createToken(type, false);
@@ -750,7 +774,9 @@ class SourceCodeScanner implements org.fife.rsta.ac.java.rjc.lexer.TokenTypes {
 
 
 	private Token createToken(int type, boolean invalid) {
-		return new TokenImpl(type, yytext(), yyline, yycolumn, yychar, invalid);
+		String lexeme = lexemes.get(zzBuffer, zzStartRead,
+									zzMarkedPos-zzStartRead);
+		return new TokenImpl(type, lexeme, yyline, yycolumn, yychar, invalid);
 	}
 
 
@@ -857,6 +883,22 @@ class SourceCodeScanner implements org.fife.rsta.ac.java.rjc.lexer.TokenTypes {
 	}
 
 
+	/**
+	 * Sets the position of the first character read, for when only part of
+	 * a document is being scanned.  This should be called before any tokens
+	 * are read.
+	 *
+	 * @param offset The offset of the first character.
+	 * @param line The line of the first character.
+	 * @param column The column of the first character.
+	 */
+	public void setStartPosition(int offset, int line, int column) {
+		yychar = offset;
+		yyline = line;
+		yycolumn = column;
+	}
+
+
 
 
   /**
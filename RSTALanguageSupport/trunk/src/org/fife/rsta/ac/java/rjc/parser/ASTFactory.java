@@ -1035,6 +1035,24 @@ OUTER:
 	}
 
 
+	/**
+	 * Parses the body of a method again, for example after it has been
+	 * edited.  The scanner should be positioned at the body's opening
+	 * '<code>{</code>'.  The method itself is not modified.
+	 *
+	 * @param cu The compilation unit to add any parser notices to.
+	 * @param m The method whose body is being parsed.
+	 * @param s The scanner.
+	 * @return The method's body.
+	 * @throws IOException If an IO error occurs, or the body doesn't start
+	 *         with '<code>{</code>'.
+	 */
+	public CodeBlock getMethodBody(CompilationUnit cu, Method m, Scanner s)
+											throws IOException {
+		return _getBlock(cu, null, m, s, false);
+	}
+
+
 	private Modifiers _getModifierList(CompilationUnit cu, Scanner s)
 										throws IOException {
 
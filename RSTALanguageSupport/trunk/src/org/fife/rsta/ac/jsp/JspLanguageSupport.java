@@ -16,6 +16,7 @@ import org.fife.rsta.ac.AbstractLanguageSupport;
 import org.fife.rsta.ac.html.HtmlCellRenderer;
 import org.fife.rsta.ac.html.HtmlCompletionProvider;
 import org.fife.ui.autocomplete.AutoCompletion;
+import org.fife.ui.autocomplete.CompletionProvider;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 
 
@@ -27,12 +28,6 @@ import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
  */
 public class JspLanguageSupport extends AbstractLanguageSupport {
 
-	/**
-	 * The completion provider.  This is shared amongst all JSP text areas.
-	 */
-	private JspCompletionProvider provider;
-
-
 	/**
 	 * Constructor.
 	 */
@@ -51,11 +46,14 @@ public class JspLanguageSupport extends AbstractLanguageSupport {
 	}
 
 
-	private JspCompletionProvider getProvider() {
-		if (provider==null) {
-			provider = new JspCompletionProvider();
-		}
-		return provider;
+	/**
+	 * Creates the completion provider shared amongst all text areas editing
+	 * JSP.
+	 *
+	 * @return The completion provider.
+	 */
+	protected CompletionProvider createSharedProvider() {
+		return new JspCompletionProvider();
 	}
 
 
@@ -64,7 +62,8 @@ public class JspLanguageSupport extends AbstractLanguageSupport {
 	 */
 	public void install(RSyntaxTextArea textArea) {
 
-		HtmlCompletionProvider provider = getProvider();
+		HtmlCompletionProvider provider = (HtmlCompletionProvider)
+				acquireSharedProvider(textArea);
 		AutoCompletion ac = createAutoCompletion(provider);
 		ac.install(textArea);
 		installImpl(textArea, ac);
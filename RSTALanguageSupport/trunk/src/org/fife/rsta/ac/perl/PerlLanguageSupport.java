@@ -11,6 +11,7 @@
 package org.fife.rsta.ac.perl;
 
 import java.io.File;
+import java.util.Arrays;
 import javax.swing.ListCellRenderer;
 
 import org.fife.rsta.ac.AbstractLanguageSupport;
@@ -18,6 +19,7 @@ import org.fife.rsta.ac.IOUtil;
 import org.fife.rsta.ac.perl.PerlCompletionProvider;
 import org.fife.ui.autocomplete.AutoCompletion;
 import org.fife.ui.autocomplete.CompletionCellRenderer;
+import org.fife.ui.autocomplete.CompletionProvider;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 
 
@@ -30,14 +32,16 @@ import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 public class PerlLanguageSupport extends AbstractLanguageSupport {
 
 	/**
-	 * The completion provider.  This is shared amongst all Perl text areas.
+	 * The parser.  This is shared amongst all Perl text areas.
 	 */
-	private PerlCompletionProvider provider;
+	private PerlParser parser;
 
 	/**
-	 * The parser.  This is shared amongst all Perl text areas.
+	 * Whether parens are inserted when auto-completing functions.  Text
+	 * areas with different values for this property use different
+	 * completion providers.
 	 */
-	private PerlParser parser;
+	private boolean useParensWithFunctions;
 
 	/**
 	 * The Perl install location currently being used.
@@ -107,6 +111,19 @@ public class PerlLanguageSupport extends AbstractLanguageSupport {
 	}
 
 
+	/**
+	 * Creates the completion provider shared amongst all text areas editing
+	 * Perl.
+	 *
+	 * @return The completion provider.
+	 */
+	protected CompletionProvider createSharedProvider() {
+		PerlCompletionProvider provider = new PerlCompletionProvider();
+		provider.setUseParensWithFunctions(getUseParensWithFunctions());
+		return provider;
+	}
+
+
 	/**
 	 * Returns the location of the first Perl install located on the user's
 	 * PATH.
@@ -162,19 +179,6 @@ public class PerlLanguageSupport extends AbstractLanguageSupport {
 	}
 
 
-	/**
-	 * Lazily creates the shared completion provider instance for Perl.
-	 *
-	 * @return The completion provider.
-	 */
-	private PerlCompletionProvider getProvider() {
-		if (provider==null) {
-			provider = new PerlCompletionProvider();
-		}
-		return provider;
-	}
-
-
 	/**
 	 * Returns the value to use for <code>PERL5LIB</code> when parsing Perl
 	 * code.
@@ -187,6 +191,15 @@ public class PerlLanguageSupport extends AbstractLanguageSupport {
 	}
 
 
+	/**
+	 * {@inheritDoc}
+	 */
+	protected Object getSharedProviderKey() {
+		return Arrays.asList(new Object[] { getClass(),
+				Boolean.valueOf(getUseParensWithFunctions()) });
+	}
+
+
 	/**
 	 * Returns whether parens are inserted when auto-completing functions.
 	 *
@@ -194,7 +207,7 @@ public class PerlLanguageSupport extends AbstractLanguageSupport {
 	 * @see #setUseParensWithFunctions(boolean)
 	 */
 	public boolean getUseParensWithFunctions() {
-		return getProvider().getUseParensWithFunctions();
+		return useParensWithFunctions;
 	}
 
 
@@ -232,7 +245,8 @@ public class PerlLanguageSupport extends AbstractLanguageSupport {
 	 */
 	public void install(RSyntaxTextArea textArea) {
 
-		PerlCompletionProvider provider = getProvider();
+		PerlCompletionProvider provider = (PerlCompletionProvider)
+				acquireSharedProvider(textArea);
 		AutoCompletion ac = createAutoCompletion(provider);
 		ac.install(textArea);
 		installImpl(textArea, ac);
@@ -339,7 +353,10 @@ public class PerlLanguageSupport extends AbstractLanguageSupport {
 	 * @see #getUseParensWithFunctions()
 	 */
 	public void setUseParensWithFunctions(boolean use) {
-		getProvider().setUseParensWithFunctions(use);
+		if (use!=useParensWithFunctions) {
+			useParensWithFunctions = use;
+			reacquireSharedProviders();
+		}
 	}
 
 
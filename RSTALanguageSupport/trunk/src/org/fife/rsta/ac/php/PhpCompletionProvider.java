@@ -24,6 +24,7 @@ import javax.xml.parsers.SAXParserFactory;
 
 import org.fife.rsta.ac.html.HtmlCompletionProvider;
 import org.fife.ui.autocomplete.Completion;
+import org.fife.ui.autocomplete.CompletionBundle;
 import org.fife.ui.autocomplete.CompletionXMLParser;
 import org.fife.ui.autocomplete.Util;
 import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
@@ -66,14 +67,22 @@ public class PhpCompletionProvider extends HtmlCompletionProvider {
 		// NOTE: If multiple instances of this provider are created, this
 		// rather hefty XML file will be loaded each time.  Better to share
 		// this CompletionProvider amongst all PHP editors (which is what
-		// PhpLanguageSupport does).
+		// PhpLanguageSupport does).  A precompiled bundle of it loads much
+		// faster, if there is one.
 		ClassLoader cl = getClass().getClassLoader();
-		InputStream in = cl.getResourceAsStream("data/php.xml");
 		try {
-			if (in==null) { // Ghetto temporary workaround
-				in = new java.io.FileInputStream("data/php.xml");
+			CompletionBundle bundle = CompletionBundle.find("data/php.xml",
+															cl);
+			if (bundle!=null) {
+				loadPhpCompletionsFromBundle(bundle);
+			}
+			else {
+				InputStream in = cl.getResourceAsStream("data/php.xml");
+				if (in==null) { // Ghetto temporary workaround
+					in = new java.io.FileInputStream("data/php.xml");
+				}
+				loadPhpCompletionsFromXML(in);
 			}
-			loadPhpCompletionsFromXML(in);
 		} catch (IOException ioe) {
 			ioe.printStackTrace();
 		}
@@ -81,6 +90,26 @@ public class PhpCompletionProvider extends HtmlCompletionProvider {
 	}
 
 
+	/**
+	 * Loads completions from a precompiled bundle of the PHP completion XML.
+	 *
+	 * @param bundle The bundle.
+	 * @see #loadPhpCompletionsFromXML(InputStream)
+	 */
+	public void loadPhpCompletionsFromBundle(CompletionBundle bundle) {
+		phpCompletions = bundle.createCompletions(this,
+									getClass().getClassLoader());
+		char startChar = bundle.getParamStartChar();
+		if (startChar!=0) {
+			char endChar = bundle.getParamEndChar();
+			String sep = bundle.getParamSeparator();
+			if (endChar!=0 && sep!=null && sep.length()>0) { // Sanity
+				setParameterizedCompletionParams(startChar, sep, endChar);
+			}
+		}
+	}
+
+
 	/**
 	 * Loads completions from an XML input stream.  The XML should validate
 	 * against the completion DTD found in the AutoComplete library.
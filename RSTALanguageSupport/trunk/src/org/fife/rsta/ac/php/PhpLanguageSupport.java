@@ -15,6 +15,7 @@ import javax.swing.ListCellRenderer;
 import org.fife.rsta.ac.AbstractLanguageSupport;
 import org.fife.rsta.ac.html.HtmlCellRenderer;
 import org.fife.ui.autocomplete.AutoCompletion;
+import org.fife.ui.autocomplete.CompletionProvider;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 
 
@@ -26,12 +27,6 @@ import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
  */
 public class PhpLanguageSupport extends AbstractLanguageSupport {
 
-	/**
-	 * The completion provider.  This is shared amongst all PHP text areas.
-	 */
-	private PhpCompletionProvider provider;
-
-
 	/**
 	 * Constructor.
 	 */
@@ -51,15 +46,13 @@ public class PhpLanguageSupport extends AbstractLanguageSupport {
 
 
 	/**
-	 * Lazily creates the shared completion provider instance for PHP.
+	 * Creates the completion provider shared amongst all text areas editing
+	 * PHP.
 	 *
 	 * @return The completion provider.
 	 */
-	private PhpCompletionProvider getProvider() {
-		if (provider==null) {
-			provider = new PhpCompletionProvider();
-		}
-		return provider;
+	protected CompletionProvider createSharedProvider() {
+		return new PhpCompletionProvider();
 	}
 
 
@@ -68,7 +61,8 @@ public class PhpLanguageSupport extends AbstractLanguageSupport {
 	 */
 	public void install(RSyntaxTextArea textArea) {
 
-		PhpCompletionProvider provider = getProvider();
+		PhpCompletionProvider provider = (PhpCompletionProvider)
+				acquireSharedProvider(textArea);
 		AutoCompletion ac = createAutoCompletion(provider);
 		ac.install(textArea);
 		installImpl(textArea, ac);
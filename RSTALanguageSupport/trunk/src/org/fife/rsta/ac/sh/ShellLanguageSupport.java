@@ -16,6 +16,7 @@ import javax.swing.ListCellRenderer;
 import org.fife.rsta.ac.AbstractLanguageSupport;
 import org.fife.ui.autocomplete.AutoCompletion;
 import org.fife.ui.autocomplete.CompletionCellRenderer;
+import org.fife.ui.autocomplete.CompletionProvider;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 
 
@@ -27,11 +28,6 @@ import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
  */
 public class ShellLanguageSupport extends AbstractLanguageSupport {
 
-	/**
-	 * The completion provider.  This is shared amongst all sh text areas.
-	 */
-	private ShellCompletionProvider provider;
-
 	/**
 	 * Whether local man pages should be used.
 	 */
@@ -57,16 +53,14 @@ public class ShellLanguageSupport extends AbstractLanguageSupport {
 
 
 	/**
-	 * Lazily creates the shared completion provider instance for sh scripts.
+	 * Creates the completion provider shared amongst all text areas editing
+	 * sh scripts.
 	 *
 	 * @return The completion provider.
 	 */
-	private ShellCompletionProvider getProvider() {
-		if (provider==null) {
-			provider = new ShellCompletionProvider();
-			ShellCompletionProvider.setUseLocalManPages(getUseLocalManPages());
-		}
-		return provider;
+	protected CompletionProvider createSharedProvider() {
+		ShellCompletionProvider.setUseLocalManPages(getUseLocalManPages());
+		return new ShellCompletionProvider();
 	}
 
 
@@ -89,7 +83,8 @@ public class ShellLanguageSupport extends AbstractLanguageSupport {
 	 */
 	public void install(RSyntaxTextArea textArea) {
 
-		ShellCompletionProvider provider = getProvider();
+		ShellCompletionProvider provider = (ShellCompletionProvider)
+				acquireSharedProvider(textArea);
 		AutoCompletion ac = createAutoCompletion(provider);
 		ac.install(textArea);
 		installImpl(textArea, ac);
@@ -111,9 +106,8 @@ public class ShellLanguageSupport extends AbstractLanguageSupport {
 	public void setUseLocalManPages(boolean use) {
 		if (use!=useLocalManPages) {
 			useLocalManPages = use;
-			if (provider!=null) {
-				ShellCompletionProvider.setUseLocalManPages(useLocalManPages);
-			}
+			// The flag is static, so applies to the shared provider.
+			ShellCompletionProvider.setUseLocalManPages(useLocalManPages);
 		}
 	}
 
@@ -0,0 +1,108 @@
+/*
+ * 10/19/2026
+ *
+ * AddClassFileSourcesBenchmark.java - Times adding many jars to a JarManager.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.fife.rsta.ac.java.buildpath.JarLibraryInfo;
+import org.fife.rsta.ac.java.buildpath.PackageMapCache;
+
+
+/**
+ * A benchmark comparing adding many jars to a {@link JarManager} one at a
+ * time, with
+ * {@link JarManager#addClassFileSource(org.fife.rsta.ac.java.buildpath.LibraryInfo)},
+ * and all at once, with
+ * {@link JarManager#addClassFileSources(java.util.Collection)}.
+ * The {@link PackageMapCache} is disabled, so each jar is really read.<p>
+ *
+ * Usage: <code>java org.fife.rsta.ac.java.AddClassFileSourcesBenchmark
+ * dir</code>, where <code>dir</code> contains jars (in any subdirectory).
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class AddClassFileSourcesBenchmark {
+
+	private static final int ROUNDS = 5;
+
+
+	/**
+	 * Adds the jars in a directory and its subdirectories to a list.
+	 *
+	 * @param dir The directory.
+	 * @param addTo The list to add {@link JarLibraryInfo}s to.
+	 */
+	private static void findJars(File dir, List addTo) {
+		File[] files = dir.listFiles();
+		for (int i=0; files!=null && i<files.length; i++) {
+			if (files[i].isDirectory()) {
+				findJars(files[i], addTo);
+			}
+			else if (files[i].getName().endsWith(".jar")) {
+				addTo.add(new JarLibraryInfo(files[i]));
+			}
+		}
+	}
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args The directory containing jars.
+	 * @throws IOException If an IO error occurs.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		PackageMapCache.setCacheDirectory(null);
+		List infos = new ArrayList();
+		findJars(new File(args[0]), infos);
+		System.out.println(infos.size() + " jars");
+
+		for (int round=0; round<ROUNDS; round++) {
+
+			long start = System.nanoTime();
+			JarManager sequential = new JarManager();
+			for (int i=0; i<infos.size(); i++) {
+				sequential.addClassFileSource((JarLibraryInfo)infos.get(i));
+			}
+			long sequentialTime = System.nanoTime() - start;
+
+			final int[] events = new int[1];
+			start = System.nanoTime();
+			JarManager bulk = new JarManager();
+			bulk.addPropertyChangeListener(JarManager.PROPERTY_SOURCES_READ,
+					new PropertyChangeListener() {
+						public void propertyChange(PropertyChangeEvent e) {
+							synchronized (events) {
+								events[0]++;
+							}
+						}
+					});
+			bulk.addClassFileSources(infos);
+			long bulkTime = System.nanoTime() - start;
+
+			boolean sameOrder = sequential.getClassFileSources().equals(
+										bulk.getClassFileSources());
+			System.out.println("Round " + (round+1) + ": one at a time: " +
+					(sequentialTime/1000000) + " ms, all at once: " +
+					(bulkTime/1000000) + " ms (" + events[0] +
+					" progress events, same order: " + sameOrder + ")");
+
+		}
+
+	}
+
+
+}
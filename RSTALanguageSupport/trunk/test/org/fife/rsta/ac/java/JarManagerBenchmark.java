@@ -0,0 +1,194 @@
+/*
+ * 10/19/2026
+ *
+ * JarManagerBenchmark.java - Times loading classes and source from jars.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.fife.rsta.ac.java.buildpath.CompilationUnitCache;
+import org.fife.rsta.ac.java.buildpath.JarLibraryInfo;
+import org.fife.rsta.ac.java.buildpath.SourceLocation;
+import org.fife.rsta.ac.java.buildpath.ZipSourceLocation;
+import org.fife.rsta.ac.java.classreader.ClassFile;
+import org.fife.ui.autocomplete.CompletionProvider;
+import org.fife.ui.autocomplete.DefaultCompletionProvider;
+
+
+/**
+ * A benchmark for the {@link JarManager} operations done while the user
+ * types Java code: adding a jar to the build path, finding classes whose
+ * names start with what has been typed (first with no class files cached,
+ * then again with them cached), finding classes matching camel case
+ * patterns, listing the classes in a package, and parsing the source of
+ * classes for their Javadoc (first with no source files cached, then again
+ * with them cached).  A new <code>JarManager</code> is created, and the
+ * {@link ClassFileCache} and {@link CompilationUnitCache} cleared, for each
+ * round, so nothing is cached at the start of a round.  The class file
+ * cache's statistics are printed after each round.<p>
+ *
+ * Usage: <code>java org.fife.rsta.ac.java.JarManagerBenchmark jar
+ * [sourceZip]</code>, e.g. a JRE's <tt>rt.jar</tt> and the JDK's
+ * <tt>src.zip</tt>.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class JarManagerBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	/**
+	 * Prefixes typed one character at a time, as unqualified class names.
+	 */
+	private static final String[] PREFIXES = { "String", "Hash", "List",
+			"Object", "Map", "Buffer" };
+
+	private static final String[] CAMEL_CASE_PATTERNS = { "HM", "SB", "ArL",
+			"NPE", "JTF", "BuRe" };
+
+	private static final String[] PACKAGES = { "java.util", "java.io",
+			"java.lang", "javax.swing" };
+
+	private static final String[] SOURCE_CLASSES = { "java.lang.String",
+			"java.util.ArrayList", "java.util.HashMap", "java.io.File",
+			"javax.swing.JComponent" };
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args The jar, and optionally its source zip.
+	 * @throws IOException If an IO error occurs.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		File jar = new File(args[0]);
+		SourceLocation sourceLoc = args.length>1 ?
+								new ZipSourceLocation(args[1]) : null;
+		CompletionProvider provider = new DefaultCompletionProvider();
+
+		for (int round=0; round<ROUNDS; round++) {
+
+			ClassFileCache cache = JarManager.getClassFileCache();
+			cache.clear();
+			JarManager.getCompilationUnitCache().clear();
+			long start = System.nanoTime();
+			JarManager jarManager = new JarManager();
+			jarManager.addClassFileSource(new JarLibraryInfo(jar, sourceLoc));
+			long addTime = System.nanoTime() - start;
+
+			int keystrokes = 0;
+			for (int i=0; i<PREFIXES.length; i++) {
+				keystrokes += PREFIXES[i].length();
+			}
+			start = System.nanoTime();
+			int completions = typePrefixes(jarManager, provider);
+			long prefixTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			typePrefixes(jarManager, provider);
+			long cachedPrefixTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			int camelCaseCompletions = 0;
+			for (int i=0; i<CAMEL_CASE_PATTERNS.length; i++) {
+				Set addTo = new HashSet();
+				jarManager.addCamelCaseCompletions(provider,
+								CAMEL_CASE_PATTERNS[i], addTo, null);
+				camelCaseCompletions += addTo.size();
+			}
+			long camelCaseTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			int classes = 0;
+			for (int i=0; i<PACKAGES.length; i++) {
+				classes += jarManager.getClassesInPackage(PACKAGES[i],
+														false).size();
+			}
+			long packageTime = System.nanoTime() - start;
+
+			long sourceTime = 0;
+			long cachedSourceTime = 0;
+			int sources = 0;
+			if (sourceLoc!=null) {
+				start = System.nanoTime();
+				sources = parseSources(jarManager, sourceLoc);
+				sourceTime = System.nanoTime() - start;
+				start = System.nanoTime();
+				parseSources(jarManager, sourceLoc);
+				cachedSourceTime = System.nanoTime() - start;
+			}
+
+			System.out.println("Round " + (round+1) +
+				": add jar: " + (addTime/1000000) + " ms" +
+				", class prefixes: " + (prefixTime/1000000) + " ms (" +
+				(prefixTime/1000/keystrokes) + " us/keystroke, " +
+				completions + " completions)" +
+				", cached: " + (cachedPrefixTime/1000/keystrokes) +
+				" us/keystroke" +
+				", camel case: " + (camelCaseTime/1000000) + " ms (" +
+				camelCaseCompletions + " completions)" +
+				", packages: " + (packageTime/1000000) + " ms (" + classes +
+				" classes)" +
+				(sourceLoc==null ? "" : ", source: " +
+					(sourceTime/1000000) + " ms (" + sources + " files), " +
+					"cached: " + (cachedSourceTime/1000) + " us"));
+			System.out.println("    " + cache);
+
+		}
+
+	}
+
+
+	/**
+	 * Parses the source of each of {@link #SOURCE_CLASSES}.
+	 *
+	 * @param jarManager The jar manager.
+	 * @param sourceLoc The source of the jar.
+	 * @return The number of source files found.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private static int parseSources(JarManager jarManager,
+						SourceLocation sourceLoc) throws IOException {
+		int sources = 0;
+		for (int i=0; i<SOURCE_CLASSES.length; i++) {
+			ClassFile cf = jarManager.getClassEntry(SOURCE_CLASSES[i]);
+			if (cf!=null && sourceLoc.getCompilationUnit(cf)!=null) {
+				sources++;
+			}
+		}
+		return sources;
+	}
+
+
+	/**
+	 * Types each of the {@link #PREFIXES} one character at a time, getting
+	 * completions after each character.
+	 *
+	 * @param jarManager The jar manager.
+	 * @param provider The parent completion provider.
+	 * @return The total number of completions.
+	 */
+	private static int typePrefixes(JarManager jarManager,
+								CompletionProvider provider) {
+		int completions = 0;
+		for (int i=0; i<PREFIXES.length; i++) {
+			for (int j=1; j<=PREFIXES[i].length(); j++) {
+				Set addTo = new HashSet();
+				jarManager.addCompletions(provider,
+								PREFIXES[i].substring(0, j), addTo);
+				completions += addTo.size();
+			}
+		}
+		return completions;
+	}
+
+
+}
@@ -0,0 +1,216 @@
+/*
+ * 10/19/2026
+ *
+ * JavaParserBenchmark.java - Times re-parsing a large class while typing.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Iterator;
+
+import javax.swing.text.BadLocationException;
+
+import org.fife.rsta.ac.java.rjc.ast.CodeBlock;
+import org.fife.rsta.ac.java.rjc.ast.CompilationUnit;
+import org.fife.rsta.ac.java.rjc.ast.LocalVariable;
+import org.fife.rsta.ac.java.rjc.ast.Method;
+import org.fife.rsta.ac.java.rjc.ast.TypeDeclaration;
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
+
+
+/**
+ * A benchmark comparing re-parsing a large class with {@link JavaParser}
+ * after each keystroke in a method body, in full and in incremental mode.
+ * After each incremental parse, the AST is compared with that from a full
+ * parse.  Some keystrokes unbalance the method's braces, so that the
+ * incremental parser must fall back to a full parse.<p>
+ *
+ * Usage: <code>java org.fife.rsta.ac.java.JavaParserBenchmark
+ * [methodCount]</code>.  Each method is 20 lines long.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class JavaParserBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	/**
+	 * Typed one character at a time into a method body.
+	 */
+	private static final String TYPED = "\n\t\tint total = count + 1;" +
+				"\n\t\tif (total>3) {\n\t\t\tlist.add(total);\n\t\t}";
+
+
+	/**
+	 * Appends a description of the methods and local variables in a
+	 * compilation unit to a buffer, for comparing ASTs.
+	 *
+	 * @param cu The compilation unit.
+	 * @param sb The buffer to append to.
+	 */
+	private static void appendMembers(CompilationUnit cu, StringBuffer sb) {
+		for (Iterator i=cu.getTypeDeclarationIterator(); i.hasNext(); ) {
+			appendMembers((TypeDeclaration)i.next(), sb);
+		}
+		for (int i=0; i<cu.getParserNoticeCount(); i++) {
+			sb.append(cu.getParserNotice(i)).append('\n');
+		}
+	}
+
+
+	private static void appendMembers(CodeBlock block, StringBuffer sb) {
+		sb.append('{').append(block.getNameStartOffset()).append(',');
+		for (int i=0; i<block.getLocalVarCount(); i++) {
+			LocalVariable var = block.getLocalVar(i);
+			sb.append(var.getType()).append(' ').append(var.getName()).
+					append('@').append(var.getNameStartOffset()).append(',');
+		}
+		for (int i=0; i<block.getChildBlockCount(); i++) {
+			appendMembers(block.getChildBlock(i), sb);
+		}
+		sb.append('}').append(block.getNameEndOffset());
+	}
+
+
+	private static void appendMembers(TypeDeclaration td, StringBuffer sb) {
+		sb.append(td.getName()).append(td.getBodyStartOffset()).append('\n');
+		for (Iterator i=td.getMethodIterator(); i.hasNext(); ) {
+			Method m = (Method)i.next();
+			sb.append(m.getName()).append(m.getNameStartOffset());
+			if (m.getBody()!=null) {
+				appendMembers(m.getBody(), sb);
+			}
+			sb.append('\n');
+		}
+		for (int i=0; i<td.getChildTypeCount(); i++) {
+			appendMembers(td.getChildType(i), sb);
+		}
+	}
+
+
+	/**
+	 * Creates the source of a class.
+	 *
+	 * @param methodCount The number of methods in the class.
+	 * @return The source.
+	 */
+	private static String createSource(int methodCount) {
+		StringBuffer sb = new StringBuffer("package foo;\n\n" +
+				"import java.util.*;\n\npublic class Big {\n\n" +
+				"\tprivate List list = new ArrayList();\n\n");
+		for (int i=0; i<methodCount; i++) {
+			sb.append("\t/**\n\t * Method ").append(i).append(".\n\t */\n");
+			sb.append("\tpublic int method").append(i).
+					append("(int count, String name) {\n");
+			sb.append("\t\tint result = count * ").append(i).append(";\n");
+			sb.append("\t\tfor (int j=0; j<count; j++) {\n");
+			sb.append("\t\t\tString s = name + j;\n");
+			sb.append("\t\t\tif (s.length()>").append(i).append(") {\n");
+			sb.append("\t\t\t\tresult += s.hashCode();\n");
+			sb.append("\t\t\t}\n\t\t}\n");
+			sb.append("\t\ttry {\n\t\t\tlist.add(name);\n");
+			sb.append("\t\t} catch (RuntimeException e) {\n");
+			sb.append("\t\t\te.printStackTrace();\n\t\t}\n");
+			sb.append("\t\treturn result;\n\t}\n\n");
+		}
+		sb.append("}\n");
+		return sb.toString();
+	}
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args Optionally, the number of methods in the class.
+	 * @throws BadLocationException Never.
+	 */
+	public static void main(String[] args) throws BadLocationException {
+
+		int methodCount = args.length>0 ? Integer.parseInt(args[0]) : 500;
+		String source = createSource(methodCount);
+		System.out.println(methodCount + " methods, " + source.length() +
+				" chars");
+
+		for (int round=0; round<ROUNDS; round++) {
+			long fullTime = type(source, methodCount, false, null);
+			int[] stats = new int[2];
+			long incrementalTime = type(source, methodCount, true, stats);
+			System.out.println("Round " + (round+1) + ": full: " +
+				(fullTime/1000/TYPED.length()) + " us/keystroke, " +
+				"incremental: " + (incrementalTime/1000/TYPED.length()) +
+				" us/keystroke (" + stats[0] + " full parses, " +
+				stats[1] + " ASTs differing from a full parse)");
+		}
+
+	}
+
+
+	/**
+	 * Types {@link #TYPED} into the middle method of the class, re-parsing
+	 * after each keystroke.
+	 *
+	 * @param source The source of the class.
+	 * @param methodCount The number of methods in the class.
+	 * @param incremental Whether to parse incrementally.
+	 * @param stats If incremental, receives the number of full parses
+	 *        and the number of ASTs that differed from a full parse.
+	 * @return The time spent parsing, in nanoseconds.
+	 * @throws BadLocationException Never.
+	 */
+	private static long type(String source, int methodCount,
+			boolean incremental, int[] stats) throws BadLocationException {
+
+		RSyntaxDocument doc = new RSyntaxDocument(
+									SyntaxConstants.SYNTAX_STYLE_JAVA);
+		doc.insertString(0, source, null);
+		JavaParser parser = new JavaParser(null);
+		parser.setIncremental(incremental);
+		final int[] fullParses = new int[1];
+		parser.addPropertyChangeListener(JavaParser.PROPERTY_COMPILATION_UNIT,
+				new PropertyChangeListener() {
+					public void propertyChange(PropertyChangeEvent e) {
+						fullParses[0]++;
+					}
+				});
+		parser.parse(doc, SyntaxConstants.SYNTAX_STYLE_JAVA);
+		fullParses[0] = 0;
+
+		String method = "method" + (methodCount/2) + "(";
+		int offs = source.indexOf(method);
+		offs = source.indexOf("\n", source.indexOf('{', offs));
+
+		long time = 0;
+		for (int i=0; i<TYPED.length(); i++) {
+			doc.insertString(offs+i, TYPED.substring(i, i+1), null);
+			long start = System.nanoTime();
+			parser.parse(doc, SyntaxConstants.SYNTAX_STYLE_JAVA);
+			time += System.nanoTime() - start;
+			if (stats!=null) {
+				JavaParser fullParser = new JavaParser(null);
+				fullParser.setIncremental(false);
+				fullParser.parse(doc, SyntaxConstants.SYNTAX_STYLE_JAVA);
+				StringBuffer expected = new StringBuffer();
+				appendMembers(fullParser.getCompilationUnit(), expected);
+				StringBuffer actual = new StringBuffer();
+				appendMembers(parser.getCompilationUnit(), actual);
+				if (!expected.toString().equals(actual.toString())) {
+					stats[1]++;
+				}
+			}
+		}
+
+		if (stats!=null) {
+			stats[0] = fullParses[0];
+		}
+		return time;
+
+	}
+
+
+}
@@ -0,0 +1,115 @@
+/*
+ * 10/19/2026
+ *
+ * SourceCompletionBenchmark.java - Times code completion in Java source.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java;
+
+import java.io.IOException;
+
+import org.fife.rsta.ac.java.buildpath.JarLibraryInfo;
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
+
+
+/**
+ * A benchmark timing {@link SourceCompletionProvider} at several caret
+ * positions in a Java source file: the first time completions are asked
+ * for after the source is parsed, when types and members must be resolved,
+ * and for each following keystroke, when that work is reused.<p>
+ *
+ * Usage: <code>java org.fife.rsta.ac.java.SourceCompletionBenchmark
+ * jar</code>, e.g. a JRE's <tt>rt.jar</tt>.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class SourceCompletionBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	/**
+	 * The number of times completions are asked for at each caret position
+	 * after the first.
+	 */
+	private static final int REPEATS = 20;
+
+	private static final String SOURCE = "package foo;\n\n" +
+		"import java.io.*;\nimport java.util.*;\n\n" +
+		"public class Foo extends AbstractList {\n\n" +
+		"\tprivate List<String> list = new ArrayList<String>();\n\n" +
+		"\tpublic Object get(int index) {\n" +
+		"\t\tStringBuffer sb = new StringBuffer();\n" +
+		"\t\tsb.append(index);\n" +
+		"\t\tlist.add(sb.toString());\n" +
+		"\t\tCollections.sort(list);\n" +
+		"\t\tString s = sb.toString();\n" +
+		"\t\treturn s;\n" +
+		"\t}\n\n" +
+		"\tpublic int size() {\n\t\treturn list.size();\n\t}\n\n" +
+		"}\n";
+
+	/**
+	 * The text up to each caret position that completions are asked for
+	 * at.
+	 */
+	private static final String[] ENTERED = {
+		"sb.ap", "list.ad", "Collections.so", "Str",
+	};
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args The jar.
+	 * @throws IOException If an IO error occurs.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		JavaCompletionProvider provider = new JavaCompletionProvider();
+		provider.addJar(new JarLibraryInfo(args[0]));
+		SourceCompletionProvider sourceProvider = (SourceCompletionProvider)
+									provider.getDefaultCompletionProvider();
+
+		RSyntaxTextArea textArea = new RSyntaxTextArea();
+		textArea.setSyntaxEditingStyle(SyntaxConstants.SYNTAX_STYLE_JAVA);
+		textArea.setText(SOURCE);
+		RSyntaxDocument doc = (RSyntaxDocument)textArea.getDocument();
+		JavaParser parser = new JavaParser(textArea);
+
+		for (int round=0; round<ROUNDS; round++) {
+
+			// A new compilation unit, as after the user stops typing.
+			parser.parse(doc, SyntaxConstants.SYNTAX_STYLE_JAVA);
+			provider.setCompilationUnit(parser.getCompilationUnit());
+
+			StringBuffer sb = new StringBuffer("Round " + (round+1) + ":");
+			for (int i=0; i<ENTERED.length; i++) {
+				String entered = ENTERED[i];
+				textArea.setCaretPosition(SOURCE.indexOf(entered) +
+										entered.length());
+				long start = System.nanoTime();
+				int count = sourceProvider.getCompletions(textArea).size();
+				long first = System.nanoTime() - start;
+				start = System.nanoTime();
+				for (int j=0; j<REPEATS; j++) {
+					sourceProvider.getCompletions(textArea);
+				}
+				long repeat = (System.nanoTime() - start) / REPEATS;
+				sb.append("  ").append(entered).append(": ").
+					append(first/1000).append(" us first, ").
+					append(repeat/1000).append(" us after (").
+					append(count).append(")");
+			}
+			System.out.println(sb);
+
+		}
+
+	}
+
+
+}
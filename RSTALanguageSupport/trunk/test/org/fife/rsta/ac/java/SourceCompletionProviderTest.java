@@ -0,0 +1,152 @@
+/*
+ * 10/19/2026
+ *
+ * SourceCompletionProviderTest.java - Tests completions as the build path
+ * changes.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.fife.rsta.ac.java.buildpath.ClasspathLibraryInfo;
+import org.fife.rsta.ac.java.buildpath.LibraryInfo;
+import org.fife.ui.autocomplete.Completion;
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
+
+import junit.framework.TestCase;
+
+
+/**
+ * Verifies that {@link SourceCompletionProvider} notices changes to the build
+ * path made directly through its {@link JarManager}, as applications do with
+ * a jar manager shared by several text areas, while the compilation unit
+ * stays the same.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class SourceCompletionProviderTest extends TestCase {
+
+	private static final String SOURCE = "package foo;\n\n" +
+		"import java.util.*;\n\n" +
+		"public class Foo {\n\n" +
+		"\tpublic void foo() {\n" +
+		"\t\tArrayList list = null;\n" +
+		"\t\tlist.ad\n" +
+		"\t\tArrayLi\n" +
+		"\t}\n\n" +
+		"}\n";
+
+	private JarManager jarManager;
+	private SourceCompletionProvider provider;
+	private RSyntaxTextArea textArea;
+	private LibraryInfo info;
+
+
+	/**
+	 * Returns whether completions are offered with some input text, with the
+	 * caret at the end of some text in the source.
+	 *
+	 * @param entered The text before the caret.
+	 * @param inputText The input text of the completion to look for.
+	 * @return Whether such a completion is offered.
+	 */
+	private boolean hasCompletion(String entered, String inputText) {
+		textArea.setCaretPosition(SOURCE.indexOf(entered) + entered.length());
+		List completions = provider.getCompletions(textArea);
+		for (Iterator i=completions.iterator(); i.hasNext(); ) {
+			Completion c = (Completion)i.next();
+			if (inputText.equals(c.getInputText())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	protected void setUp() throws Exception {
+
+		super.setUp();
+		jarManager = new JarManager();
+		JavaCompletionProvider javaProvider =
+								new JavaCompletionProvider(jarManager);
+		provider = (SourceCompletionProvider)javaProvider.
+										getDefaultCompletionProvider();
+		// ArrayList, and the classes and interfaces it extends.
+		info = new ClasspathLibraryInfo(new String[] {
+				"java.io.Serializable", "java.lang.Cloneable",
+				"java.lang.Iterable", "java.lang.Object",
+				"java.util.AbstractCollection", "java.util.AbstractList",
+				"java.util.ArrayList", "java.util.Collection",
+				"java.util.List", "java.util.RandomAccess",
+		});
+
+		textArea = new RSyntaxTextArea();
+		textArea.setSyntaxEditingStyle(SyntaxConstants.SYNTAX_STYLE_JAVA);
+		textArea.setText(SOURCE);
+		JavaParser parser = new JavaParser(null);
+		parser.parse((RSyntaxDocument)textArea.getDocument(),
+					SyntaxConstants.SYNTAX_STYLE_JAVA);
+		javaProvider.setCompilationUnit(parser.getCompilationUnit());
+		parser.uninstall();
+
+	}
+
+
+	public void testAddClassFileSource() throws Exception {
+		// Cache that the class can't be found.
+		assertFalse(hasCompletion("ArrayLi", "ArrayList"));
+		assertFalse(hasCompletion("list.ad", "add"));
+		jarManager.addClassFileSource(info);
+		assertTrue(hasCompletion("ArrayLi", "ArrayList"));
+		assertTrue(hasCompletion("list.ad", "add"));
+	}
+
+
+	public void testClearClassFileSources() throws Exception {
+		jarManager.addClassFileSource(info);
+		assertTrue(hasCompletion("ArrayLi", "ArrayList"));
+		assertTrue(hasCompletion("list.ad", "add"));
+		jarManager.clearClassFileSources();
+		assertFalse(hasCompletion("ArrayLi", "ArrayList"));
+		assertFalse(hasCompletion("list.ad", "add"));
+	}
+
+
+	public void testModificationCount() throws Exception {
+
+		long count = jarManager.getModificationCount();
+		jarManager.addClassFileSource(info);
+		assertTrue(jarManager.getModificationCount()>count);
+
+		// Adding the same source again changes nothing.
+		count = jarManager.getModificationCount();
+		assertFalse(jarManager.addClassFileSource(info));
+		assertEquals(count, jarManager.getModificationCount());
+
+		jarManager.removeClassFileSource(info);
+		assertTrue(jarManager.getModificationCount()>count);
+		count = jarManager.getModificationCount();
+		jarManager.clearClassFileSources();
+		assertTrue(jarManager.getModificationCount()>count);
+
+	}
+
+
+	public void testRemoveClassFileSource() throws Exception {
+		jarManager.addClassFileSource(info);
+		assertTrue(hasCompletion("ArrayLi", "ArrayList"));
+		assertTrue(hasCompletion("list.ad", "add"));
+		jarManager.removeClassFileSource(info);
+		assertFalse(hasCompletion("ArrayLi", "ArrayList"));
+		assertFalse(hasCompletion("list.ad", "add"));
+	}
+
+
+}
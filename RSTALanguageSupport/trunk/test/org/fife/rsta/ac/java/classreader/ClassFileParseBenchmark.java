@@ -0,0 +1,127 @@
+/*
+ * 10/19/2026
+ *
+ * ClassFileParseBenchmark.java - Times reading class files.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java.classreader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+
+/**
+ * A benchmark comparing reading every class in a jar into a
+ * {@link ClassFile} fully and in lightweight mode, by time and by the heap
+ * retained by the resulting <code>ClassFile</code>s.  The jar is read into
+ * memory first, so only parsing is timed.<p>
+ *
+ * Usage: <code>java org.fife.rsta.ac.java.classreader.ClassFileParseBenchmark
+ * jar</code>, e.g. a JRE's <tt>rt.jar</tt>.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class ClassFileParseBenchmark {
+
+	private static final int ROUNDS = 5;
+
+
+	/**
+	 * Returns the heap in use, after collecting garbage.
+	 *
+	 * @return The heap in use, in bytes.
+	 */
+	private static long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i=0; i<3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args The jar.
+	 * @throws IOException If an IO error occurs.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		List classes = readClasses(args[0]);
+		System.out.println(classes.size() + " classes");
+
+		for (int round=0; round<ROUNDS; round++) {
+			for (int mode=0; mode<2; mode++) {
+				boolean lightweight = mode==1;
+				long memory = getUsedMemory();
+				long start = System.nanoTime();
+				List classFiles = new ArrayList();
+				int failed = 0;
+				for (int i=0; i<classes.size(); i++) {
+					byte[] bytes = (byte[])classes.get(i);
+					DataInputStream in = new DataInputStream(
+									new ByteArrayInputStream(bytes));
+					try {
+						classFiles.add(new ClassFile(in, lightweight));
+					} catch (IOException ioe) {
+						failed++;
+					}
+				}
+				long time = System.nanoTime() - start;
+				memory = getUsedMemory() - memory;
+				System.out.println("Round " + (round+1) +
+						(lightweight ? ", lightweight: " : ", full: ") +
+						(time/1000000) + " ms, " + (memory/1024) + " KB " +
+						"retained (" + classFiles.size() + " read, " +
+						failed + " failed)");
+			}
+		}
+
+	}
+
+
+	/**
+	 * Reads the bytes of every class in a jar.
+	 *
+	 * @param jar The jar.
+	 * @return A list of <code>byte[]</code>s.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private static List readClasses(String jar) throws IOException {
+		List classes = new ArrayList();
+		ZipFile zipFile = new ZipFile(jar);
+		try {
+			byte[] buf = new byte[8192];
+			for (Enumeration e=zipFile.entries(); e.hasMoreElements(); ) {
+				ZipEntry entry = (ZipEntry)e.nextElement();
+				if (entry.getName().endsWith(".class")) {
+					InputStream in = zipFile.getInputStream(entry);
+					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					int count;
+					while ((count=in.read(buf))>-1) {
+						out.write(buf, 0, count);
+					}
+					in.close();
+					classes.add(out.toByteArray());
+				}
+			}
+		} finally {
+			zipFile.close();
+		}
+		return classes;
+	}
+
+
+}
@@ -0,0 +1,149 @@
+/*
+ * 10/19/2026
+ *
+ * ScannerBenchmark.java - Times lexing a large Java source file.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java.rjc.lexer;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
+
+import org.fife.io.DocumentReader;
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
+
+
+/**
+ * A benchmark comparing lexing a document with {@link Scanner}, reading it
+ * through a {@link DocumentReader} and scanning its text in place, as
+ * {@link org.fife.rsta.ac.java.JavaParser} does, by time and by the garbage
+ * created.<p>
+ *
+ * Usage: <code>java org.fife.rsta.ac.java.rjc.lexer.ScannerBenchmark
+ * file [size]</code>.  The file, a Java source file, is repeated until the
+ * document is at least <code>size</code> characters long (by default, 1 MB).
+ * Garbage is measured with the HotSpot-specific
+ * <code>com.sun.management.ThreadMXBean</code>.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class ScannerBenchmark {
+
+	private static final int ROUNDS = 5;
+
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far.
+	 *
+	 * @return The number of bytes.
+	 */
+	private static long getAllocatedBytes() {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)
+									ManagementFactory.getThreadMXBean();
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+
+	/**
+	 * Lexes a scanner's input to the end.
+	 *
+	 * @param s The scanner.
+	 * @return The number of tokens.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private static int lex(Scanner s) throws IOException {
+		int count = 0;
+		Token t = null;
+		while ((t=s.yylex())!=null) {
+			count++;
+		}
+		return count;
+	}
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args The source file, and optionally the document size.
+	 * @throws Exception If an error occurs.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		String source = readFile(args[0]);
+		int size = args.length>1 ? Integer.parseInt(args[1]) : 1024*1024;
+		RSyntaxDocument doc = new RSyntaxDocument(
+									SyntaxConstants.SYNTAX_STYLE_NONE);
+		while (doc.getLength()<size) {
+			doc.insertString(doc.getLength(), source, null);
+		}
+		System.out.println(doc.getLength() + " chars");
+
+		for (int round=0; round<ROUNDS; round++) {
+			for (int mode=0; mode<2; mode++) {
+				boolean array = mode==1;
+				long memory = getAllocatedBytes();
+				long start = System.nanoTime();
+				int count = lex(createScanner(doc, array));
+				long time = System.nanoTime() - start;
+				memory = getAllocatedBytes() - memory;
+				System.out.println("Round " + (round+1) +
+						(array ? ", char[]: " : ", DocumentReader: ") +
+						(time/1000000) + " ms, " + (memory/1024) + " KB " +
+						"allocated (" + count + " tokens)");
+			}
+		}
+
+	}
+
+
+	/**
+	 * Creates a scanner for a document.
+	 *
+	 * @param doc The document.
+	 * @param array Whether to scan its text in place, rather than reading
+	 *        it through a <code>DocumentReader</code>.
+	 * @return The scanner.
+	 * @throws BadLocationException Never.
+	 */
+	private static Scanner createScanner(RSyntaxDocument doc, boolean array)
+									throws BadLocationException {
+		if (array) {
+			Segment text = new Segment();
+			doc.getText(0, doc.getLength(), text);
+			return new Scanner(text.array, text.offset, text.count);
+		}
+		return new Scanner(new DocumentReader(doc));
+	}
+
+
+	/**
+	 * Reads a file.
+	 *
+	 * @param file The file.
+	 * @return The file's contents.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private static String readFile(String file) throws IOException {
+		StringBuffer sb = new StringBuffer();
+		FileReader r = new FileReader(file);
+		try {
+			char[] buf = new char[8192];
+			int count;
+			while ((count=r.read(buf))>-1) {
+				sb.append(buf, 0, count);
+			}
+		} finally {
+			r.close();
+		}
+		return sb.toString();
+	}
+
+
+}
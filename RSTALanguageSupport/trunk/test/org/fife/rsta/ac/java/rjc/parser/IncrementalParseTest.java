@@ -0,0 +1,365 @@
+/*
+ * 10/19/2026
+ *
+ * IncrementalParseTest.java - Tests re-parsing only an edited method body.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSTALanguageSupport.License.txt file for details.
+ */
+package org.fife.rsta.ac.java.rjc.parser;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Iterator;
+
+import javax.swing.text.BadLocationException;
+
+import org.fife.rsta.ac.java.JavaParser;
+import org.fife.rsta.ac.java.rjc.ast.CodeBlock;
+import org.fife.rsta.ac.java.rjc.ast.CompilationUnit;
+import org.fife.rsta.ac.java.rjc.ast.LocalVariable;
+import org.fife.rsta.ac.java.rjc.ast.Method;
+import org.fife.rsta.ac.java.rjc.ast.TypeDeclaration;
+import org.fife.rsta.ac.java.rjc.notices.ParserNotice;
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
+
+import junit.framework.TestCase;
+
+
+/**
+ * Verifies that when {@link JavaParser} re-parses only an edited method
+ * body, the result is the same as parsing the whole document again, and
+ * that it falls back to a full parse when the edit isn't confined to the
+ * body:
+ *
+ * <ul>
+ *    <li>Edits just inside and just outside a body's braces
+ *    <li>Edits that unbalance the braces in a body
+ *    <li>A comment that swallows a body's closing brace
+ *    <li>Parser notices before and after the edited body
+ * </ul>
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class IncrementalParseTest extends TestCase {
+
+	private static final String SOURCE = "package foo;\n\n" +
+		"import java.util.*;\n\n" +
+		"public class Foo {\n\n" +
+		"\tprivate List list = new ArrayList();\n\n" +
+		"\tpublic int first(int count) {\n" +
+		"\t\tint result = count * 2;\n" +
+		"\t\tfor (int i=0; i<count; i++) {\n" +
+		"\t\t\tString s = \"x\" + i;\n" +
+		"\t\t}\n" +
+		"\t\treturn result;\n" +
+		"\t}\n\n" +
+		"\tpublic void second() {\n" +
+		"\t\tlist.clear();\n" +
+		"\t}\n\n" +
+		"}\n";
+
+	/**
+	 * The start of the body of <code>first()</code>.
+	 */
+	private static final String BODY = "\t\tint result";
+
+	/**
+	 * The end of the body of <code>first()</code>.
+	 */
+	private static final String BODY_END = "\t}\n\n\tpublic void second";
+
+	/**
+	 * Statements the parser reports a notice for, but recovers from.
+	 */
+	private static final String DUPLICATE_VARS = "\t\tint a = 1;\n" +
+												"\t\tint a = 2;\n";
+
+	private RSyntaxDocument doc;
+	private JavaParser parser;
+	private int fullParses;
+	private int bodyParses;
+
+
+	/**
+	 * Appends a description of the types, methods, local variables and
+	 * parser notices in a compilation unit to a buffer, for comparing ASTs.
+	 */
+	private static void appendMembers(CompilationUnit cu, StringBuffer sb) {
+		for (Iterator i=cu.getTypeDeclarationIterator(); i.hasNext(); ) {
+			appendMembers((TypeDeclaration)i.next(), sb);
+		}
+		for (int i=0; i<cu.getParserNoticeCount(); i++) {
+			ParserNotice notice = cu.getParserNotice(i);
+			sb.append(notice).append(", ").append(notice.getLength()).
+				append('\n');
+		}
+	}
+
+
+	private static void appendMembers(CodeBlock block, StringBuffer sb) {
+		sb.append('{').append(block.getNameStartOffset()).append(',');
+		for (int i=0; i<block.getLocalVarCount(); i++) {
+			LocalVariable var = block.getLocalVar(i);
+			sb.append(var.getType()).append(' ').append(var.getName()).
+				append('@').append(var.getNameStartOffset()).append(',');
+		}
+		for (int i=0; i<block.getChildBlockCount(); i++) {
+			appendMembers(block.getChildBlock(i), sb);
+		}
+		sb.append('}').append(block.getNameEndOffset());
+	}
+
+
+	private static void appendMembers(TypeDeclaration td, StringBuffer sb) {
+		sb.append(td.getName()).append(td.getBodyStartOffset()).append(',').
+			append(td.getBodyEndOffset()).append('\n');
+		for (Iterator i=td.getMethodIterator(); i.hasNext(); ) {
+			Method m = (Method)i.next();
+			sb.append(m.getName()).append(m.getNameStartOffset());
+			if (m.getBody()!=null) {
+				appendMembers(m.getBody(), sb);
+			}
+			sb.append('\n');
+		}
+		for (int i=0; i<td.getChildTypeCount(); i++) {
+			appendMembers(td.getChildType(i), sb);
+		}
+	}
+
+
+	/**
+	 * Asserts that the last parse re-parsed only a method body, or the
+	 * whole document, and that its result is the same as a full parse.
+	 *
+	 * @param incremental Whether only a method body should have been
+	 *        re-parsed.
+	 */
+	private void assertParsed(boolean incremental) {
+
+		assertEquals(incremental ? 1 : 0, bodyParses);
+		assertEquals(incremental ? 0 : 1, fullParses);
+
+		JavaParser fullParser = new JavaParser(null);
+		fullParser.setIncremental(false);
+		fullParser.parse(doc, SyntaxConstants.SYNTAX_STYLE_JAVA);
+		StringBuffer expected = new StringBuffer();
+		appendMembers(fullParser.getCompilationUnit(), expected);
+		fullParser.uninstall();
+
+		StringBuffer actual = new StringBuffer();
+		appendMembers(parser.getCompilationUnit(), actual);
+		assertEquals(expected.toString(), actual.toString());
+
+	}
+
+
+	/**
+	 * Returns the offset of text in the document.
+	 *
+	 * @param text The text.
+	 * @return The offset of its first occurrence.
+	 */
+	private int indexOf(String text) throws BadLocationException {
+		return doc.getText(0, doc.getLength()).indexOf(text);
+	}
+
+
+	/**
+	 * Inserts text into the document and parses it again.
+	 *
+	 * @param offs The offset to insert at.
+	 * @param text The text to insert.
+	 */
+	private void insertAndParse(int offs, String text)
+									throws BadLocationException {
+		doc.insertString(offs, text, null);
+		parse();
+	}
+
+
+	/**
+	 * Parses the document, counting the kinds of parses done.
+	 */
+	private void parse() {
+		fullParses = bodyParses = 0;
+		parser.parse(doc, SyntaxConstants.SYNTAX_STYLE_JAVA);
+	}
+
+
+	/**
+	 * Replaces the document's contents and does a full parse.
+	 *
+	 * @param text The new contents.
+	 */
+	private void setSource(String text) throws BadLocationException {
+		doc.remove(0, doc.getLength());
+		doc.insertString(0, text, null);
+		parser.uninstall();
+		parse();
+	}
+
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		doc = new RSyntaxDocument(SyntaxConstants.SYNTAX_STYLE_JAVA);
+		doc.insertString(0, SOURCE, null);
+		parser = new JavaParser(null);
+		parser.addPropertyChangeListener(JavaParser.PROPERTY_COMPILATION_UNIT,
+				new PropertyChangeListener() {
+					public void propertyChange(PropertyChangeEvent e) {
+						fullParses++;
+					}
+				});
+		parser.addPropertyChangeListener(JavaParser.PROPERTY_METHOD_BODY,
+				new PropertyChangeListener() {
+					public void propertyChange(PropertyChangeEvent e) {
+						bodyParses++;
+					}
+				});
+		parse();
+	}
+
+
+	protected void tearDown() throws Exception {
+		parser.uninstall();
+		super.tearDown();
+	}
+
+
+	public void testCommentSwallowsClosingBrace() throws Exception {
+		// The comment is closed by the next method's Javadoc.
+		setSource(SOURCE.replaceAll("\t(public void second)",
+									"\t/** Second. */\n\t$1"));
+		assertParsed(false);
+		insertAndParse(indexOf(BODY), "/*");
+		assertParsed(false);
+	}
+
+
+	public void testUnterminatedComment() throws Exception {
+		insertAndParse(indexOf(BODY), "/*");
+		assertParsed(true);
+	}
+
+
+	public void testInsertJustAfterClosingBrace() throws Exception {
+		insertAndParse(indexOf(BODY_END)+2, "\n\tint x;");
+		assertParsed(false);
+	}
+
+
+	public void testInsertJustAfterOpeningBrace() throws Exception {
+		int offs = indexOf(BODY) - 1;
+		assertEquals('{', SOURCE.charAt(offs-1));
+		insertAndParse(offs, " int added = 1;");
+		assertParsed(true);
+	}
+
+
+	public void testInsertJustBeforeClosingBrace() throws Exception {
+		int offs = indexOf(BODY_END) + 1;
+		assertEquals('}', SOURCE.charAt(offs));
+		insertAndParse(offs, "int added = 1; ");
+		assertParsed(true);
+	}
+
+
+	public void testInsertJustBeforeOpeningBrace() throws Exception {
+		int offs = indexOf(BODY) - 2;
+		assertEquals('{', SOURCE.charAt(offs));
+		insertAndParse(offs, "throws Exception ");
+		assertParsed(false);
+	}
+
+
+	public void testInsertLines() throws Exception {
+		insertAndParse(indexOf(BODY), "\t\tString a = \"a\";\n\n\n");
+		assertParsed(true);
+		// Offsets after the body must have moved in the existing AST.
+		insertAndParse(indexOf(BODY), "\t\tString b = \"b\";\n");
+		assertParsed(true);
+	}
+
+
+	public void testNoticeAfterBody() throws Exception {
+		insertAndParse(indexOf("\t\tlist.clear();"), DUPLICATE_VARS);
+		assertParsed(true);
+		assertEquals(1, parser.getCompilationUnit().getParserNoticeCount());
+		insertAndParse(indexOf(BODY), "\t\tint added = 1;\n\n");
+		assertParsed(true);
+	}
+
+
+	public void testNoticeBeforeBody() throws Exception {
+		insertAndParse(indexOf("\tpublic int first"),
+				"\tpublic void zero() {\n" + DUPLICATE_VARS + "\t}\n\n");
+		assertParsed(false);
+		assertEquals(1, parser.getCompilationUnit().getParserNoticeCount());
+		insertAndParse(indexOf(BODY), "\t\tint added = 1;\n\n");
+		assertParsed(true);
+	}
+
+
+	public void testNoticeInBodyFixed() throws Exception {
+		int offs = indexOf(BODY);
+		insertAndParse(offs, DUPLICATE_VARS);
+		assertParsed(true);
+		assertEquals(1, parser.getCompilationUnit().getParserNoticeCount());
+		doc.remove(offs, DUPLICATE_VARS.length());
+		parse();
+		assertParsed(true);
+		assertEquals(0, parser.getCompilationUnit().getParserNoticeCount());
+	}
+
+
+	public void testRemoveInsideBody() throws Exception {
+		int offs = indexOf("\t\tfor (");
+		int end = indexOf("\t\treturn");
+		doc.remove(offs, end-offs);
+		parse();
+		assertParsed(true);
+	}
+
+
+	public void testRemoveOpeningBrace() throws Exception {
+		doc.remove(indexOf(BODY)-2, 1);
+		parse();
+		assertParsed(false);
+	}
+
+
+	public void testSetSource() throws Exception {
+		setSource(SOURCE.replaceAll("first", "third"));
+		assertParsed(false);
+		insertAndParse(indexOf(BODY), "\t\tint added = 1;\n");
+		assertParsed(true);
+	}
+
+
+	public void testUnbalancedCloseBrace() throws Exception {
+		insertAndParse(indexOf(BODY), "\t\t}\n");
+		assertParsed(false);
+	}
+
+
+	public void testUnbalancedOpenBrace() throws Exception {
+		insertAndParse(indexOf(BODY), "\t\tif (count>1) {\n");
+		assertParsed(false);
+	}
+
+
+	public void testUninstall() throws Exception {
+		int listenerCount = doc.getDocumentListeners().length;
+		parser.uninstall();
+		assertEquals(listenerCount-1, doc.getDocumentListeners().length);
+		// The next parse is a full one, since changes weren't tracked.
+		insertAndParse(indexOf(BODY), "\t\tint added = 1;\n");
+		assertParsed(false);
+		assertEquals(listenerCount, doc.getDocumentListeners().length);
+	}
+
+
+}
@@ -0,0 +1,209 @@
+/*
+ * 10/18/2026
+ *
+ * PageBreakCache.java - Remembers where each printed page starts in a
+ * document.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.print;
+
+import java.lang.ref.WeakReference;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+
+import org.fife.util.DynamicIntArray;
+
+
+/**
+ * Remembers the position at which each page of a printed document starts.<p>
+ *
+ * A <code>PrinterJob</code> asks a <code>Printable</code> for its pages one
+ * at a time, and usually asks for the same page more than once.  Without
+ * knowing where page <code>n</code> starts, a <code>Printable</code> must
+ * lay out every line of the document before it, making printing of a large
+ * document quadratic in its number of lines.  This class records the
+ * location of each page break as it is discovered, so laying out page
+ * <code>n</code> can start from the beginning of page <code>n</code> (or
+ * from the last page break found so far).<p>
+ *
+ * A page start is described by two integers: the document line the page
+ * starts on, and an offset into that line.  What the offset means is up to
+ * the caller (e.g. an offset into the line's text, or into its text with
+ * tabs expanded), as long as it is consistent for a given layout.<p>
+ *
+ * The cached page breaks are discarded whenever the document being printed
+ * is modified, or when a different document or layout is printed.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class PageBreakCache implements DocumentListener {
+
+	/**
+	 * The document whose page breaks are cached.  This is weakly referenced
+	 * so a cache kept around statically doesn't keep the document alive.
+	 */
+	private WeakReference docRef;
+
+	/**
+	 * Describes the layout (font, page size, tab size, etc.) the cached page
+	 * breaks were computed for.
+	 */
+	private Object layoutKey;
+
+	/**
+	 * The document line each known page starts on.
+	 */
+	private DynamicIntArray pageLines;
+
+	/**
+	 * The offset into its starting line at which each known page starts.
+	 */
+	private DynamicIntArray pageOffsets;
+
+
+	/**
+	 * Constructor.
+	 */
+	public PageBreakCache() {
+		pageLines = new DynamicIntArray();
+		pageOffsets = new DynamicIntArray();
+	}
+
+
+	/**
+	 * Records the start of the next page.  Pages must be added in order,
+	 * starting with page <code>0</code>.
+	 *
+	 * @param line The document line the page starts on.
+	 * @param offs The offset into <code>line</code> at which the page
+	 *        starts.
+	 * @see #getPageCount()
+	 */
+	public void addPageStart(int line, int offs) {
+		pageLines.add(line);
+		pageOffsets.add(offs);
+	}
+
+
+	/**
+	 * Called when the document being printed is modified.  This discards all
+	 * cached page breaks.
+	 *
+	 * @param e The document event.
+	 */
+	public void changedUpdate(DocumentEvent e) {
+		clear();
+	}
+
+
+	/**
+	 * Discards all cached page breaks.
+	 */
+	public void clear() {
+		pageLines.clear();
+		pageOffsets.clear();
+	}
+
+
+	/**
+	 * Returns the number of pages whose starting positions are known.
+	 *
+	 * @return The number of known pages.
+	 * @see #addPageStart(int, int)
+	 */
+	public int getPageCount() {
+		return pageLines.getSize();
+	}
+
+
+	/**
+	 * Returns the document line the specified page starts on.
+	 *
+	 * @param page The page.  This must be less than
+	 *        {@link #getPageCount()}.
+	 * @return The line the page starts on.
+	 * @see #getPageStartOffset(int)
+	 */
+	public int getPageStartLine(int page) {
+		return pageLines.get(page);
+	}
+
+
+	/**
+	 * Returns the offset into its starting line at which the specified page
+	 * starts.
+	 *
+	 * @param page The page.  This must be less than
+	 *        {@link #getPageCount()}.
+	 * @return The offset into the page's starting line.
+	 * @see #getPageStartLine(int)
+	 */
+	public int getPageStartOffset(int page) {
+		return pageOffsets.get(page);
+	}
+
+
+	/**
+	 * Called when text is inserted into the document being printed.  This
+	 * discards all cached page breaks.
+	 *
+	 * @param e The document event.
+	 */
+	public void insertUpdate(DocumentEvent e) {
+		clear();
+	}
+
+
+	/**
+	 * Called when text is removed from the document being printed.  This
+	 * discards all cached page breaks.
+	 *
+	 * @param e The document event.
+	 */
+	public void removeUpdate(DocumentEvent e) {
+		clear();
+	}
+
+
+	/**
+	 * Ensures this cache is valid for printing the specified document with
+	 * the specified layout.  If either is different from what the cached
+	 * page breaks were computed for, they are discarded.  After this method
+	 * returns, page <code>0</code> is always known.
+	 *
+	 * @param doc The document about to be printed.
+	 * @param layoutKey Describes all properties that affect where page
+	 *        breaks fall, such as the font, the page's imageable area and
+	 *        the tab size.  The cached page breaks are kept only if this is
+	 *        <code>equals()</code> to the previous key, so it must be
+	 *        immutable, or a copy.
+	 */
+	public void validate(Document doc, Object layoutKey) {
+
+		Document old = docRef==null ? null : (Document)docRef.get();
+		if (old!=doc) {
+			if (old!=null) {
+				old.removeDocumentListener(this);
+			}
+			doc.addDocumentListener(this);
+			docRef = new WeakReference(doc);
+			clear();
+		}
+
+		if (!layoutKey.equals(this.layoutKey)) {
+			this.layoutKey = layoutKey;
+			clear();
+		}
+
+		if (getPageCount()==0) {
+			addPageStart(0, 0);
+		}
+
+	}
+
+
+}
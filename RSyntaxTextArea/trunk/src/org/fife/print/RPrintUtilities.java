@@ -32,9 +32,9 @@ import java.awt.print.*;
  */
 public abstract class RPrintUtilities {
 
-	private static int currentDocLineNumber;		// The line number in the document we are currently on.
-	private static int numDocLines;				// The number of lines in the current document.
-	private static Element rootElement;			// The first Element (line) in the current document.
+	// Where each page starts in the document last printed.  This keeps us
+	// from laying out every page before the one being printed on each call.
+	private static final PageBreakCache pageBreakCache = new PageBreakCache();
 
 	// The characters at which to break a line if implementing word wrap.
 	private static final char [] breakChars = { ' ', '\t', ',', '.', ';', '?', '!' };
@@ -46,33 +46,103 @@ public abstract class RPrintUtilities {
 
 
 	/**
-	 * Returns the position closest to, but before, position <code>maxCharsPerLine</code> in
-	 * <code>line</code> of one of the chars in <code>breakChars</code>, or simply returns
-	 * <code>maxCharsPerLine-1</code> if none of the <code>breakChars</code> comes before
-	 * that position.  This position represents the logical line break for this <code>java.lang.String</code>
-	 * if it is being printed in a monospaced font when lines can only be <code>maxCharsPerLine</code>
-	 * characters long.
+	 * Returns the text of a line in a document, with its newline removed and
+	 * its tabs expanded to spaces.
+	 *
+	 * @param doc The document.
+	 * @param line The line's element.
+	 * @param seg A segment to use when fetching the text.
+	 * @param sb A buffer to use when expanding tabs.
+	 * @return The expanded text of the line.
+	 * @throws BadLocationException Should never happen.
+	 */
+	private static String getExpandedLineText(Document doc, Element line,
+			Segment seg, StringBuffer sb) throws BadLocationException {
+
+		int startOffs = line.getStartOffset();
+		doc.getText(startOffs, line.getEndOffset()-startOffs, seg);
+
+		// Get rid of newlines, because they end up as boxes if you don't;
+		// this is a monospaced font.  Also replace tabs with how many
+		// spaces they should be.
+		sb.setLength(0);
+		int end = seg.offset + seg.count;
+		for (int i=seg.offset; i<end; i++) {
+			char ch = seg.array[i];
+			switch (ch) {
+				case '\n':
+					break;
+				case '\t':
+					if (tabSizeInSpaces>0) {
+						int spacesNeeded = tabSizeInSpaces -
+										(sb.length() % tabSizeInSpaces);
+						for (int j=0; j<spacesNeeded; j++) {
+							sb.append(' ');
+						}
+					}
+					break;
+				default:
+					sb.append(ch);
+					break;
+			}
+		}
+
+		return sb.toString();
+
+	}
+
+
+	/**
+	 * Returns the position closest to, but before, position
+	 * <code>start+maxCharsPerLine</code> in <code>line</code> of one of the
+	 * chars in <code>breakChars</code>, or simply returns
+	 * <code>start+maxCharsPerLine-1</code> if none of the
+	 * <code>breakChars</code> comes between <code>start</code> and that
+	 * position.  This position represents the logical line break for this
+	 * <code>java.lang.String</code> if it is being printed in a monospaced
+	 * font when lines can only be <code>maxCharsPerLine</code> characters
+	 * long.
 	 *
 	 * @param line The text being printed.
+	 * @param start The offset into <code>line</code> of the first character
+	 *        not yet printed.
 	 * @param maxCharsPerLine Only up-to this many characters from
 	 *        <code>line</code> can be printed on one line.
 	 * @return The logical position at which to stop printing <code>line</code>
 	 *         to simulate word wrap.
 	 */
-	private static int getLineBreakPoint(String line, final int maxCharsPerLine) {
+	private static int getLineBreakPoint(String line, int start,
+									final int maxCharsPerLine) {
 
 		int breakPoint = -1;
 		for (int i=0; i<breakChars.length; i++) {
-			int breakCharPos = line.lastIndexOf(breakChars[i], maxCharsPerLine-1);
+			int breakCharPos = line.lastIndexOf(breakChars[i],
+											start+maxCharsPerLine-1);
 			if (breakCharPos > breakPoint)
 				breakPoint = breakCharPos;
 		}
 
-		return (breakPoint==-1 ? maxCharsPerLine-1 : breakPoint);
+		return (breakPoint<start ? start+maxCharsPerLine-1 : breakPoint);
 
 	}
 
 
+	/**
+	 * Returns the page break cache, validated for printing the specified
+	 * document with the specified layout.
+	 *
+	 * @param doc The document being printed.
+	 * @param layoutKey Describes the properties that affect where page
+	 *        breaks fall.
+	 * @return The page break cache.
+	 */
+	private static PageBreakCache getPageBreakCache(Document doc,
+											String layoutKey) {
+		pageBreakCache.validate(doc, layoutKey);
+		return pageBreakCache;
+	}
+
+
 	/**
 	 * Prints a <code>Document</code> using a monospaced font, and does no word wrapping (ie,
 	 * words will wrap mid-word to the next line).  This method is expected to be called from
@@ -89,6 +159,35 @@ public abstract class RPrintUtilities {
 	 */
 	public static int printDocumentMonospaced(Graphics g, Document doc, int fontSize, int pageIndex,
 							PageFormat pageFormat, int tabSize) {
+		return printDocumentMonospacedImpl(g, doc, fontSize, pageIndex,
+									pageFormat, tabSize, false);
+	}
+
+
+	/**
+	 * Prints a <code>Document</code> using a monospaced font, optionally
+	 * word wrapping.<p>
+	 *
+	 * Rather than laying out the whole document up to <code>pageIndex</code>
+	 * each time it's called, this method starts at the closest preceding
+	 * page whose starting position is already known, so printing an entire
+	 * document is linear in its size.
+	 *
+	 * @param g The graphics context to write to.
+	 * @param doc The <code>javax.swing.text.Document</code> to print.
+	 * @param fontSize the point size to use for the monospaced font.
+	 * @param pageIndex The page number to print.
+	 * @param pageFormat The format to print the page with.
+	 * @param tabSize The number of spaces to expand tabs to.
+	 * @param wordWrap Whether to break lines at one of the
+	 *        <code>breakChars</code> rather than mid-word.
+	 * @see #printDocumentMonospaced
+	 * @see #printDocumentMonospacedWordWrap
+	 */
+	private static int printDocumentMonospacedImpl(Graphics g, Document doc,
+							int fontSize, int pageIndex,
+							PageFormat pageFormat, int tabSize,
+							boolean wordWrap) {
 
 		g.setColor(Color.BLACK);
 		g.setFont(new Font("Monospaced", Font.PLAIN, fontSize));
@@ -97,17 +196,14 @@ public abstract class RPrintUtilities {
 		tabSizeInSpaces = tabSize;
 		fm = g.getFontMetrics();
 
-		// Create our tab expander.
-		//RPrintTabExpander tabExpander = new RPrintTabExpander();
-
 		// Get width and height of characters in this monospaced font.
 		int fontWidth = fm.charWidth('w');	// Any character will do as font is monospaced.
 		int fontHeight = fm.getHeight();
 
-		int MAX_CHARS_PER_LINE = (int)pageFormat.getImageableWidth() / fontWidth;
-		int MAX_LINES_PER_PAGE = (int)pageFormat.getImageableHeight() / fontHeight;
-
-		final int STARTING_LINE_NUMBER = MAX_LINES_PER_PAGE * pageIndex;
+		final int MAX_CHARS_PER_LINE = Math.max(1,
+						(int)pageFormat.getImageableWidth() / fontWidth);
+		final int MAX_LINES_PER_PAGE = Math.max(1,
+						(int)pageFormat.getImageableHeight() / fontHeight);
 
 		// The (x,y) coordinate to print at (in pixels, not characters).
 		// Since y is the baseline of where we'll start printing (not the top-left
@@ -115,80 +211,75 @@ public abstract class RPrintUtilities {
 		xOffset = (int)pageFormat.getImageableX();
 		int y = (int)pageFormat.getImageableY() + fm.getAscent() + 1;
 
-		// A counter to keep track of the number of lines that WOULD HAVE been
-		// printed if we were printing all lines.
-		int numPrintedLines = 0;
+		// Start at the last known page break at or before the page we're
+		// printing.  Page breaks are recorded as (line, offset into the
+		// line's tab-expanded text).
+		String layoutKey = (wordWrap ? "monospacedWordWrap," : "monospaced,") +
+						fontSize + "," + tabSize + "," +
+						MAX_CHARS_PER_LINE + "," + MAX_LINES_PER_PAGE;
+		PageBreakCache cache = getPageBreakCache(doc, layoutKey);
+		int page = Math.min(pageIndex, cache.getPageCount()-1);
+		int currentDocLineNumber = cache.getPageStartLine(page);
+		int start = cache.getPageStartOffset(page);
+		int linesOnPage = 0;
+
+		Element rootElement = doc.getDefaultRootElement();
+		int numDocLines = rootElement.getElementCount();
+		Segment seg = new Segment();
+		StringBuffer sb = new StringBuffer();
 
 		// Keep going while there are more lines in the document.
-		currentDocLineNumber = 0;						// The line number of the document we're currently on.
-		rootElement = doc.getDefaultRootElement();		// To shorten accesses in our loop.
-		numDocLines = rootElement.getElementCount();	// The number of lines in our document.
 		while (currentDocLineNumber<numDocLines) {
 
 			// Get the line we are going to print.
 			String curLineString;
-			Element currentLine = rootElement.getElement(currentDocLineNumber);
-			int startOffs = currentLine.getStartOffset();
 			try {
-				curLineString = doc.getText(startOffs, currentLine.getEndOffset()-startOffs);
+				curLineString = getExpandedLineText(doc,
+						rootElement.getElement(currentDocLineNumber), seg, sb);
 			} catch (BadLocationException ble) { // Never happens
 				ble.printStackTrace();
 				return Printable.NO_SUCH_PAGE;
 			}
 
-			// Get rid of newlines, because they end up as boxes if you don't; this is a monospaced font.
-			curLineString = curLineString.replaceAll("\n", "");
+			// If this document line is too long to fit on one printed line
+			// on the page, break it up into multiple lines.  Note that we
+			// always print at least one (possibly empty) line.
+			do {
 
-			// Replace tabs with how many spaces they should be.
-			if (tabSizeInSpaces == 0) {
-				curLineString = curLineString.replaceAll("\t", "");
-			}
-			else {
-				int tabIndex = curLineString.indexOf('\t');
-				while (tabIndex > -1) {
-					int spacesNeeded = tabSizeInSpaces - (tabIndex % tabSizeInSpaces);
-					String replacementString = "";
-					for (int i=0; i<spacesNeeded; i++)
-						replacementString += ' ';
-					// Note that "\t" is actually a regex for this method.
-					curLineString = curLineString.replaceFirst("\t", replacementString);
-					tabIndex = curLineString.indexOf('\t');
+				int end = curLineString.length();
+				if (end-start > MAX_CHARS_PER_LINE) {
+					end = wordWrap ? getLineBreakPoint(curLineString, start,
+												MAX_CHARS_PER_LINE) + 1 :
+									start + MAX_CHARS_PER_LINE;
 				}
-			}
-
-			// If this document line is too long to fit on one printed line on the page,
-			// break it up into multpile lines.
-			while (curLineString.length() > MAX_CHARS_PER_LINE) {
 
-				numPrintedLines++;
-				if (numPrintedLines > STARTING_LINE_NUMBER) {
-						g.drawString(curLineString.substring(0,MAX_CHARS_PER_LINE), xOffset,y);
-						y += fontHeight;
-						if (numPrintedLines==STARTING_LINE_NUMBER+MAX_LINES_PER_PAGE)
-							return Printable.PAGE_EXISTS;
-	 			}
+				if (linesOnPage==MAX_LINES_PER_PAGE) {
+					if (page==pageIndex) {
+						return Printable.PAGE_EXISTS;
+					}
+					page++;
+					linesOnPage = 0;
+					if (page==cache.getPageCount()) {
+						cache.addPageStart(currentDocLineNumber, start);
+					}
+				}
 
-				curLineString = curLineString.substring(MAX_CHARS_PER_LINE, curLineString.length());
+				if (page==pageIndex) {
+					g.drawString(curLineString.substring(start, end), xOffset,y);
+					y += fontHeight;
+				}
+				linesOnPage++;
+				start = end;
 
-			}
+			} while (start<curLineString.length());
 
 			currentDocLineNumber += 1; // We have printed one more line from the document.
-
-			numPrintedLines++;
-			if (numPrintedLines>STARTING_LINE_NUMBER) {
-				g.drawString(curLineString, xOffset,y);
-				y += fontHeight;
-				if (numPrintedLines==STARTING_LINE_NUMBER+MAX_LINES_PER_PAGE)
-					return Printable.PAGE_EXISTS;
-			}
-
+			start = 0;
 
 		}
 
 		// Now, the whole document has been "printed."  Decide if this page had any text on it or not.
-		if (numPrintedLines > STARTING_LINE_NUMBER)
-			return Printable.PAGE_EXISTS;
-		return Printable.NO_SUCH_PAGE;
+		return page==pageIndex ? Printable.PAGE_EXISTS : Printable.NO_SUCH_PAGE;
 
 	}
 
@@ -210,109 +301,8 @@ public abstract class RPrintUtilities {
 	public static int printDocumentMonospacedWordWrap(Graphics g, Document doc,
 								int fontSize, int pageIndex,
 								PageFormat pageFormat, int tabSize) {
-
-		g.setColor(Color.BLACK);
-		g.setFont(new Font("Monospaced", Font.PLAIN, fontSize));
-
-		// Initialize our static variables (these are used by our tab expander below).
-		tabSizeInSpaces = tabSize;
-		fm = g.getFontMetrics();
-
-		// Create our tab expander.
-		//RPrintTabExpander tabExpander = new RPrintTabExpander();
-
-		// Get width and height of characters in this monospaced font.
-		int fontWidth = fm.charWidth('w'); 	// Any character will do here, since font is monospaced.
-		int fontHeight = fm.getHeight();
-
-		int MAX_CHARS_PER_LINE = (int)pageFormat.getImageableWidth() / fontWidth;
-		int MAX_LINES_PER_PAGE = (int)pageFormat.getImageableHeight() / fontHeight;
-
-		final int STARTING_LINE_NUMBER = MAX_LINES_PER_PAGE * pageIndex;
-
-		// The (x,y) coordinate to print at (in pixels, not characters).
-		// Since y is the baseline of where we'll start printing (not the top-left
-		// corner), we offset it by the font's ascent ( + 1 just for good measure).
-		xOffset = (int)pageFormat.getImageableX();
-		int y = (int)pageFormat.getImageableY() + fm.getAscent() + 1;
-
-		// A counter to keep track of the number of lines that WOULD HAVE been
-		// printed if we were printing all lines.
-		int numPrintedLines = 0;
-
-		// Keep going while there are more lines in the document.
-		currentDocLineNumber = 0;						// The line number of the document we're currently on.
-		rootElement = doc.getDefaultRootElement();		// To shorten accesses in our loop.
-		numDocLines = rootElement.getElementCount();	// The number of lines in our document.
-		while (currentDocLineNumber<numDocLines) {
-
-			// Get the line we are going to print.
-			String curLineString;
-			Element currentLine = rootElement.getElement(currentDocLineNumber);
-			int startOffs = currentLine.getStartOffset();
-			try {
-				curLineString = doc.getText(startOffs, currentLine.getEndOffset()-startOffs);
-			} catch (BadLocationException ble) { // Never happens
-				ble.printStackTrace();
-				return Printable.NO_SUCH_PAGE;
-			}
-
-			// Remove newlines, because they end up as boxes if you don't; this is a monospaced font.
-			curLineString = curLineString.replaceAll("\n", "");
-
-			// Replace tabs with how many spaces they should be.
-			if (tabSizeInSpaces == 0) {
-				curLineString = curLineString.replaceAll("\t", "");
-			}
-			else {
-				int tabIndex = curLineString.indexOf('\t');
-				while (tabIndex > -1) {
-					int spacesNeeded = tabSizeInSpaces - (tabIndex % tabSizeInSpaces);
-					String replacementString = "";
-					for (int i=0; i<spacesNeeded; i++)
-						replacementString += ' ';
-					// Note that "\t" is actually a regex for this method.
-					curLineString = curLineString.replaceFirst("\t", replacementString);
-					tabIndex = curLineString.indexOf('\t');
-				}
-			}
-
-			// If this document line is too long to fit on one printed line on the page,
-			// break it up into multpile lines.
-			while (curLineString.length() > MAX_CHARS_PER_LINE) {
-
-				int breakPoint = getLineBreakPoint(curLineString, MAX_CHARS_PER_LINE) + 1;
-
-				numPrintedLines++;
-				if (numPrintedLines > STARTING_LINE_NUMBER) {
-						g.drawString(curLineString.substring(0,breakPoint), xOffset,y);
-						y += fontHeight;
-						if (numPrintedLines==STARTING_LINE_NUMBER+MAX_LINES_PER_PAGE)
-							return Printable.PAGE_EXISTS;
-	 			}
-
-				curLineString = curLineString.substring(breakPoint, curLineString.length());
-
-			}
-
-			currentDocLineNumber += 1; // We have printed one more line from the document.
-
-			numPrintedLines++;
-			if (numPrintedLines>STARTING_LINE_NUMBER) {
-				g.drawString(curLineString, xOffset,y);
-				y += fontHeight;
-				if (numPrintedLines==STARTING_LINE_NUMBER+MAX_LINES_PER_PAGE)
-					return Printable.PAGE_EXISTS;
-			}
-
-
-		}
-
-		// Now, the whole document has been "printed."  Decide if this page had any text on it or not.
-		if (numPrintedLines > STARTING_LINE_NUMBER)
-			return Printable.PAGE_EXISTS;
-		return Printable.NO_SUCH_PAGE;
-
+		return printDocumentMonospacedImpl(g, doc, fontSize, pageIndex,
+									pageFormat, tabSize, true);
 	}
 
 
@@ -346,9 +336,8 @@ public abstract class RPrintUtilities {
 		int fontHeight = fm.getHeight();
 
 		final int LINE_LENGTH_IN_PIXELS = (int)pageFormat.getImageableWidth();
-		final int MAX_LINES_PER_PAGE = (int)pageFormat.getImageableHeight() / fontHeight;
-
-		final int STARTING_LINE_NUMBER = MAX_LINES_PER_PAGE * pageIndex;
+		final int MAX_LINES_PER_PAGE = Math.max(1,
+						(int)pageFormat.getImageableHeight() / fontHeight);
 
 		// Create our tab expander.
 		RPrintTabExpander tabExpander = new RPrintTabExpander();
@@ -359,20 +348,30 @@ public abstract class RPrintUtilities {
 		xOffset = (int)pageFormat.getImageableX();
 		int y = (int)pageFormat.getImageableY() + fm.getAscent() + 1;
 
-		// A counter to keep track of the number of lines that WOULD HAVE been
-		// printed if we were printing all lines.
-		int numPrintedLines = 0;
+		// Start at the last known page break at or before the page we're
+		// printing.  Page breaks are recorded as (line, offset into line).
+		Document doc = textComponent.getDocument();
+		Font f = g.getFont();
+		String layoutKey = "wordWrap," + f.getName() + "," + f.getStyle() +
+						"," + f.getSize2D() + "," + tabSize + "," +
+						LINE_LENGTH_IN_PIXELS + "," + MAX_LINES_PER_PAGE;
+		PageBreakCache cache = getPageBreakCache(doc, layoutKey);
+		int page = Math.min(pageIndex, cache.getPageCount()-1);
+		int linesOnPage = 0;
 
 		// Keep going while there are more lines in the document.
-		Document doc = textComponent.getDocument();
-		rootElement = doc.getDefaultRootElement();
-		numDocLines = rootElement.getElementCount();		// The number of lines in our document.
-		currentDocLineNumber = 0;					// The line number of the document we're currently on.
-		int startingOffset = 0;						// Used when a line is so long it has to be wrapped.
+		Element rootElement = doc.getDefaultRootElement();
+		int numDocLines = rootElement.getElementCount();		// The number of lines in our document.
+		int currentDocLineNumber = cache.getPageStartLine(page);	// The line number of the document we're currently on.
+		int startingOffset = cache.getPageStartOffset(page);	// Used when a line is so long it has to be wrapped.
 		while (currentDocLineNumber<numDocLines) {
 
 			Segment currentLineSeg = new Segment();
 
+			// Where this printed line starts, in case it starts a new page.
+			int printedLineStartLine = currentDocLineNumber;
+			int printedLineStartOffset = startingOffset;
+
 			// Get the current line (as an Element), and its starting and ending offset in doc.
 			Element currentLine  = rootElement.getElement(currentDocLineNumber);
 			int currentLineStart = currentLine.getStartOffset();
@@ -469,21 +468,29 @@ public abstract class RPrintUtilities {
 
 			} // End of else.
 
-			numPrintedLines++;
-			if (numPrintedLines>STARTING_LINE_NUMBER) {
+			if (linesOnPage==MAX_LINES_PER_PAGE) {
+				if (page==pageIndex) {
+					return Printable.PAGE_EXISTS;
+				}
+				page++;
+				linesOnPage = 0;
+				if (page==cache.getPageCount()) {
+					cache.addPageStart(printedLineStartLine,
+									printedLineStartOffset);
+				}
+			}
+
+			if (page==pageIndex) {
 				//g.drawString(currentLineSeg.toString(), xOffset,y);
 				Utilities.drawTabbedText(currentLineSeg, xOffset,y, g, tabExpander, 0);
 				y += fontHeight;
-				if (numPrintedLines==STARTING_LINE_NUMBER+MAX_LINES_PER_PAGE)
-					return Printable.PAGE_EXISTS;
 			}
+			linesOnPage++;
 
 		}
 
 		// Now, the whole document has been "printed."  Decide if this page had any text on it or not.
-		if (numPrintedLines > STARTING_LINE_NUMBER)
-			return Printable.PAGE_EXISTS;
-		return Printable.NO_SUCH_PAGE;
+		return page==pageIndex ? Printable.PAGE_EXISTS : Printable.NO_SUCH_PAGE;
 
 	}
 
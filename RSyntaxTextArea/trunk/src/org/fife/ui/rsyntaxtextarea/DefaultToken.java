@@ -132,10 +132,13 @@ public class DefaultToken extends Token {
 		Token token = this;
 		int last = offset;
 		FontMetrics fm = null;
+		SchemeMetrics metrics = textArea.getSchemeMetrics();
 
 		while (token!=null && token.isPaintable()) {
 
-			fm = textArea.getFontMetricsForTokenType(token.type);
+			fm = metrics.getFontMetrics(token.type);
+			int advance = metrics.getCharAdvance(token.type);
+			boolean monospaced = advance>0;
 			char[] text = token.text;
 			int start = token.textOffset;
 			int end = start + token.textCount;
@@ -146,8 +149,16 @@ public class DefaultToken extends Token {
 					nextX = e.nextTabStop(nextX, 0);
 					stableX = nextX;	// Cache ending x-coord. of tab.
 					start = i+1;		// Do charsWidth() from next char.
+					monospaced = advance>0;
+				}
+				else if (monospaced &&
+						SchemeMetrics.isMonospacedChar(text[i])) {
+					// Same as charsWidth() since start, but O(1).
+					nextX = currX + advance;
 				}
 				else {
+					// Widths of runs with other chars may not be additive.
+					monospaced = false;
 					nextX = stableX + fm.charsWidth(text, start, i-start+1);
 				}
 				if (x>=currX && x<nextX) {
@@ -170,6 +181,48 @@ public class DefaultToken extends Token {
 	}
 
 
+	/**
+	 * Returns the width of the first characters of a token whose font is
+	 * monospaced, expanding tabs the same way
+	 * <code>Utilities.getTabbedTextWidth()</code> does.
+	 *
+	 * @param token The token.
+	 * @param count The number of characters to measure.
+	 * @param advance The width of each printable ASCII character in the
+	 *        token's font, or <code>-1</code> if the font isn't monospaced.
+	 * @param e How to expand tabs.
+	 * @param x0 The x-coordinate at which the token starts.
+	 * @return The width, or <code>-1</code> if the font isn't monospaced or
+	 *         the characters aren't all tabs and printable ASCII characters.
+	 *         In that case the caller should fall back to measuring the
+	 *         text with the font's <code>FontMetrics</code>.
+	 * @see SchemeMetrics#getCharAdvance(int)
+	 */
+	private static final int getMonospacedWidth(Token token, int count,
+							int advance, TabExpander e, int x0) {
+		if (advance<=0) {
+			return -1;
+		}
+		char[] text = token.text;
+		int start = token.textOffset;
+		int end = start + count;
+		int x = x0;
+		for (int i=start; i<end; i++) {
+			char ch = text[i];
+			if (ch=='\t') {
+				x = (int)e.nextTabStop(x, token.offset + i - start);
+			}
+			else if (SchemeMetrics.isMonospacedChar(ch)) {
+				x += advance;
+			}
+			else {
+				return -1;
+			}
+		}
+		return x - x0;
+	}
+
+
 	/**
 	 * Returns the width of a specified number of characters in this token.
 	 * For example, for the token "while", specifying a value of <code>3</code>
@@ -186,30 +239,30 @@ public class DefaultToken extends Token {
 	public float getWidthUpTo(int numChars, RSyntaxTextArea textArea,
 							TabExpander e, float x0) {
 		float width = x0;
-		FontMetrics fm = textArea.getFontMetricsForTokenType(type);
-		if (fm!=null) {
-			int w;
-			int currentStart = textOffset;
-			int endBefore = textOffset + numChars;
-			for (int i=currentStart; i<endBefore; i++) {
-				if (text[i] == '\t') {
-					// Since TokenMaker implementations usually group all
-					// adjacent whitespace into a single token, there
-					// aren't usually any characters to compute a width
-					// for here, so we check before calling.
-					w = i-currentStart;
-					if (w>0)
-						width += fm.charsWidth(text, currentStart, w);
-					currentStart = i+1;
-					width = e.nextTabStop(width, 0);
-				}
+		// Widths of ASCII characters come from a table shared by all text
+		// areas with the same syntax scheme and rendering hints.
+		SchemeMetrics metrics = textArea.getSchemeMetrics();
+		int w;
+		int currentStart = textOffset;
+		int endBefore = textOffset + numChars;
+		for (int i=currentStart; i<endBefore; i++) {
+			if (text[i] == '\t') {
+				// Since TokenMaker implementations usually group all
+				// adjacent whitespace into a single token, there
+				// aren't usually any characters to compute a width
+				// for here, so we check before calling.
+				w = i-currentStart;
+				if (w>0)
+					width += metrics.charsWidth(type, text, currentStart, w);
+				currentStart = i+1;
+				width = e.nextTabStop(width, 0);
 			}
-			// Most (non-whitespace) tokens will have characters at this
-			// point to get the widths for, so we don't check for w>0 (mini-
-			// optimization).
-			w = endBefore-currentStart;
-			width += fm.charsWidth(text, currentStart, w);
 		}
+		// Most (non-whitespace) tokens will have characters at this
+		// point to get the widths for, so we don't check for w>0 (mini-
+		// optimization).
+		w = endBefore-currentStart;
+		width += metrics.charsWidth(type, text, currentStart, w);
 		return width - x0;
 	}
 
@@ -235,13 +288,12 @@ public class DefaultToken extends Token {
 		Token token = this;
 		FontMetrics fm = null;
 		Segment s = new Segment();
+		SchemeMetrics metrics = textArea.getSchemeMetrics();
 
 		while (token!=null && token.isPaintable()) {
 
-			fm = textArea.getFontMetricsForTokenType(token.type);
-			if (fm==null) {
-				return rect; // Don't return null as things'll error.
-			}
+			fm = metrics.getFontMetrics(token.type);
+			int advance = metrics.getCharAdvance(token.type);
 			char[] text = token.text;
 			int start = token.textOffset;
 			int end = start + token.textCount;
@@ -250,20 +302,27 @@ public class DefaultToken extends Token {
 			// bounding box...
 			if (token.containsPosition(pos)) {
 
-				s.array = token.text;
-				s.offset = token.textOffset;
-				s.count = pos-token.offset;
-
-				// Must use this (actually fm.charWidth()), and not
-				// fm.charsWidth() for returned value to match up with where
-				// text is actually painted on OS X!
-				int w = Utilities.getTabbedTextWidth(s, fm, stableX, e,
+				int count = pos - token.offset;
+				int w = getMonospacedWidth(token, count, advance, e, stableX);
+				if (w<0) {
+					s.array = token.text;
+					s.offset = token.textOffset;
+					s.count = count;
+					// Must use this (actually fm.charWidth()), and not
+					// fm.charsWidth() for returned value to match up with
+					// where text is actually painted on OS X!
+					w = Utilities.getTabbedTextWidth(s, fm, stableX, e,
 													token.offset);
+				}
 				rect.x = stableX + w;
 				end = token.documentToToken(pos);
 
 				if (text[end]=='\t') {
-					rect.width = fm.charWidth(' ');
+					rect.width = advance>0 ? advance : fm.charWidth(' ');
+				}
+				else if (advance>0 &&
+						SchemeMetrics.isMonospacedChar(text[end])) {
+					rect.width = advance;
 				}
 				else {
 					rect.width = fm.charWidth(text[end]);
@@ -276,11 +335,16 @@ public class DefaultToken extends Token {
 			// If this token does not contain the position for which to get
 			// the bounding box...
 			else {
-				s.array = token.text;
-				s.offset = token.textOffset;
-				s.count = token.textCount;
-				stableX += Utilities.getTabbedTextWidth(s, fm, stableX, e,
-														token.offset);
+				int w = getMonospacedWidth(token, token.textCount, advance,
+											e, stableX);
+				if (w<0) {
+					s.array = token.text;
+					s.offset = token.textOffset;
+					s.count = token.textCount;
+					w = Utilities.getTabbedTextWidth(s, fm, stableX, e,
+													token.offset);
+				}
+				stableX += w;
 			}
 
 			token = token.getNextToken();
@@ -0,0 +1,371 @@
+/*
+ * 10/19/2026
+ *
+ * LongLineIndex.java - Cached token boundaries and x-offsets for a very long
+ * line.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.rsyntaxtextarea;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.Segment;
+import javax.swing.text.TabExpander;
+
+
+/**
+ * Caches the tokens of a very long line (such as a file of minified
+ * JavaScript or JSON), along with the x-offset of every
+ * {@link #TOKENS_PER_CHECKPOINT}'th token.<p>
+ *
+ * Normally, painting a line, or converting between model and view
+ * coordinates on it, re-lexes and measures the line from its start.  For
+ * lines thousands of characters long, that makes painting, hit-testing and
+ * caret movement slow.  With this index, the line is lexed and measured once,
+ * and these operations start from the nearest checkpoint, only creating and
+ * measuring the tokens near the position of interest.<p>
+ *
+ * Tokens longer than {@link #MAX_TOKEN_LENGTH} characters are split into
+ * several tokens of the same type, so checkpoints are never too far apart.
+ * This doesn't change how the line is painted.<p>
+ *
+ * An index is only valid as long as the line's text, its highlighting, and
+ * the text area's fonts and tab size are unchanged.  {@link SyntaxView}
+ * discards indices when the document changes, and checks
+ * {@link #isValid(Element, RSyntaxTextArea, int)} for everything else.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class LongLineIndex {
+
+	/**
+	 * The line this index is for.
+	 */
+	private Element line;
+
+	/**
+	 * The metrics the line was measured with.
+	 */
+	private SchemeMetrics metrics;
+
+	/**
+	 * The tab size, in pixels, the line was measured with.
+	 */
+	private int tabSize;
+
+	/**
+	 * Whether whitespace was visible when the line was measured.
+	 */
+	private boolean whitespaceVisible;
+
+	/**
+	 * The number of tokens on the line.
+	 */
+	private int tokenCount;
+
+	/**
+	 * The document offset of each token.
+	 */
+	private int[] tokenStarts;
+
+	/**
+	 * The type of each token, possibly or'ed with {@link #HYPERLINK}.
+	 */
+	private int[] tokenTypes;
+
+	/**
+	 * The x-offset, relative to the line's start, of every
+	 * {@link #TOKENS_PER_CHECKPOINT}'th token.
+	 */
+	private float[] checkpointX;
+
+	/**
+	 * The width of the entire line.
+	 */
+	private float width;
+
+	/**
+	 * Used to fetch text from the document.
+	 */
+	private Segment s;
+
+	/**
+	 * Lines longer than this many characters are indexed.
+	 */
+	static final int LONG_LINE_LENGTH			= 10000;
+
+	/**
+	 * Tokens longer than this many characters are split.
+	 */
+	static final int MAX_TOKEN_LENGTH			= 256;
+
+	/**
+	 * The number of tokens between checkpoints.
+	 */
+	static final int TOKENS_PER_CHECKPOINT		= 64;
+
+	/**
+	 * Or'ed into a token's type if it is a hyperlink.
+	 */
+	private static final int HYPERLINK			= 0x10000;
+
+
+	/**
+	 * Lexes and measures a line.
+	 *
+	 * @param textArea The text area.
+	 * @param e How to expand tabs.
+	 * @param tabSize The size of a tab, in pixels.
+	 * @param x0 The x-coordinate the line starts at.  Tab stops are computed
+	 *        relative to this value.
+	 * @param lineNumber The line to index.
+	 */
+	public LongLineIndex(RSyntaxTextArea textArea, TabExpander e, int tabSize,
+						float x0, int lineNumber) {
+
+		RSyntaxDocument doc = (RSyntaxDocument)textArea.getDocument();
+		line = doc.getDefaultRootElement().getElement(lineNumber);
+		metrics = textArea.getSchemeMetrics();
+		this.tabSize = tabSize;
+		whitespaceVisible = textArea.isWhitespaceVisible();
+		s = new Segment();
+
+		int capacity = (line.getEndOffset()-line.getStartOffset()) / 4;
+		tokenStarts = new int[capacity];
+		tokenTypes = new int[capacity];
+		checkpointX = new float[capacity/TOKENS_PER_CHECKPOINT + 1];
+
+		Token scratch = createToken(null, 0, 0, 0, Token.NULL);
+		float x = x0;
+		Token t = doc.getTokenListForLine(lineNumber);
+
+		while (t!=null && t.isPaintable()) {
+			int type = t.type;
+			if (t.isHyperlink()) {
+				type |= HYPERLINK;
+			}
+			int start = t.textOffset;
+			int end = start + t.textCount;
+			while (start<end) {
+				int pieceEnd = Math.min(start+MAX_TOKEN_LENGTH, end);
+				char last = t.text[pieceEnd-1];
+				if (pieceEnd<end && last>='\uD800' && last<='\uDBFF') {
+					pieceEnd++; // Don't split a surrogate pair.
+				}
+				int offs = t.offset + start - t.textOffset;
+				addToken(offs, type, x - x0);
+				scratch.set(t.text, start, pieceEnd-1, offs, t.type);
+				x += scratch.getWidth(textArea, e, x);
+				start = pieceEnd;
+			}
+			t = t.getNextToken();
+		}
+
+		width = x - x0;
+
+	}
+
+
+	/**
+	 * Adds a token to this index.
+	 *
+	 * @param offs The token's document offset.
+	 * @param type The token's type.
+	 * @param x The x-offset of the token, relative to the line's start.
+	 */
+	private void addToken(int offs, int type, float x) {
+		if (tokenCount==tokenStarts.length) {
+			int[] temp = new int[tokenCount*2 + 1];
+			System.arraycopy(tokenStarts,0, temp,0, tokenCount);
+			tokenStarts = temp;
+			temp = new int[temp.length];
+			System.arraycopy(tokenTypes,0, temp,0, tokenCount);
+			tokenTypes = temp;
+		}
+		if ((tokenCount%TOKENS_PER_CHECKPOINT)==0) {
+			int checkpoint = tokenCount / TOKENS_PER_CHECKPOINT;
+			if (checkpoint==checkpointX.length) {
+				float[] temp = new float[checkpoint*2 + 1];
+				System.arraycopy(checkpointX,0, temp,0, checkpoint);
+				checkpointX = temp;
+			}
+			checkpointX[checkpoint] = x;
+		}
+		tokenStarts[tokenCount] = offs;
+		tokenTypes[tokenCount] = type;
+		tokenCount++;
+	}
+
+
+	/**
+	 * Creates a token of the kind the text area's document creates, i.e.
+	 * one that paints whitespace if whitespace is visible.
+	 *
+	 * @param text The token's text.
+	 * @param start The offset of the token's first character in
+	 *        <code>text</code>.
+	 * @param end The offset of the token's last character in
+	 *        <code>text</code>.
+	 * @param offs The document offset of the token.
+	 * @param type The token's type.
+	 * @return The token.
+	 */
+	private Token createToken(char[] text, int start, int end, int offs,
+							int type) {
+		return whitespaceVisible ?
+				(Token)new VisibleWhitespaceToken(text, start,end, offs,type) :
+				(Token)new DefaultToken(text, start,end, offs,type);
+	}
+
+
+	/**
+	 * Returns the number of checkpoints in this index.
+	 *
+	 * @return The number of checkpoints.  This is always at least
+	 *         <code>1</code>, unless the line is empty.
+	 */
+	public int getCheckpointCount() {
+		return (tokenCount+TOKENS_PER_CHECKPOINT-1) / TOKENS_PER_CHECKPOINT;
+	}
+
+
+	/**
+	 * Returns the checkpoint before the token containing a document offset.
+	 *
+	 * @param offs The offset, which must be on this index's line.
+	 * @return The checkpoint.  If <code>offs</code> is past the last token
+	 *         (i.e., it is the line's end), the last checkpoint is returned.
+	 */
+	public int getCheckpointForOffset(int offs) {
+		int low = 0;
+		int high = tokenCount - 1;
+		while (low<high) {
+			int mid = (low+high+1) >>> 1;
+			if (tokenStarts[mid]<=offs) {
+				low = mid;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+		return low / TOKENS_PER_CHECKPOINT;
+	}
+
+
+	/**
+	 * Returns the last checkpoint at or before an x-offset.
+	 *
+	 * @param x The x-offset, relative to the line's start.
+	 * @return The checkpoint.
+	 */
+	public int getCheckpointForX(float x) {
+		int low = 0;
+		int high = getCheckpointCount() - 1;
+		while (low<high) {
+			int mid = (low+high+1) >>> 1;
+			if (checkpointX[mid]<=x) {
+				low = mid;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * Returns the x-offset of a checkpoint.
+	 *
+	 * @param checkpoint The checkpoint.
+	 * @return The x-offset of the checkpoint's first token, relative to the
+	 *         line's start.
+	 */
+	public float getCheckpointX(int checkpoint) {
+		return checkpointX[checkpoint];
+	}
+
+
+	/**
+	 * Returns the tokens between two checkpoints.
+	 *
+	 * @param doc The document.
+	 * @param first The first checkpoint.
+	 * @param last The last checkpoint.
+	 * @return The tokens from <code>first</code> through the end of
+	 *         <code>last</code> (i.e. up to, but not including, the token at
+	 *         checkpoint <code>last+1</code>), or <code>null</code> if the
+	 *         line has no tokens.
+	 */
+	public Token getTokenList(RSyntaxDocument doc, int first, int last) {
+
+		int firstToken = first * TOKENS_PER_CHECKPOINT;
+		int endToken = Math.min((last+1)*TOKENS_PER_CHECKPOINT, tokenCount);
+		if (firstToken>=endToken) {
+			return null;
+		}
+
+		int start = tokenStarts[firstToken];
+		int end = endToken<tokenCount ? tokenStarts[endToken] :
+										line.getEndOffset() - 1;
+		try {
+			doc.getText(start, end-start, s);
+		} catch (BadLocationException ble) { // Never happens
+			ble.printStackTrace();
+			return null;
+		}
+
+		Token tokenList = null;
+		Token prev = null;
+		for (int i=firstToken; i<endToken; i++) {
+			int offs = tokenStarts[i];
+			int tokenEnd = i<endToken-1 ? tokenStarts[i+1] : end;
+			int textStart = s.offset + offs - start;
+			int type = tokenTypes[i];
+			Token t = createToken(s.array, textStart,
+						textStart+tokenEnd-offs-1, offs, type&~HYPERLINK);
+			t.setHyperlink((type&HYPERLINK)!=0);
+			if (prev==null) {
+				tokenList = t;
+			}
+			else {
+				prev.setNextToken(t);
+			}
+			prev = t;
+		}
+
+		return tokenList;
+
+	}
+
+
+	/**
+	 * Returns the width of the line.
+	 *
+	 * @return The width of the line.
+	 */
+	public float getWidth() {
+		return width;
+	}
+
+
+	/**
+	 * Returns whether this index is still valid for painting a line.
+	 *
+	 * @param line The line about to be painted or measured.
+	 * @param textArea The text area.
+	 * @param tabSize The current tab size, in pixels.
+	 * @return Whether this index can be used for that line.
+	 */
+	public boolean isValid(Element line, RSyntaxTextArea textArea,
+							int tabSize) {
+		return this.line==line && metrics==textArea.getSchemeMetrics() &&
+				this.tabSize==tabSize &&
+				whitespaceVisible==textArea.isWhitespaceVisible();
+	}
+
+
+}
@@ -73,6 +73,25 @@ public class RSyntaxDocument extends PlainDocument implements SyntaxConstants {
 
 	private transient Segment s;
 
+	/**
+	 * Incremented each time the document's text or syntax style changes, so
+	 * we know when {@link #tokenTypeMemos} are out of date.
+	 */
+	private transient int version;
+
+	/**
+	 * The results of the last few calls to {@link #getTokenTypeAt(int)} and
+	 * {@link #getTokenStartOffset(int)}.  Completion and other editor
+	 * features may ask about the caret position several times per
+	 * keystroke.
+	 */
+	private transient TokenTypeMemo[] tokenTypeMemos;
+
+	/**
+	 * The index in {@link #tokenTypeMemos} to replace next.
+	 */
+	private transient int nextTokenTypeMemo;
+
 
 	/**
 	 * Constructs a plain text document.  A default root element is created,
@@ -127,6 +146,8 @@ public class RSyntaxDocument extends PlainDocument implements SyntaxConstants {
 	 */
 	protected void fireInsertUpdate(DocumentEvent e) {
 
+		version++;
+
 		/*
 		 * Now that the text is actually inserted into the content and
 		 * element structure, we can update our token elements and "last
@@ -199,6 +220,8 @@ public class RSyntaxDocument extends PlainDocument implements SyntaxConstants {
 	 */
 	protected void fireRemoveUpdate(DocumentEvent chng) {
 
+		version++;
+
 		Element lineMap = getDefaultRootElement();
 		int numLines = lineMap.getElementCount();
 
@@ -342,6 +365,101 @@ public class RSyntaxDocument extends PlainDocument implements SyntaxConstants {
 	}
 
 
+	/**
+	 * Returns the offset at which the token containing an offset starts.
+	 * Like {@link #getTokenTypeAt(int)}, the result is remembered until the
+	 * document changes.
+	 *
+	 * @param offset The offset in the document.
+	 * @return The start offset of the token containing <code>offset</code>,
+	 *         or <code>offset</code> itself if it is at the end of a line.
+	 * @see #getTokenTypeAt(int)
+	 */
+	public int getTokenStartOffset(int offset) {
+		return getTokenTypeMemo(offset).start;
+	}
+
+
+	/**
+	 * Returns the type of the token containing an offset.  This is cheaper
+	 * than calling {@link #getTokenListForLine(int)} and searching the
+	 * tokens each time, since the result is remembered until the document
+	 * changes.  This makes it suitable for finding the context of the caret,
+	 * e.g. whether it is in a string or comment, which may be asked for
+	 * several times per keystroke.
+	 *
+	 * @param offset The offset in the document.
+	 * @return The type of the token containing <code>offset</code>, or
+	 *         {@link Token#NULL} if <code>offset</code> is at the end of a
+	 *         line.
+	 * @see #getTokenStartOffset(int)
+	 * @see #getLastTokenTypeOnLine(int)
+	 */
+	public int getTokenTypeAt(int offset) {
+		return getTokenTypeMemo(offset).type;
+	}
+
+
+	/**
+	 * Returns the type and start offset of the token containing an offset,
+	 * computing them if they aren't remembered.
+	 *
+	 * @param offset The offset in the document.
+	 * @return The token's type and start offset.
+	 */
+	private TokenTypeMemo getTokenTypeMemo(int offset) {
+
+		if (tokenTypeMemos==null) {
+			tokenTypeMemos = new TokenTypeMemo[] {
+				new TokenTypeMemo(), new TokenTypeMemo()
+			};
+		}
+		for (int i=0; i<tokenTypeMemos.length; i++) {
+			TokenTypeMemo memo = tokenTypeMemos[i];
+			if (memo.version==version && memo.offset==offset) {
+				return memo;
+			}
+		}
+
+		TokenTypeMemo memo = tokenTypeMemos[nextTokenTypeMemo];
+		nextTokenTypeMemo = (nextTokenTypeMemo+1) % tokenTypeMemos.length;
+		memo.version = version;
+		memo.offset = offset;
+		memo.type = Token.NULL;
+		memo.start = offset;
+
+		Element map = getDefaultRootElement();
+		int line = map.getElementIndex(offset);
+		Element elem = map.getElement(line);
+		int startOffset = elem.getStartOffset();
+		int lineEnd = elem.getEndOffset() - 1;
+		if (offset<startOffset || offset>=lineEnd) {
+			return memo; // At the end of the line (or invalid)
+		}
+
+		try {
+			getText(startOffset, lineEnd-startOffset, s);
+		} catch (BadLocationException ble) {
+			ble.printStackTrace();
+			return memo;
+		}
+		int initialTokenType = line==0 ? Token.NULL :
+								getLastTokenTypeOnLine(line-1);
+		Token t = tokenMaker.getTokenList(s, initialTokenType, startOffset);
+		while (t!=null && t.isPaintable()) {
+			if (t.containsPosition(offset)) {
+				memo.type = t.type;
+				memo.start = t.offset;
+				break;
+			}
+			t = t.getNextToken();
+		}
+
+		return memo;
+
+	}
+
+
 	/**
 	 * Returns a token list for the specified segment of text representing
 	 * the specified line number.  This method is basically a wrapper for
@@ -583,6 +701,8 @@ public class RSyntaxDocument extends PlainDocument implements SyntaxConstants {
 	 */
 	protected void updateSyntaxHighlightingInformation() {
 
+		version++;
+
 		// Reinitialize the "last token on each line" array.  Note that since
 		// the actual text in the document isn't changing, the number of lines
 		// is the same.
@@ -640,4 +760,18 @@ public class RSyntaxDocument extends PlainDocument implements SyntaxConstants {
 	}
 
 
+	/**
+	 * The type and start offset of the token containing an offset, as of a
+	 * version of the document.
+	 */
+	private static class TokenTypeMemo {
+
+		private int version = -1;
+		private int offset;
+		private int type;
+		private int start;
+
+	}
+
+
 }
\ No newline at end of file
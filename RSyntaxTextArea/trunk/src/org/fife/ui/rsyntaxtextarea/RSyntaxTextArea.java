@@ -25,6 +25,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.InputEvent;
 import java.awt.event.MouseEvent;
+import java.awt.print.PageFormat;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -251,6 +252,9 @@ Rectangle match;
 	/** Used during "Copy as RTF" operations. */
 	private RtfGenerator rtfGenerator;
 
+	/** Used when printing; caches where each printed page starts. */
+	private RSyntaxTextAreaPrinter printer;
+
 	/** Handles "mark occurrences" support. */
 	private MarkOccurrencesSupport markOccurrencesSupport;
 
@@ -263,6 +267,9 @@ Rectangle match;
 	/** Metrics of the text area's font. */
 	private FontMetrics defaultFontMetrics;
 
+	/** Metrics of the fonts used by each token type; possibly shared. */
+	private SchemeMetrics schemeMetrics;
+
 	/** Manages running the parser. */
 	private ParserManager parserManager;
 
@@ -1024,8 +1031,7 @@ private boolean fractionalFontMetricsEnabled;
 	 * @see #getFontForTokenType(int)
 	 */
 	public FontMetrics getFontMetricsForTokenType(int type) {
-		FontMetrics fm = syntaxScheme.getStyle(type).fontMetrics;
-		return fm!=null ? fm : defaultFontMetrics;
+		return getSchemeMetrics().getFontMetrics(type);
 	}
 
 
@@ -1311,6 +1317,23 @@ private boolean fractionalFontMetricsEnabled;
 	}
 
 
+	/**
+	 * Returns the metrics of the fonts used by each token type.  If we
+	 * haven't been displayed yet, these are metrics without any rendering
+	 * hints applied.
+	 *
+	 * @return The metrics.
+	 * @see #getFontMetricsForTokenType(int)
+	 */
+	SchemeMetrics getSchemeMetrics() {
+		if (schemeMetrics==null) {
+			schemeMetrics = SchemeMetrics.get(syntaxScheme, getFont(), null,
+											this);
+		}
+		return schemeMetrics;
+	}
+
+
 	/**
 	 * If auto-indent is enabled, this method returns whether a new line after
 	 * this one should be indented (based on the standard indentation rules for
@@ -1353,13 +1376,36 @@ private boolean fractionalFontMetricsEnabled;
 
 	/**
 	 * Returns all of the colors currently being used in syntax highlighting
-	 * by this text component.
+	 * by this text component.  Changes made to the returned scheme affect
+	 * this text area (after a repaint, or, if fonts are changed, after
+	 * passing it to {@link #setSyntaxScheme(SyntaxScheme)}).<p>
+	 *
+	 * If this text area's scheme is shared with other text areas (e.g. the
+	 * default scheme, or one from a {@link Theme}), it is first replaced by
+	 * a private copy, so changes to it don't affect the other text areas.
 	 *
 	 * @return An instance of <code>SyntaxScheme</code> that represents
 	 *         the colors currently being used for syntax highlighting.
 	 * @see #setSyntaxScheme(SyntaxScheme)
 	 */
 	public SyntaxScheme getSyntaxScheme() {
+		if (syntaxScheme!=null && syntaxScheme.shared) {
+			// Copy-on-write.  Our font metrics are still valid since the
+			// copy is identical.
+			syntaxScheme = (SyntaxScheme)syntaxScheme.clone();
+		}
+		return syntaxScheme;
+	}
+
+
+	/**
+	 * Returns the syntax scheme used by this text area without copying it,
+	 * even if it is shared.  The returned scheme must not be modified.
+	 *
+	 * @return The syntax scheme.
+	 * @see #getSyntaxScheme()
+	 */
+	SyntaxScheme getSyntaxSchemeNoCopy() {
 		return syntaxScheme;
 	}
 
@@ -1705,10 +1751,33 @@ private boolean fractionalFontMetricsEnabled;
 	}
 
 
+	/**
+	 * Overridden to print the text area's contents with syntax highlighting.
+	 * Where each page starts is cached between calls, so printing a large
+	 * document is linear in its size.
+	 *
+	 * @param g The context into which the page is drawn.
+	 * @param pageFormat The size and orientation of the page being drawn.
+	 * @param pageIndex The zero based index of the page to be drawn.
+	 */
+	public int print(Graphics g, PageFormat pageFormat, int pageIndex) {
+		Graphics2D g2d = getGraphics2D(g);
+		if (defaultFontMetrics==null) {
+			// We've never been displayed, so we haven't computed our font
+			// metrics yet.
+			refreshFontMetrics(g2d);
+		}
+		if (printer==null) {
+			printer = new RSyntaxTextAreaPrinter(this);
+		}
+		return printer.print(g2d, pageFormat, pageIndex);
+	}
+
+
 	private void refreshFontMetrics(Graphics2D g2d) {
 		// It is assumed that any rendering hints are already applied to g2d.
 		defaultFontMetrics = g2d.getFontMetrics(getFont());
-		syntaxScheme.refreshFontMetrics(g2d);
+		schemeMetrics = SchemeMetrics.get(syntaxScheme, getFont(), g2d, this);
 		if (getLineWrap()==false) {
 			// HORRIBLE HACK!  The un-wrapped view needs to refresh its cached
 			// longest line information.
@@ -1770,14 +1839,16 @@ private boolean fractionalFontMetricsEnabled;
 
 
 	/**
-	 * Sets the colors used for syntax highlighting to their defaults.
+	 * Sets the colors used for syntax highlighting to their defaults.  All
+	 * text areas with the same default scheme share a single instance of
+	 * it (and its font metrics) until they modify it.
 	 *
 	 * @see #setSyntaxScheme(SyntaxScheme)
 	 * @see #getSyntaxScheme()
 	 * @see #getDefaultSyntaxScheme()
 	 */
 	public void restoreDefaultSyntaxScheme() {
-		setSyntaxScheme(getDefaultSyntaxScheme());
+		setSyntaxScheme(SyntaxScheme.intern(getDefaultSyntaxScheme()));
 	}
 
 
@@ -2044,12 +2115,22 @@ private boolean fractionalFontMetricsEnabled;
 
 		Font old = super.getFont();
 		super.setFont(font); // Do this first.
+		schemeMetrics = null;
 
 		// Usually programmers keep a single font for all token types, but
 		// may use bold or italic for styling some.
-		SyntaxScheme scheme = getSyntaxScheme();
+		SyntaxScheme scheme = syntaxScheme;
 		if (scheme!=null && old!=null) {
-			scheme.changeBaseFont(old, font);
+			if (scheme.shared) {
+				// Don't change the fonts used by other text areas, but do
+				// share the result with others using the same new font.
+				scheme = (SyntaxScheme)scheme.clone();
+				scheme.changeBaseFont(old, font);
+				syntaxScheme = SyntaxScheme.intern(scheme);
+			}
+			else {
+				scheme.changeBaseFont(old, font);
+			}
 			calculateLineHeight();
 		}
 
@@ -2312,6 +2393,7 @@ private boolean fractionalFontMetricsEnabled;
 
 		SyntaxScheme old = this.syntaxScheme;
 		this.syntaxScheme = scheme;
+		schemeMetrics = null;
 
 		// Recalculate the line height.  We do this here instead of in
 		// refreshFontMetrics() as this method is called less often and we
@@ -0,0 +1,247 @@
+/*
+ * 10/18/2026
+ *
+ * RSyntaxTextAreaPrinter.java - Prints the contents of an RSyntaxTextArea
+ * with syntax highlighting.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.rsyntaxtextarea;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.print.PageFormat;
+import java.awt.print.Printable;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.text.Element;
+import javax.swing.text.TabExpander;
+
+import org.fife.print.PageBreakCache;
+
+
+/**
+ * Prints the contents of an <code>RSyntaxTextArea</code>, word wrapped to
+ * the page width, using the same token painting (fonts, colors, underlines)
+ * as the text area itself.<p>
+ *
+ * The position each page starts at is cached across calls to
+ * {@link #print(Graphics, PageFormat, int)}, so printing all pages of a
+ * document is linear in its size rather than quadratic.  The cache is
+ * discarded when the document is modified or the page format changes.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class RSyntaxTextAreaPrinter implements TabExpander {
+
+	/**
+	 * The text area being printed.
+	 */
+	private RSyntaxTextArea textArea;
+
+	/**
+	 * Where each page starts, as (line, document offset) pairs.
+	 */
+	private PageBreakCache pageBreakCache;
+
+	/**
+	 * The x-coordinate tab stops are computed relative to.
+	 */
+	private int tabBase;
+
+	/**
+	 * The width of a tab, in pixels.
+	 */
+	private int tabSize;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param textArea The text area to print.
+	 */
+	public RSyntaxTextAreaPrinter(RSyntaxTextArea textArea) {
+		this.textArea = textArea;
+		pageBreakCache = new PageBreakCache();
+	}
+
+
+	/**
+	 * Returns the document offset at which the printed line starting with
+	 * <code>t</code> should end, given the available width.
+	 *
+	 * @param t The first token on the printed line.  This must be
+	 *        paintable.
+	 * @param x0 The x-coordinate at which the line starts.
+	 * @param width The width available for the line.
+	 * @return The (exclusive) document offset at which the printed line
+	 *         ends.  This is always greater than <code>t.offset</code>.
+	 */
+	private int getBreakPosition(Token t, float x0, float width) {
+
+		int p0 = t.offset;
+		int p = p0;
+		float x = x0;
+		float maxX = x0 + width;
+
+		while (t!=null && t.isPaintable()) {
+			float tokenWidth = t.getWidth(textArea, this, x);
+			if (x+tokenWidth>maxX) {
+				// If the current token alone is too long for this line,
+				// break at a character boundary.
+				if (p==p0) {
+					return t.getOffsetBeforeX(textArea, this, x, maxX);
+				}
+				return p;
+			}
+			x += tokenWidth;
+			p += t.textCount;
+			t = t.getNextToken();
+		}
+
+		return p;
+
+	}
+
+
+	/**
+	 * Returns the next tab stop position after a given position.
+	 *
+	 * @param x the current position
+	 * @param tabOffset the position within the text stream that the
+	 *        tab occurred at.
+	 * @return the tab stop, measured in points
+	 */
+	public float nextTabStop(float x, int tabOffset) {
+		if (tabSize == 0)
+			return x;
+		int ntabs = (((int)x) - tabBase) / tabSize;
+		return tabBase + ((ntabs + 1) * tabSize);
+	}
+
+
+	/**
+	 * Prints a page of the text area's document.
+	 *
+	 * @param g The context into which the page is drawn.
+	 * @param pageFormat The size and orientation of the page being drawn.
+	 * @param pageIndex The zero based index of the page to be drawn.
+	 * @return {@link Printable#PAGE_EXISTS} or
+	 *         {@link Printable#NO_SUCH_PAGE}.
+	 */
+	public int print(Graphics g, PageFormat pageFormat, int pageIndex) {
+
+		Graphics2D g2d = (Graphics2D)g;
+		RSyntaxDocument doc = (RSyntaxDocument)textArea.getDocument();
+
+		int lineHeight = textArea.getLineHeight();
+		int width = (int)pageFormat.getImageableWidth();
+		final int MAX_LINES_PER_PAGE = Math.max(1,
+						(int)pageFormat.getImageableHeight() / lineHeight);
+
+		tabBase = (int)pageFormat.getImageableX();
+		tabSize = textArea.getTabSize() * textArea.
+				getFontMetricsForTokenType(Token.WHITESPACE).charWidth(' ');
+		float y = (float)pageFormat.getImageableY() + textArea.getMaxAscent();
+
+		// Start at the last known page break at or before the page we're
+		// printing.  Style.hashCode() ignores fonts, so they're added to the
+		// key separately, and compared with Font.equals().
+		SyntaxScheme scheme = textArea.getSyntaxSchemeNoCopy();
+		List layoutKey = new ArrayList();
+		layoutKey.add(new Integer(width));
+		layoutKey.add(new Integer(MAX_LINES_PER_PAGE));
+		layoutKey.add(new Integer(lineHeight));
+		layoutKey.add(new Integer(tabSize));
+		layoutKey.add(new Integer(scheme.hashCode()));
+		layoutKey.add(textArea.getSyntaxEditingStyle());
+		layoutKey.add(textArea.getFont());
+		for (int i=0; i<scheme.getStyleCount(); i++) {
+			Style style = scheme.getStyle(i);
+			layoutKey.add(style==null ? null : style.font);
+		}
+		pageBreakCache.validate(doc, layoutKey);
+		int page = Math.min(pageIndex, pageBreakCache.getPageCount()-1);
+		int line = pageBreakCache.getPageStartLine(page);
+		int offs = pageBreakCache.getPageStartOffset(page);
+		int linesOnPage = 0;
+
+		Element root = doc.getDefaultRootElement();
+		int lineCount = root.getElementCount();
+
+		while (line<lineCount) {
+
+			// Skip any part of this line printed on a previous page.
+			Token t = doc.getTokenListForLine(line);
+			while (t!=null && t.isPaintable() && t.offset+t.textCount<=offs) {
+				t = t.getNextToken();
+			}
+			if (t!=null && t.isPaintable() && t.offset<offs) {
+				t.makeStartAt(offs);
+			}
+
+			// Print the line, wrapping as necessary.  Note that we always
+			// print at least one (possibly empty) line.
+			do {
+
+				if (linesOnPage==MAX_LINES_PER_PAGE) {
+					if (page==pageIndex) {
+						return Printable.PAGE_EXISTS;
+					}
+					page++;
+					linesOnPage = 0;
+					if (page==pageBreakCache.getPageCount()) {
+						int start = t!=null && t.isPaintable() ? t.offset :
+								root.getElement(line).getStartOffset();
+						pageBreakCache.addPageStart(line, start);
+					}
+				}
+
+				boolean paint = page==pageIndex;
+				if (t!=null && t.isPaintable()) {
+					int p = getBreakPosition(t, tabBase, width);
+					float x = tabBase;
+					while (t!=null && t.isPaintable() &&
+							t.offset+t.textCount<=p) {
+						if (paint) {
+							x = t.paint(g2d, x,y, textArea, this);
+						}
+						t = t.getNextToken();
+					}
+					if (t!=null && t.isPaintable() && t.offset<p) {
+						if (paint) {
+							Token temp = new DefaultToken(t.text,
+									t.textOffset,
+									t.textOffset+p-t.offset-1,
+									t.offset, t.type);
+							temp.paint(g2d, x,y, textArea, this);
+						}
+						t.makeStartAt(p);
+					}
+					// Don't start the continuation of a wrapped line with
+					// whitespace.
+					while (t!=null && t.isPaintable() && t.isWhitespace()) {
+						t = t.getNextToken();
+					}
+				}
+
+				if (paint) {
+					y += lineHeight;
+				}
+				linesOnPage++;
+
+			} while (t!=null && t.isPaintable());
+
+			line++;
+			offs = 0;
+
+		}
+
+		return page==pageIndex ? Printable.PAGE_EXISTS : Printable.NO_SUCH_PAGE;
+
+	}
+
+
+}
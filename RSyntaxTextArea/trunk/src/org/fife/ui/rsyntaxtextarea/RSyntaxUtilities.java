@@ -15,6 +15,7 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.Toolkit;
+import java.util.HashMap;
 import java.util.Map;
 import javax.swing.*;
 import javax.swing.text.BadLocationException;
@@ -87,6 +88,48 @@ public class RSyntaxUtilities implements SwingConstants {
 	 */
 	private static final char[] JS_KEYWORD_RETURN = { 'r', 'e', 't', 'u', 'r', 'n' };
 
+	/**
+	 * The names of the token types defined in {@link TokenTypes}, indexed by
+	 * type.  These are the names used for token types in theme and syntax
+	 * scheme XML files.
+	 */
+	private static final String[] TOKEN_TYPE_NAMES = {
+		"NULL",
+		"COMMENT_EOL", "COMMENT_MULTILINE", "COMMENT_DOCUMENTATION",
+		"COMMENT_KEYWORD", "COMMENT_MARKUP",
+		"RESERVED_WORD", "RESERVED_WORD_2",
+		"FUNCTION",
+		"LITERAL_BOOLEAN", "LITERAL_NUMBER_DECIMAL_INT",
+		"LITERAL_NUMBER_FLOAT", "LITERAL_NUMBER_HEXADECIMAL",
+		"LITERAL_STRING_DOUBLE_QUOTE", "LITERAL_CHAR", "LITERAL_BACKQUOTE",
+		"DATA_TYPE",
+		"VARIABLE",
+		"REGEX",
+		"ANNOTATION",
+		"IDENTIFIER",
+		"WHITESPACE",
+		"SEPARATOR",
+		"OPERATOR",
+		"PREPROCESSOR",
+		"MARKUP_TAG_DELIMITER", "MARKUP_TAG_NAME", "MARKUP_TAG_ATTRIBUTE",
+		"MARKUP_TAG_ATTRIBUTE_VALUE", "MARKUP_PROCESSING_INSTRUCTION",
+		"MARKUP_CDATA",
+		"ERROR_IDENTIFIER", "ERROR_NUMBER_FORMAT", "ERROR_STRING_DOUBLE",
+		"ERROR_CHAR"
+	};
+
+	/**
+	 * Maps token type names to their values (as <code>Integer</code>s).
+	 */
+	private static final Map TOKEN_TYPES_BY_NAME;
+
+	static {
+		TOKEN_TYPES_BY_NAME = new HashMap();
+		for (int i=0; i<TOKEN_TYPE_NAMES.length; i++) {
+			TOKEN_TYPES_BY_NAME.put(TOKEN_TYPE_NAMES[i], new Integer(i));
+		}
+	}
+
 
 	/**
 	 * Returns a string with characters that are special to HTML (such as
@@ -765,6 +808,37 @@ return c.getLineStartOffset(line);
 	}
 
 
+	/**
+	 * Returns the token type with the specified name.  Names are the same
+	 * as the names of the constants in {@link TokenTypes}, e.g.
+	 * <code>"RESERVED_WORD"</code>.  This is used when loading themes and
+	 * syntax schemes, and avoids looking up the constants via reflection.
+	 *
+	 * @param name The name of the token type.
+	 * @return The token type, or <code>-1</code> if the name is not a known
+	 *         token type.
+	 * @see #getTokenTypeName(int)
+	 */
+	public static final int getTokenTypeForName(String name) {
+		Integer type = (Integer)TOKEN_TYPES_BY_NAME.get(name);
+		return type!=null ? type.intValue() : -1;
+	}
+
+
+	/**
+	 * Returns the name of a token type, as used in theme and syntax scheme
+	 * XML files.
+	 *
+	 * @param type The token type.  This should be in the range
+	 *        <code>0</code> to <code>TokenTypes.NUM_TOKEN_TYPES-1</code>.
+	 * @return The name of the token type.
+	 * @see #getTokenTypeForName(String)
+	 */
+	public static final String getTokenTypeName(int type) {
+		return TOKEN_TYPE_NAMES[type];
+	}
+
+
 	/**
 	 * Returns the end of the word at the given offset.
 	 *
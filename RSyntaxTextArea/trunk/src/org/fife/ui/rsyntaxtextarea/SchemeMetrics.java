@@ -0,0 +1,315 @@
+/*
+ * 10/19/2026
+ *
+ * SchemeMetrics.java - Font metrics for each token type in a syntax scheme.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.rsyntaxtextarea;
+
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ * The font metrics for each token type in a {@link SyntaxScheme}, for a
+ * given default font and set of rendering hints.<p>
+ *
+ * Besides a <code>FontMetrics</code> per token type, this class keeps a
+ * table of the widths of the ASCII characters in each font, so the width of
+ * a run of ASCII text is a simple sum of table entries.  The table is only
+ * used when it gives exactly the same results as
+ * <code>FontMetrics.charsWidth()</code>, i.e. when fractional font metrics
+ * are off and the font has no kerning or ligatures.<p>
+ *
+ * If all printable ASCII characters in a token type's font have the same
+ * width, that font is treated as monospaced, and the positions of such
+ * characters are computed as column times advance (see
+ * {@link #getCharAdvance(int)}).  Any other characters (e.g. CJK, which is
+ * often double-width even in "monospaced" fonts) are still measured by the
+ * font's <code>FontMetrics</code>.<p>
+ *
+ * Instances of this class are immutable.  Those created for shared syntax
+ * schemes (see {@link SyntaxScheme#intern(SyntaxScheme)}) are cached, so all
+ * text areas displaying the same scheme with the same font and rendering
+ * hints share a single instance.
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+class SchemeMetrics {
+
+	/**
+	 * The font metrics for each token type.
+	 */
+	private FontMetrics[] fontMetrics;
+
+	/**
+	 * The widths of the ASCII characters for each token type.  An entry is
+	 * <code>null</code> if widths for that token type must be computed by
+	 * its <code>FontMetrics</code>.
+	 */
+	private int[][] charWidths;
+
+	/**
+	 * The width of every printable ASCII character for each token type, or
+	 * <code>-1</code> if the token type's font isn't monospaced.
+	 */
+	private int[] charAdvances;
+
+	/**
+	 * The font metrics for the text area's default font.  This is used to
+	 * identify the font and rendering hints these metrics were created for.
+	 */
+	private FontMetrics defaultFontMetrics;
+
+	/**
+	 * Maps shared syntax schemes to lists of metrics created for them.
+	 */
+	private static final Map CACHE = new WeakHashMap();
+
+	/**
+	 * The maximum number of metrics cached per syntax scheme.  Usually all
+	 * text areas in an application use the same rendering hints, so there is
+	 * only one.
+	 */
+	private static final int MAX_CACHED_PER_SCHEME	= 4;
+
+	/**
+	 * The number of characters whose widths are kept in a table.
+	 */
+	private static final int TABLE_SIZE				= 128;
+
+
+	/**
+	 * Constructor.
+	 *
+	 * @param scheme The syntax scheme.
+	 * @param defaultFontMetrics The metrics for token types that don't
+	 *        specify a font.
+	 * @param g2d The graphics context to get font metrics from, or
+	 *        <code>null</code> to use <code>c</code>.
+	 * @param c The component to get font metrics from if <code>g2d</code>
+	 *        is <code>null</code>.
+	 */
+	private SchemeMetrics(SyntaxScheme scheme, FontMetrics defaultFontMetrics,
+						Graphics2D g2d, Component c) {
+
+		this.defaultFontMetrics = defaultFontMetrics;
+		int count = scheme.getStyleCount();
+		fontMetrics = new FontMetrics[count];
+		charWidths = new int[count][];
+		charAdvances = new int[count];
+
+		boolean fractional = g2d!=null &&
+			RenderingHints.VALUE_FRACTIONALMETRICS_ON.equals(
+				g2d.getRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS));
+
+		// Many token types share a font, so share their width tables too.
+		Map widthsByMetrics = new HashMap();
+
+		for (int i=0; i<count; i++) {
+			Style style = scheme.getStyle(i);
+			FontMetrics fm = defaultFontMetrics;
+			if (style!=null && style.font!=null) {
+				fm = getFontMetrics(style.font, g2d, c);
+			}
+			fontMetrics[i] = fm;
+			if (!fractional) {
+				if (widthsByMetrics.containsKey(fm)) {
+					charWidths[i] = (int[])widthsByMetrics.get(fm);
+				}
+				else {
+					charWidths[i] = createCharWidths(fm);
+					widthsByMetrics.put(fm, charWidths[i]);
+				}
+			}
+			charAdvances[i] = getCharAdvance(charWidths[i]);
+		}
+
+	}
+
+
+	/**
+	 * Returns the width of a run of characters.
+	 *
+	 * @param type The token type of the characters.
+	 * @param text The text.
+	 * @param off The offset of the run in <code>text</code>.
+	 * @param len The number of characters in the run.
+	 * @return The width of the characters.
+	 */
+	public int charsWidth(int type, char[] text, int off, int len) {
+		int[] widths = charWidths[type];
+		if (widths!=null) {
+			int width = 0;
+			int end = off + len;
+			for (int i=off; i<end; i++) {
+				char ch = text[i];
+				if (ch>=TABLE_SIZE) {
+					return fontMetrics[type].charsWidth(text, off, len);
+				}
+				width += widths[ch];
+			}
+			return width;
+		}
+		return fontMetrics[type].charsWidth(text, off, len);
+	}
+
+
+	/**
+	 * Returns a table of the widths of the ASCII characters in a font.
+	 *
+	 * @param fm The font metrics.
+	 * @return The table, or <code>null</code> if summing the widths of
+	 *         individual characters doesn't give the same result as
+	 *         <code>fm.charsWidth()</code>.
+	 */
+	private static final int[] createCharWidths(FontMetrics fm) {
+		int[] widths = new int[TABLE_SIZE];
+		char[] chars = new char[TABLE_SIZE];
+		int sum = 0;
+		for (int i=0; i<TABLE_SIZE; i++) {
+			chars[i] = (char)i;
+			widths[i] = fm.charWidth(chars[i]);
+			sum += widths[i];
+		}
+		return fm.charsWidth(chars, 0, TABLE_SIZE)==sum ? widths : null;
+	}
+
+
+	/**
+	 * Returns the metrics for a syntax scheme.  If the scheme is shared, a
+	 * cached instance is returned if possible.
+	 *
+	 * @param scheme The syntax scheme.
+	 * @param defaultFont The font for token types that don't specify one.
+	 * @param g2d The graphics context to get font metrics from.  Any
+	 *        rendering hints should already be applied to it.  This may be
+	 *        <code>null</code> if the text area isn't displayable yet, in
+	 *        which case <code>c</code> is used.
+	 * @param c The component to get font metrics from if <code>g2d</code>
+	 *        is <code>null</code>.
+	 * @return The metrics.
+	 */
+	public static SchemeMetrics get(SyntaxScheme scheme, Font defaultFont,
+									Graphics2D g2d, Component c) {
+
+		FontMetrics defaultFM = getFontMetrics(defaultFont, g2d, c);
+		if (!scheme.shared) {
+			return new SchemeMetrics(scheme, defaultFM, g2d, c);
+		}
+
+		synchronized (CACHE) {
+			List list = (List)CACHE.get(scheme);
+			if (list==null) {
+				list = new ArrayList(1);
+				CACHE.put(scheme, list);
+			}
+			// Font metrics are equal only if their fonts and font render
+			// contexts are.
+			for (int i=0; i<list.size(); i++) {
+				SchemeMetrics metrics = (SchemeMetrics)list.get(i);
+				if (metrics.defaultFontMetrics.equals(defaultFM)) {
+					return metrics;
+				}
+			}
+			SchemeMetrics metrics = new SchemeMetrics(scheme, defaultFM,
+													g2d, c);
+			if (list.size()==MAX_CACHED_PER_SCHEME) {
+				list.remove(0);
+			}
+			list.add(metrics);
+			return metrics;
+		}
+
+	}
+
+
+	/**
+	 * Returns the width of every printable ASCII character for a token type,
+	 * if they all have the same width.
+	 *
+	 * @param type The token type.
+	 * @return The width of each printable ASCII character, or
+	 *         <code>-1</code> if the token type's font isn't monospaced (or
+	 *         if its widths can't be summed; see the class description).
+	 * @see #isMonospacedChar(char)
+	 */
+	public int getCharAdvance(int type) {
+		return charAdvances[type];
+	}
+
+
+	/**
+	 * Returns the width of every printable ASCII character in a width
+	 * table, if they are all the same.
+	 *
+	 * @param widths The width table.  This may be <code>null</code>.
+	 * @return The width of each printable ASCII character, or
+	 *         <code>-1</code> if they differ or <code>widths</code> is
+	 *         <code>null</code>.
+	 */
+	private static final int getCharAdvance(int[] widths) {
+		if (widths==null) {
+			return -1;
+		}
+		int advance = widths[' '];
+		for (int i=' '+1; i<TABLE_SIZE-1; i++) {
+			if (widths[i]!=advance) {
+				return -1;
+			}
+		}
+		return advance>0 ? advance : -1;
+	}
+
+
+	/**
+	 * Returns the font metrics for a font.
+	 *
+	 * @param font The font.
+	 * @param g2d The graphics context to get the metrics from, or
+	 *        <code>null</code> to use <code>c</code>.
+	 * @param c The component to get font metrics from if <code>g2d</code>
+	 *        is <code>null</code>.
+	 * @return The font metrics.
+	 */
+	private static final FontMetrics getFontMetrics(Font font, Graphics2D g2d,
+												Component c) {
+		return g2d!=null ? g2d.getFontMetrics(font) : c.getFontMetrics(font);
+	}
+
+
+	/**
+	 * Returns the font metrics for a token type.
+	 *
+	 * @param type The token type.
+	 * @return The font metrics.
+	 */
+	public FontMetrics getFontMetrics(int type) {
+		return fontMetrics[type];
+	}
+
+
+	/**
+	 * Returns whether a character is one whose width is given by
+	 * {@link #getCharAdvance(int)}, i.e. a printable ASCII character.
+	 *
+	 * @param ch The character.
+	 * @return Whether the character is a printable ASCII character.
+	 */
+	public static final boolean isMonospacedChar(char ch) {
+		return ch>=' ' && ch<TABLE_SIZE-1;
+	}
+
+
+}
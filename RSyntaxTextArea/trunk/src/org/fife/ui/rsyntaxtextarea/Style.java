@@ -11,8 +11,6 @@ package org.fife.ui.rsyntaxtextarea;
 
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.FontMetrics;
-import javax.swing.JPanel;
 
 
 /**
@@ -41,8 +39,6 @@ public class Style implements Cloneable {
 	public boolean underline;
 	public Font font;
 
-	FontMetrics fontMetrics;
-
 
 	/**
 	 * Creates a new style defaulting to black foreground, no
@@ -99,8 +95,6 @@ public class Style implements Cloneable {
 		background = bg;
 		this.font = font;
 		this.underline = underline;
-		this.fontMetrics = font==null ? null :
-			new JPanel().getFontMetrics(font); // Default, no rendering hints!
 	}
 
 
@@ -130,7 +124,6 @@ public class Style implements Cloneable {
 		clone.background = background;
 		clone.font = font;
 		clone.underline = underline;
-		clone.fontMetrics = fontMetrics;
 		return clone;
 	}
 
@@ -148,8 +141,7 @@ public class Style implements Cloneable {
 			if (this.underline==ss2.underline &&
 				areEqual(foreground, ss2.foreground) &&
 				areEqual(background, ss2.background) &&
-				areEqual(font, ss2.font) &&
-				areEqual(fontMetrics, ss2.fontMetrics))
+				areEqual(font, ss2.font))
 					return true;
 		}
 		return false;
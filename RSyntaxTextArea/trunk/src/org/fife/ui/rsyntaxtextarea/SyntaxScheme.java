@@ -11,10 +11,11 @@ package org.fife.ui.rsyntaxtextarea;
 
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.Graphics2D;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Field;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
 import javax.swing.text.StyleContext;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
@@ -38,6 +39,21 @@ public class SyntaxScheme implements Cloneable, TokenTypes {
 
 	private Style[] styles;
 
+	/**
+	 * Whether this scheme may be in use by more than one text area at a
+	 * time, for example because it belongs to a {@link Theme} or was
+	 * returned by {@link #intern(SyntaxScheme)}.  Shared schemes must not
+	 * be modified; a text area copies a shared scheme before changing it
+	 * itself (e.g. when its font changes), so other text areas aren't
+	 * affected.
+	 */
+	boolean shared;
+
+	/**
+	 * Maps interned schemes to weak references to themselves.
+	 */
+	private static final Map INTERNED = new WeakHashMap();
+
 	private static final String VERSION			= "*ver1";
 
 
@@ -124,6 +140,7 @@ public class SyntaxScheme implements Cloneable, TokenTypes {
 			cnse.printStackTrace();
 			return null;
 		}
+		shcs.shared = false;
 		shcs.styles = new Style[NUM_TOKEN_TYPES];
 		for (int i=0; i<NUM_TOKEN_TYPES; i++) {
 			Style s = styles[i];
@@ -227,6 +244,34 @@ public class SyntaxScheme implements Cloneable, TokenTypes {
 	}
 
 
+	/**
+	 * Returns a shared scheme equal to the one specified.  If no such
+	 * scheme has been interned yet, <code>scheme</code> itself is marked
+	 * shared and returned.  This allows any number of text areas using the
+	 * same colors and fonts to share a single scheme, along with the font
+	 * metrics computed for it (see {@link SchemeMetrics}).<p>
+	 *
+	 * The caller must not modify <code>scheme</code> after calling this
+	 * method.
+	 *
+	 * @param scheme The scheme to intern.
+	 * @return The shared scheme.
+	 */
+	static SyntaxScheme intern(SyntaxScheme scheme) {
+		synchronized (INTERNED) {
+			WeakReference ref = (WeakReference)INTERNED.get(scheme);
+			SyntaxScheme interned = ref==null ? null :
+											(SyntaxScheme)ref.get();
+			if (interned==null) {
+				interned = scheme;
+				interned.shared = true;
+				INTERNED.put(interned, new WeakReference(interned));
+			}
+			return interned;
+		}
+	}
+
+
 	/**
 	 * Loads a syntax scheme from an input stream.
 	 *
@@ -326,18 +371,6 @@ public class SyntaxScheme implements Cloneable, TokenTypes {
 	}
 
 
-	void refreshFontMetrics(Graphics2D g2d) {
-		// It is assumed that any rendering hints are already applied to g2d.
-		for (int i=0; i<styles.length; i++) {
-			Style s = styles[i];
-			if (s!=null) {
-				s.fontMetrics = s.font==null ? null :
-								g2d.getFontMetrics(s.font);
-			}
-		}
-	}
-
-
 	/**
 	 * Restores all colors and fonts to their default values.
 	 *
@@ -584,28 +617,11 @@ public class SyntaxScheme implements Cloneable, TokenTypes {
 			if ("style".equals(qName)) {
 
 				String type = attrs.getValue("token");
-				Field field = null;
-				try {
-					field = Token.class.getField(type);
-				} catch (RuntimeException re) {
-					throw re; // FindBugs
-				} catch (Exception e) {
+				int index = RSyntaxUtilities.getTokenTypeForName(type);
+				if (index==-1) {
 					System.err.println("Invalid token type: " + type);
-					return;
 				}
-
-				if (field.getType()==int.class) {
-
-					int index = 0;
-					try {
-						index = field.getInt(scheme);
-					} catch (IllegalArgumentException e) {
-						e.printStackTrace();
-						return;
-					} catch (IllegalAccessException e) {
-						e.printStackTrace();
-						return;
-					}
+				else {
 
 					String fgStr = attrs.getValue("fg");
 					if (fgStr!=null) {
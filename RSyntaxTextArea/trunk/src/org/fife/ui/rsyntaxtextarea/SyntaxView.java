@@ -10,6 +10,8 @@
 package org.fife.ui.rsyntaxtextarea;
 
 import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
 import javax.swing.event.*;
 import javax.swing.text.*;
 
@@ -72,6 +74,18 @@ public class SyntaxView extends View implements TabExpander,
 	private int clipStart;
 	private int clipEnd;
 
+	/**
+	 * Maps lines longer than {@link LongLineIndex#LONG_LINE_LENGTH} to their
+	 * cached tokens and x-offsets.  This is cleared whenever the document
+	 * changes.
+	 */
+	private Map longLineIndices;
+
+	/**
+	 * The maximum number of long lines whose indices are kept.
+	 */
+	private static final int MAX_LONG_LINE_INDICES	= 16;
+
 //	/**
 //	 * The end-of-line marker.
 //	 */
@@ -85,6 +99,7 @@ public class SyntaxView extends View implements TabExpander,
 	 */
 	public SyntaxView(Element elem) {
 		super(elem);
+		longLineIndices = new HashMap();
 	}
 
 
@@ -187,6 +202,38 @@ public class SyntaxView extends View implements TabExpander,
 	}
 
 
+	/**
+	 * Draws the visible part of a very long line, starting from the
+	 * checkpoint in its index nearest to the clip's left edge.
+	 *
+	 * @param index The index of the line.
+	 * @param g The graphics context in which to draw.
+	 * @param x The x-coordinate at which the line starts.
+	 * @param y The y-coordinate at which to draw.
+	 * @return The x-coordinate representing the end of the painted text.
+	 * @see #drawLine(Token, Graphics2D, float, float)
+	 */
+	private float drawLongLine(LongLineIndex index, Graphics2D g,
+								float x, float y) {
+
+		int first = index.getCheckpointForX(clipStart - x);
+		int last = index.getCheckpointForX(clipEnd - x);
+		Token token = index.getTokenList((RSyntaxDocument)getDocument(),
+										first, last);
+		if (last<index.getCheckpointCount()-1) {
+			// The end of the line isn't visible, so skip the EOL marker.
+			float nextX = x + index.getCheckpointX(first);
+			while (token!=null && nextX<clipEnd) {
+				nextX = token.paint(g, nextX,y, host, this, clipStart);
+				token = token.getNextToken();
+			}
+			return nextX;
+		}
+		return drawLine(token, g, x+index.getCheckpointX(first), y);
+
+	}
+
+
 	/**
 	 * Calculates the width of the line represented by the given element.
 	 *
@@ -195,6 +242,10 @@ public class SyntaxView extends View implements TabExpander,
 	 * @return The width of the line.
 	 */
 	private float getLineWidth(int lineNumber) {
+		LongLineIndex index = getLongLineIndex(lineNumber);
+		if (index!=null) {
+			return index.getWidth();
+		}
 		Token tokenList = ((RSyntaxDocument)getDocument()).
 									getTokenListForLine(lineNumber);
 		return RSyntaxUtilities.getTokenListWidth(tokenList,
@@ -203,6 +254,36 @@ public class SyntaxView extends View implements TabExpander,
 	}
 
 
+	/**
+	 * Returns the index of cached tokens and x-offsets for a line, if it is
+	 * long enough to have one.  The index is created if necessary.
+	 *
+	 * @param line The line.
+	 * @return The index, or <code>null</code> if the line is not longer than
+	 *         {@link LongLineIndex#LONG_LINE_LENGTH}.
+	 */
+	private LongLineIndex getLongLineIndex(int line) {
+
+		Element elem = getElement().getElement(line);
+		if (elem.getEndOffset()-elem.getStartOffset() <=
+				LongLineIndex.LONG_LINE_LENGTH) {
+			return null;
+		}
+
+		RSyntaxTextArea textArea = (RSyntaxTextArea)getContainer();
+		LongLineIndex index = (LongLineIndex)longLineIndices.get(elem);
+		if (index==null || !index.isValid(elem, textArea, tabSize)) {
+			if (longLineIndices.size()==MAX_LONG_LINE_INDICES) {
+				longLineIndices.clear();
+			}
+			index = new LongLineIndex(textArea, this, tabSize, tabBase, line);
+			longLineIndices.put(elem, index);
+		}
+		return index;
+
+	}
+
+
 	/**
 	 * Provides a way to determine the next visually represented model 
 	 * location that one might place a caret.  Some views may not be visible,
@@ -410,9 +491,21 @@ if (host.isCodeFoldingEnabled()) {
 		Element map = getElement();
 		RSyntaxDocument doc = (RSyntaxDocument)getDocument();
 		int lineIndex = map.getElementIndex(pos);
-		Token tokenList = doc.getTokenListForLine(lineIndex);
 		Rectangle lineArea = lineToRect(a, lineIndex);
 		tabBase = lineArea.x; // Used by listOffsetToView().
+		int x0 = tabBase;
+
+		Token tokenList = null;
+		LongLineIndex index = getLongLineIndex(lineIndex);
+		if (index!=null) {
+			// Only measure the tokens after the nearest checkpoint.
+			int checkpoint = index.getCheckpointForOffset(pos);
+			tokenList = index.getTokenList(doc, checkpoint, checkpoint);
+			x0 += (int)index.getCheckpointX(checkpoint);
+		}
+		if (tokenList==null) {
+			tokenList = doc.getTokenListForLine(lineIndex);
+		}
 
 		//int x = (int)RSyntaxUtilities.getTokenListWidthUpTo(tokenList,
 		//							(RSyntaxTextArea)getContainer(),
@@ -421,7 +514,7 @@ if (host.isCodeFoldingEnabled()) {
 		// not just the x-coordinate.
 		lineArea = tokenList.listOffsetToView(
 						(RSyntaxTextArea)getContainer(), this, pos,
-						tabBase, lineArea);
+						x0, lineArea);
 
 		return lineArea;
 
@@ -589,8 +682,14 @@ if (host.isCodeFoldingEnabled()) {
 								a, host, this);
 	
 			// Paint a line of text.
-			token = document.getTokenListForLine(line);
-			drawLine(token, g2d, x,y);
+			LongLineIndex index = getLongLineIndex(line);
+			if (index!=null) {
+				drawLongLine(index, g2d, x,y);
+			}
+			else {
+				token = document.getTokenListForLine(line);
+				drawLine(token, g2d, x,y);
+			}
 
 			if (fold!=null && fold.isCollapsed()) {
 
@@ -677,6 +776,8 @@ if (host.isCodeFoldingEnabled()) {
 	 */
 	protected void updateDamage(DocumentEvent changes, Shape a, ViewFactory f) {
 		Component host = getContainer();
+		// Any change may affect the text or highlighting of a long line.
+		longLineIndices.clear();
 		updateMetrics();
 		Element elem = getElement();
 		DocumentEvent.ElementChange ec = changes.getChange(elem);
@@ -820,11 +921,24 @@ lineIndex += fm.getHiddenLineCountAbove(lineIndex, true);
 			else {
 				// Determine the offset into the text
 				int p0 = line.getStartOffset();
-				Token tokenList = doc.getTokenListForLine(lineIndex);
 				tabBase = alloc.x;
+				float x0 = tabBase;
+				Token tokenList = null;
+				LongLineIndex index = getLongLineIndex(lineIndex);
+				if (index!=null) {
+					// Only search the tokens between the checkpoints
+					// surrounding x.
+					int checkpoint = index.getCheckpointForX(x - x0);
+					tokenList = index.getTokenList(doc, checkpoint,
+													checkpoint);
+					x0 += index.getCheckpointX(checkpoint);
+				}
+				if (tokenList==null) {
+					tokenList = doc.getTokenListForLine(lineIndex);
+				}
 				int offs = tokenList.getListOffset(
 									(RSyntaxTextArea)getContainer(),
-									this, tabBase, x);
+									this, x0, x);
 				return offs!=-1 ? offs : p0;
 			}
 
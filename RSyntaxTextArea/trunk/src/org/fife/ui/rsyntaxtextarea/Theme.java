@@ -12,11 +12,17 @@ import java.awt.Color;
 import java.awt.Font;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
-import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.SAXParser;
@@ -54,7 +60,16 @@ import org.fife.ui.rtextarea.Gutter;
  * Note that to save a <code>Theme</code> via {@link #save(OutputStream)},
  * you must currently create a <code>Theme</code> from a text area wrapped in
  * an <code>RTextScrollPane</code>, so that the color information for the
- * gutter can be retrieved.
+ * gutter can be retrieved.<p>
+ *
+ * Themes are immutable once created.  Applying a theme to several text areas
+ * via {@link #apply(RSyntaxTextArea)} makes them all share the theme's
+ * <code>SyntaxScheme</code> (and thus its <code>Style</code>s and
+ * <code>Font</code>s), rather than each getting its own copy.  Themes loaded
+ * via {@link #load(URL)} are cached, so applying the same theme file to many
+ * editors only parses it once.  Themes can also be saved in a compact binary
+ * format via {@link #saveBinary(OutputStream)}; {@link #load(InputStream)}
+ * reads either format.
  *
  * @author Robert Futrell
  * @version 1.0
@@ -86,6 +101,22 @@ public class Theme {
 	private Color foldIndicatorFG;
 	private Color foldBG;
 
+	/**
+	 * Themes loaded via {@link #load(URL)}, keyed by the URL's external form.
+	 */
+	private static final Map CACHE = new HashMap();
+
+	/**
+	 * The first bytes of a theme saved via {@link #saveBinary(OutputStream)}
+	 * ("RSTH").  This can't be the start of a valid XML theme.
+	 */
+	private static final int BINARY_MAGIC		= 0x52535448;
+
+	/**
+	 * The version of the binary theme format.
+	 */
+	private static final int BINARY_VERSION		= 1;
+
 
 	/**
 	 * Private constructor, used when loading from a stream.
@@ -118,7 +149,7 @@ public class Theme {
 		matchedBracketAnimate = textArea.getAnimateBracketMatching();
 		hyperlinkFG = textArea.getHyperlinkForeground();
 
-		scheme = textArea.getSyntaxScheme();
+		scheme = textArea.getSyntaxSchemeNoCopy();
 
 		Gutter gutter = RSyntaxUtilities.getGutter(textArea);
 		if (gutter!=null) {
@@ -135,7 +166,9 @@ public class Theme {
 
 
 	/**
-	 * Applies this theme to a text area.
+	 * Applies this theme to a text area.  The text area will share this
+	 * theme's syntax scheme with any other text areas it has been applied
+	 * to.
 	 *
 	 * @param textArea The text area to apply this theme to.
 	 */
@@ -157,6 +190,10 @@ public class Theme {
 		textArea.setAnimateBracketMatching(matchedBracketAnimate);
 		textArea.setHyperlinkForeground(hyperlinkFG);
 
+		// Share our scheme (and its styles and fonts) with all text areas
+		// this theme is applied to.  They'll copy it if they need to change
+		// it themselves.
+		scheme.shared = true;
 		textArea.setSyntaxScheme(scheme);
 
 		Gutter gutter = RSyntaxUtilities.getGutter(textArea);
@@ -177,6 +214,16 @@ public class Theme {
 	}
 
 
+	/**
+	 * Discards all themes cached by {@link #load(URL)}.
+	 */
+	public static void clearCache() {
+		synchronized (CACHE) {
+			CACHE.clear();
+		}
+	}
+
+
 	private static final String colorToString(Color c) {
 		int color = c.getRGB() & 0xffffff;
 		String str = Integer.toHexString(color);
@@ -188,13 +235,57 @@ public class Theme {
 
 
 	/**
-	 * Loads a theme.
+	 * Returns the time the resource at a URL was last modified, if it is a
+	 * local file.
+	 *
+	 * @param url The URL.
+	 * @return The last modified time, or <code>0</code> if it isn't known.
+	 */
+	private static final long getLastModified(URL url) {
+		if ("file".equals(url.getProtocol())) {
+			try {
+				return new File(new URI(url.toExternalForm())).lastModified();
+			} catch (Exception e) { // URISyntaxException, IAE
+				// Fall through
+			}
+		}
+		return 0;
+	}
+
+
+	/**
+	 * Returns a font equal to the specified one, reusing an instance from
+	 * <code>fonts</code> if possible.  This lets all styles in a theme using
+	 * the same font share a single <code>Font</code> instance.
+	 *
+	 * @param fonts The fonts created so far.
+	 * @param font The font.  This may be <code>null</code>.
+	 * @return The shared font instance.
+	 */
+	private static final Font internFont(Map fonts, Font font) {
+		if (font==null) {
+			return null;
+		}
+		Font existing = (Font)fonts.get(font);
+		if (existing==null) {
+			fonts.put(font, font);
+			existing = font;
+		}
+		return existing;
+	}
+
+
+	/**
+	 * Loads a theme.  The stream may contain either an XML theme or one
+	 * saved in binary format via {@link #saveBinary(OutputStream)}.
 	 *
 	 * @param in The input stream to read from.  This will be closed when this
 	 *        method returns.
 	 * @return The theme.
 	 * @throws IOException If an IO error occurs.
+	 * @see #load(URL)
 	 * @see #save(OutputStream)
+	 * @see #saveBinary(OutputStream)
 	 */
 	public static Theme load(InputStream in) throws IOException {
 
@@ -202,7 +293,21 @@ public class Theme {
 
 		BufferedInputStream bin = new BufferedInputStream(in);
 		try {
-			XmlHandler.load(theme, bin);
+			bin.mark(4);
+			DataInputStream din = new DataInputStream(bin);
+			int magic = 0;
+			try {
+				magic = din.readInt();
+			} catch (IOException ioe) { // EOFException - not a binary theme
+				// Fall through
+			}
+			if (magic==BINARY_MAGIC) {
+				loadBinary(theme, din);
+			}
+			else {
+				bin.reset();
+				XmlHandler.load(theme, bin);
+			}
 		} finally {
 			bin.close();
 		}
@@ -212,6 +317,137 @@ public class Theme {
 	}
 
 
+	/**
+	 * Loads a theme, caching it for subsequent calls with the same URL.
+	 * This is useful when applying the same theme to many text areas, as
+	 * the theme is only parsed once.  If the URL points to a local file that
+	 * has been modified since it was cached, it is reloaded.
+	 *
+	 * @param url The URL of the theme, either XML or binary.
+	 * @return The theme.
+	 * @throws IOException If an IO error occurs.
+	 * @see #load(InputStream)
+	 * @see #clearCache()
+	 */
+	public static Theme load(URL url) throws IOException {
+
+		String key = url.toExternalForm();
+		long lastModified = getLastModified(url);
+
+		synchronized (CACHE) {
+			CachedTheme cached = (CachedTheme)CACHE.get(key);
+			if (cached!=null && cached.lastModified==lastModified) {
+				return cached.theme;
+			}
+		}
+
+		Theme theme = load(url.openStream());
+		synchronized (CACHE) {
+			CACHE.put(key, new CachedTheme(theme, lastModified));
+		}
+		return theme;
+
+	}
+
+
+	/**
+	 * Loads the body of a binary theme (everything after the magic number).
+	 *
+	 * @param theme The theme to populate.
+	 * @param in The stream to read from.
+	 * @throws IOException If an IO error occurs, or the data is not a valid
+	 *         binary theme.
+	 * @see #saveBinary(OutputStream)
+	 */
+	private static void loadBinary(Theme theme, DataInputStream in)
+									throws IOException {
+
+		int version = in.readByte();
+		if (version!=BINARY_VERSION) {
+			throw new IOException("Unsupported binary theme version: " +
+									version);
+		}
+
+		Map fonts = new HashMap();
+		theme.baseFont = readFont(in, fonts);
+		theme.bgColor = readColor(in);
+		theme.caretColor = readColor(in);
+		theme.selectionBG = readColor(in);
+		theme.selectionRoundedEdges = in.readBoolean();
+		theme.currentLineHighlight = readColor(in);
+		theme.fadeCurrentLineHighlight = in.readBoolean();
+		theme.marginLineColor = readColor(in);
+		theme.markAllHighlightColor = readColor(in);
+		theme.markOccurrencesColor = readColor(in);
+		theme.markOccurrencesBorder = in.readBoolean();
+		theme.matchedBracketFG = readColor(in);
+		theme.matchedBracketBG = readColor(in);
+		theme.matchedBracketAnimate = in.readBoolean();
+		theme.hyperlinkFG = readColor(in);
+
+		theme.gutterBorderColor = readColor(in);
+		theme.lineNumberColor = readColor(in);
+		theme.lineNumberFont = in.readBoolean() ? in.readUTF() : null;
+		theme.lineNumberFontSize = in.readInt();
+		theme.foldIndicatorFG = readColor(in);
+		theme.foldBG = readColor(in);
+
+		theme.scheme = new SyntaxScheme(false);
+		int styleCount = in.readShort();
+		for (int i=0; i<styleCount; i++) {
+			if (in.readBoolean()) {
+				Color fg = readColor(in);
+				Color bg = readColor(in);
+				Font font = readFont(in, fonts);
+				boolean underline = in.readBoolean();
+				// Ignore styles for token types we don't know about.
+				if (i<theme.scheme.getStyleCount()) {
+					theme.scheme.setStyle(i,
+								new Style(fg, bg, font, underline));
+				}
+			}
+		}
+
+	}
+
+
+	/**
+	 * Reads a color written by {@link #writeColor(DataOutputStream, Color)}.
+	 *
+	 * @param in The stream to read from.
+	 * @return The color, which may be <code>null</code>.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private static final Color readColor(DataInputStream in)
+									throws IOException {
+		return in.readBoolean() ? new Color(in.readInt()) : null;
+	}
+
+
+	/**
+	 * Reads a font written by {@link #writeFont(DataOutputStream, Font)}.
+	 *
+	 * @param in The stream to read from.
+	 * @param fonts Fonts read so far, so equal fonts can share an instance.
+	 * @return The font, which may be <code>null</code>.
+	 * @throws IOException If an IO error occurs.
+	 */
+	private static final Font readFont(DataInputStream in, Map fonts)
+									throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		String family = in.readUTF();
+		int style = in.readByte();
+		float size = in.readFloat();
+		Font font = new Font(family, style, Math.round(size));
+		if (font.getSize2D()!=size) {
+			font = font.deriveFont(size);
+		}
+		return internFont(fonts, font);
+	}
+
+
 	/**
 	 * Saves this theme to an output stream.
 	 *
@@ -302,44 +538,40 @@ public class Theme {
 			root.appendChild(elem);
 
 			elem = doc.createElement("tokenStyles");
-			Field[] fields = TokenTypes.class.getFields();
-			for (int i=0; i<fields.length; i++) {
-				Field field = fields[i];
-				int value = field.getInt(null);
-				if (value!=TokenTypes.NUM_TOKEN_TYPES) {
-					Style style = scheme.getStyle(value);
-					if (style!=null) {
-						Element elem2 = doc.createElement("style");
-						elem2.setAttribute("token", field.getName());
-						Color fg = style.foreground;
-						if (fg!=null) {
-							elem2.setAttribute("fg", colorToString(fg));
+			for (int i=0; i<TokenTypes.NUM_TOKEN_TYPES; i++) {
+				Style style = scheme.getStyle(i);
+				if (style!=null) {
+					Element elem2 = doc.createElement("style");
+					elem2.setAttribute("token",
+							RSyntaxUtilities.getTokenTypeName(i));
+					Color fg = style.foreground;
+					if (fg!=null) {
+						elem2.setAttribute("fg", colorToString(fg));
+					}
+					Color bg = style.background;
+					if (bg!=null) {
+						elem2.setAttribute("bg", colorToString(bg));
+					}
+					Font font = style.font;
+					if (font!=null) {
+						if (!font.getFamily().equals(
+								baseFont.getFamily())) {
+							elem2.setAttribute("fontFamily", font.getFamily());
 						}
-						Color bg = style.background;
-						if (bg!=null) {
-							elem2.setAttribute("bg", colorToString(bg));
+						if (font.getSize()!=baseFont.getSize()) {
+							elem2.setAttribute("fontSize", Integer.toString(font.getSize()));
 						}
-						Font font = style.font;
-						if (font!=null) {
-							if (!font.getFamily().equals(
-									baseFont.getFamily())) {
-								elem2.setAttribute("fontFamily", font.getFamily());
-							}
-							if (font.getSize()!=baseFont.getSize()) {
-								elem2.setAttribute("fontSize", Integer.toString(font.getSize()));
-							}
-							if (font.isBold()) {
-								elem2.setAttribute("bold", "true");
-							}
-							if (font.isItalic()) {
-								elem2.setAttribute("italic", "true");
-							}
+						if (font.isBold()) {
+							elem2.setAttribute("bold", "true");
 						}
-						if (style.underline) {
-							elem2.setAttribute("underline", "true");
+						if (font.isItalic()) {
+							elem2.setAttribute("italic", "true");
 						}
-						elem.appendChild(elem2);
 					}
+					if (style.underline) {
+						elem2.setAttribute("underline", "true");
+					}
+					elem.appendChild(elem2);
 				}
 			}
 			root.appendChild(elem);
@@ -371,6 +603,72 @@ public class Theme {
 	}
 
 
+	/**
+	 * Saves this theme to an output stream in a compact binary format.
+	 * Binary themes load much faster than XML ones, since no XML parsing or
+	 * validation is needed.  They can be loaded via
+	 * {@link #load(InputStream)} or {@link #load(URL)}.
+	 *
+	 * @param out The output stream to write to.  This will be closed when
+	 *        this method returns.
+	 * @throws IOException If an IO error occurs.
+	 * @see #save(OutputStream)
+	 */
+	public void saveBinary(OutputStream out) throws IOException {
+
+		DataOutputStream dout = new DataOutputStream(
+									new BufferedOutputStream(out));
+		try {
+
+			dout.writeInt(BINARY_MAGIC);
+			dout.writeByte(BINARY_VERSION);
+
+			writeFont(dout, baseFont);
+			writeColor(dout, bgColor);
+			writeColor(dout, caretColor);
+			writeColor(dout, selectionBG);
+			dout.writeBoolean(selectionRoundedEdges);
+			writeColor(dout, currentLineHighlight);
+			dout.writeBoolean(fadeCurrentLineHighlight);
+			writeColor(dout, marginLineColor);
+			writeColor(dout, markAllHighlightColor);
+			writeColor(dout, markOccurrencesColor);
+			dout.writeBoolean(markOccurrencesBorder);
+			writeColor(dout, matchedBracketFG);
+			writeColor(dout, matchedBracketBG);
+			dout.writeBoolean(matchedBracketAnimate);
+			writeColor(dout, hyperlinkFG);
+
+			writeColor(dout, gutterBorderColor);
+			writeColor(dout, lineNumberColor);
+			dout.writeBoolean(lineNumberFont!=null);
+			if (lineNumberFont!=null) {
+				dout.writeUTF(lineNumberFont);
+			}
+			dout.writeInt(lineNumberFontSize);
+			writeColor(dout, foldIndicatorFG);
+			writeColor(dout, foldBG);
+
+			int styleCount = scheme.getStyleCount();
+			dout.writeShort(styleCount);
+			for (int i=0; i<styleCount; i++) {
+				Style style = scheme.getStyle(i);
+				dout.writeBoolean(style!=null);
+				if (style!=null) {
+					writeColor(dout, style.foreground);
+					writeColor(dout, style.background);
+					writeFont(dout, style.font);
+					dout.writeBoolean(style.underline);
+				}
+			}
+
+		} finally {
+			dout.close();
+		}
+
+	}
+
+
 	/**
 	 * Returns the color represented by a string.  The input is expected to
 	 * be a 6-digit hex string, optionally prefixed by a '$'.  For example,
@@ -395,6 +693,59 @@ public class Theme {
 	}
 
 
+	/**
+	 * Writes a (possibly <code>null</code>) color in binary format.
+	 *
+	 * @param out The stream to write to.
+	 * @param c The color to write.
+	 * @throws IOException If an IO error occurs.
+	 * @see #readColor(DataInputStream)
+	 */
+	private static final void writeColor(DataOutputStream out, Color c)
+									throws IOException {
+		out.writeBoolean(c!=null);
+		if (c!=null) {
+			out.writeInt(c.getRGB());
+		}
+	}
+
+
+	/**
+	 * Writes a (possibly <code>null</code>) font in binary format.
+	 *
+	 * @param out The stream to write to.
+	 * @param font The font to write.
+	 * @throws IOException If an IO error occurs.
+	 * @see #readFont(DataInputStream, Map)
+	 */
+	private static final void writeFont(DataOutputStream out, Font font)
+									throws IOException {
+		out.writeBoolean(font!=null);
+		if (font!=null) {
+			out.writeUTF(font.getFamily());
+			out.writeByte(font.getStyle());
+			out.writeFloat(font.getSize2D());
+		}
+	}
+
+
+	/**
+	 * A theme loaded via {@link Theme#load(URL)}, along with the last
+	 * modified time of its source when it was loaded.
+	 */
+	private static class CachedTheme {
+
+		private Theme theme;
+		private long lastModified;
+
+		public CachedTheme(Theme theme, long lastModified) {
+			this.theme = theme;
+			this.lastModified = lastModified;
+		}
+
+	}
+
+
 	/**
 	 * Loads a <code>SyntaxScheme</code> from an XML file.
 	 */
@@ -402,6 +753,12 @@ public class Theme {
 
 		private Theme theme;
 
+		/**
+		 * Fonts created so far, so styles using the same font share a
+		 * single instance.
+		 */
+		private Map fonts = new HashMap();
+
 		public void error(SAXParseException e) throws SAXException {
 			throw e;
 		}
@@ -560,28 +917,11 @@ public class Theme {
 			else if ("style".equals(qName)) {
 
 				String type = attrs.getValue("token");
-				Field field = null;
-				try {
-					field = Token.class.getField(type);
-				} catch (RuntimeException re) {
-					throw re; // FindBugs
-				} catch (Exception e) {
+				int index = RSyntaxUtilities.getTokenTypeForName(type);
+				if (index==-1) {
 					System.err.println("Invalid token type: " + type);
-					return;
 				}
-
-				if (field.getType()==int.class) {
-
-					int index = 0;
-					try {
-						index = field.getInt(theme.scheme);
-					} catch (IllegalArgumentException e) {
-						e.printStackTrace();
-						return;
-					} catch (IllegalAccessException e) {
-						e.printStackTrace();
-						return;
-					}
+				else {
 
 					String fgStr = attrs.getValue("fg");
 					Color fg = stringToColor(fgStr);
@@ -630,6 +970,8 @@ public class Theme {
 						theme.scheme.getStyle(index).font =
 							orig.deriveFont(style);
 					}
+					theme.scheme.getStyle(index).font = internFont(fonts,
+									theme.scheme.getStyle(index).font);
 
 					String ulineStr = attrs.getValue("underline");
 					if (ulineStr!=null) {
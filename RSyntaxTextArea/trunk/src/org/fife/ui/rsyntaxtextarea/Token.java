@@ -162,7 +162,7 @@ public abstract class Token implements TokenTypes {
 								RSyntaxTextArea textArea, boolean fontFamily,
 								boolean tabsToSpaces) {
 
-		SyntaxScheme colorScheme = textArea.getSyntaxScheme();
+		SyntaxScheme colorScheme = textArea.getSyntaxSchemeNoCopy();
 		Style scheme = colorScheme.getStyle(type);
 		Font font = textArea.getFontForTokenType(type);//scheme.font;
 
@@ -0,0 +1,149 @@
+/*
+ * 10/19/2026
+ *
+ * CaretNavigationBenchmark.java - Times the model/view conversions done
+ * when moving the caret.
+ *
+ * This library is distributed under a modified BSD license.  See the included
+ * RSyntaxTextArea.License.txt file for details.
+ */
+package org.fife.ui.rsyntaxtextarea;
+
+import java.awt.Font;
+import java.awt.Point;
+import java.awt.Rectangle;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.TabExpander;
+
+
+/**
+ * A microbenchmark for the conversions between model and view coordinates
+ * that happen on every caret movement: <code>modelToView()</code>,
+ * <code>viewToModel()</code>, and moving up and down a line.  It is run
+ * once with a monospaced font (where token widths are computed by column
+ * arithmetic), and once with a proportional font.<p>
+ *
+ * Usage: <code>java org.fife.ui.rsyntaxtextarea.CaretNavigationBenchmark
+ * [lineCount]</code>
+ *
+ * @author Robert Futrell
+ * @version 1.0
+ */
+public class CaretNavigationBenchmark {
+
+	private static final String LINE =
+		"\tpublic static void main(String[] args) { int x = 42; " +
+		"/* comment */ foo.bar(baz, \"string\"); }";
+
+	private static final int ROUNDS = 5;
+
+
+	/**
+	 * Creates a text area sized to show its content, containing Java code.
+	 *
+	 * @param lineCount The number of lines of code.
+	 * @param font The font to use.
+	 * @return The text area.
+	 */
+	private static RSyntaxTextArea createTextArea(int lineCount, Font font) {
+		StringBuffer sb = new StringBuffer();
+		for (int i=0; i<lineCount; i++) {
+			sb.append(LINE).append('\n');
+		}
+		RSyntaxTextArea textArea = new RSyntaxTextArea();
+		textArea.setSyntaxEditingStyle(SyntaxConstants.SYNTAX_STYLE_JAVA);
+		textArea.setFont(font);
+		textArea.setText(sb.toString());
+		textArea.setSize(2000, lineCount*textArea.getLineHeight());
+		return textArea;
+	}
+
+
+	/**
+	 * Runs the benchmark on a text area.
+	 *
+	 * @param textArea The text area.
+	 * @throws BadLocationException Never.
+	 */
+	private static void run(RSyntaxTextArea textArea)
+								throws BadLocationException {
+
+		TabExpander e = (TabExpander)textArea.getUI().getRootView(textArea).
+											getView(0);
+		int length = textArea.getDocument().getLength();
+		int lineCount = textArea.getLineCount();
+		Rectangle r = null;
+		Point p = new Point();
+		int pos = 0;
+
+		for (int round=0; round<ROUNDS; round++) {
+
+			long start = System.currentTimeMillis();
+			for (int offs=0; offs<length; offs++) {
+				r = textArea.modelToView(offs);
+			}
+			long modelToView = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			for (int offs=0; offs<length; offs+=7) {
+				r = textArea.modelToView(offs);
+				p.setLocation(r.x, r.y);
+				pos = textArea.viewToModel(p);
+			}
+			long viewToModel = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			for (int col=0; col<LINE.length(); col+=3) {
+				pos = textArea.getLineStartOffset(lineCount-1) + col;
+				float x = textArea.modelToView(pos).x;
+				while (pos>=LINE.length()) {
+					pos = RSyntaxUtilities.getPositionAbove(textArea, pos, x,
+															e);
+				}
+				while (pos<length-LINE.length()) {
+					pos = RSyntaxUtilities.getPositionBelow(textArea, pos, x,
+															e);
+				}
+			}
+			long upDown = System.currentTimeMillis() - start;
+
+			System.out.println("    Round " + (round+1) + ": modelToView: " +
+					modelToView + " ms, viewToModel: " + viewToModel +
+					" ms, up/down: " + upDown + " ms");
+
+		}
+
+		// Keep the results "used".
+		if (r==null || pos<0) {
+			System.out.println("Unexpected result");
+		}
+
+	}
+
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args The number of lines to test with (optional).
+	 * @throws BadLocationException Never.
+	 */
+	public static void main(String[] args) throws BadLocationException {
+
+		int lineCount = args.length>0 ? Integer.parseInt(args[0]) : 5000;
+
+		RSyntaxTextArea textArea = createTextArea(lineCount,
+								new Font("Monospaced", Font.PLAIN, 13));
+		System.out.println("Monospaced (character advance: " +
+			textArea.getSchemeMetrics().getCharAdvance(Token.IDENTIFIER) +
+			"):");
+		run(textArea);
+
+		textArea = createTextArea(lineCount,
+								new Font("Serif", Font.PLAIN, 13));
+		System.out.println("Proportional:");
+		run(textArea);
+
+	}
+
+
+}